@@ -1,2 +1,4 @@
 rootProject.name = "api"
 
+include("benchmarks")
+project(":benchmarks").projectDir = file("../benchmarks")
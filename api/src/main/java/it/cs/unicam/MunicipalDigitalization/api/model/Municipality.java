@@ -4,9 +4,11 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.*;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+import it.cs.unicam.MunicipalDigitalization.api.util.Spatial.BoundingBox;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.Hibernate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,7 +21,8 @@ import java.util.List;
 @Entity
 @Getter
 @Setter
-@Table(name = "municipality", uniqueConstraints = {@UniqueConstraint(name = "Idintification", columnNames = "id")})
+@Table(name = "municipality", uniqueConstraints = {@UniqueConstraint(name = "Idintification", columnNames = "id")},
+        indexes = {@Index(name = "MunicipalityBoundingBox", columnList = "MinX, MaxX, MinY, MaxY")})
 public class Municipality {
 
     /**
@@ -44,6 +47,38 @@ public class Municipality {
     @Column(name = "coordinate")
     private List<Coordinate> territory;
 
+    /**
+     * The minimum x value of the territory, used to find the municipalities that may overlap.
+     */
+    @Column(name = "MinX")
+    private Double minX;
+
+    /**
+     * The minimum y value of the territory, used to find the municipalities that may overlap.
+     */
+    @Column(name = "MinY")
+    private Double minY;
+
+    /**
+     * The maximum x value of the territory, used to find the municipalities that may overlap.
+     */
+    @Column(name = "MaxX")
+    private Double maxX;
+
+    /**
+     * The maximum y value of the territory, used to find the municipalities that may overlap.
+     */
+    @Column(name = "MaxY")
+    private Double maxY;
+
+    /**
+     * The version of the data of the municipality, increased by every change of its elements or of its users.
+     * It is updated only by the query that increases it, so a municipality saved with an old value does not
+     * overwrite it.
+     */
+    @Column(name = "DataVersion", columnDefinition = "integer not null default 0", insertable = false, updatable = false)
+    private long dataVersion;
+
     /**
      * The list of points of interest in the municipality.
      */
@@ -93,6 +128,20 @@ public class Municipality {
         this.contests = new ArrayList<>();
     }
 
+    /**
+     * This method updates the bounding box of the territory before the municipality is saved.
+     */
+    @PrePersist
+    @PreUpdate
+    public void updateBoundingBox() {
+        if (this.territory == null || this.territory.isEmpty()) return;
+        BoundingBox box = BoundingBox.of(this.territory);
+        this.minX = box.minX();
+        this.minY = box.minY();
+        this.maxX = box.maxX();
+        this.maxY = box.maxY();
+    }
+
     /**
      * This method is used to check if a name is valid for the municipality.
      *
@@ -107,11 +156,13 @@ public class Municipality {
 
     /**
      * This method is used to upload a point of interest to the municipality.
+     * The list is not loaded just to check the POI: if it is not loaded yet, the POI is queued by Hibernate and
+     * added when the list is loaded.
      *
      * @param poi The point of interest to upload.
      */
     public void uploadPOI(AbstractPOI poi) {
-        if (!this.listOfPOIs.contains(poi)) this.listOfPOIs.add(poi);
+        if (!Hibernate.isInitialized(this.listOfPOIs) || !this.listOfPOIs.contains(poi)) this.listOfPOIs.add(poi);
     }
 
 
@@ -26,6 +26,11 @@ import lombok.Setter;
                 )
         }
 )
+@NamedEntityGraph(name = "AbstractContent.withReferences", attributeNodes = {
+        @NamedAttributeNode("author"),
+        @NamedAttributeNode("referredPOI"),
+        @NamedAttributeNode("referredItinerary")
+})
 public abstract class AbstractContent implements IContent {
 
     /**
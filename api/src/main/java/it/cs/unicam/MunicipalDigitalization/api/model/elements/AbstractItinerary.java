@@ -30,8 +30,15 @@ import java.util.Objects;
                         name = "Identification",
                         columnNames = "id"
                 )
+        },
+        indexes = {
+                @Index(
+                        name = "ItineraryMunicipalityStatus",
+                        columnList = "municipality, Status"
+                )
         }
 )
+@NamedEntityGraph(name = "AbstractItinerary.withMunicipality", attributeNodes = @NamedAttributeNode("municipality"))
 public abstract class AbstractItinerary extends AbstractMunicipalElement implements IItinerary {
 
     /**
@@ -7,6 +7,8 @@ import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.id.IncrementGenerator;
 import org.springframework.data.annotation.CreatedDate;
 
 import java.time.LocalDateTime;
@@ -23,11 +25,16 @@ import java.util.List;
 @Setter
 public abstract class AbstractMunicipalElement implements IMunicipalElement {
     /**
-     * The unique identifier of the MunicipalElement.
+     * The unique identifier of the MunicipalElement. The identifier is taken from a counter in memory, started
+     * from the highest saved id, so it is known before the insert and the inserts can be sent in JDBC batches,
+     * which an identity column does not allow. The highest saved id is read only once, so the counter is safe only
+     * while the application runs as a single process and is the only writer of the Database: a second instance, or a
+     * tool that inserts POIs or itineraries in the same file, would generate ids already taken.
      */
     @Getter
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "MunicipalElementIds")
+    @GenericGenerator(name = "MunicipalElementIds", type = IncrementGenerator.class)
     private Long id;
 
     /**
@@ -5,6 +5,7 @@ import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
 import it.cs.unicam.MunicipalDigitalization.api.util.POIType;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -23,7 +24,10 @@ import java.util.Objects;
 @Getter
 @Setter
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
-@Table(name = "Pois", uniqueConstraints = {@UniqueConstraint(name = "Identification", columnNames = "id")})
+@Table(name = "Pois", uniqueConstraints = {@UniqueConstraint(name = "Identification", columnNames = "id")},
+        indexes = {@Index(name = "PoiDuplicateKey", columnList = "DuplicateKey"),
+                @Index(name = "PoiMunicipalityStatus", columnList = "municipality, Status")})
+@NamedEntityGraph(name = "AbstractPOI.withMunicipality", attributeNodes = @NamedAttributeNode("municipality"))
 public abstract class AbstractPOI extends AbstractMunicipalElement implements IPOI {
 
     /**
@@ -46,6 +50,13 @@ public abstract class AbstractPOI extends AbstractMunicipalElement implements IP
     @ManyToMany(mappedBy = "pois")
     private List<AbstractItinerary> itineraryOfPOI;
 
+    /**
+     * The normalized key of the POI, used to find a duplicated POI with a single indexed lookup.
+     * It is built from the name, the type, the municipality and the coordinate of the POI.
+     */
+    @Column(name = "DuplicateKey")
+    private String duplicateKey;
+
     /**
      * The constructor of the Class
      */
@@ -116,4 +127,14 @@ public abstract class AbstractPOI extends AbstractMunicipalElement implements IP
     public void addItinerary(AbstractItinerary id) {
         this.itineraryOfPOI.add(id);
     }
+
+    /**
+     * This method keeps the duplicate key aligned with the name, type, municipality and coordinate of the POI
+     * every time the POI is written to the database.
+     */
+    @PrePersist
+    @PreUpdate
+    private void updateDuplicateKey() {
+        this.duplicateKey = MatchingAlgorithms.poiDuplicateKey(this);
+    }
 }
@@ -6,13 +6,14 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Entity
 @Getter
 @Setter
 @EqualsAndHashCode
+@NamedEntityGraph(name = "Contribution.withContestAndAuthor", attributeNodes = {
+        @NamedAttributeNode("contest"),
+        @NamedAttributeNode("author")
+})
 public class Contribution implements IContribution {
 
     @Id
@@ -35,11 +36,14 @@ public class Contribution implements IContribution {
     @JoinColumn(name = "user_id", nullable = false)
     private AbstractAuthenticatedUser author;
 
-    @ManyToMany(mappedBy = "votedContributions")
-    private List<AbstractAuthenticatedUser> contribution_voters;
+    /**
+     * The number of votes of the contribution. It is updated together with the votes, so the votes are never
+     * loaded to be counted.
+     */
+    @Column(name = "Votes", columnDefinition = "integer not null default 0")
+    private int totalVotes;
 
     public Contribution() {
-        this.contribution_voters = new ArrayList<>();
     }
 
     public Contribution(String title, String description, String contribution, ContributionContest contest,
@@ -49,16 +53,6 @@ public class Contribution implements IContribution {
         this.contribution = contribution;
         this.contest = contest;
         this.author = author;
-        this.contribution_voters = new ArrayList<>();
-    }
-
-    public void addVote(AbstractAuthenticatedUser userById) {
-        if (!this.contribution_voters.contains(userById)) this.contribution_voters.add(userById);
-        else throw new IllegalArgumentException("User already voted");
-    }
-
-    public int getTotalVotes() {
-        return this.contribution_voters.size();
     }
 
     @Override
@@ -23,6 +23,11 @@ import java.util.List;
                         columnNames = "id")
         }
 )
+@NamedEntityGraph(name = "ContributionContest.withAuthor", attributeNodes = @NamedAttributeNode("author"))
+@NamedEntityGraph(name = "ContributionContest.withReferences", attributeNodes = {
+        @NamedAttributeNode("author"),
+        @NamedAttributeNode("municipality")
+})
 public class ContributionContest implements IContributionContest {
 
     @Id
@@ -89,10 +94,11 @@ public class ContributionContest implements IContributionContest {
     private List<AbstractPOI> pois;
 
     /**
-     * The list of participants to the contest.
+     * The number of participants to the contest. It is updated only by the query that saves a participation, so a
+     * contest saved with an old value does not overwrite it.
      */
-    @ManyToMany(mappedBy = "contestsParticipated")
-    private List<AbstractAuthenticatedUser> participants;
+    @Column(name = "Participants", columnDefinition = "integer not null default 0", insertable = false, updatable = false)
+    private int actualNumberOfParticipants;
 
     /**
      * The municipality where the contest is taking place.
@@ -107,6 +113,31 @@ public class ContributionContest implements IContributionContest {
     @Column(name = "CreationDate", nullable = false)
     private LocalDateTime creationDate;
 
+    /**
+     * The date at which the contest starts, if it has enough participants, or null if it is started only by an Animator.
+     */
+    @Column(name = "StartDate")
+    private LocalDateTime startDate;
+
+    /**
+     * The date at which the contest is closed and its winner is chosen, or null if it is never closed.
+     */
+    @Column(name = "EndDate")
+    private LocalDateTime endDate;
+
+    /**
+     * The contribution with the most votes when the contest was closed, or null if no contribution has been voted.
+     */
+    @JoinColumn(name = "Winner")
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Contribution winner;
+
+    /**
+     * The votes of the winner when the contest was closed.
+     */
+    @Column(name = "WinnerVotes")
+    private Integer winnerVotes;
+
 
     /**
      * Constructor for the ContributionContest class used by the Builder.
@@ -136,7 +167,6 @@ public class ContributionContest implements IContributionContest {
         this.creationDate = LocalDateTime.now();
         this.contributions = new ArrayList<>();
         this.contestStatus = ContestStatus.OPEN;
-        this.participants = new ArrayList<>();
     }
 
     public ContributionContest() {
@@ -144,7 +174,6 @@ public class ContributionContest implements IContributionContest {
         this.pois = new ArrayList<>();
         this.creationDate = LocalDateTime.now();
         this.contributions = new ArrayList<>();
-        this.participants = new ArrayList<>();
     }
 
     /**
@@ -168,24 +197,6 @@ public class ContributionContest implements IContributionContest {
 
     }
 
-    /**
-     * Method to add a participant to the contest.
-     *
-     * @param userById The user to be added to the contest.
-     */
-    public void addParticipant(AbstractAuthenticatedUser userById) {
-        this.participants.add(userById);
-    }
-
-    /**
-     * Method to get the actual number of participants to the contest.
-     *
-     * @return The actual number of participants to the contest.
-     */
-    public int getActualNumberOfParticipants() {
-        return this.participants.size();
-    }
-
     /**
      * Method to add a contribution to the contest.
      *
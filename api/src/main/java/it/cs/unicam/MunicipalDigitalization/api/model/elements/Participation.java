@@ -0,0 +1,61 @@
+package it.cs.unicam.MunicipalDigitalization.api.model.elements;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * This class represents the participation of a user to a contest.
+ * The participations are the rows of the join table used by the participants of the contests, identified by the
+ * contest and the user, so checking if a user participates to a contest is a lookup on the primary key and the
+ * participants are never loaded. The SQLite dialect cannot add a unique constraint to an existing table, so the
+ * unique index is created by the ParticipationRepository when the application starts.
+ * The foreign keys are not enforced by SQLite, so the participations of a deleted user or contest are deleted by
+ * their services.
+ */
+@Entity
+@Table(name = "ContestParticipants", indexes = {@Index(name = "ParticipantUser", columnList = "user_id")})
+@IdClass(Participation.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class Participation {
+
+    /**
+     * The contest
+     */
+    @Id
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "contest_id", nullable = false)
+    private ContributionContest contest;
+
+    /**
+     * The user who participates to the contest
+     */
+    @Id
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private AbstractAuthenticatedUser user;
+
+    public Participation(ContributionContest contest, AbstractAuthenticatedUser user) {
+        this.contest = contest;
+        this.user = user;
+    }
+
+    /**
+     * The primary key of a participation
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long contest;
+        private Long user;
+    }
+}
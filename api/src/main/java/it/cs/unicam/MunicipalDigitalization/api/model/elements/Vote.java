@@ -0,0 +1,45 @@
+package it.cs.unicam.MunicipalDigitalization.api.model.elements;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * This class represents the vote of a user to a contribution.
+ * A user can vote a contribution only once: the unique index on the contribution and the voter rejects a second
+ * vote in the database, so two votes sent at the same time can never be both saved. The SQLite dialect cannot add a
+ * unique constraint to a table, so the index is created by the VoteRepository when the application starts.
+ * The foreign keys are not enforced by SQLite, so the votes of a deleted user or contest are deleted by their services.
+ */
+@Entity
+@Table(name = "Votes", indexes = {@Index(name = "VoteVoter", columnList = "voter_id")})
+@Getter
+@Setter
+@NoArgsConstructor
+public class Vote {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The voted contribution
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "contribution_id", nullable = false)
+    private Contribution contribution;
+
+    /**
+     * The user who voted the contribution
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "voter_id", nullable = false)
+    private AbstractAuthenticatedUser voter;
+
+    public Vote(Contribution contribution, AbstractAuthenticatedUser voter) {
+        this.contribution = contribution;
+        this.voter = voter;
+    }
+}
@@ -18,7 +18,9 @@ import java.util.List;
  */
 @Entity
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
-@Table(name = "User", uniqueConstraints = {@UniqueConstraint(name = "Identification", columnNames = "id")})
+@Table(name = "User", uniqueConstraints = {@UniqueConstraint(name = "Identification", columnNames = "id")},
+        indexes = {@Index(name = "UserMunicipality", columnList = "municipality")})
+@NamedEntityGraph(name = "AbstractAuthenticatedUser.withMunicipality", attributeNodes = @NamedAttributeNode("municipality"))
 @Getter
 @Setter
 public abstract class AbstractAuthenticatedUser extends AbstractIUser implements IAuthenticatedUser {
@@ -45,14 +47,6 @@ public abstract class AbstractAuthenticatedUser extends AbstractIUser implements
     @OneToMany(mappedBy = "author")
     private List<Contribution> authoredContributions;
 
-    @ManyToMany
-    @JoinTable(
-            name = "VotedContributions",
-            joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "contribution_id")
-    )
-    private List<Contribution> votedContributions;
-
     /**
      * The list of Itineraries authored by the authenticated user.
      */
@@ -71,14 +65,6 @@ public abstract class AbstractAuthenticatedUser extends AbstractIUser implements
     @JsonManagedReference
     private List<ContributionContest> authoredContests;
 
-    @ManyToMany
-    @JoinTable(
-            name = "ContestParticipants",
-            joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "contest_id")
-    )
-    private List<ContributionContest> contestsParticipated;
-
     /**
      * Constructs a new authenticated user with the given name, password, and municipality.
      *
@@ -95,8 +81,6 @@ public abstract class AbstractAuthenticatedUser extends AbstractIUser implements
         this.authoredContents = new ArrayList<>();
         this.authoredContests = new ArrayList<>();
         this.authoredContributions = new ArrayList<>();
-        this.contestsParticipated = new ArrayList<>();
-        this.votedContributions = new ArrayList<>();
     }
 
     /**
@@ -113,8 +97,6 @@ public abstract class AbstractAuthenticatedUser extends AbstractIUser implements
         this.authoredContents = new ArrayList<>();
         this.authoredContests = new ArrayList<>();
         this.authoredContributions = new ArrayList<>();
-        this.contestsParticipated = new ArrayList<>();
-        this.votedContributions = new ArrayList<>();
     }
 
     /**
@@ -126,8 +108,6 @@ public abstract class AbstractAuthenticatedUser extends AbstractIUser implements
         this.authoredContents = new ArrayList<>();
         this.authoredContests = new ArrayList<>();
         this.authoredContributions = new ArrayList<>();
-        this.contestsParticipated = new ArrayList<>();
-        this.votedContributions = new ArrayList<>();
     }
 
     /**
@@ -188,15 +168,7 @@ public abstract class AbstractAuthenticatedUser extends AbstractIUser implements
         this.authoredContests.add(contributionContest);
     }
 
-    public void addParticipatedContest(ContributionContest contributionContest) {
-        this.contestsParticipated.add(contributionContest);
-    }
-
     public void addContribution(Contribution contribution) {
         this.authoredContributions.add(contribution);
     }
-
-    public void voteContribution(Contribution contribution) {
-        this.votedContributions.add(contribution);
-    }
 }
\ No newline at end of file
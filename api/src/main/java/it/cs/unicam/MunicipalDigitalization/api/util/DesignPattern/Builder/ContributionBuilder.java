@@ -3,9 +3,7 @@ package it.cs.unicam.MunicipalDigitalization.api.util.DesignPattern.Builder;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.Contribution;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
-import org.springframework.stereotype.Component;
 
-@Component
 public class ContributionBuilder implements IContributionBuilder {
     private AbstractAuthenticatedUser author;
     private String contribution;
@@ -7,12 +7,11 @@ import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionConte
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestType;
 import it.cs.unicam.MunicipalDigitalization.api.util.InvitationType;
-import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
-@Component
 public class ContributionContestBuilder implements IContributionContestBuilder {
     private String title;
     private String description;
@@ -23,6 +22,8 @@ public class ContributionContestBuilder implements IContributionContestBuilder {
     private ContestType contestType;
     private List<AbstractPOI> pois;
     private List<AbstractItinerary> itineraries;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
 
     public ContributionContestBuilder() {
         this.pois = new ArrayList<>();
@@ -74,9 +75,22 @@ public class ContributionContestBuilder implements IContributionContestBuilder {
         this.itineraries.addAll(itineraries);
     }
 
+    @Override
+    public void setStartDate(LocalDateTime startDate) {
+        this.startDate = startDate;
+    }
+
+    @Override
+    public void setEndDate(LocalDateTime endDate) {
+        this.endDate = endDate;
+    }
+
     @Override
     public ContributionContest build() {
-        return new ContributionContest(title, description, invitationType, minParticipants, contestType, author,
-                itineraries, pois, municipality);
+        ContributionContest contest = new ContributionContest(title, description, invitationType, minParticipants,
+                contestType, author, itineraries, pois, municipality);
+        contest.setStartDate(startDate);
+        contest.setEndDate(endDate);
+        return contest;
     }
 }
@@ -8,6 +8,7 @@ import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticate
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestType;
 import it.cs.unicam.MunicipalDigitalization.api.util.InvitationType;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface IContributionContestBuilder {
@@ -78,6 +79,20 @@ public interface IContributionContestBuilder {
      */
     void setItineraries(List<AbstractItinerary> itineraries);
 
+    /**
+     * Sets the date at which the contribution contest starts.
+     *
+     * @param startDate the start date of the contribution contest, or null.
+     */
+    void setStartDate(LocalDateTime startDate);
+
+    /**
+     * Sets the date at which the contribution contest is closed.
+     *
+     * @param endDate the end date of the contribution contest, or null.
+     */
+    void setEndDate(LocalDateTime endDate);
+
     /**
      * Builds the contribution contest.
      *
@@ -7,12 +7,10 @@ import it.cs.unicam.MunicipalDigitalization.api.model.elements.PendingContent;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContentType;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
-import org.springframework.stereotype.Component;
 
 /**
  * This class represents a builder for a pending content
  */
-@Component
 public class PendingContentBuilder implements ContentBuilder {
 
     /**
@@ -7,7 +7,6 @@ import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticate
 import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
-import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,7 +15,6 @@ import java.util.List;
  * This class represents the Builder of a Pending Itinerary.
  * It is used to create a Pending Itinerary step by step.
  */
-@Component
 public class PendingItineraryBuilder implements ItineraryBuilder {
 
     /**
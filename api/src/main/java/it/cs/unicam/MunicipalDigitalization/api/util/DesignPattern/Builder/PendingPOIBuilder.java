@@ -6,12 +6,10 @@ import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticate
 import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.POIType;
-import org.springframework.stereotype.Component;
 
 /**
  * This class represents the building of a Pending POI Object.
  */
-@Component
 public class PendingPOIBuilder implements POIBuilder {
 
     private AbstractAuthenticatedUser author;
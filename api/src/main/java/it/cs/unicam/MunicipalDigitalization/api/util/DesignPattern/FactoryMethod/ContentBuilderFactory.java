@@ -9,22 +9,10 @@ import org.springframework.stereotype.Component;
 
 /**
  * This class is the Factory for the ContentBuilder. It creates the right builder for the user role.
+ * A builder keeps the state of a single content, so a new one is created for every upload.
  */
 @Component
 public class ContentBuilderFactory {
-    private final AuthorizedContentBuilder authorizedContentBuilder;
-    private final PendingContentBuilder pendingContentBuilder;
-
-    /**
-     * Constructor for the ContentBuilderFactory
-     *
-     * @param authorizedContentBuilder an authorizedContentBuilder for building authorized content
-     * @param pendingContentBuilder    a pendingContentBuilder for building pending content
-     */
-    public ContentBuilderFactory(AuthorizedContentBuilder authorizedContentBuilder, PendingContentBuilder pendingContentBuilder) {
-        this.authorizedContentBuilder = authorizedContentBuilder;
-        this.pendingContentBuilder = pendingContentBuilder;
-    }
 
     /**
      * This method creates the right builder for the user role.
@@ -34,9 +22,9 @@ public class ContentBuilderFactory {
      */
     public ContentBuilder createBuilderForUser(AbstractAuthenticatedUser user) {
         if (user.getRole().contains(UserRole.CURATOR) || user.getRole().contains(UserRole.AUTHORIZED_CONTRIBUTOR)) {
-            return authorizedContentBuilder;
+            return new AuthorizedContentBuilder();
         } else if (user.getRole().contains(UserRole.CONTRIBUTOR)) {
-            return pendingContentBuilder;
+            return new PendingContentBuilder();
         } else throw new IllegalArgumentException("User role not suopported for Content Creation");
     }
 }
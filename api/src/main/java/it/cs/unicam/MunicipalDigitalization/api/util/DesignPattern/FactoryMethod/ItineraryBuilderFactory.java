@@ -9,23 +9,10 @@ import org.springframework.stereotype.Component;
 
 /**
  * This class is a factory for creating ItineraryBuilder objects based on the user role.
+ * A builder keeps the POIs of a single itinerary, so a new one is created for every upload.
  */
 @Component
 public class ItineraryBuilderFactory {
-    private final AuthorizedItineraryBuilder authorizedItineraryBuilder;
-    private final PendingItineraryBuilder pendingItineraryBuilder;
-
-    /**
-     * Constructor for the ItineraryBuilderFactory
-     *
-     * @param authorizedItineraryBuilder an authorizedItineraryBuilder for creating authorized itineraries
-     * @param pendingItineraryBuilder    a pendingItineraryBuilder for creating pending itineraries
-     */
-
-    public ItineraryBuilderFactory(AuthorizedItineraryBuilder authorizedItineraryBuilder, PendingItineraryBuilder pendingItineraryBuilder) {
-        this.authorizedItineraryBuilder = authorizedItineraryBuilder;
-        this.pendingItineraryBuilder = pendingItineraryBuilder;
-    }
 
     /**
      * This method creates a new ItineraryBuilder based on the user role.
@@ -35,9 +22,9 @@ public class ItineraryBuilderFactory {
      */
     public ItineraryBuilder createBuilderForUser(AbstractAuthenticatedUser user) {
         if (user.getRole().contains(UserRole.CURATOR) || user.getRole().contains(UserRole.AUTHORIZED_CONTRIBUTOR)) {
-            return authorizedItineraryBuilder;
+            return new AuthorizedItineraryBuilder();
         } else if (user.getRole().contains(UserRole.CONTRIBUTOR)) {
-            return pendingItineraryBuilder;
+            return new PendingItineraryBuilder();
         } else throw new IllegalArgumentException("User role not suopported for Itinerary Creation");
     }
 }
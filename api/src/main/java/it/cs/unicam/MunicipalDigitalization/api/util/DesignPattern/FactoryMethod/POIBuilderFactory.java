@@ -8,35 +8,23 @@ import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
 import org.springframework.stereotype.Component;
 
 /**
- * Factory class to create the correct POIBuilder based on the user role
+ * Factory class to create the correct POIBuilder based on the user role.
+ * A builder keeps the state of a single POI, so a new one is created for every upload.
  */
 @Component
 public class POIBuilderFactory {
-    private final AuthorizedPOIBuilder authorizedPOIBuilder;
-    private final PendingPOIBuilder pendingPOIBuilder;
 
     /**
-     * Constructor
-     *
-     * @param authorizedPOIBuilder an authorizedPOIBuilder for creating authorized POIs
-     * @param pendingPOIBuilder    a pendingPOIBuilder for creating pending POIs
-     */
-    public POIBuilderFactory(AuthorizedPOIBuilder authorizedPOIBuilder, PendingPOIBuilder pendingPOIBuilder) {
-        this.authorizedPOIBuilder = authorizedPOIBuilder;
-        this.pendingPOIBuilder = pendingPOIBuilder;
-    }
-
-    /**
-     * Create the correct POIBuilder based on the user role
+     * Create a new POIBuilder of the correct type based on the user role
      *
      * @param user the user for which the POIBuilder is created
-     * @return the correct POIBuilder based on the user role
+     * @return a new POIBuilder of the correct type based on the user role
      */
     public POIBuilder createBuilderForUser(AbstractAuthenticatedUser user) {
         if (user.getRole().contains(UserRole.CURATOR) || user.getRole().contains(UserRole.AUTHORIZED_CONTRIBUTOR)) {
-            return authorizedPOIBuilder;
+            return new AuthorizedPOIBuilder();
         } else if (user.getRole().contains(UserRole.CONTRIBUTOR)) {
-            return pendingPOIBuilder;
+            return new PendingPOIBuilder();
         } else throw new IllegalArgumentException("User role not suopported for POI Creation");
     }
 }
@@ -0,0 +1,197 @@
+package it.cs.unicam.MunicipalDigitalization.api.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is a hashed timer wheel, used to run a large number of tasks at their deadlines with a single thread.
+ * The time is split in ticks, and the wheel is a circular array of buckets: a task is put in the bucket of the tick
+ * of its deadline, together with the number of full turns of the wheel left before it expires. At every tick the
+ * thread of the wheel visits a single bucket, so scheduling a task costs O(1) and a tick costs only the tasks of its
+ * bucket, however many tasks are pending. A task is run at most one tick after its deadline.
+ * The expired tasks are run by the given executor, so a slow task does not delay the next ticks.
+ */
+public class HashedTimerWheel {
+
+    private final long tickNanos;
+    private final int mask;
+    private final Timeout[] buckets;
+    private final Executor executor;
+
+    /**
+     * The tasks scheduled since the last tick, moved to their buckets by the thread of the wheel
+     */
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of tasks waiting for their deadline
+     */
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Thread worker;
+
+    private volatile boolean running;
+
+    /**
+     * The time at which the wheel has been started, from which the deadlines are measured
+     */
+    private volatile long startTime;
+
+    /**
+     * The number of ticks since the start. It is used only by the thread of the wheel.
+     */
+    private long tick;
+
+    /**
+     * Constructor of a timer wheel.
+     *
+     * @param name       the name of the thread of the wheel
+     * @param tickMillis the duration of a tick, in milliseconds
+     * @param wheelSize  the number of buckets, rounded up to a power of two. The tasks in a bucket are visited once
+     *                   for every turn of the wheel, so a larger wheel makes a tick cheaper.
+     * @param executor   the executor that runs the expired tasks
+     */
+    public HashedTimerWheel(String name, long tickMillis, int wheelSize, Executor executor) {
+        if (tickMillis < 1) throw new IllegalArgumentException("The tick must be at least one millisecond");
+        if (wheelSize < 1 || wheelSize > 1 << 20) throw new IllegalArgumentException("The size of the wheel is invalid");
+        int size = 1;
+        while (size < wheelSize) size <<= 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = size - 1;
+        this.buckets = new Timeout[size];
+        this.executor = executor;
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * This method starts the thread of the wheel.
+     */
+    public void start() {
+        this.startTime = System.nanoTime();
+        this.running = true;
+        this.worker.start();
+    }
+
+    /**
+     * This method stops the thread of the wheel. The tasks not expired yet are discarded.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting for the wheel to stop
+     */
+    public void stop() throws InterruptedException {
+        this.running = false;
+        this.worker.interrupt();
+        this.worker.join();
+    }
+
+    /**
+     * This method schedules a task.
+     *
+     * @param task        the task to run
+     * @param delayMillis the time after which the task is run, in milliseconds. A task with a delay not greater
+     *                    than zero is run at the next tick. A delay too long to be measured in nanoseconds is
+     *                    shortened to the longest one, about 292 years since the start of the wheel.
+     */
+    public void schedule(Runnable task, long delayMillis) {
+        if (!this.running) throw new IllegalStateException("The timer wheel is not running");
+        long elapsed = System.nanoTime() - this.startTime;
+        long delay = Math.min(TimeUnit.MILLISECONDS.toNanos(Math.max(delayMillis, 0)), Long.MAX_VALUE - elapsed);
+        this.scheduled.add(new Timeout(task, elapsed + delay));
+        this.pending.incrementAndGet();
+    }
+
+    /**
+     * @return the number of tasks waiting for their deadline
+     */
+    public long size() {
+        return this.pending.get();
+    }
+
+    private void run() {
+        while (this.running) {
+            long tickDeadline = this.tickNanos * (this.tick + 1);
+            long sleep = tickDeadline - (System.nanoTime() - this.startTime);
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+            }
+            transferScheduled();
+            expire(this.tick & this.mask);
+            this.tick++;
+        }
+    }
+
+    /**
+     * This method moves the tasks scheduled since the last tick to the buckets of their deadlines.
+     * A task whose deadline has already passed is put in the bucket of the current tick.
+     */
+    private void transferScheduled() {
+        Timeout timeout;
+        while ((timeout = this.scheduled.poll()) != null) {
+            long deadlineTick = Math.max(timeout.deadline / this.tickNanos, this.tick);
+            timeout.remainingRounds = (deadlineTick - this.tick) / this.buckets.length;
+            int index = (int) (deadlineTick & this.mask);
+            timeout.next = this.buckets[index];
+            this.buckets[index] = timeout;
+        }
+    }
+
+    /**
+     * This method runs the tasks of a bucket that expire in the current turn of the wheel, and moves the others one
+     * turn closer to their deadline.
+     */
+    private void expire(long index) {
+        Timeout previous = null;
+        Timeout timeout = this.buckets[(int) index];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.remainingRounds <= 0) {
+                if (previous == null) this.buckets[(int) index] = next;
+                else previous.next = next;
+                timeout.next = null;
+                this.pending.decrementAndGet();
+                submit(timeout.task);
+            } else {
+                timeout.remainingRounds--;
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            this.executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            this.running = false;
+        }
+    }
+
+    /**
+     * A task waiting in the wheel. The tasks of a bucket are linked together, so a task is removed without copying
+     * the bucket.
+     */
+    private static class Timeout {
+        private final Runnable task;
+
+        /**
+         * The deadline of the task, in nanoseconds since the start of the wheel
+         */
+        private final long deadline;
+
+        private long remainingRounds;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package it.cs.unicam.MunicipalDigitalization.api.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class represents a compressed set of ids. The ids are split in chunks of 65536 consecutive values, and every
+ * chunk is stored in the smallest of two containers: a sorted array of the low 16 bits of its ids while it holds at
+ * most 4096 ids, or a bitmap of 8 KB when it holds more. A few ids spread over a large range cost two bytes each,
+ * and a dense range costs one bit for every possible id. Only the non-empty chunks are allocated.
+ * The intersection and the union of two sets are computed chunk by chunk, and two bitmap containers are combined
+ * 64 ids at a time. The ids must not be negative. This class is not thread-safe, but many threads can read a set
+ * that is not changed.
+ */
+public class IdBitmap {
+
+    /**
+     * The maximum number of ids of an array container, above which a bitmap container is smaller
+     */
+    private static final int ARRAY_MAX_SIZE = 4096;
+
+    /**
+     * The non-empty chunks, by the high bits of their ids
+     */
+    private final Map<Long, Container> chunks = new HashMap<>();
+
+    /**
+     * The number of ids of the set
+     */
+    private long size;
+
+    /**
+     * This method adds an id to the set.
+     *
+     * @param id the id to add
+     * @return true if the id has been added, false if it was already in the set
+     */
+    public boolean add(long id) {
+        Container chunk = this.chunks.computeIfAbsent(high(id), key -> new ArrayContainer());
+        Container updated = chunk.add(low(id));
+        if (updated == null) return false;
+        if (updated != chunk) this.chunks.put(high(id), updated);
+        this.size++;
+        return true;
+    }
+
+    /**
+     * This method removes an id from the set.
+     *
+     * @param id the id to remove
+     * @return true if the id has been removed, false if it was not in the set
+     */
+    public boolean remove(long id) {
+        Container chunk = this.chunks.get(high(id));
+        if (chunk == null || !chunk.remove(low(id))) return false;
+        if (chunk.size() == 0) this.chunks.remove(high(id));
+        this.size--;
+        return true;
+    }
+
+    /**
+     * This method checks if an id is in the set.
+     *
+     * @param id the id to check
+     * @return true if the id is in the set
+     */
+    public boolean contains(long id) {
+        Container chunk = this.chunks.get(high(id));
+        return chunk != null && chunk.contains(low(id));
+    }
+
+    /**
+     * @return the number of ids of the set
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * This method returns the ids that are in both sets, as a new set.
+     *
+     * @param other the other set
+     * @return the intersection of the two sets
+     */
+    public IdBitmap and(IdBitmap other) {
+        IdBitmap smaller = this.chunks.size() <= other.chunks.size() ? this : other;
+        IdBitmap larger = smaller == this ? other : this;
+        IdBitmap result = new IdBitmap();
+        smaller.chunks.forEach((high, chunk) -> {
+            Container match = larger.chunks.get(high);
+            if (match == null) return;
+            Container intersection = chunk.and(match);
+            if (intersection.size() == 0) return;
+            result.chunks.put(high, intersection);
+            result.size += intersection.size();
+        });
+        return result;
+    }
+
+    /**
+     * This method counts the ids that are in both sets, without building their intersection.
+     *
+     * @param other the other set
+     * @return the number of ids of the intersection of the two sets
+     */
+    public long andSize(IdBitmap other) {
+        IdBitmap smaller = this.chunks.size() <= other.chunks.size() ? this : other;
+        IdBitmap larger = smaller == this ? other : this;
+        long count = 0;
+        for (Map.Entry<Long, Container> chunk : smaller.chunks.entrySet()) {
+            Container match = larger.chunks.get(chunk.getKey());
+            if (match != null) count += chunk.getValue().andSize(match);
+        }
+        return count;
+    }
+
+    /**
+     * This method returns the ids that are in at least one of the sets, as a new set.
+     *
+     * @param other the other set
+     * @return the union of the two sets
+     */
+    public IdBitmap or(IdBitmap other) {
+        IdBitmap result = new IdBitmap();
+        this.chunks.forEach((high, chunk) -> {
+            Container match = other.chunks.get(high);
+            result.chunks.put(high, match == null ? chunk.copy() : chunk.or(match));
+        });
+        other.chunks.forEach((high, chunk) -> result.chunks.putIfAbsent(high, chunk.copy()));
+        result.chunks.values().forEach(chunk -> result.size += chunk.size());
+        return result;
+    }
+
+    private static long high(long id) {
+        if (id < 0) throw new IllegalArgumentException("The id must not be negative");
+        return id >>> 16;
+    }
+
+    private static char low(long id) {
+        return (char) id;
+    }
+
+    /**
+     * The ids of a chunk, by their low 16 bits
+     */
+    private interface Container {
+
+        /**
+         * @return the container with the value, which is a new container if this one is full, or null if the
+         * value was already in the container
+         */
+        Container add(char value);
+
+        boolean remove(char value);
+
+        boolean contains(char value);
+
+        int size();
+
+        /**
+         * @return a new container with the values of both containers
+         */
+        Container and(Container other);
+
+        int andSize(Container other);
+
+        /**
+         * @return a new container with the values of at least one of the containers
+         */
+        Container or(Container other);
+
+        Container copy();
+    }
+
+    /**
+     * A container of a sparse chunk, with its values sorted
+     */
+    private static class ArrayContainer implements Container {
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        public Container add(char value) {
+            int index = Arrays.binarySearch(this.values, 0, this.size, value);
+            if (index >= 0) return null;
+            if (this.size == ARRAY_MAX_SIZE) {
+                BitmapContainer bitmap = new BitmapContainer(this);
+                bitmap.add(value);
+                return bitmap;
+            }
+            index = -index - 1;
+            if (this.size == this.values.length)
+                this.values = Arrays.copyOf(this.values, Math.min(this.values.length * 2, ARRAY_MAX_SIZE));
+            System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+            this.values[index] = value;
+            this.size++;
+            return this;
+        }
+
+        @Override
+        public boolean remove(char value) {
+            int index = Arrays.binarySearch(this.values, 0, this.size, value);
+            if (index < 0) return false;
+            System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+            this.size--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(this.values, 0, this.size, value) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        @Override
+        public Container and(Container other) {
+            ArrayContainer result = new ArrayContainer();
+            result.values = new char[Math.max(this.size, 4)];
+            for (int i = 0; i < this.size; i++) {
+                if (other.contains(this.values[i])) result.values[result.size++] = this.values[i];
+            }
+            return result;
+        }
+
+        @Override
+        public int andSize(Container other) {
+            int count = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (other.contains(this.values[i])) count++;
+            }
+            return count;
+        }
+
+        @Override
+        public Container or(Container other) {
+            Container result = other.copy();
+            for (int i = 0; i < this.size; i++) {
+                Container updated = result.add(this.values[i]);
+                if (updated != null) result = updated;
+            }
+            return result;
+        }
+
+        @Override
+        public Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(this.values, this.values.length);
+            copy.size = this.size;
+            return copy;
+        }
+    }
+
+    /**
+     * A container of a dense chunk, with a bit for every possible value. It is never converted back to an array,
+     * since a chunk that has been dense usually stays dense.
+     */
+    private static class BitmapContainer implements Container {
+        private final long[] words = new long[1024];
+        private int size;
+
+        private BitmapContainer() {
+        }
+
+        private BitmapContainer(ArrayContainer array) {
+            for (int i = 0; i < array.size; i++) add(array.values[i]);
+        }
+
+        @Override
+        public Container add(char value) {
+            long bit = 1L << value;
+            if ((this.words[value >>> 6] & bit) != 0) return null;
+            this.words[value >>> 6] |= bit;
+            this.size++;
+            return this;
+        }
+
+        @Override
+        public boolean remove(char value) {
+            long bit = 1L << value;
+            if ((this.words[value >>> 6] & bit) == 0) return false;
+            this.words[value >>> 6] &= ~bit;
+            this.size--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (this.words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (!(other instanceof BitmapContainer bitmap)) return other.and(this);
+            BitmapContainer result = new BitmapContainer();
+            for (int i = 0; i < this.words.length; i++) {
+                result.words[i] = this.words[i] & bitmap.words[i];
+                result.size += Long.bitCount(result.words[i]);
+            }
+            return result;
+        }
+
+        @Override
+        public int andSize(Container other) {
+            if (!(other instanceof BitmapContainer bitmap)) return other.andSize(this);
+            int count = 0;
+            for (int i = 0; i < this.words.length; i++) count += Long.bitCount(this.words[i] & bitmap.words[i]);
+            return count;
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (!(other instanceof BitmapContainer bitmap)) return other.or(this);
+            BitmapContainer result = new BitmapContainer();
+            for (int i = 0; i < this.words.length; i++) {
+                result.words[i] = this.words[i] | bitmap.words[i];
+                result.size += Long.bitCount(result.words[i]);
+            }
+            return result;
+        }
+
+        @Override
+        public Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(this.words, 0, copy.words, 0, this.words.length);
+            copy.size = this.size;
+            return copy;
+        }
+    }
+}
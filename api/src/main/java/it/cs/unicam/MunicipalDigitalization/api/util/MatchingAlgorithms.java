@@ -5,7 +5,6 @@ import it.cs.unicam.MunicipalDigitalization.api.model.elements.*;
 import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
 import org.apache.commons.math3.geometry.euclidean.twod.hull.ConvexHull2D;
 
-import java.awt.*;
 import java.util.*;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -15,6 +14,11 @@ import java.util.regex.Pattern;
  */
 public class MatchingAlgorithms {
 
+    /**
+     * The size of the grid used to quantize the coordinates of a POI in its duplicate key
+     */
+    private static final double COORDINATE_QUANTUM = 1e-7;
+
     /**
      * This method returns a list of unique types of a list of POIType
      *
@@ -64,6 +68,35 @@ public class MatchingAlgorithms {
         return false;
     }
 
+    /**
+     * This method returns the normalized key used to detect a duplicated POI. Two POIs with the same key are
+     * considered similar in the same way as {@link #isPOISimilarToPoiList(AbstractPOI, List)} does.
+     *
+     * @param poi the POI
+     * @return the duplicate key of the POI, null if the POI is not complete
+     */
+    public static String poiDuplicateKey(AbstractPOI poi) {
+        if (poi.getMunicipality() == null) return null;
+        return poiDuplicateKey(poi.getName(), poi.getType(), poi.getMunicipality().getId(), poi.getCoordinate());
+    }
+
+    /**
+     * This method returns the normalized key used to detect a duplicated POI, made of the lower-cased name,
+     * the type, the municipality id and the quantized coordinate of the POI.
+     *
+     * @param name           the name of the POI
+     * @param type           the type of the POI
+     * @param municipalityId the id of the municipality of the POI
+     * @param coordinate     the coordinate of the POI
+     * @return the duplicate key of the POI, null if one of the parameters is missing
+     */
+    public static String poiDuplicateKey(String name, POIType type, Long municipalityId, Coordinate coordinate) {
+        if (name == null || type == null || municipalityId == null || coordinate == null) return null;
+        return name.toLowerCase(Locale.ROOT) + "|" + type + "|" + municipalityId + "|"
+                + Math.round(coordinate.getX() / COORDINATE_QUANTUM) + "|"
+                + Math.round(coordinate.getY() / COORDINATE_QUANTUM);
+    }
+
     /**
      * This method checks if an itinerary is similar to an itinerary present in a list of itineraries
      *
@@ -147,78 +180,4 @@ public class MatchingAlgorithms {
             }
         });
     }
-
-
-    public static boolean isMunicipalityInsideAMunicipalityList(Municipality municipality, List<Municipality> municipalityList) {
-        Figura f1 = new Figura(municipality.getTerritory());
-        for (Municipality m : municipalityList) {
-            Figura f2 = new Figura(m.getTerritory());
-            if (f1.isInside(f2)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-
-    /**
-     * This class is used to check if a Municipality collides with the Figure of another Municipality
-     */
-    static class Figura {
-        List<Coordinate> coordinates;
-        Rectangle boundingBox;
-
-        public Figura(List<Coordinate> coordinates) {
-            this.coordinates = coordinates;
-            this.boundingBox = calculateBoundingBox(coordinates);
-        }
-
-        private Rectangle calculateBoundingBox(List<Coordinate> coordinates) {
-            double minX = Double.MAX_VALUE;
-            double minY = Double.MAX_VALUE;
-            double maxX = Double.MIN_VALUE;
-            double maxY = Double.MIN_VALUE;
-
-            for (Coordinate c : coordinates) {
-                minX = Math.min(minX, c.getX());
-                minY = Math.min(minY, c.getY());
-                maxX = Math.max(maxX, c.getX());
-                maxY = Math.max(maxY, c.getY());
-            }
-            return new Rectangle((int) minX, (int) minY, (int) (maxX - minX), (int) (maxY - minY));
-        }
-
-        public boolean isInside(Figura f) {
-            if (!this.boundingBox.intersects(f.boundingBox)) {
-                return false;
-            }
-            return intersectionPoints(f) || f.intersectionPoints(this);
-        }
-
-        private boolean intersectionPoints(Figura f) {
-            for (Coordinate c : this.coordinates) {
-                if (f.pointInFigura(c)) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        private boolean pointInFigura(Coordinate c) {
-            int j = this.coordinates.size() - 1;
-            boolean inside = false;
-            for (int i = 0; i < this.coordinates.size(); i++) {
-                if ((this.coordinates.get(i).getY() < c.getY() && this.coordinates.get(j).getY() >= c.getY()
-                        || this.coordinates.get(j).getY() < c.getY() && this.coordinates.get(i).getY() >= c.getY()) &&
-                        (this.coordinates.get(i).getX() <= c.getX() || this.coordinates.get(j).getX() <= c.getX())) {
-                    inside ^= (this.coordinates.get(i).getX() + (c.getY() - this.coordinates.get(i).getY())
-                            / (this.coordinates.get(j).getY() - this.coordinates.get(i).getY()) * (this.coordinates.get(j).getX()
-                            - this.coordinates.get(i).getX()) < c.getX());
-                }
-                j = i;
-            }
-            return inside;
-        }
-
-    }
 }
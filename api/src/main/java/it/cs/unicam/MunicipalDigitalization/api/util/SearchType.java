@@ -0,0 +1,22 @@
+package it.cs.unicam.MunicipalDigitalization.api.util;
+
+/**
+ * This enum represents the types of elements that can be found by the search and counted by the facets.
+ */
+public enum SearchType {
+
+    /**
+     * Represents a POI. The published POIs are found by their name.
+     */
+    POI,
+
+    /**
+     * Represents an itinerary. The published itineraries are found by their name and their description.
+     */
+    ITINERARY,
+
+    /**
+     * Represents a content. The published contents are found by their name and, if they are descriptions, by their text.
+     */
+    CONTENT
+}
@@ -0,0 +1,97 @@
+package it.cs.unicam.MunicipalDigitalization.api.util.Spatial;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+
+import java.util.List;
+
+/**
+ * This record represents an axis-aligned bounding box with double precision bounds.
+ *
+ * @param minX the minimum x value of the box
+ * @param minY the minimum y value of the box
+ * @param maxX the maximum x value of the box
+ * @param maxY the maximum y value of the box
+ */
+public record BoundingBox(double minX, double minY, double maxX, double maxY) {
+
+    /**
+     * This method returns the bounding box of a list of coordinates.
+     *
+     * @param coordinates the list of coordinates
+     * @return the bounding box of the coordinates
+     */
+    public static BoundingBox of(List<Coordinate> coordinates) {
+        if (coordinates == null || coordinates.isEmpty())
+            throw new IllegalArgumentException("The coordinates cannot be empty");
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Coordinate c : coordinates) {
+            minX = Math.min(minX, c.getX());
+            minY = Math.min(minY, c.getY());
+            maxX = Math.max(maxX, c.getX());
+            maxY = Math.max(maxY, c.getY());
+        }
+        return new BoundingBox(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * @return the width of the box
+     */
+    public double width() {
+        return this.maxX - this.minX;
+    }
+
+    /**
+     * @return the height of the box
+     */
+    public double height() {
+        return this.maxY - this.minY;
+    }
+
+    /**
+     * This method checks if the box contains a point, borders included.
+     *
+     * @param x the x value of the point
+     * @param y the y value of the point
+     * @return true if the point is inside the box
+     */
+    public boolean contains(double x, double y) {
+        return x >= this.minX && x <= this.maxX && y >= this.minY && y <= this.maxY;
+    }
+
+    /**
+     * This method checks if the box intersects another box, borders included.
+     *
+     * @param other the other box
+     * @return true if the boxes intersect
+     */
+    public boolean intersects(BoundingBox other) {
+        return this.minX <= other.maxX && other.minX <= this.maxX && this.minY <= other.maxY && other.minY <= this.maxY;
+    }
+
+    /**
+     * This method returns the distance between a point and the box, zero if the point is inside the box.
+     *
+     * @param x the x value of the point
+     * @param y the y value of the point
+     * @return the distance between the point and the box
+     */
+    public double distance(double x, double y) {
+        double dx = Math.max(0, Math.max(this.minX - x, x - this.maxX));
+        double dy = Math.max(0, Math.max(this.minY - y, y - this.maxY));
+        return Math.hypot(dx, dy);
+    }
+
+    /**
+     * This method returns the smallest box that contains this box and another box.
+     *
+     * @param other the other box
+     * @return the union of the boxes
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(this.minX, other.minX), Math.min(this.minY, other.minY),
+                Math.max(this.maxX, other.maxX), Math.max(this.maxY, other.maxY));
+    }
+}
@@ -0,0 +1,300 @@
+package it.cs.unicam.MunicipalDigitalization.api.util.Spatial;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class represents an immutable simple polygon, stored as arrays of doubles with its bounding box.
+ * It is used for the exact containment and overlap checks after a query on a spatial index.
+ */
+public final class Polygon {
+
+    /**
+     * The x values of the vertices
+     */
+    private final double[] xs;
+
+    /**
+     * The y values of the vertices
+     */
+    private final double[] ys;
+
+    /**
+     * The bounding box of the polygon
+     */
+    private final BoundingBox bounds;
+
+    private Polygon(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        this.bounds = new BoundingBox(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * This method creates a polygon from the vertices of a territory.
+     *
+     * @param coordinates the vertices of the polygon, in order
+     * @return the polygon
+     */
+    public static Polygon of(List<Coordinate> coordinates) {
+        if (coordinates == null || coordinates.size() < 3)
+            throw new IllegalArgumentException("A polygon must have at least 3 coordinates");
+        double[] xs = new double[coordinates.size()];
+        double[] ys = new double[coordinates.size()];
+        for (int i = 0; i < coordinates.size(); i++) {
+            xs[i] = coordinates.get(i).getX();
+            ys[i] = coordinates.get(i).getY();
+        }
+        return new Polygon(xs, ys);
+    }
+
+    /**
+     * This method creates the polygon of the territory of a municipality. The territories are saved sorted around
+     * their center, so a copy of the coordinates is sorted again in case they have been loaded in a different order.
+     *
+     * @param territory the territory of the municipality
+     * @return the polygon
+     */
+    public static Polygon ofTerritory(List<Coordinate> territory) {
+        if (territory == null) throw new IllegalArgumentException("A polygon must have at least 3 coordinates");
+        List<Coordinate> sorted = new ArrayList<>(territory);
+        MatchingAlgorithms.sortCoordinates(sorted);
+        return of(sorted);
+    }
+
+    /**
+     * @return the bounding box of the polygon
+     */
+    public BoundingBox getBounds() {
+        return this.bounds;
+    }
+
+    /**
+     * @return the number of vertices of the polygon
+     */
+    public int size() {
+        return this.xs.length;
+    }
+
+    /**
+     * This method checks if a point is inside the polygon, with the even-odd ray casting rule.
+     *
+     * @param x the x value of the point
+     * @param y the y value of the point
+     * @return true if the point is inside the polygon
+     */
+    public boolean contains(double x, double y) {
+        if (!this.bounds.contains(x, y)) return false;
+        boolean inside = false;
+        for (int i = 0, j = this.xs.length - 1; i < this.xs.length; j = i++) {
+            if ((this.ys[i] > y) != (this.ys[j] > y) &&
+                    x < (this.xs[j] - this.xs[i]) * (y - this.ys[i]) / (this.ys[j] - this.ys[i]) + this.xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * This method checks if a point is strictly inside the polygon, so not on its border.
+     *
+     * @param x the x value of the point
+     * @param y the y value of the point
+     * @return true if the point is inside the polygon and not on its border
+     */
+    public boolean containsStrictly(double x, double y) {
+        return contains(x, y) && !onBorder(x, y);
+    }
+
+    /**
+     * This method checks if a point is on the border of the polygon.
+     *
+     * @param x the x value of the point
+     * @param y the y value of the point
+     * @return true if the point is on an edge of the polygon
+     */
+    public boolean onBorder(double x, double y) {
+        for (int i = 0, j = this.xs.length - 1; i < this.xs.length; j = i++) {
+            if (orientation(this.xs[j], this.ys[j], this.xs[i], this.ys[i], x, y) == 0
+                    && x >= Math.min(this.xs[i], this.xs[j]) && x <= Math.max(this.xs[i], this.xs[j])
+                    && y >= Math.min(this.ys[i], this.ys[j]) && y <= Math.max(this.ys[i], this.ys[j]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * This method checks if the interiors of two polygons overlap. Polygons that only share a part of their border,
+     * like two neighbouring municipalities, do not overlap.
+     * The polygons overlap if two of their edges properly cross. Otherwise the borders only touch, or share some
+     * segments, and the polygons overlap if a part of the border of one of them is strictly inside the other one,
+     * or if their borders are the same.
+     *
+     * @param other the other polygon
+     * @return true if the polygons overlap
+     */
+    public boolean overlaps(Polygon other) {
+        if (!this.bounds.intersects(other.bounds)) return false;
+        if (edgesCross(other)) return true;
+        Side side = this.borderSide(other);
+        return side != Side.OUTSIDE || other.borderSide(this) == Side.INSIDE;
+    }
+
+    /**
+     * This method finds where the border of this polygon lies with respect to the other polygon, when their edges
+     * do not properly cross. Every edge is split at the vertices of the other polygon that lie on it, so every piece
+     * is either strictly inside, strictly outside or on the border of the other polygon, and its midpoint tells
+     * which one.
+     *
+     * @return INSIDE if a piece is strictly inside the other polygon, ON_BORDER if the whole border lies on the border
+     * of the other polygon and OUTSIDE otherwise
+     */
+    private Side borderSide(Polygon other) {
+        boolean outside = false;
+        for (int i = 0, j = this.xs.length - 1; i < this.xs.length; j = i++) {
+            Edge edge = new Edge(this.xs[j], this.ys[j], this.xs[i], this.ys[i], 0);
+            if (!edge.bounds().intersects(other.bounds)) {
+                outside = true;
+                continue;
+            }
+            double[] cuts = other.cutsOf(edge);
+            for (int k = 1; k < cuts.length; k++) {
+                if (cuts[k] == cuts[k - 1]) continue;
+                double t = (cuts[k - 1] + cuts[k]) / 2;
+                double x = edge.x1() + t * (edge.x2() - edge.x1());
+                double y = edge.y1() + t * (edge.y2() - edge.y1());
+                if (other.onBorder(x, y)) continue;
+                if (other.contains(x, y)) return Side.INSIDE;
+                outside = true;
+            }
+        }
+        return outside ? Side.OUTSIDE : Side.ON_BORDER;
+    }
+
+    /**
+     * This method returns the positions, from 0 to 1 and sorted, of the ends of an edge and of the vertices of this
+     * polygon that lie on it.
+     */
+    private double[] cutsOf(Edge edge) {
+        double dx = edge.x2() - edge.x1();
+        double dy = edge.y2() - edge.y1();
+        double length = dx * dx + dy * dy;
+        if (length == 0) return new double[]{0.0, 1.0};
+        List<Double> cuts = new ArrayList<>(List.of(0.0, 1.0));
+        for (int i = 0; i < this.xs.length; i++) {
+            if (this.xs[i] >= edge.minX() && this.xs[i] <= edge.maxX() && this.ys[i] >= edge.minY() && this.ys[i] <= edge.maxY()
+                    && orientation(edge.x1(), edge.y1(), edge.x2(), edge.y2(), this.xs[i], this.ys[i]) == 0) {
+                cuts.add(((this.xs[i] - edge.x1()) * dx + (this.ys[i] - edge.y1()) * dy) / length);
+            }
+        }
+        return cuts.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+    }
+
+    /**
+     * This method checks if an edge of this polygon properly crosses an edge of the other polygon.
+     * Only the edges inside the intersection of the bounding boxes are considered: they are sorted by their
+     * minimum x value and swept from left to right, so every edge is compared only with the edges of the other
+     * polygon whose x interval is still open.
+     */
+    private boolean edgesCross(Polygon other) {
+        BoundingBox common = new BoundingBox(Math.max(this.bounds.minX(), other.bounds.minX()),
+                Math.max(this.bounds.minY(), other.bounds.minY()),
+                Math.min(this.bounds.maxX(), other.bounds.maxX()),
+                Math.min(this.bounds.maxY(), other.bounds.maxY()));
+        List<Edge> edges = new ArrayList<>();
+        this.collectEdges(common, 0, edges);
+        other.collectEdges(common, 1, edges);
+        edges.sort(Comparator.comparingDouble(Edge::minX));
+
+        List<List<Edge>> active = List.of(new ArrayList<>(), new ArrayList<>());
+        for (Edge edge : edges) {
+            List<Edge> opposite = active.get(1 - edge.owner());
+            opposite.removeIf(open -> open.maxX() < edge.minX());
+            for (Edge open : opposite) {
+                if (open.minY() <= edge.maxY() && edge.minY() <= open.maxY() && edge.properlyCrosses(open)) return true;
+            }
+            active.get(edge.owner()).add(edge);
+        }
+        return false;
+    }
+
+    private void collectEdges(BoundingBox area, int owner, List<Edge> edges) {
+        for (int i = 0, j = this.xs.length - 1; i < this.xs.length; j = i++) {
+            Edge edge = new Edge(this.xs[j], this.ys[j], this.xs[i], this.ys[i], owner);
+            if (edge.bounds().intersects(area)) edges.add(edge);
+        }
+    }
+
+    /**
+     * This method returns the orientation of the point c with respect to the line from a to b: 1 if it is on the
+     * left, -1 if it is on the right and 0 if the three points are collinear, within the rounding error.
+     */
+    private static int orientation(double ax, double ay, double bx, double by, double cx, double cy) {
+        double left = (bx - ax) * (cy - ay);
+        double right = (by - ay) * (cx - ax);
+        double determinant = left - right;
+        double tolerance = 1e-12 * (Math.abs(left) + Math.abs(right));
+        if (determinant > tolerance) return 1;
+        if (determinant < -tolerance) return -1;
+        return 0;
+    }
+
+    /**
+     * The position of the border of a polygon with respect to another polygon
+     */
+    private enum Side {
+        INSIDE, ON_BORDER, OUTSIDE
+    }
+
+    /**
+     * This record represents an edge of a polygon.
+     */
+    private record Edge(double x1, double y1, double x2, double y2, int owner) {
+
+        double minX() {
+            return Math.min(this.x1, this.x2);
+        }
+
+        double maxX() {
+            return Math.max(this.x1, this.x2);
+        }
+
+        double minY() {
+            return Math.min(this.y1, this.y2);
+        }
+
+        double maxY() {
+            return Math.max(this.y1, this.y2);
+        }
+
+        BoundingBox bounds() {
+            return new BoundingBox(minX(), minY(), maxX(), maxY());
+        }
+
+        /**
+         * This method checks if the edges cross in a single point inside both of them, so touching edges and
+         * collinear edges do not cross.
+         */
+        boolean properlyCrosses(Edge other) {
+            int o1 = orientation(other.x1, other.y1, other.x2, other.y2, this.x1, this.y1);
+            int o2 = orientation(other.x1, other.y1, other.x2, other.y2, this.x2, this.y2);
+            int o3 = orientation(this.x1, this.y1, this.x2, this.y2, other.x1, other.y1);
+            int o4 = orientation(this.x1, this.y1, this.x2, this.y2, other.x2, other.y2);
+            return o1 * o2 < 0 && o3 * o4 < 0;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package it.cs.unicam.MunicipalDigitalization.api.util.Spatial;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class represents an immutable R-tree of bounding boxes, bulk loaded with the Sort-Tile-Recursive algorithm.
+ * At every level the boxes are sorted by the x value of their center, split in vertical slices, and every slice is
+ * sorted by the y value and packed in nodes, so the nodes are full and overlap as little as possible.
+ * Being immutable, the tree can be read by many threads without locks.
+ *
+ * @param <T> the type of the values stored with the boxes
+ */
+public final class STRTree<T> {
+
+    /**
+     * The default maximum number of children of a node
+     */
+    public static final int DEFAULT_NODE_CAPACITY = 16;
+
+    /**
+     * The root of the tree, null if the tree is empty
+     */
+    private final Node<T> root;
+
+    /**
+     * The number of entries of the tree
+     */
+    private final int size;
+
+    /**
+     * Constructor of the STRTree
+     *
+     * @param entries      the entries of the tree
+     * @param nodeCapacity the maximum number of children of a node
+     */
+    public STRTree(List<Entry<T>> entries, int nodeCapacity) {
+        if (nodeCapacity < 2) throw new IllegalArgumentException("The node capacity must be at least 2");
+        this.size = entries.size();
+        List<Node<T>> level = new ArrayList<>(entries.size());
+        for (Entry<T> entry : entries) level.add(new Node<>(entry.bounds(), null, entry));
+        while (level.size() > 1) level = pack(level, nodeCapacity);
+        this.root = level.isEmpty() ? null : level.get(0);
+    }
+
+    /**
+     * Constructor of the STRTree with the default node capacity
+     *
+     * @param entries the entries of the tree
+     */
+    public STRTree(List<Entry<T>> entries) {
+        this(entries, DEFAULT_NODE_CAPACITY);
+    }
+
+    /**
+     * @return the number of entries of the tree
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * This method returns the values whose box contains a point.
+     *
+     * @param x the x value of the point
+     * @param y the y value of the point
+     * @return the values whose box contains the point
+     */
+    public List<T> search(double x, double y) {
+        return search(new BoundingBox(x, y, x, y));
+    }
+
+    /**
+     * This method returns the values whose box intersects a box.
+     *
+     * @param box the box to search
+     * @return the values whose box intersects the given box
+     */
+    public List<T> search(BoundingBox box) {
+        List<T> result = new ArrayList<>();
+        if (this.root != null) search(this.root, box, result);
+        return result;
+    }
+
+    private void search(Node<T> node, BoundingBox box, List<T> result) {
+        if (!node.bounds.intersects(box)) return;
+        if (node.entry != null) {
+            result.add(node.entry.value());
+            return;
+        }
+        for (Node<T> child : node.children) search(child, box, result);
+    }
+
+    /**
+     * This method packs a level of nodes in the level above.
+     */
+    private List<Node<T>> pack(List<Node<T>> level, int nodeCapacity) {
+        int parents = (int) Math.ceil(level.size() / (double) nodeCapacity);
+        int slices = (int) Math.ceil(Math.sqrt(parents));
+        int sliceSize = slices * nodeCapacity;
+        level.sort(Comparator.comparingDouble(node -> node.bounds.minX() + node.bounds.maxX()));
+        List<Node<T>> result = new ArrayList<>(parents);
+        for (int start = 0; start < level.size(); start += sliceSize) {
+            List<Node<T>> slice = new ArrayList<>(level.subList(start, Math.min(start + sliceSize, level.size())));
+            slice.sort(Comparator.comparingDouble(node -> node.bounds.minY() + node.bounds.maxY()));
+            for (int i = 0; i < slice.size(); i += nodeCapacity) {
+                List<Node<T>> children = List.copyOf(slice.subList(i, Math.min(i + nodeCapacity, slice.size())));
+                BoundingBox bounds = children.get(0).bounds;
+                for (Node<T> child : children) bounds = bounds.union(child.bounds);
+                result.add(new Node<>(bounds, children, null));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This record represents an entry of the tree.
+     *
+     * @param bounds the box of the entry
+     * @param value  the value stored with the box
+     * @param <T>    the type of the value
+     */
+    public record Entry<T>(BoundingBox bounds, T value) {
+    }
+
+    /**
+     * This record represents a node of the tree: a leaf holds an entry, an inner node holds its children.
+     */
+    private record Node<T>(BoundingBox bounds, List<Node<T>> children, Entry<T> entry) {
+    }
+}
@@ -0,0 +1,213 @@
+package it.cs.unicam.MunicipalDigitalization.api.util.Spatial;
+
+import java.util.*;
+
+/**
+ * This class represents a uniform grid of points over a rectangular area. The area is split in square cells and
+ * every point is stored in the cell that contains it, so a radius or nearest-neighbour query only visits the
+ * cells around the requested point. Points outside the area are stored in the nearest border cell.
+ * Only the non-empty cells are allocated. This class is not thread-safe.
+ *
+ * @param <T> the type of the values stored with the points
+ */
+public class UniformGrid<T> {
+
+    /**
+     * The area covered by the grid
+     */
+    private final BoundingBox bounds;
+
+    /**
+     * The side of a cell
+     */
+    private final double cellSize;
+
+    /**
+     * The number of columns of the grid
+     */
+    private final int columns;
+
+    /**
+     * The number of rows of the grid
+     */
+    private final int rows;
+
+    /**
+     * The non-empty cells of the grid, by their index
+     */
+    private final Map<Integer, List<Point<T>>> cells;
+
+    /**
+     * The points of the grid, by their id
+     */
+    private final Map<Long, Point<T>> points;
+
+    /**
+     * Constructor of the UniformGrid
+     *
+     * @param bounds     the area covered by the grid
+     * @param resolution the number of cells on the longest side of the area
+     */
+    public UniformGrid(BoundingBox bounds, int resolution) {
+        if (resolution < 1) throw new IllegalArgumentException("The resolution must be positive");
+        this.bounds = bounds;
+        double side = Math.max(bounds.width(), bounds.height());
+        this.cellSize = side > 0 ? side / resolution : 1;
+        this.columns = Math.max(1, (int) Math.ceil(bounds.width() / this.cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(bounds.height() / this.cellSize));
+        this.cells = new HashMap<>();
+        this.points = new HashMap<>();
+    }
+
+    /**
+     * @return the area covered by the grid
+     */
+    public BoundingBox getBounds() {
+        return this.bounds;
+    }
+
+    /**
+     * @return the number of points in the grid
+     */
+    public int size() {
+        return this.points.size();
+    }
+
+    /**
+     * This method adds a point to the grid, replacing the point with the same id if present.
+     *
+     * @param id    the id of the point
+     * @param x     the x value of the point
+     * @param y     the y value of the point
+     * @param value the value stored with the point
+     */
+    public void insert(long id, double x, double y, T value) {
+        remove(id);
+        Point<T> point = new Point<>(id, x, y, value);
+        this.points.put(id, point);
+        this.cells.computeIfAbsent(cellIndex(column(x), row(y)), k -> new ArrayList<>()).add(point);
+    }
+
+    /**
+     * This method removes a point from the grid.
+     *
+     * @param id the id of the point
+     * @return true if the point was in the grid
+     */
+    public boolean remove(long id) {
+        Point<T> point = this.points.remove(id);
+        if (point == null) return false;
+        int index = cellIndex(column(point.x()), row(point.y()));
+        List<Point<T>> cell = this.cells.get(index);
+        cell.remove(point);
+        if (cell.isEmpty()) this.cells.remove(index);
+        return true;
+    }
+
+    /**
+     * This method returns the k points nearest to the given point, ordered by distance.
+     *
+     * @param x           the x value of the point
+     * @param y           the y value of the point
+     * @param k           the maximum number of points to return
+     * @param maxDistance the maximum distance of the returned points, or infinity for no limit
+     * @return the nearest points with their distance
+     */
+    public List<Neighbour<T>> nearest(double x, double y, int k, double maxDistance) {
+        PriorityQueue<Neighbour<T>> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbour<T>::distance).reversed());
+        if (k < 1 || this.points.isEmpty()) return List.of();
+        int cx = column(x);
+        int cy = row(y);
+        int maxRing = Math.max(this.columns, this.rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            scanRing(cx, cy, ring, x, y, k, maxDistance, best);
+            double unexplored = unexploredDistance(cx, cy, ring, x, y);
+            if (unexplored > maxDistance || (best.size() == k && best.peek().distance() <= unexplored)) break;
+        }
+        List<Neighbour<T>> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbour::distance));
+        return result;
+    }
+
+    /**
+     * This method visits the cells at the given ring distance from the starting cell and keeps the k nearest points.
+     */
+    private void scanRing(int cx, int cy, int ring, double x, double y, int k, double maxDistance,
+                          PriorityQueue<Neighbour<T>> best) {
+        for (int column = cx - ring; column <= cx + ring; column++) {
+            if (column < 0 || column >= this.columns) continue;
+            boolean border = column == cx - ring || column == cx + ring;
+            for (int row = cy - ring; row <= cy + ring; row += border ? 1 : 2 * ring) {
+                if (row >= 0 && row < this.rows) scanCell(cellIndex(column, row), x, y, k, maxDistance, best);
+                if (ring == 0) break;
+            }
+        }
+    }
+
+    /**
+     * This method keeps the k nearest points of a cell.
+     */
+    private void scanCell(int index, double x, double y, int k, double maxDistance, PriorityQueue<Neighbour<T>> best) {
+        List<Point<T>> cell = this.cells.get(index);
+        if (cell == null) return;
+        for (Point<T> point : cell) {
+            double distance = Math.hypot(point.x() - x, point.y() - y);
+            if (distance > maxDistance) continue;
+            if (best.size() < k) best.add(new Neighbour<>(point.id(), point.value(), distance));
+            else if (distance < best.peek().distance()) {
+                best.poll();
+                best.add(new Neighbour<>(point.id(), point.value(), distance));
+            }
+        }
+    }
+
+    /**
+     * This method returns a lower bound of the distance between the given point and the cells not yet visited,
+     * or infinity if all the cells have been visited.
+     */
+    private double unexploredDistance(int cx, int cy, int ring, double x, double y) {
+        double distance = Double.POSITIVE_INFINITY;
+        if (cx - ring > 0) distance = Math.min(distance, Math.max(0, x - (this.bounds.minX() + (cx - ring) * this.cellSize)));
+        if (cx + ring < this.columns - 1)
+            distance = Math.min(distance, Math.max(0, this.bounds.minX() + (cx + ring + 1) * this.cellSize - x));
+        if (cy - ring > 0) distance = Math.min(distance, Math.max(0, y - (this.bounds.minY() + (cy - ring) * this.cellSize)));
+        if (cy + ring < this.rows - 1)
+            distance = Math.min(distance, Math.max(0, this.bounds.minY() + (cy + ring + 1) * this.cellSize - y));
+        return distance;
+    }
+
+    private int column(double x) {
+        return Math.min(this.columns - 1, Math.max(0, (int) Math.floor((x - this.bounds.minX()) / this.cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.min(this.rows - 1, Math.max(0, (int) Math.floor((y - this.bounds.minY()) / this.cellSize)));
+    }
+
+    private int cellIndex(int column, int row) {
+        return row * this.columns + column;
+    }
+
+    /**
+     * This record represents a point stored in the grid.
+     *
+     * @param id    the id of the point
+     * @param x     the x value of the point
+     * @param y     the y value of the point
+     * @param value the value stored with the point
+     * @param <T>   the type of the value
+     */
+    public record Point<T>(long id, double x, double y, T value) {
+    }
+
+    /**
+     * This record represents a point found by a query, with its distance from the requested point.
+     *
+     * @param id       the id of the point
+     * @param value    the value stored with the point
+     * @param distance the distance from the requested point
+     * @param <T>      the type of the value
+     */
+    public record Neighbour<T>(long id, T value, double distance) {
+    }
+}
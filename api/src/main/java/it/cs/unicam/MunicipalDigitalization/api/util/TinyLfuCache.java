@@ -0,0 +1,280 @@
+package it.cs.unicam.MunicipalDigitalization.api.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class is a bounded cache with the W-TinyLFU eviction policy. Every value has a weight, and the total weight
+ * of the cache never exceeds its maximum. A new value enters a small LRU window, so a burst of new keys cannot flush
+ * the cache. When the window is full its oldest value is a candidate for the main space, and it is admitted only if
+ * it has been requested more often than the value it would evict. The requests are counted by a count-min sketch of
+ * 4-bit counters, halved periodically so the old popularity fades. The main space is a segmented LRU: a value
+ * requested again moves from the probation segment to the protected one, which holds most of the main space.
+ * A value is loaded outside the lock of the cache, and it is not stored if the cache has been invalidated while it
+ * was loading, so a stale value is never kept after an invalidation.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class TinyLfuCache<K, V> {
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final ToIntFunction<V> weigher;
+    private final FrequencySketch sketch;
+
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    /**
+     * The number of invalidations, used to discard the values loaded before an invalidation
+     */
+    private long invalidations;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long loads;
+    private long loadNanos;
+
+    /**
+     * Constructor of a cache.
+     *
+     * @param maximumWeight the maximum total weight of the values
+     * @param weigher       the function that returns the weight of a value, at least one
+     */
+    public TinyLfuCache(long maximumWeight, ToIntFunction<V> weigher) {
+        if (maximumWeight < 1) throw new IllegalArgumentException("The maximum weight must be positive");
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (maximumWeight - this.windowMaximum) * 8 / 10;
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(maximumWeight);
+    }
+
+    /**
+     * This method returns the value of a key, loading and storing it if it is not in the cache.
+     *
+     * @param key    the key
+     * @param loader the function that loads the value
+     * @return the value of the key
+     */
+    public V get(K key, Supplier<V> loader) {
+        long invalidationsBeforeLoad;
+        synchronized (this) {
+            this.sketch.increment(key.hashCode());
+            Entry<V> entry = find(key);
+            if (entry != null) {
+                this.hits++;
+                return entry.value;
+            }
+            this.misses++;
+            invalidationsBeforeLoad = this.invalidations;
+        }
+        long start = System.nanoTime();
+        V value = loader.get();
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            this.loads++;
+            this.loadNanos += elapsed;
+            if (invalidationsBeforeLoad == this.invalidations && find(key) == null) put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * This method removes the values of the keys that match a condition.
+     *
+     * @param condition the condition of the keys to remove
+     */
+    public synchronized void invalidateIf(Predicate<K> condition) {
+        this.invalidations++;
+        this.windowWeight -= removeIf(this.window, condition);
+        this.probationWeight -= removeIf(this.probation, condition);
+        this.protectedWeight -= removeIf(this.protectedSegment, condition);
+    }
+
+    /**
+     * @return the statistics of the cache
+     */
+    public synchronized Statistics statistics() {
+        return new Statistics(this.hits, this.misses, this.evictions, this.loads, this.loadNanos,
+                this.window.size() + this.probation.size() + this.protectedSegment.size(),
+                this.windowWeight + this.probationWeight + this.protectedWeight, this.maximumWeight);
+    }
+
+    /**
+     * This method finds the entry of a key and records the request in its segment.
+     */
+    private Entry<V> find(K key) {
+        Entry<V> entry = this.window.get(key);
+        if (entry != null) return entry;
+        entry = this.protectedSegment.get(key);
+        if (entry != null) return entry;
+        entry = this.probation.remove(key);
+        if (entry == null) return null;
+        this.probationWeight -= entry.weight;
+        this.protectedSegment.put(key, entry);
+        this.protectedWeight += entry.weight;
+        while (this.protectedWeight > this.protectedMaximum) {
+            Map.Entry<K, Entry<V>> eldest = this.protectedSegment.entrySet().iterator().next();
+            this.protectedSegment.remove(eldest.getKey());
+            this.protectedWeight -= eldest.getValue().weight;
+            this.probation.put(eldest.getKey(), eldest.getValue());
+            this.probationWeight += eldest.getValue().weight;
+        }
+        return entry;
+    }
+
+    private void put(K key, V value) {
+        int weight = Math.max(1, this.weigher.applyAsInt(value));
+        if (weight > this.maximumWeight) return;
+        this.window.put(key, new Entry<>(value, weight));
+        this.windowWeight += weight;
+        while (this.windowWeight > this.windowMaximum) {
+            Map.Entry<K, Entry<V>> candidate = this.window.entrySet().iterator().next();
+            this.window.remove(candidate.getKey());
+            this.windowWeight -= candidate.getValue().weight;
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    /**
+     * This method moves a candidate from the window to the main space, if it is requested more often than the
+     * values it would evict.
+     */
+    private void admit(K key, Entry<V> candidate) {
+        long mainMaximum = this.maximumWeight - this.windowMaximum;
+        if (candidate.weight > mainMaximum) {
+            this.evictions++;
+            return;
+        }
+        int candidateFrequency = this.sketch.frequency(key.hashCode());
+        while (this.probationWeight + this.protectedWeight + candidate.weight > mainMaximum) {
+            LinkedHashMap<K, Entry<V>> segment = this.probation.isEmpty() ? this.protectedSegment : this.probation;
+            Map.Entry<K, Entry<V>> victim = segment.entrySet().iterator().next();
+            if (candidateFrequency <= this.sketch.frequency(victim.getKey().hashCode())) {
+                this.evictions++;
+                return;
+            }
+            segment.remove(victim.getKey());
+            if (segment == this.probation) this.probationWeight -= victim.getValue().weight;
+            else this.protectedWeight -= victim.getValue().weight;
+            this.evictions++;
+        }
+        this.probation.put(key, candidate);
+        this.probationWeight += candidate.weight;
+    }
+
+    private static <K, V> long removeIf(Map<K, Entry<V>> segment, Predicate<K> condition) {
+        long removed = 0;
+        for (Iterator<Map.Entry<K, Entry<V>>> iterator = segment.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (condition.test(entry.getKey())) {
+                removed += entry.getValue().weight;
+                iterator.remove();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * A value of the cache with its weight
+     */
+    private record Entry<V>(V value, int weight) {
+    }
+
+    /**
+     * The statistics of a cache
+     *
+     * @param hits      the requests answered by the cache
+     * @param misses    the requests that loaded their value
+     * @param evictions the values evicted or not admitted because the cache was full
+     * @param loads     the values loaded
+     * @param loadNanos the total time spent loading the values, in nanoseconds
+     * @param size      the number of values in the cache
+     * @param weight    the total weight of the values in the cache
+     * @param maximumWeight the maximum total weight of the values
+     */
+    public record Statistics(long hits, long misses, long evictions, long loads, long loadNanos, long size,
+                             long weight, long maximumWeight) {
+
+        public double hitRate() {
+            long requests = this.hits + this.misses;
+            return requests == 0 ? 0 : (double) this.hits / requests;
+        }
+
+        public double averageLoadMillis() {
+            return this.loads == 0 ? 0 : this.loadNanos / 1e6 / this.loads;
+        }
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters, which estimates how often a key has been requested. Every key increases
+     * four counters, and its frequency is the smallest of them. There are sixteen counters for every expected key, so
+     * the keys rarely share all their counters. When the number of increments reaches ten times the number of
+     * expected keys, all the counters are halved.
+     */
+    private static class FrequencySketch {
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(long expectedKeys) {
+            int length = Integer.highestOneBit((int) Math.min(Math.max(expectedKeys, 2), 1 << 22) - 1) << 1;
+            this.table = new long[length];
+            this.sampleSize = length * 10;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                long index = index(hash, i);
+                int slot = (int) (index >>> 4);
+                int shift = (int) (index & 15) << 2;
+                if (((this.table[slot] >>> shift) & 15) < 15) {
+                    this.table[slot] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++this.additions == this.sampleSize) reset();
+        }
+
+        int frequency(int hash) {
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                long index = index(hash, i);
+                frequency = Math.min(frequency, (int) ((this.table[(int) (index >>> 4)] >>> ((index & 15) << 2)) & 15));
+            }
+            return frequency;
+        }
+
+        /**
+         * This method returns the position of the i-th counter of a key: the slot in the table and, in the last
+         * four bits, the counter in the slot.
+         */
+        private long index(int hash, int i) {
+            long mixed = (hash + SEEDS[i]) * SEEDS[i];
+            mixed ^= mixed >>> 32;
+            return mixed & ((long) this.table.length * 16 - 1);
+        }
+
+        private void reset() {
+            for (int i = 0; i < this.table.length; i++) this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+            this.additions /= 2;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package it.cs.unicam.MunicipalDigitalization.db;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import it.cs.unicam.MunicipalDigitalization.db.Monitoring.EntityCountingInterceptor;
+import it.cs.unicam.MunicipalDigitalization.db.Monitoring.StatementCountingInspector;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,12 +33,19 @@ public class DbConfig {
 
     /**
      * This Method will return the Datasource with the properties that have been set in the application.properties
-     * file in resources.
+     * file in resources. If the pooled mode is enabled the DataSource keeps a write pool and a read-only pool of
+     * SQLite connections, otherwise a new connection is opened for every transaction.
      *
      * @return the DataSource
      */
     @Bean
     public DataSource dataSource() {
+        if (env.getProperty("datasource.pooled", Boolean.class, false)) {
+            HikariDataSource writePool = sqlitePool("sqlite-write", 1, false);
+            HikariDataSource readPool = sqlitePool("sqlite-read",
+                    env.getProperty("datasource.read-pool-size", Integer.class, 4), true);
+            return new PooledSQLiteDataSource(writePool, readPool);
+        }
         final DriverManagerDataSource dataSource = new DriverManagerDataSource();
         dataSource.setDriverClassName(Objects.requireNonNull(env.getProperty("driverClassName")));
         dataSource.setUrl(env.getProperty("url"));
@@ -43,6 +54,36 @@ public class DbConfig {
         return dataSource;
     }
 
+    /**
+     * This method creates a pool of SQLite connections. Every connection of the pool is opened with the PRAGMAs
+     * set in the application.properties file. The journal mode is stored in the database file, so it is set only by
+     * the write pool, which is created first.
+     *
+     * @param name     the name of the pool
+     * @param size     the number of connections of the pool
+     * @param readOnly true if the connections of the pool are opened in read-only mode
+     * @return the pool of connections
+     */
+    private HikariDataSource sqlitePool(String name, int size, boolean readOnly) {
+        final HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setDriverClassName(Objects.requireNonNull(env.getProperty("driverClassName")));
+        config.setJdbcUrl(env.getProperty("url"));
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(size);
+        config.setReadOnly(readOnly);
+        config.setConnectionTimeout(env.getProperty("datasource.connection-timeout", Long.class, 30000L));
+        if (readOnly) {
+            config.addDataSourceProperty("open_mode", "1");
+        } else {
+            config.addDataSourceProperty("journal_mode", env.getProperty("sqlite.journal_mode", "WAL"));
+        }
+        config.addDataSourceProperty("synchronous", env.getProperty("sqlite.synchronous", "NORMAL"));
+        config.addDataSourceProperty("cache_size", env.getProperty("sqlite.cache_size", "-16000"));
+        config.addDataSourceProperty("mmap_size", env.getProperty("sqlite.mmap_size", "268435456"));
+        return new HikariDataSource(config);
+    }
+
     /**
      * This method is used to set the EntityContainer of the Project. It needs a Package to scan that is the Package
      * where all Models entities are stored.
@@ -60,7 +101,15 @@ public class DbConfig {
     }
 
     /**
-     * This method is used the set more Properties about the Database such as the dialect and showsql
+     * This method is used the set more Properties about the Database such as the dialect and showsql.
+     * The lazy collections and associations are loaded in batches: when a mapper walks a collection of an entity,
+     * the same collection of the other entities of the page is loaded in the same statement.
+     * The statements, the entity loads and the flushes are counted for the query statistics of the requests.
+     * The inserts of the entities with an id generated in memory are sent in JDBC batches.
+     * The schema update reads only the tables of the entities, because the tables of the search index have columns
+     * without a type, which Hibernate cannot read.
+     * The connection is given back after every transaction, so the next transaction of the same request takes it
+     * from the pool of its own read-only flag.
      *
      * @return the New properties
      */
@@ -75,6 +124,14 @@ public class DbConfig {
         if (env.getProperty("hibernate.show_sql") != null) {
             hibernateProperties.setProperty("hibernate.show_sql", env.getProperty("hibernate.show_sql"));
         }
+        hibernateProperties.setProperty("hibernate.default_batch_fetch_size",
+                env.getProperty("hibernate.default_batch_fetch_size", "64"));
+        hibernateProperties.setProperty("hibernate.jdbc.batch_size", env.getProperty("hibernate.jdbc.batch_size", "50"));
+        hibernateProperties.setProperty("hibernate.order_inserts", "true");
+        hibernateProperties.setProperty("hibernate.hbm2ddl.jdbc_metadata_extraction_strategy", "individually");
+        hibernateProperties.setProperty("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+        hibernateProperties.setProperty("hibernate.session_factory.statement_inspector", StatementCountingInspector.class.getName());
+        hibernateProperties.setProperty("hibernate.session_factory.interceptor", EntityCountingInterceptor.class.getName());
         return hibernateProperties;
     }
 }
@@ -0,0 +1,23 @@
+package it.cs.unicam.MunicipalDigitalization.db.Monitoring;
+
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+import java.util.Iterator;
+
+/**
+ * This class is the Hibernate Interceptor that counts the entities loaded and the flushes on the current thread.
+ */
+public class EntityCountingInterceptor implements Interceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        QueryCounter.entityLoaded();
+        return false;
+    }
+
+    @Override
+    public void preFlush(Iterator<Object> entities) {
+        QueryCounter.flushed();
+    }
+}
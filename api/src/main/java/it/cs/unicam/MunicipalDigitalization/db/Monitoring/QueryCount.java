@@ -0,0 +1,95 @@
+package it.cs.unicam.MunicipalDigitalization.db.Monitoring;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class contains the number of SQL statements, entity loads and flushes counted on a thread between its start
+ * and its close, with the number of executions of every statement, used to detect the N+1 patterns.
+ * It is created by {@link QueryCounter#start()} and it is meant to be used in a try-with-resources block.
+ */
+public class QueryCount implements AutoCloseable {
+
+    /**
+     * The maximum number of different statements kept for the N+1 detection
+     */
+    private static final int MAX_TRACKED_STATEMENTS = 256;
+
+    /**
+     * The count that was active on the thread when this count started
+     */
+    private final QueryCount previous;
+
+    private long statements;
+    private long entityLoads;
+    private long flushes;
+
+    /**
+     * The number of executions of every statement
+     */
+    private final Map<String, Integer> executions = new HashMap<>();
+
+    private boolean closed;
+
+    QueryCount(QueryCount previous) {
+        this.previous = previous;
+    }
+
+    void statement(String sql) {
+        this.statements++;
+        if (this.executions.size() < MAX_TRACKED_STATEMENTS || this.executions.containsKey(sql))
+            this.executions.merge(sql, 1, Integer::sum);
+        if (this.previous != null) this.previous.statement(sql);
+    }
+
+    void entityLoaded() {
+        this.entityLoads++;
+        if (this.previous != null) this.previous.entityLoaded();
+    }
+
+    void flushed() {
+        this.flushes++;
+        if (this.previous != null) this.previous.flushed();
+    }
+
+    /**
+     * @return the number of SQL statements prepared
+     */
+    public long getStatements() {
+        return this.statements;
+    }
+
+    /**
+     * @return the number of entities loaded from the Database
+     */
+    public long getEntityLoads() {
+        return this.entityLoads;
+    }
+
+    /**
+     * @return the number of flushes of the persistence context
+     */
+    public long getFlushes() {
+        return this.flushes;
+    }
+
+    /**
+     * This method returns the statement executed the most times, with the number of its executions.
+     * A statement executed many times in the same request is usually a lazy load in a loop.
+     *
+     * @return the most repeated statement, or null if no statement has been executed
+     */
+    public Map.Entry<String, Integer> getMostRepeatedStatement() {
+        return this.executions.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+
+    /**
+     * This method stops the count and restores the count that was active when this one started.
+     */
+    @Override
+    public void close() {
+        if (this.closed) return;
+        this.closed = true;
+        QueryCounter.restore(this, this.previous);
+    }
+}
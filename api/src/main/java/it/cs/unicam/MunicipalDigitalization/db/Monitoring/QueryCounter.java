@@ -0,0 +1,46 @@
+package it.cs.unicam.MunicipalDigitalization.db.Monitoring;
+
+/**
+ * This class counts the SQL statements, entity loads and flushes executed on the current thread.
+ * The counts are fed by the Hibernate {@link StatementCountingInspector} and {@link EntityCountingInterceptor}
+ * configured in the DbConfig. Nothing is counted on a thread where no count has been started.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<QueryCount> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * This method starts a count on the current thread. The counts already started on the thread keep counting too.
+     *
+     * @return the new count, to close when the counted work is done
+     */
+    public static QueryCount start() {
+        QueryCount count = new QueryCount(CURRENT.get());
+        CURRENT.set(count);
+        return count;
+    }
+
+    static void restore(QueryCount closed, QueryCount previous) {
+        if (CURRENT.get() != closed) return;
+        if (previous == null) CURRENT.remove();
+        else CURRENT.set(previous);
+    }
+
+    static void statement(String sql) {
+        QueryCount count = CURRENT.get();
+        if (count != null) count.statement(sql);
+    }
+
+    static void entityLoaded() {
+        QueryCount count = CURRENT.get();
+        if (count != null) count.entityLoaded();
+    }
+
+    static void flushed() {
+        QueryCount count = CURRENT.get();
+        if (count != null) count.flushed();
+    }
+}
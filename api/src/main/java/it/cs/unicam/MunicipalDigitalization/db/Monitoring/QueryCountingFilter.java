@@ -0,0 +1,37 @@
+package it.cs.unicam.MunicipalDigitalization.db.Monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * This class is the filter that counts the SQL statements, entity loads and flushes of every HTTP request and
+ * records them in the statistics of its endpoint.
+ */
+@Component
+@AllArgsConstructor(onConstructor_ = @Autowired)
+public class QueryCountingFilter extends OncePerRequestFilter {
+
+    private final QueryStatistics queryStatistics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCount count = QueryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            count.close();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            queryStatistics.record(request.getMethod() + " " + (pattern != null ? pattern : "unmatched"), count);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package it.cs.unicam.MunicipalDigitalization.db.Monitoring;
+
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.QueryStatisticsOutputDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class keeps the number of SQL statements, entity loads and flushes of the requests of every endpoint.
+ * The requests that run more statements than the budget are logged, with the most repeated statement when it
+ * has been executed enough times to look like an N+1 pattern.
+ */
+@Component
+public class QueryStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatistics.class);
+
+    /**
+     * The maximum number of statements of a request before it is logged
+     */
+    private final int statementBudget;
+
+    /**
+     * The number of executions of the same statement in a request reported as a possible N+1 pattern
+     */
+    private final int repeatedStatementThreshold;
+
+    /**
+     * The statistics of the endpoints, by method and path pattern
+     */
+    private final Map<String, EndpointStatistics> endpoints = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QueryStatistics(Environment env) {
+        this.statementBudget = env.getProperty("monitoring.statement-budget", Integer.class, 20);
+        this.repeatedStatementThreshold = env.getProperty("monitoring.repeated-statement-threshold", Integer.class, 10);
+    }
+
+    /**
+     * This method records the count of a request.
+     *
+     * @param endpoint the method and the path pattern of the request
+     * @param count    the count of the request
+     */
+    public void record(String endpoint, QueryCount count) {
+        boolean overBudget = count.getStatements() > this.statementBudget;
+        this.endpoints.computeIfAbsent(endpoint, key -> new EndpointStatistics()).add(count, overBudget);
+        if (!overBudget) return;
+        Map.Entry<String, Integer> repeated = count.getMostRepeatedStatement();
+        if (repeated != null && repeated.getValue() >= this.repeatedStatementThreshold) {
+            logger.warn("{} ran {} statements, over the budget of {}. Possible N+1: {} executions of [{}]",
+                    endpoint, count.getStatements(), this.statementBudget, repeated.getValue(), repeated.getKey());
+        } else {
+            logger.warn("{} ran {} statements, over the budget of {}", endpoint, count.getStatements(), this.statementBudget);
+        }
+    }
+
+    /**
+     * @return the statistics of the endpoints, ordered by the number of statements
+     */
+    public List<QueryStatisticsOutputDTO> getStatistics() {
+        return this.endpoints.entrySet().stream()
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .sorted(Comparator.comparingLong(QueryStatisticsOutputDTO::statements).reversed())
+                .toList();
+    }
+
+    /**
+     * This method clears the statistics of all the endpoints.
+     */
+    public void reset() {
+        this.endpoints.clear();
+    }
+
+    /**
+     * This class contains the totals of the requests of an endpoint.
+     */
+    private static class EndpointStatistics {
+        private long requests;
+        private long statements;
+        private long maxStatements;
+        private long entityLoads;
+        private long flushes;
+        private long overBudget;
+
+        synchronized void add(QueryCount count, boolean overBudget) {
+            this.requests++;
+            this.statements += count.getStatements();
+            this.maxStatements = Math.max(this.maxStatements, count.getStatements());
+            this.entityLoads += count.getEntityLoads();
+            this.flushes += count.getFlushes();
+            if (overBudget) this.overBudget++;
+        }
+
+        synchronized QueryStatisticsOutputDTO toDTO(String endpoint) {
+            return new QueryStatisticsOutputDTO(endpoint, this.requests, this.statements,
+                    (double) this.statements / this.requests, this.maxStatements, this.entityLoads, this.flushes,
+                    this.overBudget);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package it.cs.unicam.MunicipalDigitalization.db.Monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * This class is the Hibernate StatementInspector that counts the SQL statements prepared on the current thread.
+ * The statements are not changed.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.statement(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,46 @@
+package it.cs.unicam.MunicipalDigitalization.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * This class represents the pooled DataSource of the SQLite Database.
+ * SQLite accepts a single writer at a time, so the writes go through a pool with a single connection while the
+ * read-only transactions are routed to a separate pool of read-only connections. The physical connection is taken
+ * from the right pool only when the first statement of the transaction is executed, when the read-only flag of the
+ * transaction is already known.
+ */
+public final class PooledSQLiteDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    /**
+     * The pool used by the read-write transactions
+     */
+    private final HikariDataSource writePool;
+
+    /**
+     * The pool used by the read-only transactions
+     */
+    private final HikariDataSource readPool;
+
+    /**
+     * Constructor of the PooledSQLiteDataSource
+     *
+     * @param writePool the pool used by the read-write transactions
+     * @param readPool  the pool used by the read-only transactions
+     */
+    public PooledSQLiteDataSource(HikariDataSource writePool, HikariDataSource readPool) {
+        super(writePool);
+        this.writePool = writePool;
+        this.readPool = readPool;
+        setReadOnlyDataSource(readPool);
+    }
+
+    /**
+     * This method closes both the pools. It is called by Spring when the application is shut down.
+     */
+    @Override
+    public void close() {
+        this.readPool.close();
+        this.writePool.close();
+    }
+}
@@ -6,9 +6,13 @@ import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContentType;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ElementFacets;
 import lombok.NonNull;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +20,7 @@ import java.util.Optional;
 /**
  * This is the Repository of the Content
  */
+@Transactional(readOnly = true)
 public interface ContentRepository extends JpaRepository<AbstractContent, Long> {
 
     /**
@@ -36,6 +41,17 @@ public interface ContentRepository extends JpaRepository<AbstractContent, Long>
     @Query("SELECT c FROM AbstractContent c WHERE c.elementStatus=?1")
     List<AbstractContent> findAllByElementStatus(ElementStatus elementStatus);
 
+    /**
+     * This method returns the facets of all the contents, without loading the contents. The municipality of a
+     * content is the municipality of the POI or of the itinerary it refers to.
+     *
+     * @return a list of the municipality, the status and the type of every content
+     */
+    @Query("SELECT c.id AS id, coalesce(p.municipality.id, i.municipality.id) AS municipalityId, " +
+            "c.elementStatus AS elementStatus, c.type AS contentType " +
+            "FROM AbstractContent c LEFT JOIN c.referredPOI p LEFT JOIN c.referredItinerary i")
+    List<ElementFacets.ContentFacets> findAllFacets();
+
     /**
      * This method returns a list of contents with the given author
      *
@@ -80,4 +96,18 @@ public interface ContentRepository extends JpaRepository<AbstractContent, Long>
      */
     @Query("SELECT c FROM AbstractContent c WHERE c.name=?1")
     AbstractContent findByName(String name);
+
+    /**
+     * This method returns a page of the contents with the given status referred to a POI or to an itinerary of a municipality
+     *
+     * @param municipalityId the id of the municipality
+     * @param elementStatus  the status of the contents
+     * @param afterId        the id after which the page starts
+     * @param limit          the maximum number of contents
+     * @return a list of contents ordered by id
+     */
+    @EntityGraph("AbstractContent.withReferences")
+    @Query("SELECT c FROM AbstractContent c LEFT JOIN c.referredPOI p LEFT JOIN c.referredItinerary i " +
+            "WHERE (p.municipality.id = ?1 OR i.municipality.id = ?1) AND c.elementStatus = ?2 AND c.id > ?3 ORDER BY c.id")
+    List<AbstractContent> findAllByMunicipalityIdAndElementStatus(Long municipalityId, ElementStatus elementStatus, Long afterId, Limit limit);
 }
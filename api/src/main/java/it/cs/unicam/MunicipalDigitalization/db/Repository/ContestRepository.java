@@ -2,14 +2,85 @@ package it.cs.unicam.MunicipalDigitalization.db.Repository;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.Contribution;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
+import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ContestDeadline;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+@Transactional(readOnly = true)
 public interface ContestRepository extends JpaRepository<ContributionContest, Long> {
 
     @Query("SELECT cc.contributions FROM ContributionContest cc WHERE cc.id = :contestId")
     List<Contribution> findContributionByContestId(@Param("contestId") Long id);
+
+    /**
+     * This method returns a page of the contests of a municipality with one of the given statuses
+     *
+     * @param municipalityId the id of the municipality
+     * @param statuses       the statuses of the contests
+     * @param afterId        the id after which the page starts
+     * @param limit          the maximum number of contests
+     * @return a list of contests ordered by id
+     */
+    @EntityGraph("ContributionContest.withAuthor")
+    @Query("SELECT cc FROM ContributionContest cc WHERE cc.municipality.id = ?1 AND cc.contestStatus IN ?2 AND cc.id > ?3 ORDER BY cc.id")
+    List<ContributionContest> findAllByMunicipalityIdAndContestStatusIn(Long municipalityId, Collection<ContestStatus> statuses, Long afterId, Limit limit);
+
+    /**
+     * This method returns a contest by its id, together with its author and its municipality
+     *
+     * @param id the id of the contest
+     * @return the contest if exists
+     */
+    @EntityGraph("ContributionContest.withReferences")
+    @Query("SELECT cc FROM ContributionContest cc WHERE cc.id = ?1")
+    Optional<ContributionContest> findWithReferencesById(Long id);
+
+    /**
+     * This method returns the deadlines of the contests that are not closed yet
+     *
+     * @return the deadlines of the contests with a start date or an end date
+     */
+    @Query("SELECT cc.id AS id, cc.startDate AS startDate, cc.endDate AS endDate FROM ContributionContest cc " +
+            "WHERE cc.contestStatus <> it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus.CLOSED AND (cc.startDate IS NOT NULL OR cc.endDate IS NOT NULL)")
+    List<ContestDeadline> findPendingDeadlines();
+
+    /**
+     * This method adds a participant to the counter of a contest, with a single update of its row
+     *
+     * @param id the id of the contest
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ContributionContest cc SET cc.actualNumberOfParticipants = cc.actualNumberOfParticipants + 1 WHERE cc.id = ?1")
+    void incrementParticipants(Long id);
+
+    /**
+     * This method removes a user from the counters of the contests the user participates to, with a single update.
+     * It must be run before the participations of the user are deleted.
+     *
+     * @param userId the id of the user
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ContributionContest cc SET cc.actualNumberOfParticipants = cc.actualNumberOfParticipants - 1 " +
+            "WHERE cc.id IN (SELECT p.contest.id FROM Participation p WHERE p.user.id = ?1)")
+    void removeParticipantFromContests(Long userId);
+
+    /**
+     * This method sets the counter of every contest to the number of its saved participations
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ContributionContest cc SET cc.actualNumberOfParticipants = (SELECT count(p) FROM Participation p WHERE p.contest = cc)")
+    void recountParticipants();
 }
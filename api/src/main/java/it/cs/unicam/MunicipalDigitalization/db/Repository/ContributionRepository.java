@@ -1,12 +1,108 @@
 package it.cs.unicam.MunicipalDigitalization.db.Repository;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.Contribution;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ContributionContestState;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ContributionScore;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+@Transactional(readOnly = true)
 public interface ContributionRepository extends JpaRepository<Contribution, Long> {
     @Query("SELECT c FROM Contribution c WHERE c.contest.id = ?1")
     List<Contribution> getContributionByContestId(Long contestId);
+
+    /**
+     * This method returns a page of the contributions of a contest
+     *
+     * @param contestId the id of the contest
+     * @param afterId   the id after which the page starts
+     * @param limit     the maximum number of contributions
+     * @return a list of contributions ordered by id
+     */
+    @EntityGraph("Contribution.withContestAndAuthor")
+    @Query("SELECT c FROM Contribution c WHERE c.contest.id = ?1 AND c.id > ?2 ORDER BY c.id")
+    List<Contribution> findAllByContestId(Long contestId, Long afterId, Limit limit);
+
+    /**
+     * This method returns the votes of every contribution, with the columns shown by the leaderboards
+     *
+     * @return the scores of the contributions
+     */
+    @Query("SELECT c.id AS id, c.contest.id AS contestId, c.title AS title, a.name AS authorName, c.totalVotes AS totalVotes " +
+            "FROM Contribution c JOIN c.author a")
+    List<ContributionScore> findAllScores();
+
+    /**
+     * This method returns the contest of a contribution and its status
+     *
+     * @param id the id of the contribution
+     * @return the contest of the contribution, or an empty optional if the contribution does not exist
+     */
+    @Query("SELECT c.contest.id AS contestId, c.contest.municipality.id AS municipalityId, " +
+            "c.contest.contestStatus AS contestStatus FROM Contribution c WHERE c.id = ?1")
+    Optional<ContributionContestState> findContestStateById(Long id);
+
+    /**
+     * This method returns the ids of the contributions whose contest is not closed
+     *
+     * @param ids the ids of the contributions
+     * @return the ids of the contributions that can still be voted
+     */
+    @Query("SELECT c.id FROM Contribution c WHERE c.id IN ?1 " +
+            "AND c.contest.contestStatus <> it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus.CLOSED")
+    List<Long> findOpenIdsByIdIn(Collection<Long> ids);
+
+    /**
+     * This method adds a vote to the counter of a contribution, with a single update of its row, unless the contest
+     * of the contribution is closed
+     *
+     * @param id the id of the contribution
+     * @return 1 if the counter has been updated, 0 if the contribution does not exist or its contest is closed
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Contribution c SET c.totalVotes = c.totalVotes + 1 WHERE c.id = ?1 AND c.contest.id IN " +
+            "(SELECT cc.id FROM ContributionContest cc " +
+            "WHERE cc.contestStatus <> it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus.CLOSED)")
+    int incrementTotalVotes(Long id);
+
+    /**
+     * This method adds many votes to the counter of a contribution, with a single update of its row
+     *
+     * @param id    the id of the contribution
+     * @param votes the number of votes to add
+     * @return 1 if the counter has been updated, 0 if the contribution does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Contribution c SET c.totalVotes = c.totalVotes + ?2 WHERE c.id = ?1")
+    int addTotalVotes(Long id, int votes);
+
+    /**
+     * This method removes the vote of a user from the counters of the contributions voted by the user, with a single
+     * update. It must be run before the votes of the user are deleted.
+     *
+     * @param voterId the id of the user
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Contribution c SET c.totalVotes = c.totalVotes - 1 WHERE c.id IN " +
+            "(SELECT v.contribution.id FROM Vote v WHERE v.voter.id = ?1)")
+    void removeVotesOf(Long voterId);
+
+    /**
+     * This method sets the counter of every contribution to the number of its saved votes
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Contribution c SET c.totalVotes = (SELECT count(v) FROM Vote v WHERE v.contribution = c)")
+    void recountTotalVotes();
 }
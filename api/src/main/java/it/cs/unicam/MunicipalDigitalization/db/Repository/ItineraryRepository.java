@@ -4,16 +4,25 @@ import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ElementFacets;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ElementName;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ItinerarySummary;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.NamedElement;
 import lombok.NonNull;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * This is the Repository of the itineraries
  */
+@Transactional(readOnly = true)
 public interface ItineraryRepository extends JpaRepository<AbstractItinerary, Long> {
 
     /**
@@ -61,6 +70,23 @@ public interface ItineraryRepository extends JpaRepository<AbstractItinerary, Lo
     @Query("SELECT i FROM AbstractItinerary i WHERE i.elementStatus = ?1")
     List<AbstractItinerary> findAllByElementStatus(ElementStatus elementStatus);
 
+    /**
+     * This method is used to find the names of the itineraries with a specific status, without loading the itineraries
+     *
+     * @param status the status of the itineraries
+     * @return a List of names with the id of their municipality
+     */
+    @Query("SELECT i.id AS id, i.name AS name, i.municipality.id AS municipalityId FROM AbstractItinerary i WHERE i.elementStatus = ?1")
+    List<NamedElement> findNamesByElementStatus(ElementStatus status);
+
+    /**
+     * This method is used to find the facets of all the itineraries, without loading the itineraries
+     *
+     * @return the list of the municipality and the status of every itinerary
+     */
+    @Query("SELECT i.id AS id, i.municipality.id AS municipalityId, i.elementStatus AS elementStatus FROM AbstractItinerary i")
+    List<ElementFacets> findAllFacets();
+
     /**
      * This method is used to find an Itinerary by the id of a content
      *
@@ -69,4 +95,81 @@ public interface ItineraryRepository extends JpaRepository<AbstractItinerary, Lo
      */
     @Query("SELECT i FROM AbstractItinerary i JOIN i.listOfContents c WHERE c.id = ?1")
     AbstractItinerary getItineraryByContentId(long requestID);
+
+    /**
+     * This Method is used to find a page of the Itineraries of a Municipality with a Status, reading only the columns of the output DTO
+     *
+     * @param municipalityId id of the Municipality
+     * @param status         of the Itineraries
+     * @param afterId        the id after which the page starts
+     * @param limit          the maximum number of Itineraries
+     * @return a List of Itinerary projections ordered by id
+     */
+    @Query("SELECT i.id AS id, i.name AS name, m.name AS municipalityName, i.types AS types, " +
+            "i.description AS description, i.coordinate.x AS x, i.coordinate.y AS y, i.creationDate AS creationDate " +
+            "FROM AbstractItinerary i JOIN i.municipality m WHERE m.id = ?1 AND i.elementStatus = ?2 AND i.id > ?3 ORDER BY i.id")
+    List<ItinerarySummary> findSummariesByMunicipalityIdAndStatus(Long municipalityId, ElementStatus status, Long afterId, Limit limit);
+
+    /**
+     * This Method is used to find the names of the Contents, with a Status, of the Itineraries of a Municipality with the
+     * same Status and with an id in a range, that is the range of a page
+     *
+     * @param municipalityId id of the Municipality
+     * @param status         of the Itineraries and of the Contents
+     * @param fromId         the first id of the Itineraries
+     * @param toId           the last id of the Itineraries
+     * @return a List of Content names with the id of their Itinerary
+     */
+    @Query("SELECT i.id AS elementId, c.name AS name FROM AbstractItinerary i JOIN i.listOfContents c " +
+            "WHERE i.municipality.id = ?1 AND i.elementStatus = ?2 AND c.elementStatus = ?2 AND i.id BETWEEN ?3 AND ?4 ORDER BY c.id")
+    List<ElementName> findContentNamesByMunicipalityIdAndStatus(Long municipalityId, ElementStatus status, Long fromId, Long toId);
+
+    /**
+     * This Method is used to find the names of the POIs of the Itineraries of a Municipality with a Status and with an
+     * id in a range, that is the range of a page.
+     * It is a native query so that the POIs are returned in the order of the join table, which is the order of the Itinerary
+     *
+     * @param municipalityId id of the Municipality
+     * @param status         ordinal of the Status of the Itineraries
+     * @param fromId         the first id of the Itineraries
+     * @param toId           the last id of the Itineraries
+     * @return a List of POI names with the id of their Itinerary
+     */
+    @Query(value = "SELECT ip.Itinerary_ID AS elementId, p.Name AS name FROM Itinerary_POIs ip " +
+            "JOIN Itineraries i ON i.id = ip.Itinerary_ID JOIN Pois p ON p.id = ip.POI_ID " +
+            "WHERE i.municipality = ?1 AND i.Status = ?2 AND i.id BETWEEN ?3 AND ?4 ORDER BY ip.rowid", nativeQuery = true)
+    List<ElementName> findPOINamesByMunicipalityIdAndStatus(Long municipalityId, int status, Long fromId, Long toId);
+
+    /**
+     * This Method is used to find a page of the Itineraries of a Municipality with a Status
+     *
+     * @param municipalityId id of the Municipality
+     * @param status         of the Itineraries
+     * @param afterId        the id after which the page starts
+     * @param limit          the maximum number of Itineraries
+     * @return a List of Itineraries ordered by id
+     */
+    @EntityGraph("AbstractItinerary.withMunicipality")
+    @Query("SELECT i FROM AbstractItinerary i WHERE i.municipality.id = ?1 AND i.elementStatus = ?2 AND i.id > ?3 ORDER BY i.id")
+    List<AbstractItinerary> findAllByMunicipalityIdAndStatus(Long municipalityId, ElementStatus status, Long afterId, Limit limit);
+
+    /**
+     * This method is used to find an itinerary by its id, together with its municipality
+     *
+     * @param id the id of the itinerary
+     * @return the itinerary if exists
+     */
+    @EntityGraph("AbstractItinerary.withMunicipality")
+    @Query("SELECT i FROM AbstractItinerary i WHERE i.id = ?1")
+    Optional<AbstractItinerary> findWithMunicipalityById(Long id);
+
+    /**
+     * This method is used to find the itineraries with the given ids, together with their municipality
+     *
+     * @param ids the ids of the itineraries
+     * @return the itineraries that exist
+     */
+    @EntityGraph("AbstractItinerary.withMunicipality")
+    @Query("SELECT i FROM AbstractItinerary i WHERE i.id IN ?1")
+    List<AbstractItinerary> findAllWithMunicipalityByIdIn(Collection<Long> ids);
 }
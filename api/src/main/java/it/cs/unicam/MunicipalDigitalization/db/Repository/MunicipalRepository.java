@@ -1,9 +1,16 @@
 package it.cs.unicam.MunicipalDigitalization.db.Repository;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.MunicipalityVersion;
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,6 +18,7 @@ import java.util.Optional;
 /**
  * This is the Repository of the Municipality
  */
+@Transactional(readOnly = true)
 public interface MunicipalRepository extends JpaRepository<Municipality, Long> {
 
     /**
@@ -34,6 +42,7 @@ public interface MunicipalRepository extends JpaRepository<Municipality, Long> {
     /**
      * This is a Method to remove all the Municipalities
      */
+    @Transactional
     void removeAllByName(@NonNull String name);
 
     /**
@@ -44,6 +53,54 @@ public interface MunicipalRepository extends JpaRepository<Municipality, Long> {
     @Query("SELECT m FROM Municipality m")
     List<Municipality> findAll();
 
+    /**
+     * This is a Method to find the data versions of a page of the Municipalities, without loading the Municipalities
+     *
+     * @param afterId the id after which the page starts
+     * @param limit   the maximum number of Municipalities
+     * @return a List of the ids and the data versions ordered by id
+     */
+    @Query("SELECT m.id AS id, m.dataVersion AS dataVersion FROM Municipality m WHERE m.id > ?1 ORDER BY m.id")
+    List<MunicipalityVersion> findVersionsAfterId(Long afterId, Limit limit);
+
+    /**
+     * This is a Method to find all the Municipalities with their territory loaded in the same query.
+     * The territory has no order column, so the order of its coordinates is not preserved by the join
+     *
+     * @return a List of Municipalities
+     */
+    @Query("SELECT m FROM Municipality m LEFT JOIN FETCH m.territory")
+    List<Municipality> findAllWithTerritory();
+
+
+    /**
+     * This is a Method to find the Municipalities with the given name, ignoring the case
+     *
+     * @param name of the Municipality
+     * @return a List of Municipalities
+     */
+    @Query("SELECT m FROM Municipality m WHERE LOWER(m.name) = LOWER(?1)")
+    List<Municipality> findAllByNameIgnoreCase(String name);
+
+    /**
+     * This is a Method to find the Municipalities whose bounding box intersects the given one
+     *
+     * @param minX the minimum x value of the box
+     * @param minY the minimum y value of the box
+     * @param maxX the maximum x value of the box
+     * @param maxY the maximum y value of the box
+     * @return a List of Municipalities
+     */
+    @Query("SELECT m FROM Municipality m WHERE m.minX <= ?3 AND m.maxX >= ?1 AND m.minY <= ?4 AND m.maxY >= ?2")
+    List<Municipality> findAllByBoundingBoxIntersecting(double minX, double minY, double maxX, double maxY);
+
+    /**
+     * This is a Method to find the Municipalities saved before the introduction of the bounding box
+     *
+     * @return a List of Municipalities with their territory
+     */
+    @Query("SELECT m FROM Municipality m LEFT JOIN FETCH m.territory WHERE m.minX IS NULL")
+    List<Municipality> findAllByBoundingBoxIsNull();
 
     /**
      * This is a Method to find a Municipality by a POI in the POI List
@@ -62,4 +119,24 @@ public interface MunicipalRepository extends JpaRepository<Municipality, Long> {
      */
     @Query("SELECT m FROM Municipality m JOIN m.listOfItineraries i WHERE i.id = :itineraryID")
     Municipality findByItineraryInItineraryList(long itineraryID);
+
+    /**
+     * This is a Method to find the data version of every Municipality, without loading the Municipalities
+     *
+     * @return a List of the ids and the data versions
+     */
+    @Query("SELECT m.id AS id, m.dataVersion AS dataVersion FROM Municipality m")
+    List<MunicipalityVersion> findAllVersions();
+
+    /**
+     * This is a Method to increase the data version of a Municipality. It does not flush the changes of the current
+     * transaction, which never write the data version.
+     *
+     * @param id of the Municipality
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("UPDATE Municipality m SET m.dataVersion = m.dataVersion + 1 WHERE m.id = ?1")
+    void incrementDataVersion(Long id);
 }
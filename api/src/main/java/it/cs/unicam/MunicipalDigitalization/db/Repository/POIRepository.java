@@ -4,16 +4,25 @@ import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.POIType;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ElementFacets;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ElementName;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.NamedElement;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.POISummary;
 import lombok.NonNull;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * This is the Repository of the POIs
  */
+@Transactional(readOnly = true)
 public interface POIRepository extends JpaRepository<AbstractPOI, Long> {
 
 
@@ -35,6 +44,23 @@ public interface POIRepository extends JpaRepository<AbstractPOI, Long> {
     @Query("SELECT p FROM AbstractPOI p WHERE p.elementStatus = ?1")
     List<AbstractPOI> findAllByElementStatus(ElementStatus status);
 
+    /**
+     * This Method is used to find the names of the POIs with a Status, without loading the POIs
+     *
+     * @param status of the POIs
+     * @return a List of names with the id of their municipality
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.municipality.id AS municipalityId FROM AbstractPOI p WHERE p.elementStatus = ?1")
+    List<NamedElement> findNamesByElementStatus(ElementStatus status);
+
+    /**
+     * This Method is used to find the facets of all the POIs, without loading the POIs
+     *
+     * @return a List of the municipality, the status and the type of every POI
+     */
+    @Query("SELECT p.id AS id, p.municipality.id AS municipalityId, p.elementStatus AS elementStatus, p.POIType AS poiType FROM AbstractPOI p")
+    List<ElementFacets.POIFacets> findAllFacets();
+
     /**
      * This Method is used to find a List of POIs created by an Author
      *
@@ -79,4 +105,101 @@ public interface POIRepository extends JpaRepository<AbstractPOI, Long> {
      */
     @Query("SELECT p FROM AbstractPOI p JOIN p.listOfContents c WHERE c.id=?1")
     AbstractPOI getPoiByContentID(Long id);
+
+    /**
+     * This Method is used to check if a POI with the given duplicate key exists
+     *
+     * @param duplicateKey the duplicate key of the POI
+     * @return true if a POI with the given duplicate key exists
+     */
+    @Query("SELECT COUNT(p) > 0 FROM AbstractPOI p WHERE p.duplicateKey=?1")
+    boolean existsByDuplicateKey(String duplicateKey);
+
+    /**
+     * This Method is used to check if a POI, different from the given one, with the given duplicate key exists
+     *
+     * @param duplicateKey the duplicate key of the POI
+     * @param id           the id of the POI to exclude
+     * @return true if another POI with the given duplicate key exists
+     */
+    @Query("SELECT COUNT(p) > 0 FROM AbstractPOI p WHERE p.duplicateKey=?1 AND p.id<>?2")
+    boolean existsByDuplicateKeyAndIdNot(String duplicateKey, Long id);
+
+    /**
+     * This Method is used to find which of the given duplicate keys are already used by a POI
+     *
+     * @param duplicateKeys the duplicate keys to check
+     * @return the duplicate keys already used
+     */
+    @Query("SELECT DISTINCT p.duplicateKey FROM AbstractPOI p WHERE p.duplicateKey IN ?1")
+    List<String> findDuplicateKeysIn(Collection<String> duplicateKeys);
+
+    /**
+     * This Method is used to find the POIs saved before the introduction of the duplicate key
+     *
+     * @return a List of POIs without a duplicate key
+     */
+    @Query("SELECT p FROM AbstractPOI p WHERE p.duplicateKey IS NULL")
+    List<AbstractPOI> findAllByDuplicateKeyIsNull();
+
+    /**
+     * This Method is used to find a page of the POIs of a Municipality with a Status, reading only the columns of the output DTO
+     *
+     * @param municipalityId id of the Municipality
+     * @param status         of the POIs
+     * @param afterId        the id after which the page starts
+     * @param limit          the maximum number of POIs
+     * @return a List of POI projections ordered by id
+     */
+    @Query("SELECT p.id AS id, p.name AS name, m.name AS municipalityName, p.POIType AS poiType, " +
+            "p.coordinate.x AS x, p.coordinate.y AS y, p.creationDate AS creationDate " +
+            "FROM AbstractPOI p JOIN p.municipality m WHERE m.id = ?1 AND p.elementStatus = ?2 AND p.id > ?3 ORDER BY p.id")
+    List<POISummary> findSummariesByMunicipalityIdAndStatus(Long municipalityId, ElementStatus status, Long afterId, Limit limit);
+
+    /**
+     * This Method is used to find the names of the Contents, with a Status, of the POIs of a Municipality with the same
+     * Status and with an id in a range, that is the range of a page
+     *
+     * @param municipalityId id of the Municipality
+     * @param status         of the POIs and of the Contents
+     * @param fromId         the first id of the POIs
+     * @param toId           the last id of the POIs
+     * @return a List of Content names with the id of their POI
+     */
+    @Query("SELECT p.id AS elementId, c.name AS name FROM AbstractPOI p JOIN p.listOfContents c " +
+            "WHERE p.municipality.id = ?1 AND p.elementStatus = ?2 AND c.elementStatus = ?2 AND p.id BETWEEN ?3 AND ?4 ORDER BY c.id")
+    List<ElementName> findContentNamesByMunicipalityIdAndStatus(Long municipalityId, ElementStatus status, Long fromId, Long toId);
+
+    /**
+     * This Method is used to find a page of the POIs of a Municipality with a Status
+     *
+     * @param municipalityId id of the Municipality
+     * @param status         of the POIs
+     * @param afterId        the id after which the page starts
+     * @param limit          the maximum number of POIs
+     * @return a List of POIs ordered by id
+     */
+    @EntityGraph("AbstractPOI.withMunicipality")
+    @Query("SELECT p FROM AbstractPOI p WHERE p.municipality.id = ?1 AND p.elementStatus = ?2 AND p.id > ?3 ORDER BY p.id")
+    List<AbstractPOI> findAllByMunicipalityIdAndStatus(Long municipalityId, ElementStatus status, Long afterId, Limit limit);
+
+    /**
+     * This Method is used to find a POI by its id, together with its Municipality
+     *
+     * @param id the id of the POI
+     * @return the POI if exists
+     */
+    @EntityGraph("AbstractPOI.withMunicipality")
+    @Query("SELECT p FROM AbstractPOI p WHERE p.id = ?1")
+    Optional<AbstractPOI> findWithMunicipalityById(Long id);
+
+    /**
+     * This Method is used to find the POIs with the given ids, together with their Municipality
+     *
+     * @param ids the ids of the POIs
+     * @return a List of the POIs that exist
+     */
+    @EntityGraph("AbstractPOI.withMunicipality")
+    @Query("SELECT p FROM AbstractPOI p WHERE p.id IN ?1")
+    List<AbstractPOI> findAllWithMunicipalityByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,54 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.Participation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+public interface ParticipationRepository extends JpaRepository<Participation, Participation.Key> {
+
+    /**
+     * This method adds a user to the participants of a contest, unless the user already participates.
+     * The check and the insert are a single statement on the unique index of the participations.
+     *
+     * @param contestId the id of the contest
+     * @param userId    the id of the user
+     * @return 1 if the participation has been saved, 0 if the user already participates to the contest
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO ContestParticipants (contest_id, user_id) VALUES (?1, ?2)", nativeQuery = true)
+    int insertParticipation(Long contestId, Long userId);
+
+    boolean existsByContestIdAndUserId(Long contestId, Long userId);
+
+    /**
+     * This method removes the participations repeated in the join table saved before the introduction of the
+     * unique index, keeping the first one.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM ContestParticipants WHERE rowid NOT IN " +
+            "(SELECT min(rowid) FROM ContestParticipants GROUP BY contest_id, user_id)", nativeQuery = true)
+    int deleteDuplicates();
+
+    /**
+     * This method creates the unique index on the contest and the user of the participations, if it does not exist.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "CREATE UNIQUE INDEX IF NOT EXISTS UniqueParticipation ON ContestParticipants (contest_id, user_id)", nativeQuery = true)
+    void createUniqueIndex();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Participation p WHERE p.contest.id = ?1")
+    void deleteByContestId(Long contestId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Participation p WHERE p.user.id = ?1")
+    void deleteByUserId(Long userId);
+}
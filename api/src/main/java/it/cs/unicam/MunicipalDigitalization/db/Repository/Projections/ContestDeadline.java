@@ -0,0 +1,15 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * This is the projection of the deadlines of a ContributionContest, used to schedule them when the application starts
+ */
+public interface ContestDeadline {
+
+    Long getId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+}
@@ -0,0 +1,15 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
+
+/**
+ * This is the projection of the contest of a Contribution, used to check that the contest still accepts votes
+ */
+public interface ContributionContestState {
+
+    Long getContestId();
+
+    Long getMunicipalityId();
+
+    ContestStatus getContestStatus();
+}
@@ -0,0 +1,17 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+/**
+ * This is the projection of the columns of a Contribution needed by the leaderboard of its contest
+ */
+public interface ContributionScore {
+
+    Long getId();
+
+    Long getContestId();
+
+    String getTitle();
+
+    String getAuthorName();
+
+    int getTotalVotes();
+}
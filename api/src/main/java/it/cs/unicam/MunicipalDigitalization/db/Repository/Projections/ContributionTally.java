@@ -0,0 +1,11 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+/**
+ * This is the projection of the saved votes of a Contribution, counted when its contest is closed
+ */
+public interface ContributionTally {
+
+    Long getContributionId();
+
+    long getVotes();
+}
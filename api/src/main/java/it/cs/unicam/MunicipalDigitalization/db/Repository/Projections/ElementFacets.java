@@ -0,0 +1,33 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.ContentType;
+import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.POIType;
+
+/**
+ * This is the projection of the columns of an element counted by the facets
+ */
+public interface ElementFacets {
+
+    Long getId();
+
+    Long getMunicipalityId();
+
+    ElementStatus getElementStatus();
+
+    /**
+     * This is the projection of the columns of a POI counted by the facets
+     */
+    interface POIFacets extends ElementFacets {
+
+        POIType getPoiType();
+    }
+
+    /**
+     * This is the projection of the columns of a content counted by the facets
+     */
+    interface ContentFacets extends ElementFacets {
+
+        ContentType getContentType();
+    }
+}
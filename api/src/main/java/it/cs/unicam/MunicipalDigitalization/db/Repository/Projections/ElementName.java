@@ -0,0 +1,30 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * This is the projection of the name of an element referred by another element, like the name of a content of a POI
+ */
+public interface ElementName {
+
+    /**
+     * @return the id of the element that refers the named element
+     */
+    Long getElementId();
+
+    String getName();
+
+    /**
+     * This method groups a list of names by the id of the element that refers them, keeping their order
+     *
+     * @param names the list of names
+     * @return the names grouped by the id of the element
+     */
+    static Map<Long, List<String>> groupByElement(List<ElementName> names) {
+        return names.stream().collect(Collectors.groupingBy(ElementName::getElementId, LinkedHashMap::new,
+                Collectors.mapping(ElementName::getName, Collectors.toList())));
+    }
+}
@@ -0,0 +1,25 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * This is the projection of the columns of an Itinerary needed by its output DTO
+ */
+public interface ItinerarySummary {
+
+    Long getId();
+
+    String getName();
+
+    String getMunicipalityName();
+
+    String getTypes();
+
+    String getDescription();
+
+    double getX();
+
+    double getY();
+
+    LocalDateTime getCreationDate();
+}
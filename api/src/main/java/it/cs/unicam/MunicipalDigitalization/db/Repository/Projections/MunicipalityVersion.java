@@ -0,0 +1,11 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+/**
+ * This is the projection of the data version of a municipality
+ */
+public interface MunicipalityVersion {
+
+    Long getId();
+
+    long getDataVersion();
+}
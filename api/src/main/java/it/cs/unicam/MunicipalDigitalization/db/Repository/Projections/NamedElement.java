@@ -0,0 +1,13 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+/**
+ * This is the projection of the name of an element and of the id of its municipality
+ */
+public interface NamedElement {
+
+    Long getId();
+
+    String getName();
+
+    Long getMunicipalityId();
+}
@@ -0,0 +1,25 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.POIType;
+
+import java.time.LocalDateTime;
+
+/**
+ * This is the projection of the columns of a POI needed by its output DTO
+ */
+public interface POISummary {
+
+    Long getId();
+
+    String getName();
+
+    String getMunicipalityName();
+
+    POIType getPoiType();
+
+    double getX();
+
+    double getY();
+
+    LocalDateTime getCreationDate();
+}
@@ -0,0 +1,15 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository.Projections;
+
+/**
+ * This is the projection of a document of the search index found by a search
+ */
+public interface SearchHit {
+
+    String getType();
+
+    Long getElementId();
+
+    String getName();
+
+    Long getMunicipalityId();
+}
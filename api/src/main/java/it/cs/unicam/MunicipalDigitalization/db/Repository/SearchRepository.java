@@ -0,0 +1,105 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.SearchHit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * This repository contains the queries of the search index, a FTS5 virtual table of SQLite with a document for every
+ * published POI, itinerary and content. A document has the name and the text of its element, which are searched,
+ * and a scope with the type and the municipality of the element, which is used to filter the results.
+ * The rowid of a document is made of the id and the type of its element.
+ * The table is not an entity, so all the queries are native. The queries that change the documents get all their
+ * values as parameters, so they do not flush the entities changed in the same transaction, which are written once
+ * at the commit.
+ */
+@Transactional(readOnly = true)
+public interface SearchRepository extends Repository<AbstractPOI, Long> {
+
+    /**
+     * This method returns 1 if the search index exists.
+     */
+    @Query(value = "SELECT count(*) FROM sqlite_master WHERE type = 'table' AND name = 'SearchIndex'", nativeQuery = true)
+    int countSearchTables();
+
+    /**
+     * This method creates the search index. The names are ranked ten times more than the texts, and the accents are
+     * ignored.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "CREATE VIRTUAL TABLE IF NOT EXISTS SearchIndex USING fts5(name, body, scope, " +
+            "type UNINDEXED, element_id UNINDEXED, municipality_id UNINDEXED, tokenize = 'unicode61 remove_diacritics 1')",
+            nativeQuery = true)
+    void createSearchTable();
+
+    /**
+     * This method sets the ranking of the search index to bm25, with the weights of the name, the text and the scope.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO SearchIndex (SearchIndex, rank) VALUES ('rank', 'bm25(10.0, 1.0, 0.0)')", nativeQuery = true)
+    void setRanking();
+
+    /**
+     * This method saves the document of an element, replacing the previous one.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(value = "INSERT OR REPLACE INTO SearchIndex (rowid, name, body, scope, type, element_id, municipality_id) " +
+            "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7)", nativeQuery = true)
+    void saveDocument(long rowId, String name, String body, String scope, String type, Long elementId, Long municipalityId);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(value = "DELETE FROM SearchIndex WHERE rowid = ?1", nativeQuery = true)
+    void deleteDocument(long rowId);
+
+    /**
+     * This method deletes the documents that match a query, used to delete the documents of a municipality.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(value = "DELETE FROM SearchIndex WHERE rowid IN (SELECT rowid FROM SearchIndex WHERE SearchIndex MATCH ?1)",
+            nativeQuery = true)
+    void deleteDocuments(String match);
+
+    /**
+     * This method returns the documents that match a query, ordered by rank.
+     *
+     * @param match the FTS5 query
+     * @param limit the maximum number of documents
+     * @return the documents found
+     */
+    @Query(value = "SELECT type AS type, element_id AS elementId, name AS name, municipality_id AS municipalityId " +
+            "FROM SearchIndex WHERE SearchIndex MATCH ?1 ORDER BY rank LIMIT ?2", nativeQuery = true)
+    List<SearchHit> search(String match, int limit);
+
+    /**
+     * This method indexes the published POIs saved before the search index existed.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO SearchIndex (rowid, name, body, scope, type, element_id, municipality_id) " +
+            "SELECT id * 4 + ?1, Name, '', 'm' || municipality || ' poi', 'POI', id, municipality FROM Pois WHERE Status = ?4 " +
+            "UNION ALL " +
+            "SELECT id * 4 + ?2, Name, Description, 'm' || municipality || ' itinerary', 'ITINERARY', id, municipality " +
+            "FROM Itineraries WHERE Status = ?4 " +
+            "UNION ALL " +
+            "SELECT c.id * 4 + ?3, c.Name, CASE WHEN c.\"Content Type\" = 'DESCRIPTION' THEN coalesce(c.Photo, '') ELSE '' END, " +
+            "'m' || coalesce(p.municipality, i.municipality) || ' content', 'CONTENT', c.id, coalesce(p.municipality, i.municipality) " +
+            "FROM Contents c LEFT JOIN Pois p ON p.id = c.ReferredPOI LEFT JOIN Itineraries i ON i.id = c.ReferredItinerary " +
+            "WHERE c.Status = ?4 AND coalesce(p.municipality, i.municipality) IS NOT NULL", nativeQuery = true)
+    void indexPublishedElements(int poiType, int itineraryType, int contentType, int publishedStatus);
+}
@@ -4,8 +4,11 @@ import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
 import lombok.NonNull;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +16,7 @@ import java.util.Optional;
 /**
  * This repository represents the User Repository
  */
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<AbstractAuthenticatedUser, Long> {
 
     /**
@@ -64,4 +68,37 @@ public interface UserRepository extends JpaRepository<AbstractAuthenticatedUser,
 
     @Query("SELECT u FROM AbstractAuthenticatedUser u JOIN u.authoredContents c WHERE c.id = :requestID")
     AbstractAuthenticatedUser findByAuthoredContentsId(long requestID);
+
+    /**
+     * This is a Method used to find a page of the Users of a Municipality by its id
+     *
+     * @param municipalityId id of the Municipality
+     * @param afterId        the id after which the page starts
+     * @param limit          the maximum number of Users
+     * @return a List of Users ordered by id
+     */
+    @EntityGraph("AbstractAuthenticatedUser.withMunicipality")
+    @Query("SELECT u FROM AbstractAuthenticatedUser u WHERE u.municipality.id = ?1 AND u.id > ?2 ORDER BY u.id")
+    List<AbstractAuthenticatedUser> findAllByMunicipalityId(Long municipalityId, Long afterId, Limit limit);
+
+    /**
+     * This is a Method used to find a page of the Users
+     *
+     * @param afterId the id after which the page starts
+     * @param limit   the maximum number of Users
+     * @return a List of Users ordered by id
+     */
+    @EntityGraph("AbstractAuthenticatedUser.withMunicipality")
+    @Query("SELECT u FROM AbstractAuthenticatedUser u WHERE u.id > ?1 ORDER BY u.id")
+    List<AbstractAuthenticatedUser> findAllAfterId(Long afterId, Limit limit);
+
+    /**
+     * Method used to find a user by its ID, together with its Municipality
+     *
+     * @param id the id of the user
+     * @return the user if exists
+     */
+    @EntityGraph("AbstractAuthenticatedUser.withMunicipality")
+    @Query("SELECT u FROM AbstractAuthenticatedUser u WHERE u.id = ?1")
+    Optional<AbstractAuthenticatedUser> findWithMunicipalityById(Long id);
 }
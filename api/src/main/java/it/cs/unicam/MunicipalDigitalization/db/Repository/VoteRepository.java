@@ -0,0 +1,111 @@
+package it.cs.unicam.MunicipalDigitalization.db.Repository;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.Vote;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ContributionTally;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface VoteRepository extends JpaRepository<Vote, Long> {
+
+    /**
+     * This method saves the vote of a user to a contribution, unless the user already voted it.
+     * The check and the insert are a single statement on the unique index of the votes.
+     *
+     * @param contributionId the id of the contribution
+     * @param voterId        the id of the user
+     * @return 1 if the vote has been saved, 0 if the user already voted the contribution
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO Votes (contribution_id, voter_id) VALUES (?1, ?2)", nativeQuery = true)
+    int insertVote(Long contributionId, Long voterId);
+
+    /**
+     * This method creates the unique index on the contribution and the voter of the votes, if it does not exist.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "CREATE UNIQUE INDEX IF NOT EXISTS UniqueVote ON Votes (contribution_id, voter_id)", nativeQuery = true)
+    void createUniqueIndex();
+
+    /**
+     * This method deletes the votes of the contributions of a contest, with a single statement
+     *
+     * @param contestId the id of the contest
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Vote v WHERE v.contribution.id IN (SELECT c.id FROM Contribution c WHERE c.contest.id = ?1)")
+    void deleteByContestId(Long contestId);
+
+    /**
+     * This method deletes the votes of a user, with a single statement
+     *
+     * @param voterId the id of the user
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Vote v WHERE v.voter.id = ?1")
+    void deleteByVoterId(Long voterId);
+
+    boolean existsByContributionIdAndVoterId(Long contributionId, Long voterId);
+
+    long countByContributionId(Long contributionId);
+
+    /**
+     * This method returns the ids of the users who voted a contribution
+     *
+     * @param contributionId the id of the contribution
+     * @return the ids of the voters
+     */
+    @Query("SELECT v.voter.id FROM Vote v WHERE v.contribution.id = ?1")
+    List<Long> findVoterIdsByContributionId(Long contributionId);
+
+    /**
+     * This method returns the ids of the contributions voted by a user
+     *
+     * @param voterId the id of the user
+     * @return the ids of the voted contributions
+     */
+    @Query("SELECT v.contribution.id FROM Vote v WHERE v.voter.id = ?1")
+    List<Long> findContributionIdsByVoterId(Long voterId);
+
+    /**
+     * This method counts the saved votes of the contributions of a contest, with a single aggregate query
+     *
+     * @param contestId the id of the contest
+     * @param limit     the maximum number of contributions
+     * @return the voted contributions, ordered by votes and then by id
+     */
+    @Query("SELECT v.contribution.id AS contributionId, count(v) AS votes FROM Vote v WHERE v.contribution.contest.id = ?1 " +
+            "GROUP BY v.contribution.id ORDER BY count(v) DESC, v.contribution.id")
+    List<ContributionTally> findTallyByContestId(Long contestId, Limit limit);
+
+    /**
+     * This method returns 1 if the join table of the votes saved before the introduction of the vote table exists.
+     */
+    @Query(value = "SELECT count(*) FROM sqlite_master WHERE type = 'table' AND name = 'VotedContributions'", nativeQuery = true)
+    int countLegacyVoteTables();
+
+    /**
+     * This method copies the votes of the old join table to the vote table.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO Votes (contribution_id, voter_id) SELECT contribution_id, user_id FROM VotedContributions", nativeQuery = true)
+    int copyLegacyVotes();
+
+    /**
+     * This method drops the old join table of the votes, once its votes have been copied.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DROP TABLE VotedContributions", nativeQuery = true)
+    void dropLegacyVotes();
+}
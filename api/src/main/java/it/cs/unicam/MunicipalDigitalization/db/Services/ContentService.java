@@ -6,6 +6,7 @@ import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
 import it.cs.unicam.MunicipalDigitalization.db.Repository.ContentRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -60,5 +61,9 @@ public class ContentService {
     public List<AbstractContent> getPendingContents() {
         return contentRepository.findAllByElementStatus(ElementStatus.PENDING);
     }
+
+    public List<AbstractContent> getContentsByMunicipalityIdAndStatus(Long municipalityId, ElementStatus status, long afterId, Limit limit) {
+        return contentRepository.findAllByMunicipalityIdAndElementStatus(municipalityId, status, afterId, limit);
+    }
 }
 
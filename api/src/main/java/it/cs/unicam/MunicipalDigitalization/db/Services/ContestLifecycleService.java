@@ -0,0 +1,219 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
+import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.HashedTimerWheel;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContestRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContributionRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ContestDeadline;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ContributionTally;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.VoteRepository;
+import it.cs.unicam.MunicipalDigitalization.db.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class for the deadlines of the contests. A contest with a start date is started when the date is reached,
+ * if it has enough participants, and a contest with an end date is closed when the date is reached: the saved votes
+ * of its contributions are counted with a single query and the contribution with the most votes is saved as the
+ * winner. The contributions with the same votes are ordered by id, as in the leaderboard.
+ * All the deadlines wait in a single timer wheel, so a pending contest costs no thread and no query. The deadlines
+ * are saved with the contests, and they are loaded again when the application starts, so the deadlines passed while
+ * the application was stopped are run at once. The deadlines are run one at a time by a single thread.
+ */
+@Service
+public class ContestLifecycleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContestLifecycleService.class);
+
+    /**
+     * The longest wait of a deadline in the timer wheel. A later deadline waits this long, then it is scheduled again.
+     */
+    private static final Duration MAX_DELAY = Duration.ofDays(7);
+
+    private final ContestRepository contestRepository;
+    private final ContributionRepository contributionRepository;
+    private final VoteRepository voteRepository;
+    private final VoteIngestionService voteIngestionService;
+    private final TransactionTemplate transactionTemplate;
+    private final PublishedDataCache publishedDataCache;
+
+    /**
+     * The thread that starts and closes the contests
+     */
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contest-lifecycle");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HashedTimerWheel timerWheel;
+
+    @Autowired
+    public ContestLifecycleService(ContestRepository contestRepository, ContributionRepository contributionRepository,
+                                   VoteRepository voteRepository, VoteIngestionService voteIngestionService,
+                                   TransactionTemplate transactionTemplate, PublishedDataCache publishedDataCache,
+                                   Environment env) {
+        this.contestRepository = contestRepository;
+        this.contributionRepository = contributionRepository;
+        this.voteRepository = voteRepository;
+        this.voteIngestionService = voteIngestionService;
+        this.transactionTemplate = transactionTemplate;
+        this.publishedDataCache = publishedDataCache;
+        this.timerWheel = new HashedTimerWheel("contest-timer",
+                env.getProperty("contest.timer-tick-ms", Long.class, 1000L),
+                env.getProperty("contest.timer-wheel-size", Integer.class, 512), this.runner);
+    }
+
+    /**
+     * This method starts the timer wheel and schedules the deadlines of the contests not closed yet.
+     */
+    @PostConstruct
+    public void start() {
+        this.timerWheel.start();
+        List<ContestDeadline> deadlines = this.contestRepository.findPendingDeadlines();
+        for (ContestDeadline deadline : deadlines) {
+            schedule(deadline.getId(), deadline.getStartDate(), deadline.getEndDate());
+        }
+        logger.info("{} contest deadlines scheduled", this.timerWheel.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        this.timerWheel.stop();
+        this.runner.shutdownNow();
+        this.runner.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * This method schedules the deadlines of a contest after the commit of the current transaction.
+     *
+     * @param contest the contest to schedule
+     */
+    public void scheduleContest(ContributionContest contest) {
+        Long contestId = contest.getId();
+        LocalDateTime startDate = contest.getStartDate();
+        LocalDateTime endDate = contest.getEndDate();
+        TransactionHooks.afterCommit(() -> schedule(contestId, startDate, endDate));
+    }
+
+    private void schedule(Long contestId, LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate != null) scheduleAt(startDate, () -> startContest(contestId));
+        if (endDate != null) scheduleAt(endDate, () -> closeContest(contestId));
+    }
+
+    /**
+     * This method schedules a deadline. A deadline later than the longest wait is run when the wait is over, and it
+     * finds its date still in the future and schedules itself again.
+     */
+    private void scheduleAt(LocalDateTime date, Runnable task) {
+        Duration delay = Duration.between(LocalDateTime.now(), date);
+        if (delay.compareTo(MAX_DELAY) > 0) delay = MAX_DELAY;
+        this.timerWheel.schedule(task, delay.toMillis());
+    }
+
+    /**
+     * This method starts a contest when its start date is reached. A contest without enough participants is left
+     * open, so it can still be started by an Animator until its end date.
+     *
+     * @param contestId the id of the contest
+     */
+    public void startContest(Long contestId) {
+        run(contestId, () -> this.transactionTemplate.executeWithoutResult(status -> {
+            ContributionContest contest = this.contestRepository.findById(contestId).orElse(null);
+            if (contest == null || contest.getContestStatus() != ContestStatus.OPEN || contest.getStartDate() == null)
+                return;
+            if (contest.getStartDate().isAfter(LocalDateTime.now())) {
+                scheduleAt(contest.getStartDate(), () -> startContest(contestId));
+                return;
+            }
+            if (contest.getActualNumberOfParticipants() > contest.getMinParticipants()) {
+                contest.setContestStatus(ContestStatus.ON_GOING);
+                this.contestRepository.save(contest);
+                this.publishedDataCache.invalidate(contest.getMunicipality().getId(), PublishedDataCache.Collection.CONTESTS);
+            } else logger.info("The contest {} has not enough participants to start", contestId);
+        }));
+    }
+
+    /**
+     * This method closes a contest when its end date is reached and saves its winner. The buffered ingestion stops
+     * accepting the votes of the contest before the close starts, and the votes it has already accepted are written
+     * before they are counted. If the contest is not closed its votes are accepted again.
+     *
+     * @param contestId the id of the contest
+     */
+    public void closeContest(Long contestId) {
+        run(contestId, () -> {
+            this.voteIngestionService.stopVoting(contestId);
+            boolean closed = false;
+            try {
+                closed = Boolean.TRUE.equals(this.transactionTemplate.execute(status -> close(contestId)));
+            } finally {
+                if (!closed) this.voteIngestionService.resumeVoting(contestId);
+            }
+        });
+    }
+
+    /**
+     * This method saves the winner of a contest whose end date is reached and closes it.
+     *
+     * @return false if the contest can still be voted, true otherwise
+     */
+    private boolean close(Long contestId) {
+        ContributionContest contest = this.contestRepository.findById(contestId).orElse(null);
+        if (contest == null || contest.getContestStatus() == ContestStatus.CLOSED) return true;
+        if (contest.getEndDate() == null) return false;
+        if (contest.getEndDate().isAfter(LocalDateTime.now())) {
+            scheduleAt(contest.getEndDate(), () -> closeContest(contestId));
+            return false;
+        }
+        List<ContributionTally> tally = this.voteRepository.findTallyByContestId(contestId, Limit.of(1));
+        if (tally.isEmpty()) {
+            contest.setWinner(null);
+            contest.setWinnerVotes(0);
+        } else {
+            contest.setWinner(this.contributionRepository.getReferenceById(tally.get(0).getContributionId()));
+            contest.setWinnerVotes((int) tally.get(0).getVotes());
+        }
+        contest.setContestStatus(ContestStatus.CLOSED);
+        this.contestRepository.save(contest);
+        TransactionHooks.afterCommit(() -> this.voteIngestionService.contestClosed(contestId));
+        this.publishedDataCache.invalidate(contest.getMunicipality().getId(), PublishedDataCache.Collection.CONTESTS);
+        return true;
+    }
+
+    /**
+     * This method runs a deadline of a contest. A deadline that fails is logged and run again when the application
+     * starts.
+     */
+    private void run(Long contestId, DeadlineTask task) {
+        try {
+            task.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("The deadline of the contest {} has not been run", contestId, e);
+        }
+    }
+
+    /**
+     * A deadline of a contest
+     */
+    private interface DeadlineTask {
+        void run() throws InterruptedException;
+    }
+}
@@ -5,18 +5,27 @@ import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionConte
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
 import it.cs.unicam.MunicipalDigitalization.db.Repository.ContestRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ParticipationRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.VoteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
 public class ContestService {
     private final ContestRepository contestRepository;
+    private final ParticipationRepository participationRepository;
+    private final VoteRepository voteRepository;
 
     @Autowired
-    public ContestService(ContestRepository contestRepository, UserService userService) {
+    public ContestService(ContestRepository contestRepository, ParticipationRepository participationRepository,
+                          VoteRepository voteRepository, UserService userService) {
         this.contestRepository = contestRepository;
+        this.participationRepository = participationRepository;
+        this.voteRepository = voteRepository;
     }
 
     /**
@@ -41,7 +50,8 @@ public class ContestService {
     }
 
     /**
-     * Method to validate a contest.
+     * Method to validate a contest. A rejected contest is deleted with its participations and the votes of its
+     * contributions.
      *
      * @param requestID The id of the request.
      * @param validated A boolean indicating if the contest is validated.
@@ -52,6 +62,8 @@ public class ContestService {
             contest.setContestStatus(ContestStatus.ON_GOING);
             contestRepository.save(contest);
         } else {
+            participationRepository.deleteByContestId(requestID);
+            voteRepository.deleteByContestId(requestID);
             contestRepository.deleteById(requestID);
         }
     }
@@ -65,6 +77,19 @@ public class ContestService {
         return contestRepository.findAll();
     }
 
+    /**
+     * Method to get a page of the contests of a municipality with one of the given statuses.
+     *
+     * @param municipalityId The id of the municipality.
+     * @param statuses       The statuses of the contests.
+     * @param afterId        The id after which the page starts.
+     * @param limit          The maximum number of contests.
+     * @return A list of contests.
+     */
+    public List<ContributionContest> getContestsByMunicipalityId(Long municipalityId, Collection<ContestStatus> statuses, long afterId, Limit limit) {
+        return contestRepository.findAllByMunicipalityIdAndContestStatusIn(municipalityId, statuses, afterId, limit);
+    }
+
     public List<Contribution> getContestContributions(Long id) {
         return contestRepository.findContributionByContestId(id);
     }
@@ -1,12 +1,15 @@
 package it.cs.unicam.MunicipalDigitalization.db.Services;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.Contribution;
-import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
 import it.cs.unicam.MunicipalDigitalization.db.Repository.ContributionRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.VoteRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -15,7 +18,7 @@ import java.util.List;
 public class ContributionService {
 
     private final ContributionRepository contributionRepository;
-    private final UserService userService;
+    private final VoteRepository voteRepository;
 
     public void saveContribution(Contribution contribution) {
         if (MatchingAlgorithms.isContributionSimilatrToAContributionList(contribution, contributionRepository.findAll())) {
@@ -28,15 +31,46 @@ public class ContributionService {
         return contributionRepository.getReferenceById(id);
     }
 
-    public void voteContribution(Long contributionId, AbstractAuthenticatedUser user) {
-        {
-            Contribution contribution = contributionRepository.getReferenceById(contributionId);
-            contribution.addVote(user);
-            contributionRepository.save(contribution);
+    /**
+     * Save the vote of a user to a contribution. The vote is saved with a single statement that is ignored if the
+     * user already voted, and the counter of the contribution is updated in the same transaction, so neither the
+     * voters of the contribution nor the voted contributions of the user are loaded. The counter is not updated if
+     * the contest of the contribution is closed, so no vote is saved after the winner has been chosen.
+     *
+     * @param contributionId ID of the contribution
+     * @param voterId        ID of the user
+     * @throws IllegalArgumentException if the contribution does not exist, its contest is closed or the user already
+     *                                  voted it
+     */
+    @Transactional
+    public void voteContribution(Long contributionId, Long voterId) {
+        if (contributionRepository.incrementTotalVotes(contributionId) == 0) {
+            throw new IllegalArgumentException(contributionRepository.findContestStateById(contributionId).isPresent()
+                    ? "Contest is closed" : "Contribution not found");
         }
+        if (voteRepository.insertVote(contributionId, voterId) == 0) {
+            throw new IllegalArgumentException("User already voted");
+        }
+    }
+
+    /**
+     * Create the unique index of the votes, then copy the votes saved before the introduction of the vote table
+     * and count the votes of every contribution
+     */
+    @PostConstruct
+    public void initVotes() {
+        voteRepository.createUniqueIndex();
+        if (voteRepository.countLegacyVoteTables() == 0) return;
+        voteRepository.copyLegacyVotes();
+        contributionRepository.recountTotalVotes();
+        voteRepository.dropLegacyVotes();
     }
 
     public List<Contribution> getContributionByContestId(Long contestId) {
         return contributionRepository.getContributionByContestId(contestId);
     }
+
+    public List<Contribution> getContributionsByContestId(Long contestId, long afterId, Limit limit) {
+        return contributionRepository.findAllByContestId(contestId, afterId, limit);
+    }
 }
@@ -0,0 +1,188 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContestRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ItineraryRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.POIRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.UserRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * This class resolves the users, contests, POIs and itineraries used by the upload and validation flows.
+ * Every entity is loaded once per request, together with the associations read by the checks, and is then taken
+ * from the context of the request, so a flow costs the same number of queries however many checks read it.
+ * The context is kept in the attributes of the web request, which share the persistence context of the request,
+ * or in the current transaction when there is no web request. Without both, the entities are loaded every time.
+ * The entities are loaded in the transaction of the caller, or in a read-only one taken from the read pool.
+ */
+@Component
+@Transactional(readOnly = true)
+@AllArgsConstructor(onConstructor_ = @Autowired)
+public class EntityResolver {
+
+    private static final String CONTEXT = EntityResolver.class.getName() + ".CONTEXT";
+
+    private final UserRepository userRepository;
+    private final ContestRepository contestRepository;
+    private final POIRepository poiRepository;
+    private final ItineraryRepository itineraryRepository;
+
+    /**
+     * This method returns a user, if it exists, with its municipality.
+     *
+     * @param id the id of the user
+     * @return the user, or an empty optional if it does not exist
+     */
+    public Optional<AbstractAuthenticatedUser> findUser(Long id) {
+        return resolve(AbstractAuthenticatedUser.class, id, userRepository::findWithMunicipalityById);
+    }
+
+    /**
+     * This method returns a user with its municipality.
+     *
+     * @param id the id of the user
+     * @return the user
+     * @throws IllegalArgumentException if the user does not exist
+     */
+    public AbstractAuthenticatedUser getUser(Long id) {
+        return findUser(id).orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    /**
+     * This method returns a contest with its author and its municipality.
+     *
+     * @param id the id of the contest
+     * @return the contest
+     * @throws IllegalArgumentException if the contest does not exist
+     */
+    public ContributionContest getContest(Long id) {
+        return resolve(ContributionContest.class, id, contestRepository::findWithReferencesById)
+                .orElseThrow(() -> new IllegalArgumentException("Contest not found"));
+    }
+
+    /**
+     * This method returns a POI with its municipality.
+     *
+     * @param id the id of the POI
+     * @return the POI
+     * @throws IllegalArgumentException if the POI does not exist
+     */
+    public AbstractPOI getPOI(Long id) {
+        return resolve(AbstractPOI.class, id, poiRepository::findWithMunicipalityById)
+                .orElseThrow(() -> new IllegalArgumentException("POI not found"));
+    }
+
+    /**
+     * This method returns an itinerary with its municipality.
+     *
+     * @param id the id of the itinerary
+     * @return the itinerary
+     * @throws IllegalArgumentException if the itinerary does not exist
+     */
+    public AbstractItinerary getItinerary(Long id) {
+        return resolve(AbstractItinerary.class, id, itineraryRepository::findWithMunicipalityById)
+                .orElseThrow(() -> new IllegalArgumentException("Itinerary not found"));
+    }
+
+    /**
+     * This method returns the POIs with the given ids, in the same order. The POIs not resolved yet are loaded
+     * with a single query.
+     *
+     * @param ids the ids of the POIs
+     * @return the POIs
+     * @throws IllegalArgumentException if a POI does not exist
+     */
+    public List<AbstractPOI> getPOIs(List<Long> ids) {
+        return resolveAll(AbstractPOI.class, ids, poiRepository::findAllWithMunicipalityByIdIn, AbstractPOI::getId, "POI not found");
+    }
+
+    /**
+     * This method returns the itineraries with the given ids, in the same order. The itineraries not resolved yet
+     * are loaded with a single query.
+     *
+     * @param ids the ids of the itineraries
+     * @return the itineraries
+     * @throws IllegalArgumentException if an itinerary does not exist
+     */
+    public List<AbstractItinerary> getItineraries(List<Long> ids) {
+        return resolveAll(AbstractItinerary.class, ids, itineraryRepository::findAllWithMunicipalityByIdIn,
+                AbstractItinerary::getId, "Itinerary not found");
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Optional<T> resolve(Class<T> type, Long id, Function<Long, Optional<T>> loader) {
+        if (id == null) return Optional.empty();
+        return (Optional<T>) context().computeIfAbsent(new Key(type, id), key -> loader.apply(id));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> resolveAll(Class<T> type, List<Long> ids, Function<Collection<Long>, List<T>> loader,
+                                   Function<T, Long> idOf, String error) {
+        Map<Key, Optional<?>> context = context();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            if (id == null) throw new IllegalArgumentException(error);
+            if (!context.containsKey(new Key(type, id))) missing.add(id);
+        }
+        if (!missing.isEmpty()) {
+            for (T entity : loader.apply(missing)) context.put(new Key(type, idOf.apply(entity)), Optional.of(entity));
+            for (Long id : missing) context.putIfAbsent(new Key(type, id), Optional.empty());
+        }
+        List<T> entities = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            entities.add(((Optional<T>) context.get(new Key(type, id))).orElseThrow(() -> new IllegalArgumentException(error)));
+        }
+        return entities;
+    }
+
+    /**
+     * This method returns the context of the current request, or of the current transaction when there is no
+     * web request. The context of a transaction is discarded when the transaction completes.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<Key, Optional<?>> context() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Map<Key, Optional<?>> context = (Map<Key, Optional<?>>) attributes.getAttribute(CONTEXT, RequestAttributes.SCOPE_REQUEST);
+            if (context == null) {
+                context = new HashMap<>();
+                attributes.setAttribute(CONTEXT, context, RequestAttributes.SCOPE_REQUEST);
+            }
+            return context;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Key, Optional<?>> context = (Map<Key, Optional<?>>) TransactionSynchronizationManager.getResource(CONTEXT);
+            if (context == null) {
+                context = new HashMap<>();
+                TransactionSynchronizationManager.bindResource(CONTEXT, context);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(CONTEXT);
+                    }
+                });
+            }
+            return context;
+        }
+        return new HashMap<>();
+    }
+
+    /**
+     * The key of an entity in the context
+     */
+    private record Key(Class<?> type, Long id) {
+    }
+}
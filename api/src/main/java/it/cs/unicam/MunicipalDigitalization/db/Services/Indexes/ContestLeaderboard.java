@@ -0,0 +1,317 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services.Indexes;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.Contribution;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContributionRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ContributionScore;
+import it.cs.unicam.MunicipalDigitalization.db.TransactionHooks;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.LeaderboardEntryOutputDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This class is an in-memory leaderboard of the contributions of every contest, used to answer the ranking of a
+ * contest without loading its contributions or its votes from the Database. Every contest keeps its contributions
+ * sorted by votes, so a vote moves a single contribution and the first k contributions are read in order.
+ * The leaderboards are built at startup and updated only after the commit of the transaction that saves a vote or
+ * a contribution. The spectators of a contest can subscribe to a stream of Server-Sent Events, which receives the
+ * new ranking when it changes. The changes of a contest are sent together at most once every push interval.
+ */
+@Component
+public class ContestLeaderboard {
+
+    /**
+     * The name of the events of the leaderboard streams
+     */
+    public static final String EVENT_NAME = "leaderboard";
+
+    private final ContributionRepository contributionRepository;
+
+    /**
+     * The maximum number of contributions of a leaderboard
+     */
+    private final int maxSize;
+
+    /**
+     * The minimum time between two pushes of the leaderboard of a contest, in milliseconds
+     */
+    private final long pushInterval;
+
+    /**
+     * The time after which a stream is closed, in milliseconds
+     */
+    private final long streamTimeout;
+
+    /**
+     * The leaderboards of the contests, by the id of the contest
+     */
+    private volatile Map<Long, Board> boards = new ConcurrentHashMap<>();
+
+    /**
+     * The id of the contest of every contribution in the leaderboards
+     */
+    private volatile Map<Long, Long> contestOfContribution = new ConcurrentHashMap<>();
+
+    /**
+     * The streams of the spectators, by the id of the contest
+     */
+    private final Map<Long, List<Spectator>> spectators = new ConcurrentHashMap<>();
+
+    /**
+     * The contests with a push already scheduled
+     */
+    private final Set<Long> pendingPushes = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService pusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-pusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ContestLeaderboard(ContributionRepository contributionRepository, Environment env) {
+        this.contributionRepository = contributionRepository;
+        this.maxSize = env.getProperty("leaderboard.max-size", Integer.class, 100);
+        this.pushInterval = env.getProperty("leaderboard.push-interval-ms", Long.class, 250L);
+        this.streamTimeout = env.getProperty("leaderboard.stream-timeout-ms", Long.class, 1800000L);
+    }
+
+    /**
+     * This method builds the leaderboards from the votes of the Database.
+     */
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, Board> newBoards = new ConcurrentHashMap<>();
+        Map<Long, Long> newContestOfContribution = new ConcurrentHashMap<>();
+        for (ContributionScore score : contributionRepository.findAllScores()) {
+            if (score.getContestId() == null) continue;
+            newBoards.computeIfAbsent(score.getContestId(), id -> new Board())
+                    .put(new Entry(score.getId(), score.getTitle(), score.getAuthorName(), score.getTotalVotes()));
+            newContestOfContribution.put(score.getId(), score.getContestId());
+        }
+        this.boards = newBoards;
+        this.contestOfContribution = newContestOfContribution;
+        newBoards.keySet().forEach(this::schedulePush);
+    }
+
+    @PreDestroy
+    public void close() {
+        this.pusher.shutdownNow();
+        this.spectators.values().forEach(list -> list.forEach(spectator -> spectator.emitter().complete()));
+    }
+
+    /**
+     * This method adds a contribution to the leaderboard of its contest after the commit of the current transaction.
+     *
+     * @param contribution the contribution to add
+     */
+    public void addContribution(Contribution contribution) {
+        Long contestId = contribution.getContest().getId();
+        Entry entry = new Entry(contribution.getId(), contribution.getTitle(), contribution.getAuthor().getName(),
+                contribution.getTotalVotes());
+        TransactionHooks.afterCommit(() -> {
+            this.boards.computeIfAbsent(contestId, id -> new Board()).put(entry);
+            this.contestOfContribution.put(entry.id(), contestId);
+            schedulePush(contestId);
+        });
+    }
+
+    /**
+     * This method adds a vote to a contribution after the commit of the current transaction.
+     * The votes of a contribution that is not in the leaderboards are ignored.
+     *
+     * @param contributionId the id of the voted contribution
+     */
+    public void addVote(Long contributionId) {
+        TransactionHooks.afterCommit(() -> {
+            Long contestId = this.contestOfContribution.get(contributionId);
+            if (contestId == null) return;
+            Board board = this.boards.get(contestId);
+            if (board != null && board.addVote(contributionId)) schedulePush(contestId);
+        });
+    }
+
+    /**
+     * This method removes a vote from a contribution after the commit of the current transaction.
+     * The votes of a contribution that is not in the leaderboards are ignored.
+     *
+     * @param contributionId the id of the contribution whose vote has been deleted
+     */
+    public void removeVote(Long contributionId) {
+        TransactionHooks.afterCommit(() -> {
+            Long contestId = this.contestOfContribution.get(contributionId);
+            if (contestId == null) return;
+            Board board = this.boards.get(contestId);
+            if (board != null && board.removeVote(contributionId)) schedulePush(contestId);
+        });
+    }
+
+    /**
+     * This method removes the leaderboard of a contest after the commit of the current transaction, and closes its
+     * streams.
+     *
+     * @param contestId the id of the contest
+     */
+    public void removeContest(Long contestId) {
+        TransactionHooks.afterCommit(() -> {
+            Board board = this.boards.remove(contestId);
+            if (board != null) board.ids().forEach(this.contestOfContribution::remove);
+            List<Spectator> streams = this.spectators.remove(contestId);
+            if (streams != null) streams.forEach(spectator -> spectator.emitter().complete());
+        });
+    }
+
+    /**
+     * This method returns the first contributions of a contest, ordered by votes. The contributions with the same
+     * votes have the same rank, and are ordered by id.
+     *
+     * @param contestId the id of the contest
+     * @param k         the maximum number of contributions, or null for the maximum allowed
+     * @return the leaderboard of the contest
+     */
+    public List<LeaderboardEntryOutputDTO> getLeaderboard(Long contestId, Integer k) {
+        int limit = limit(k);
+        Board board = this.boards.get(contestId);
+        return board == null ? List.of() : board.top(limit);
+    }
+
+    /**
+     * This method opens a stream of the leaderboard of a contest. The current leaderboard is sent at once, then a new
+     * one is sent every time the first k contributions change.
+     *
+     * @param contestId the id of the contest
+     * @param k         the maximum number of contributions, or null for the maximum allowed
+     * @return the stream of the leaderboard
+     */
+    public SseEmitter subscribe(Long contestId, Integer k) {
+        Spectator spectator = new Spectator(new SseEmitter(this.streamTimeout), limit(k), new Snapshot());
+        List<Spectator> streams = this.spectators.computeIfAbsent(contestId, id -> new CopyOnWriteArrayList<>());
+        streams.add(spectator);
+        Runnable unsubscribe = () -> streams.remove(spectator);
+        spectator.emitter().onCompletion(unsubscribe);
+        spectator.emitter().onTimeout(unsubscribe);
+        spectator.emitter().onError(error -> unsubscribe.run());
+        this.pusher.execute(() -> push(contestId, spectator));
+        return spectator.emitter();
+    }
+
+    private int limit(Integer k) {
+        if (k != null && k < 1) throw new IllegalArgumentException("The number of contributions must be positive");
+        return k == null ? this.maxSize : Math.min(k, this.maxSize);
+    }
+
+    /**
+     * This method schedules the push of the leaderboard of a contest, unless a push is already scheduled, so all
+     * the votes received before the push are sent together.
+     */
+    private void schedulePush(Long contestId) {
+        if (!this.spectators.containsKey(contestId) || !this.pendingPushes.add(contestId)) return;
+        try {
+            this.pusher.schedule(() -> {
+                this.pendingPushes.remove(contestId);
+                List<Spectator> streams = this.spectators.get(contestId);
+                if (streams != null) streams.forEach(spectator -> push(contestId, spectator));
+            }, this.pushInterval, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            this.pendingPushes.remove(contestId);
+        }
+    }
+
+    /**
+     * This method sends the leaderboard of a contest to a spectator, if it changed since the last one sent.
+     * It is run only by the pusher thread.
+     */
+    private void push(Long contestId, Spectator spectator) {
+        List<LeaderboardEntryOutputDTO> leaderboard = getLeaderboard(contestId, spectator.size());
+        if (leaderboard.equals(spectator.lastSent().leaderboard)) return;
+        try {
+            spectator.emitter().send(SseEmitter.event().name(EVENT_NAME).data(leaderboard));
+            spectator.lastSent().leaderboard = leaderboard;
+        } catch (IOException | IllegalStateException e) {
+            spectator.emitter().completeWithError(e);
+        }
+    }
+
+    /**
+     * A contribution in a leaderboard, with its votes
+     */
+    private record Entry(Long id, String title, String authorName, int votes) {
+
+        private static final Comparator<Entry> RANKING = Comparator.comparingInt(Entry::votes).reversed()
+                .thenComparing(Entry::id);
+
+        private Entry withVote() {
+            return new Entry(this.id, this.title, this.authorName, this.votes + 1);
+        }
+
+        private Entry withoutVote() {
+            return new Entry(this.id, this.title, this.authorName, this.votes - 1);
+        }
+    }
+
+    /**
+     * The leaderboard of a single contest. The entries are kept both by id, to find the entry of a vote, and sorted
+     * by votes, to read the first k entries.
+     */
+    private static class Board {
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final TreeSet<Entry> ranking = new TreeSet<>(Entry.RANKING);
+
+        private synchronized void put(Entry entry) {
+            Entry old = this.entries.put(entry.id(), entry);
+            if (old != null) this.ranking.remove(old);
+            this.ranking.add(entry);
+        }
+
+        private synchronized boolean addVote(Long id) {
+            Entry old = this.entries.get(id);
+            if (old == null) return false;
+            put(old.withVote());
+            return true;
+        }
+
+        private synchronized boolean removeVote(Long id) {
+            Entry old = this.entries.get(id);
+            if (old == null) return false;
+            put(old.withoutVote());
+            return true;
+        }
+
+        private synchronized List<Long> ids() {
+            return new ArrayList<>(this.entries.keySet());
+        }
+
+        private synchronized List<LeaderboardEntryOutputDTO> top(int k) {
+            List<LeaderboardEntryOutputDTO> top = new ArrayList<>(Math.min(k, this.ranking.size()));
+            int rank = 0;
+            int previousVotes = -1;
+            for (Entry entry : this.ranking) {
+                if (top.size() == k) break;
+                if (entry.votes() != previousVotes) rank = top.size() + 1;
+                previousVotes = entry.votes();
+                top.add(new LeaderboardEntryOutputDTO(rank, entry.id(), entry.title(), entry.authorName(), entry.votes()));
+            }
+            return top;
+        }
+    }
+
+    /**
+     * The last leaderboard sent to a spectator
+     */
+    private static class Snapshot {
+        private List<LeaderboardEntryOutputDTO> leaderboard;
+    }
+
+    /**
+     * A spectator of a contest, with its stream and the number of contributions it receives
+     */
+    private record Spectator(SseEmitter emitter, int size, Snapshot lastSent) {
+    }
+}
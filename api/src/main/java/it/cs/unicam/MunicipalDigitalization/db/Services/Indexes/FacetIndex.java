@@ -0,0 +1,338 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services.Indexes;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractContent;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.util.*;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContentRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ItineraryRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.POIRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ElementFacets;
+import it.cs.unicam.MunicipalDigitalization.db.TransactionHooks;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.FacetCountOutputDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class is an in-memory index of the facets of the POIs, itineraries and contents, used to count the elements
+ * of a municipality, of a status or of a type without loading them from the Database. Every value of a facet has
+ * the compressed set of the ids of its elements, so a count is the size of the intersection or of the union of a few
+ * sets. The POIs, the itineraries and the contents have separate sets, since their ids are not unique among them.
+ * The index is built at startup. An element is counted with its new facets from the commit of the transaction that
+ * saves, validates or removes it, so the counts agree with the lists read from the Database. The index does not keep
+ * the elements of a municipality together, so the deletion of a municipality builds it again. A single read-write
+ * lock guards the index, so many counts run together while the updates are exclusive.
+ */
+@Component
+public class FacetIndex {
+
+    public static final String MUNICIPALITY = "municipality";
+    public static final String STATUS = "status";
+    public static final String POI_TYPE = "poiType";
+    public static final String CONTENT_TYPE = "contentType";
+
+    /**
+     * The tokens of a facet query: parentheses, and the words separated by spaces and parentheses
+     */
+    private static final Pattern TOKEN = Pattern.compile("\\(|\\)|[^\\s()]+");
+
+    private final POIRepository poiRepository;
+    private final ItineraryRepository itineraryRepository;
+    private final ContentRepository contentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The facets of every type of element
+     */
+    private Map<SearchType, Facets> facets = emptyFacets();
+
+    @Autowired
+    public FacetIndex(POIRepository poiRepository, ItineraryRepository itineraryRepository,
+                      ContentRepository contentRepository) {
+        this.poiRepository = poiRepository;
+        this.itineraryRepository = itineraryRepository;
+        this.contentRepository = contentRepository;
+    }
+
+    /**
+     * This method builds the index from the elements of the Database.
+     */
+    @PostConstruct
+    public void rebuild() {
+        Map<SearchType, Facets> newFacets = emptyFacets();
+        for (ElementFacets.POIFacets poi : poiRepository.findAllFacets()) {
+            newFacets.get(SearchType.POI).put(poi.getId(), valuesOf(poi, POI_TYPE, poi.getPoiType()));
+        }
+        for (ElementFacets itinerary : itineraryRepository.findAllFacets()) {
+            newFacets.get(SearchType.ITINERARY).put(itinerary.getId(), valuesOf(itinerary, null, null));
+        }
+        for (ElementFacets.ContentFacets content : contentRepository.findAllFacets()) {
+            newFacets.get(SearchType.CONTENT).put(content.getId(), valuesOf(content, CONTENT_TYPE, content.getContentType()));
+        }
+        this.lock.writeLock().lock();
+        try {
+            this.facets = newFacets;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method adds a POI to the index after the commit of the current transaction, or updates its facets if it
+     * is already in the index.
+     *
+     * @param poi the POI to add
+     */
+    public void addPOI(AbstractPOI poi) {
+        put(SearchType.POI, poi.getId(), values(poi.getMunicipality().getId(), poi.getElementStatus(),
+                POI_TYPE, poi.getPOIType()));
+    }
+
+    /**
+     * This method adds an itinerary to the index after the commit of the current transaction, or updates its facets
+     * if it is already in the index.
+     *
+     * @param itinerary the itinerary to add
+     */
+    public void addItinerary(AbstractItinerary itinerary) {
+        put(SearchType.ITINERARY, itinerary.getId(), values(itinerary.getMunicipality().getId(),
+                itinerary.getElementStatus(), null, null));
+    }
+
+    /**
+     * This method adds a content to the index after the commit of the current transaction, or updates its facets if
+     * it is already in the index. The municipality of a content is the one of the POI or of the itinerary it refers to.
+     *
+     * @param content the content to add
+     */
+    public void addContent(AbstractContent content) {
+        Long municipalityId = content.getReferredPOI() != null
+                ? content.getReferredPOI().getMunicipality().getId()
+                : content.getReferredItinerary().getMunicipality().getId();
+        put(SearchType.CONTENT, content.getId(), values(municipalityId, content.getElementStatus(),
+                CONTENT_TYPE, content.getType()));
+    }
+
+    private void put(SearchType type, Long id, Map<String, String> values) {
+        TransactionHooks.afterCommit(() -> write(() -> this.facets.get(type).put(id, values)));
+    }
+
+    /**
+     * This method removes an element from the index after the commit of the current transaction.
+     *
+     * @param type the type of the element
+     * @param id   the id of the element
+     */
+    public void remove(SearchType type, Long id) {
+        TransactionHooks.afterCommit(() -> write(() -> this.facets.get(type).remove(id)));
+    }
+
+    /**
+     * This method builds the index again after the commit of the current transaction. It is used when a
+     * municipality is deleted, since the elements of the municipality are not known by the index.
+     */
+    public void rebuildAfterCommit() {
+        TransactionHooks.afterCommit(this::rebuild);
+    }
+
+    /**
+     * This method counts the elements of a type that match a facet query, and the elements found for every value
+     * of a facet. A query is made of terms like "status:PENDING" or "municipality:1", joined by AND and OR and
+     * grouped by parentheses. AND comes before OR, and an empty query matches all the elements.
+     *
+     * @param type  the type of the elements
+     * @param query the facet query, or null for all the elements
+     * @param facet the facet of the counts by value, or null for the total count only
+     * @return the number of elements found, and the number for every value of the facet
+     */
+    public FacetCountOutputDTO count(SearchType type, String query, String facet) {
+        if (facet != null) checkFacet(type, facet);
+        List<String> tokens = tokens(query);
+        this.lock.readLock().lock();
+        try {
+            Facets elementFacets = this.facets.get(type);
+            IdBitmap found = tokens.isEmpty() ? elementFacets.all : new QueryParser(type, elementFacets, tokens).parse();
+            Map<String, Long> counts = new TreeMap<>();
+            if (facet != null) {
+                elementFacets.values.getOrDefault(facet, Map.of()).forEach((value, ids) -> {
+                    long count = found.andSize(ids);
+                    if (count > 0) counts.put(value, count);
+                });
+            }
+            return new FacetCountOutputDTO(type, found.size(), counts);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable update) {
+        this.lock.writeLock().lock();
+        try {
+            update.run();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<SearchType, Facets> emptyFacets() {
+        Map<SearchType, Facets> facets = new EnumMap<>(SearchType.class);
+        for (SearchType type : SearchType.values()) facets.put(type, new Facets());
+        return facets;
+    }
+
+    private static Map<String, String> valuesOf(ElementFacets element, String typeFacet, Enum<?> typeValue) {
+        return values(element.getMunicipalityId(), element.getElementStatus(), typeFacet, typeValue);
+    }
+
+    private static Map<String, String> values(Long municipalityId, ElementStatus status, String typeFacet, Enum<?> typeValue) {
+        Map<String, String> values = new HashMap<>();
+        if (municipalityId != null) values.put(MUNICIPALITY, municipalityId.toString());
+        if (status != null) values.put(STATUS, status.name());
+        if (typeFacet != null && typeValue != null) values.put(typeFacet, typeValue.name());
+        return values;
+    }
+
+    private static List<String> tokens(String query) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(query == null ? "" : query);
+        while (matcher.find()) tokens.add(matcher.group());
+        return tokens;
+    }
+
+    private static void checkFacet(SearchType type, String facet) {
+        boolean available = switch (facet) {
+            case MUNICIPALITY, STATUS -> true;
+            case POI_TYPE -> type == SearchType.POI;
+            case CONTENT_TYPE -> type == SearchType.CONTENT;
+            default -> throw new IllegalArgumentException("The facet " + facet + " does not exist");
+        };
+        if (!available) throw new IllegalArgumentException("The facet " + facet + " is not available for " + type);
+    }
+
+    /**
+     * This method returns the name of a value of a facet as it is kept in the index.
+     */
+    private static String valueOf(String facet, String value) {
+        return switch (facet) {
+            case MUNICIPALITY -> {
+                try {
+                    yield Long.valueOf(value).toString();
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("The municipality " + value + " is not an id");
+                }
+            }
+            case STATUS -> enumValue(ElementStatus.class, value);
+            case POI_TYPE -> enumValue(POIType.class, value);
+            case CONTENT_TYPE -> enumValue(ContentType.class, value);
+            default -> throw new IllegalArgumentException("The facet " + facet + " does not exist");
+        };
+    }
+
+    private static <E extends Enum<E>> String enumValue(Class<E> type, String value) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value)) return constant.name();
+        }
+        throw new IllegalArgumentException("The value " + value + " does not exist");
+    }
+
+    /**
+     * This class contains the sets of ids of the elements of a type: the set of all the elements, and a set for
+     * every value of every facet.
+     */
+    private static class Facets {
+        private final IdBitmap all = new IdBitmap();
+
+        /**
+         * The sets of the values of the facets, by the facet and the value
+         */
+        private final Map<String, Map<String, IdBitmap>> values = new HashMap<>();
+
+        void put(Long id, Map<String, String> facetValues) {
+            remove(id);
+            this.all.add(id);
+            facetValues.forEach((facet, value) -> this.values
+                    .computeIfAbsent(facet, key -> new HashMap<>())
+                    .computeIfAbsent(value, key -> new IdBitmap())
+                    .add(id));
+        }
+
+        void remove(Long id) {
+            if (!this.all.remove(id)) return;
+            for (Map<String, IdBitmap> facetValues : this.values.values()) {
+                facetValues.values().removeIf(ids -> ids.remove(id) && ids.size() == 0);
+            }
+        }
+
+        IdBitmap get(String facet, String value) {
+            IdBitmap ids = this.values.getOrDefault(facet, Map.of()).get(value);
+            return ids != null ? ids : new IdBitmap();
+        }
+    }
+
+    /**
+     * This class reads a facet query and returns the set of the elements it matches.
+     */
+    private static class QueryParser {
+        private final SearchType type;
+        private final Facets facets;
+        private final List<String> tokens;
+        private int position;
+
+        QueryParser(SearchType type, Facets facets, List<String> tokens) {
+            this.type = type;
+            this.facets = facets;
+            this.tokens = tokens;
+        }
+
+        IdBitmap parse() {
+            IdBitmap result = or();
+            if (this.position < this.tokens.size())
+                throw new IllegalArgumentException("Unexpected " + this.tokens.get(this.position) + " in the facet query");
+            return result;
+        }
+
+        private IdBitmap or() {
+            IdBitmap result = and();
+            while (accept("OR")) result = result.or(and());
+            return result;
+        }
+
+        private IdBitmap and() {
+            IdBitmap result = term();
+            while (accept("AND")) result = result.and(term());
+            return result;
+        }
+
+        private IdBitmap term() {
+            if (this.position == this.tokens.size())
+                throw new IllegalArgumentException("The facet query is not complete");
+            String token = this.tokens.get(this.position++);
+            if (token.equals("(")) {
+                IdBitmap result = or();
+                if (!accept(")")) throw new IllegalArgumentException("A parenthesis of the facet query is not closed");
+                return result;
+            }
+            int separator = token.indexOf(':');
+            if (separator <= 0) throw new IllegalArgumentException("The term " + token + " is not a facet:value pair");
+            String facet = token.substring(0, separator);
+            checkFacet(this.type, facet);
+            return this.facets.get(facet, valueOf(facet, token.substring(separator + 1)));
+        }
+
+        private boolean accept(String token) {
+            if (this.position < this.tokens.size() && this.tokens.get(this.position).equalsIgnoreCase(token)) {
+                this.position++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services.Indexes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.MunicipalRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.MunicipalityVersion;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.mappers.MunicipalityDTOMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class keeps in memory the published view of every municipality, already serialized to UTF-8 JSON and
+ * compressed with gzip, so it is returned without loading the municipality and without serializing it.
+ * The view of a municipality is built again by a background thread every time its data version changes, and the
+ * changes that arrive while it waits are built once. The views are built only by that thread, in a transaction of
+ * its own, so they never read the entities already loaded by a request. A view older than the data version asked
+ * for is not returned, so a view is never returned with the ETag of newer data.
+ */
+@Component
+public class MunicipalitySnapshots {
+
+    private static final Logger logger = LoggerFactory.getLogger(MunicipalitySnapshots.class);
+
+    private final MunicipalRepository municipalRepository;
+    private final MunicipalityDTOMapper municipalityDTOMapper;
+    private final MunicipalityVersions municipalityVersions;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The views of the municipalities, by the id of the municipality
+     */
+    private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * The municipalities waiting to be built by the background thread
+     */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The thread that builds the views
+     */
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "municipality-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public MunicipalitySnapshots(MunicipalRepository municipalRepository, MunicipalityDTOMapper municipalityDTOMapper,
+                                 MunicipalityVersions municipalityVersions, ObjectMapper objectMapper,
+                                 TransactionTemplate transactionTemplate) {
+        this.municipalRepository = municipalRepository;
+        this.municipalityDTOMapper = municipalityDTOMapper;
+        this.municipalityVersions = municipalityVersions;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * This method listens to the changes of the municipalities and builds the views of all the municipalities in
+     * the background.
+     */
+    @PostConstruct
+    public void start() {
+        this.municipalityVersions.addListener(this::refresh);
+        for (MunicipalityVersion version : this.municipalRepository.findAllVersions()) refresh(version.getId());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        this.builder.shutdownNow();
+        this.builder.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * This method returns the view of a municipality at a data version or at a newer one. If the view has not been
+     * built yet, it is built in the background.
+     *
+     * @param municipalityId the id of the municipality
+     * @param version        the oldest data version of the view
+     * @return the view of the municipality, or null if it is missing or older than the version
+     */
+    public Snapshot get(Long municipalityId, long version) {
+        Snapshot snapshot = this.snapshots.get(municipalityId);
+        if (snapshot != null && snapshot.version() >= version) return snapshot;
+        refresh(municipalityId);
+        return null;
+    }
+
+    /**
+     * This method builds the view of a municipality in the background.
+     *
+     * @param municipalityId the id of the municipality
+     */
+    public void refresh(Long municipalityId) {
+        if (!this.pending.add(municipalityId)) return;
+        this.builder.execute(() -> {
+            this.pending.remove(municipalityId);
+            try {
+                build(municipalityId);
+            } catch (RuntimeException e) {
+                logger.error("Failed to build the view of the municipality {}", municipalityId, e);
+            }
+        });
+    }
+
+    /**
+     * This method checks if a client accepts a response compressed with gzip.
+     *
+     * @param acceptEncoding the Accept-Encoding header of the request, or null
+     * @return true if gzip is accepted
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].strip().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("*")) continue;
+            boolean refused = parts.length > 1 && parts[1].strip().matches("q\\s*=\\s*0(\\.0*)?");
+            if (!refused) return true;
+        }
+        return false;
+    }
+
+    /**
+     * This method builds the view of a municipality from the Database and keeps it, unless a newer view has been
+     * kept in the meantime. The view of a deleted municipality is removed.
+     */
+    private void build(Long municipalityId) {
+        Snapshot built = this.transactionTemplate.execute(status -> this.municipalRepository.findById(municipalityId)
+                .map(municipality -> serialize(municipality.getId(), municipality.getDataVersion(),
+                        this.municipalityDTOMapper.apply(municipality)))
+                .orElse(null));
+        if (built == null) {
+            this.snapshots.remove(municipalityId);
+            return;
+        }
+        this.snapshots.merge(municipalityId, built,
+                (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+    }
+
+    private Snapshot serialize(Long municipalityId, long version, Object view) {
+        try {
+            SerializedString json = new SerializedString(this.objectMapper.writeValueAsString(view));
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json.asUnquotedUTF8());
+            }
+            String etag = "s" + municipalityId + "-" + version;
+            return new Snapshot(version, new RawValue(json), json.asUnquotedUTF8(), compressed.toByteArray(),
+                    "\"" + etag + "\"", "\"" + etag + "-gzip\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("The view of the municipality cannot be serialized", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This record contains the view of a municipality at a data version.
+     *
+     * @param version  the data version of the municipality
+     * @param raw      the JSON of the view, written as it is inside other JSON documents
+     * @param json     the UTF-8 bytes of the JSON of the view
+     * @param gzip     the JSON of the view compressed with gzip
+     * @param etag     the ETag of the JSON
+     * @param gzipEtag the ETag of the compressed JSON
+     */
+    public record Snapshot(long version, RawValue raw, byte[] json, byte[] gzip, String etag, String gzipEtag) {
+    }
+}
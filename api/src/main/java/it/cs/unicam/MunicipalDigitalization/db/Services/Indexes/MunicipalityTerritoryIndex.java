@@ -0,0 +1,165 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services.Indexes;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+import it.cs.unicam.MunicipalDigitalization.api.util.Spatial.Polygon;
+import it.cs.unicam.MunicipalDigitalization.api.util.Spatial.STRTree;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.MunicipalRepository;
+import it.cs.unicam.MunicipalDigitalization.db.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is an in-memory index of the territories of the municipalities, used to find the municipality that
+ * contains a coordinate. The bounding boxes of the territories are kept in an STR-packed R-tree and the candidates
+ * found in the tree are refined with an exact check on the polygon.
+ * The tree is immutable, so the municipalities added after its construction are kept in a short pending list and
+ * the tree is packed again when the list, or the number of removed municipalities, grows over a threshold.
+ * The index is updated only after the commit of the transaction that changes a municipality.
+ */
+@Component
+public class MunicipalityTerritoryIndex {
+
+    private final MunicipalRepository municipalRepository;
+
+    /**
+     * The number of pending or removed territories after which the tree is packed again
+     */
+    private final int rebuildThreshold;
+
+    /**
+     * The indexed territories, by the id of the municipality
+     */
+    private final Map<Long, IndexedTerritory> territories = new ConcurrentHashMap<>();
+
+    /**
+     * The current tree with the territories added after its construction
+     */
+    private volatile Snapshot snapshot = new Snapshot(new STRTree<>(List.of()), List.of(), 0);
+
+    @Autowired
+    public MunicipalityTerritoryIndex(MunicipalRepository municipalRepository, Environment env) {
+        this.municipalRepository = municipalRepository;
+        this.rebuildThreshold = env.getProperty("spatial.territory-rebuild-threshold", Integer.class, 64);
+    }
+
+    /**
+     * This method builds the index from the municipalities of the Database.
+     */
+    @PostConstruct
+    public synchronized void rebuild() {
+        this.territories.clear();
+        for (Municipality municipality : municipalRepository.findAllWithTerritory()) {
+            IndexedTerritory territory = toIndexedTerritory(municipality);
+            if (territory != null) this.territories.put(territory.id(), territory);
+        }
+        pack();
+    }
+
+    /**
+     * This method adds a municipality to the index, or replaces its territory, after the commit of the current
+     * transaction.
+     *
+     * @param municipality the municipality to add
+     */
+    public void addMunicipality(Municipality municipality) {
+        IndexedTerritory territory = toIndexedTerritory(municipality);
+        if (territory == null) return;
+        TransactionHooks.afterCommit(() -> add(territory));
+    }
+
+    /**
+     * This method removes a municipality from the index after the commit of the current transaction.
+     *
+     * @param id the id of the municipality
+     */
+    public void removeMunicipality(Long id) {
+        TransactionHooks.afterCommit(() -> remove(id));
+    }
+
+    /**
+     * This method returns the id of the municipality whose territory contains a coordinate.
+     * The territories are checked with the same rule as the uploads, which counts the lower and left borders of a
+     * territory and not the upper and right ones, so a coordinate on the border between two municipalities belongs
+     * to only one of them. If more territories contain the coordinate the one with the lowest id is returned.
+     *
+     * @param x the x value of the coordinate
+     * @param y the y value of the coordinate
+     * @return the id of the municipality, if any
+     */
+    public Optional<Long> findMunicipalityAt(double x, double y) {
+        Snapshot current = this.snapshot;
+        List<IndexedTerritory> candidates = current.tree().search(x, y);
+        candidates.addAll(current.pending());
+        return candidates.stream()
+                .filter(territory -> this.territories.get(territory.id()) == territory)
+                .filter(territory -> territory.polygon().contains(x, y))
+                .map(IndexedTerritory::id)
+                .min(Comparator.naturalOrder());
+    }
+
+    /**
+     * This method checks if a coordinate is inside the territory of a municipality. The indexed polygon is used
+     * when present, otherwise the polygon is built from the territory of the entity, for example when the
+     * municipality has been saved in a transaction not yet committed.
+     *
+     * @param municipality the municipality
+     * @param coordinate   the coordinate to check
+     * @return true if the coordinate is inside the territory of the municipality
+     */
+    public boolean contains(Municipality municipality, Coordinate coordinate) {
+        IndexedTerritory territory = municipality.getId() == null ? null : this.territories.get(municipality.getId());
+        Polygon polygon = territory != null ? territory.polygon() : Polygon.of(municipality.getTerritory());
+        return polygon.contains(coordinate.getX(), coordinate.getY());
+    }
+
+    private synchronized void add(IndexedTerritory territory) {
+        boolean replaced = this.territories.put(territory.id(), territory) != null;
+        Snapshot current = this.snapshot;
+        List<IndexedTerritory> pending = new ArrayList<>(current.pending());
+        pending.add(territory);
+        this.snapshot = new Snapshot(current.tree(), List.copyOf(pending), current.removed() + (replaced ? 1 : 0));
+        if (pending.size() + this.snapshot.removed() > this.rebuildThreshold) pack();
+    }
+
+    private synchronized void remove(Long id) {
+        if (this.territories.remove(id) == null) return;
+        Snapshot current = this.snapshot;
+        this.snapshot = new Snapshot(current.tree(), current.pending(), current.removed() + 1);
+        if (current.pending().size() + this.snapshot.removed() > this.rebuildThreshold) pack();
+    }
+
+    /**
+     * This method packs all the indexed territories in a new tree.
+     */
+    private synchronized void pack() {
+        List<STRTree.Entry<IndexedTerritory>> entries = new ArrayList<>(this.territories.size());
+        for (IndexedTerritory territory : this.territories.values())
+            entries.add(new STRTree.Entry<>(territory.polygon().getBounds(), territory));
+        this.snapshot = new Snapshot(new STRTree<>(entries), List.of(), 0);
+    }
+
+    private static IndexedTerritory toIndexedTerritory(Municipality municipality) {
+        if (municipality.getId() == null || municipality.getTerritory() == null || municipality.getTerritory().size() < 3)
+            return null;
+        return new IndexedTerritory(municipality.getId(), Polygon.ofTerritory(municipality.getTerritory()));
+    }
+
+    /**
+     * This record contains the territory of a municipality kept in the index.
+     */
+    private record IndexedTerritory(Long id, Polygon polygon) {
+    }
+
+    /**
+     * This record contains the packed tree, the territories added after the packing and the number of
+     * territories removed or replaced after the packing.
+     */
+    private record Snapshot(STRTree<IndexedTerritory> tree, List<IndexedTerritory> pending, int removed) {
+    }
+}
@@ -0,0 +1,195 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services.Indexes;
+
+import it.cs.unicam.MunicipalDigitalization.db.Repository.MunicipalRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.MunicipalityVersion;
+import it.cs.unicam.MunicipalDigitalization.db.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * This class keeps in memory the data version of every municipality, used to build the ETags of the lists of
+ * POIs, itineraries and municipalities. A request with the current ETag is answered with Not Modified before any
+ * query. The versions are saved with the municipalities, so an ETag stays valid when the application restarts.
+ * A transaction increases the version of a municipality at most once, and the version in memory is increased only
+ * after the commit, so a client never receives an ETag before the data it describes.
+ * The ETag of the list of municipalities is a hash of the versions of all the municipalities, updated at every
+ * change, so it changes when a municipality is changed, added or deleted.
+ * The listeners are told the id of every municipality whose version changes in memory, after the commit.
+ */
+@Component
+public class MunicipalityVersions {
+
+    private final MunicipalRepository municipalRepository;
+
+    /**
+     * The data versions, by the id of the municipality
+     */
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * The sum of the hashes of the versions of all the municipalities
+     */
+    private final AtomicLong catalogHash = new AtomicLong();
+
+    /**
+     * The listeners of the changes of the municipalities
+     */
+    private final List<Consumer<Long>> listeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public MunicipalityVersions(MunicipalRepository municipalRepository) {
+        this.municipalRepository = municipalRepository;
+    }
+
+    /**
+     * This method loads the data versions of the municipalities from the Database.
+     */
+    @PostConstruct
+    public void load() {
+        for (MunicipalityVersion version : municipalRepository.findAllVersions()) {
+            this.versions.put(version.getId(), version.getDataVersion());
+            this.catalogHash.addAndGet(hash(version.getId(), version.getDataVersion()));
+        }
+    }
+
+    /**
+     * This method increases the data version of a municipality in the current transaction, and in memory after the
+     * commit. The other calls for the same municipality in the same transaction are ignored.
+     *
+     * @param municipalityId the id of the municipality
+     */
+    public void bump(Long municipalityId) {
+        if (!firstInTransaction(municipalityId)) return;
+        municipalRepository.incrementDataVersion(municipalityId);
+        TransactionHooks.afterCommit(() -> {
+            this.versions.computeIfPresent(municipalityId, (id, version) -> {
+                this.catalogHash.addAndGet(hash(id, version + 1) - hash(id, version));
+                return version + 1;
+            });
+            notifyListeners(municipalityId);
+        });
+    }
+
+    /**
+     * This method adds a new municipality after the commit of the current transaction.
+     *
+     * @param municipalityId the id of the municipality
+     */
+    public void add(Long municipalityId) {
+        TransactionHooks.afterCommit(() -> {
+            if (this.versions.putIfAbsent(municipalityId, 0L) == null) this.catalogHash.addAndGet(hash(municipalityId, 0));
+            notifyListeners(municipalityId);
+        });
+    }
+
+    /**
+     * This method removes a deleted municipality after the commit of the current transaction.
+     *
+     * @param municipalityId the id of the municipality
+     */
+    public void remove(Long municipalityId) {
+        TransactionHooks.afterCommit(() -> {
+            Long version = this.versions.remove(municipalityId);
+            if (version != null) this.catalogHash.addAndGet(-hash(municipalityId, version));
+            notifyListeners(municipalityId);
+        });
+    }
+
+    /**
+     * This method adds a listener, called with the id of a municipality after its version is changed, or after it
+     * is added or deleted.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(Consumer<Long> listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * This method returns the data version of a municipality.
+     *
+     * @param municipalityId the id of the municipality
+     * @return the version, or null if the municipality does not exist
+     */
+    public Long version(Long municipalityId) {
+        return this.versions.get(municipalityId);
+    }
+
+    /**
+     * This method returns the ETag of the data of a municipality.
+     *
+     * @param municipalityId the id of the municipality
+     * @return the ETag, or null if the municipality does not exist
+     */
+    public String etag(Long municipalityId) {
+        Long version = this.versions.get(municipalityId);
+        return version == null ? null : etag(municipalityId, version);
+    }
+
+    /**
+     * This method returns the ETag of the data of a municipality at a data version.
+     *
+     * @param municipalityId the id of the municipality
+     * @param version        the data version
+     * @return the ETag
+     */
+    public static String etag(Long municipalityId, long version) {
+        return "\"m" + municipalityId + "-" + version + "\"";
+    }
+
+    /**
+     * This method returns the ETag of the data of all the municipalities.
+     *
+     * @return the ETag
+     */
+    public String catalogEtag() {
+        return "\"c" + Long.toHexString(this.catalogHash.get()) + "\"";
+    }
+
+    private void notifyListeners(Long municipalityId) {
+        this.listeners.forEach(listener -> listener.accept(municipalityId));
+    }
+
+    /**
+     * This method checks if a municipality is increased for the first time in the current transaction.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean firstInTransaction(Long municipalityId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return true;
+        Set<Long> bumped = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (bumped == null) {
+            bumped = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, bumped);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MunicipalityVersions.this);
+                }
+            });
+        }
+        return bumped.add(municipalityId);
+    }
+
+    /**
+     * This method mixes the id and the version of a municipality, so the sum of the hashes changes with every
+     * version of every municipality.
+     */
+    private static long hash(long id, long version) {
+        long hash = id * 0x9E3779B97F4A7C15L + version;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
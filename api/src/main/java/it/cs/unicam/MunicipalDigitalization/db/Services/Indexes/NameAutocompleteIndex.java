@@ -0,0 +1,235 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services.Indexes;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ItineraryRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.POIRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.NamedElement;
+import it.cs.unicam.MunicipalDigitalization.db.TransactionHooks;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.SearchResultOutputDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * This class is an in-memory index of the names of the published POIs and itineraries, used to complete the name
+ * typed by a user without reading the Database. Every municipality keeps its names in an array sorted by the name
+ * without case and accents, so the names that start with a prefix are found with a binary search and read in order.
+ * An update copies the array of its municipality, so the queries read it without locks.
+ * The index is built at startup. A name is added after the commit of the validation that publishes its element and
+ * removed after the commit of the rejection or deletion, so a suggested name always leads to a published element.
+ */
+@Component
+public class NameAutocompleteIndex {
+
+    /**
+     * The accents removed from the names by the normalization
+     */
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final POIRepository poiRepository;
+    private final ItineraryRepository itineraryRepository;
+
+    /**
+     * The maximum number of names returned by a query
+     */
+    private final int maxResults;
+
+    /**
+     * The names of the municipalities, by the id of the municipality
+     */
+    private volatile Map<Long, MunicipalityNames> names = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NameAutocompleteIndex(POIRepository poiRepository, ItineraryRepository itineraryRepository, Environment env) {
+        this.poiRepository = poiRepository;
+        this.itineraryRepository = itineraryRepository;
+        this.maxResults = env.getProperty("autocomplete.max-results", Integer.class, 10);
+    }
+
+    /**
+     * This method builds the index from the names of the published POIs and itineraries of the Database.
+     */
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, List<IndexedName>> loaded = new HashMap<>();
+        for (NamedElement poi : poiRepository.findNamesByElementStatus(ElementStatus.PUBLISHED)) {
+            loaded.computeIfAbsent(poi.getMunicipalityId(), id -> new ArrayList<>())
+                    .add(IndexedName.of(SearchType.POI, poi.getId(), poi.getName()));
+        }
+        for (NamedElement itinerary : itineraryRepository.findNamesByElementStatus(ElementStatus.PUBLISHED)) {
+            loaded.computeIfAbsent(itinerary.getMunicipalityId(), id -> new ArrayList<>())
+                    .add(IndexedName.of(SearchType.ITINERARY, itinerary.getId(), itinerary.getName()));
+        }
+        Map<Long, MunicipalityNames> newNames = new ConcurrentHashMap<>();
+        loaded.forEach((municipalityId, list) -> newNames.put(municipalityId, new MunicipalityNames(list)));
+        this.names = newNames;
+    }
+
+    /**
+     * This method adds the name of a published POI to the index after the commit of the current transaction.
+     * POIs that are not published are ignored.
+     *
+     * @param poi the POI to add
+     */
+    public void addPOI(AbstractPOI poi) {
+        if (poi.getElementStatus() != ElementStatus.PUBLISHED) return;
+        add(poi.getMunicipality().getId(), IndexedName.of(SearchType.POI, poi.getId(), poi.getName()));
+    }
+
+    /**
+     * This method adds the name of a published itinerary to the index after the commit of the current transaction.
+     * Itineraries that are not published are ignored.
+     *
+     * @param itinerary the itinerary to add
+     */
+    public void addItinerary(AbstractItinerary itinerary) {
+        if (itinerary.getElementStatus() != ElementStatus.PUBLISHED) return;
+        add(itinerary.getMunicipality().getId(), IndexedName.of(SearchType.ITINERARY, itinerary.getId(), itinerary.getName()));
+    }
+
+    private void add(Long municipalityId, IndexedName name) {
+        TransactionHooks.afterCommit(() -> this.names
+                .computeIfAbsent(municipalityId, id -> new MunicipalityNames(List.of()))
+                .put(name));
+    }
+
+    /**
+     * This method removes the name of an element from the index after the commit of the current transaction.
+     *
+     * @param type           the type of the element
+     * @param id             the id of the element
+     * @param municipalityId the id of the municipality of the element
+     */
+    public void remove(SearchType type, Long id, Long municipalityId) {
+        TransactionHooks.afterCommit(() -> {
+            MunicipalityNames municipalityNames = this.names.get(municipalityId);
+            if (municipalityNames != null) municipalityNames.remove(type, id);
+        });
+    }
+
+    /**
+     * This method removes the names of a municipality from the index after the commit of the current transaction.
+     *
+     * @param municipalityId the id of the municipality
+     */
+    public void removeMunicipality(Long municipalityId) {
+        TransactionHooks.afterCommit(() -> this.names.remove(municipalityId));
+    }
+
+    /**
+     * This method returns the names of the published POIs and itineraries of a municipality that start with a
+     * prefix, ignoring case and accents, in alphabetical order.
+     *
+     * @param municipalityId the id of the municipality
+     * @param prefix         the start of the names
+     * @param k              the maximum number of names, or null for the maximum allowed
+     * @return the elements with a name that starts with the prefix
+     */
+    public List<SearchResultOutputDTO> complete(Long municipalityId, String prefix, Integer k) {
+        if (k != null && k < 1) throw new IllegalArgumentException("The number of names must be positive");
+        int limit = k == null ? this.maxResults : Math.min(k, this.maxResults);
+        MunicipalityNames municipalityNames = this.names.get(municipalityId);
+        if (municipalityNames == null) return List.of();
+        return municipalityNames.startingWith(normalize(prefix == null ? "" : prefix), limit).stream()
+                .map(name -> new SearchResultOutputDTO(name.type(), name.id(), name.name(), municipalityId))
+                .toList();
+    }
+
+    /**
+     * This method returns a name in lower case and without accents, so the names are compared as they are typed.
+     */
+    private static String normalize(String name) {
+        return MARKS.matcher(Normalizer.normalize(name.strip(), Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * This record contains a name kept in the index, with its normalized form used to sort it.
+     */
+    private record IndexedName(String key, SearchType type, Long id, String name) implements Comparable<IndexedName> {
+
+        static IndexedName of(SearchType type, Long id, String name) {
+            return new IndexedName(normalize(name), type, id, name);
+        }
+
+        @Override
+        public int compareTo(IndexedName other) {
+            int compare = this.key.compareTo(other.key);
+            if (compare == 0) compare = this.type.compareTo(other.type);
+            return compare != 0 ? compare : this.id.compareTo(other.id);
+        }
+    }
+
+    /**
+     * This record identifies the element of a name.
+     */
+    private record ElementKey(SearchType type, Long id) {
+    }
+
+    /**
+     * This class contains the sorted names of a municipality. The updates are exclusive and replace the array, so
+     * a query reads the array it found without locks.
+     */
+    private static class MunicipalityNames {
+        private volatile IndexedName[] sorted;
+
+        /**
+         * The names in the array, by their type and id
+         */
+        private final Map<ElementKey, IndexedName> byElement = new HashMap<>();
+
+        MunicipalityNames(List<IndexedName> names) {
+            names.forEach(name -> this.byElement.put(new ElementKey(name.type(), name.id()), name));
+            this.sorted = this.byElement.values().stream().sorted().toArray(IndexedName[]::new);
+        }
+
+        synchronized void put(IndexedName name) {
+            IndexedName previous = this.byElement.put(new ElementKey(name.type(), name.id()), name);
+            IndexedName[] current = previous == null ? this.sorted : without(this.sorted, previous);
+            int position = -Arrays.binarySearch(current, name) - 1;
+            IndexedName[] updated = new IndexedName[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, position);
+            updated[position] = name;
+            System.arraycopy(current, position, updated, position + 1, current.length - position);
+            this.sorted = updated;
+        }
+
+        synchronized void remove(SearchType type, Long id) {
+            IndexedName previous = this.byElement.remove(new ElementKey(type, id));
+            if (previous != null) this.sorted = without(this.sorted, previous);
+        }
+
+        List<IndexedName> startingWith(String prefix, int limit) {
+            IndexedName[] snapshot = this.sorted;
+            int low = 0;
+            int high = snapshot.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (snapshot[middle].key().compareTo(prefix) < 0) low = middle + 1;
+                else high = middle;
+            }
+            List<IndexedName> result = new ArrayList<>(Math.min(limit, snapshot.length - low));
+            for (int i = low; i < snapshot.length && result.size() < limit && snapshot[i].key().startsWith(prefix); i++) {
+                result.add(snapshot[i]);
+            }
+            return result;
+        }
+
+        private static IndexedName[] without(IndexedName[] names, IndexedName name) {
+            int position = Arrays.binarySearch(names, name);
+            IndexedName[] updated = new IndexedName[names.length - 1];
+            System.arraycopy(names, 0, updated, 0, position);
+            System.arraycopy(names, position + 1, updated, position, names.length - position - 1);
+            return updated;
+        }
+    }
+}
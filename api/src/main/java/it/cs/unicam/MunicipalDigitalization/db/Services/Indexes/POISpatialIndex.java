@@ -0,0 +1,196 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services.Indexes;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.POIType;
+import it.cs.unicam.MunicipalDigitalization.api.util.Spatial.BoundingBox;
+import it.cs.unicam.MunicipalDigitalization.api.util.Spatial.UniformGrid;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.MunicipalRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.POIRepository;
+import it.cs.unicam.MunicipalDigitalization.db.TransactionHooks;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.NearbyPOIOutputDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class is an in-memory spatial index of the published POIs, used to answer radius and nearest-neighbour
+ * queries without loading the POIs from the Database. Every municipality has its own uniform grid over the bounding
+ * box of its territory. The index is built at startup and updated only after the commit of the transaction that
+ * publishes or removes a POI, so it never contains data that has been rolled back.
+ */
+@Component
+public class POISpatialIndex {
+
+    private final POIRepository poiRepository;
+    private final MunicipalRepository municipalRepository;
+
+    /**
+     * The number of cells on the longest side of the territory of a municipality
+     */
+    private final int resolution;
+
+    /**
+     * The maximum number of POIs returned by a query
+     */
+    private final int maxResults;
+
+    /**
+     * The grids of the municipalities, by the id of the municipality
+     */
+    private volatile Map<Long, MunicipalityGrid> grids = new ConcurrentHashMap<>();
+
+    @Autowired
+    public POISpatialIndex(POIRepository poiRepository, MunicipalRepository municipalRepository, Environment env) {
+        this.poiRepository = poiRepository;
+        this.municipalRepository = municipalRepository;
+        this.resolution = env.getProperty("spatial.poi-grid-resolution", Integer.class, 64);
+        this.maxResults = env.getProperty("spatial.near-max-results", Integer.class, 100);
+    }
+
+    /**
+     * This method builds the index from the published POIs of the Database.
+     */
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, MunicipalityGrid> newGrids = new ConcurrentHashMap<>();
+        for (Municipality municipality : municipalRepository.findAllWithTerritory()) {
+            if (municipality.getTerritory() == null || municipality.getTerritory().isEmpty()) continue;
+            newGrids.put(municipality.getId(), new MunicipalityGrid(BoundingBox.of(municipality.getTerritory()), this.resolution));
+        }
+        for (AbstractPOI poi : poiRepository.findAllByElementStatus(ElementStatus.PUBLISHED)) {
+            MunicipalityGrid grid = newGrids.get(poi.getMunicipality().getId());
+            if (grid != null) grid.insert(toIndexedPOI(poi));
+        }
+        this.grids = newGrids;
+    }
+
+    /**
+     * This method adds a published POI to the index after the commit of the current transaction.
+     * POIs that are not published are ignored.
+     *
+     * @param poi the POI to add
+     */
+    public void addPOI(AbstractPOI poi) {
+        if (poi.getElementStatus() != ElementStatus.PUBLISHED) return;
+        Long municipalityId = poi.getMunicipality().getId();
+        IndexedPOI indexedPOI = toIndexedPOI(poi);
+        BoundingBox bounds = this.grids.containsKey(municipalityId) ? null : BoundingBox.of(poi.getMunicipality().getTerritory());
+        TransactionHooks.afterCommit(() -> this.grids
+                .computeIfAbsent(municipalityId, id -> new MunicipalityGrid(bounds, this.resolution))
+                .insert(indexedPOI));
+    }
+
+    /**
+     * This method removes a POI from the index after the commit of the current transaction.
+     *
+     * @param poiId          the id of the POI
+     * @param municipalityId the id of the municipality of the POI
+     */
+    public void removePOI(Long poiId, Long municipalityId) {
+        TransactionHooks.afterCommit(() -> {
+            MunicipalityGrid grid = this.grids.get(municipalityId);
+            if (grid != null) grid.remove(poiId);
+        });
+    }
+
+    /**
+     * This method returns the published POIs nearest to a point, ordered by distance.
+     *
+     * @param x      the x value of the point
+     * @param y      the y value of the point
+     * @param radius the maximum distance of the POIs, or null for no limit
+     * @param k      the maximum number of POIs, or null for the maximum allowed
+     * @return the nearest POIs with their distance
+     */
+    public List<NearbyPOIOutputDTO> findNearby(double x, double y, Double radius, Integer k) {
+        if (radius != null && (radius < 0 || radius.isNaN()))
+            throw new IllegalArgumentException("The radius cannot be negative");
+        if (k != null && k < 1) throw new IllegalArgumentException("The number of POIs must be positive");
+        int limit = k == null ? this.maxResults : Math.min(k, this.maxResults);
+        double maxDistance = radius == null ? Double.POSITIVE_INFINITY : radius;
+
+        List<MunicipalityGrid> candidates = new ArrayList<>();
+        for (MunicipalityGrid grid : this.grids.values()) {
+            if (grid.distance(x, y) <= maxDistance) candidates.add(grid);
+        }
+        candidates.sort(Comparator.comparingDouble(grid -> grid.distance(x, y)));
+
+        List<UniformGrid.Neighbour<IndexedPOI>> result = new ArrayList<>();
+        for (MunicipalityGrid grid : candidates) {
+            if (result.size() == limit && grid.distance(x, y) > result.get(limit - 1).distance()) break;
+            result.addAll(grid.nearest(x, y, limit, maxDistance));
+            result.sort(Comparator.comparingDouble(UniformGrid.Neighbour::distance));
+            if (result.size() > limit) result.subList(limit, result.size()).clear();
+        }
+        return result.stream().map(neighbour -> toDTO(neighbour.value(), neighbour.distance())).toList();
+    }
+
+    private static IndexedPOI toIndexedPOI(AbstractPOI poi) {
+        return new IndexedPOI(poi.getId(), poi.getName(), poi.getPOIType(),
+                poi.getCoordinates().getX(), poi.getCoordinates().getY(), poi.getMunicipality().getId());
+    }
+
+    private static NearbyPOIOutputDTO toDTO(IndexedPOI poi, double distance) {
+        return new NearbyPOIOutputDTO(poi.id(), poi.name(), poi.type(), new Coordinate(poi.x(), poi.y()),
+                poi.municipalityId(), distance);
+    }
+
+    /**
+     * This record contains the data of a POI kept in the index.
+     */
+    private record IndexedPOI(Long id, String name, POIType type, double x, double y, Long municipalityId) {
+    }
+
+    /**
+     * This class is the grid of a municipality, guarded by a read-write lock so that many queries can run
+     * together while the updates are exclusive.
+     */
+    private static class MunicipalityGrid {
+        private final UniformGrid<IndexedPOI> grid;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        MunicipalityGrid(BoundingBox bounds, int resolution) {
+            this.grid = new UniformGrid<>(bounds, resolution);
+        }
+
+        double distance(double x, double y) {
+            return this.grid.getBounds().distance(x, y);
+        }
+
+        void insert(IndexedPOI poi) {
+            this.lock.writeLock().lock();
+            try {
+                this.grid.insert(poi.id(), poi.x(), poi.y(), poi);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long id) {
+            this.lock.writeLock().lock();
+            try {
+                this.grid.remove(id);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        List<UniformGrid.Neighbour<IndexedPOI>> nearest(double x, double y, int k, double maxDistance) {
+            this.lock.readLock().lock();
+            try {
+                return this.grid.nearest(x, y, k, maxDistance);
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+    }
+}
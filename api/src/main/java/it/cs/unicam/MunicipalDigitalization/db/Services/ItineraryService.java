@@ -6,10 +6,14 @@ import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionConte
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
 import it.cs.unicam.MunicipalDigitalization.db.Repository.ItineraryRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ElementName;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ItinerarySummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class is a service for the itinerary entity.
@@ -44,9 +48,7 @@ public class ItineraryService {
      * @param content the content to add
      */
     public void addContent(Long id, AbstractContent content) {
-        AbstractItinerary itinerary = itineraryRepository.getReferenceById(id);
-        itinerary.addContent(content);
-        saveItinerary(itinerary);
+        itineraryRepository.getReferenceById(id).addContent(content);
     }
 
     /**
@@ -109,6 +111,57 @@ public class ItineraryService {
         return itineraryRepository.findAll();
     }
 
+    /**
+     * Get a page of the published itineraries of a municipality, reading only the columns needed by the output DTO
+     *
+     * @param municipalityId the id of the municipality
+     * @param afterId        the id after which the page starts
+     * @param limit          the maximum number of itineraries
+     * @return the projections of the published itineraries
+     */
+    public List<ItinerarySummary> getPublishedItinerarySummaries(Long municipalityId, long afterId, Limit limit) {
+        return itineraryRepository.findSummariesByMunicipalityIdAndStatus(municipalityId, ElementStatus.PUBLISHED, afterId, limit);
+    }
+
+    /**
+     * Get the names of the POIs of a page of published itineraries of a municipality, in the order of the itinerary
+     *
+     * @param municipalityId the id of the municipality
+     * @param itineraries    the page of itineraries, ordered by id
+     * @return the names of the POIs by the id of their itinerary
+     */
+    public Map<Long, List<String>> getPublishedItineraryPOINames(Long municipalityId, List<ItinerarySummary> itineraries) {
+        if (itineraries.isEmpty()) return Map.of();
+        return ElementName.groupByElement(itineraryRepository.findPOINamesByMunicipalityIdAndStatus(municipalityId,
+                ElementStatus.PUBLISHED.ordinal(), itineraries.get(0).getId(), itineraries.get(itineraries.size() - 1).getId()));
+    }
+
+    /**
+     * Get the names of the published contents of a page of published itineraries of a municipality
+     *
+     * @param municipalityId the id of the municipality
+     * @param itineraries    the page of itineraries, ordered by id
+     * @return the names of the contents by the id of their itinerary
+     */
+    public Map<Long, List<String>> getPublishedContentNames(Long municipalityId, List<ItinerarySummary> itineraries) {
+        if (itineraries.isEmpty()) return Map.of();
+        return ElementName.groupByElement(itineraryRepository.findContentNamesByMunicipalityIdAndStatus(municipalityId,
+                ElementStatus.PUBLISHED, itineraries.get(0).getId(), itineraries.get(itineraries.size() - 1).getId()));
+    }
+
+    /**
+     * Get a page of the itineraries of a municipality with a status
+     *
+     * @param municipalityId the id of the municipality
+     * @param status         the status of the itineraries
+     * @param afterId        the id after which the page starts
+     * @param limit          the maximum number of itineraries
+     * @return the itineraries
+     */
+    public List<AbstractItinerary> getItinerariesByMunicipalityIdAndStatus(Long municipalityId, ElementStatus status, long afterId, Limit limit) {
+        return itineraryRepository.findAllByMunicipalityIdAndStatus(municipalityId, status, afterId, limit);
+    }
+
     public List<AbstractItinerary> getItinerariesByIds(List<Long> longs) {
         if (longs == null || longs.isEmpty()) return null;
         return itineraryRepository.findAllById(longs);
@@ -1,19 +1,28 @@
 package it.cs.unicam.MunicipalDigitalization.db.Services.Mediators;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractContent;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ContentService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.FacetIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityVersions;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ItineraryService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.POIService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PublishedDataCache;
+import it.cs.unicam.MunicipalDigitalization.db.Services.SearchService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.ValidateRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This class is a mediator for the content service, the POI service and the itinerary service.
+ * A content is saved in the same transaction as the lists of its POI or itinerary and of its author.
  */
 @Component
 @AllArgsConstructor(onConstructor_ = @Autowired)
@@ -22,19 +31,29 @@ public class ContentMediator {
     private final POIService poiService;
     private final ItineraryService itineraryService;
     private final UserService userService;
+    private final EntityResolver entityResolver;
+    private final SearchService searchService;
+    private final FacetIndex facetIndex;
+    private final MunicipalityVersions municipalityVersions;
+    private final PublishedDataCache publishedDataCache;
 
     /**
      * This method saves the content in the database and adds it to the POI or the itinerary.
      *
      * @param content the content to save
      */
+    @Transactional
     public void saveContent(AbstractContent content) {
         contentService.saveContent(content);
         if (content.getReferredPOI() != null) {
             poiService.addContent(content.getReferredPOI().getId(), content);
         } else itineraryService.addContent(content.getReferredItinerary().getId(), content);
         userService.addContent(content.getAuthor().getId(), content);
-
+        searchService.indexContent(content);
+        facetIndex.addContent(content);
+        municipalityVersions.bump(municipalityOf(content));
+        if (content.getElementStatus() == ElementStatus.PUBLISHED)
+            publishedDataCache.invalidate(municipalityOf(content), collectionOf(content));
     }
 
     /**
@@ -42,16 +61,46 @@ public class ContentMediator {
      *
      * @param request the request to validate
      */
+    @Transactional
     public void validateContent(ValidateRequest request) {
-        if (userService.getUserById(request.getValidatorID()).getRole().contains(UserRole.CURATOR) && (contentService
-                .getContentById(request.getRequestID()).getElementStatus().equals(ElementStatus.PENDING)) &&
-                userService.getUserById(request.getValidatorID()).getMunicipality().
-                        equals(contentService.getContentById(request.getRequestID()).getAuthor().getMunicipality())) {
-            contentService.validateContent(request.getRequestID(), request.isValidated());
+        AbstractAuthenticatedUser validator = entityResolver.getUser(request.getValidatorID());
+        AbstractContent content = contentService.getContentById(request.getRequestID());
+        if (validator.getRole().contains(UserRole.CURATOR) && content.getElementStatus().equals(ElementStatus.PENDING) &&
+                validator.getMunicipality().equals(content.getAuthor().getMunicipality())) {
+            boolean referredPOI = content.getReferredPOI() != null;
+            Long municipalityId = municipalityOf(content);
             userService.updateUserContentList(request.getRequestID(), request.isValidated());
-            if (contentService.getContentById(request.getRequestID()).getReferredPOI() != null) {
+            if (referredPOI) {
                 poiService.updateContentList(request.getRequestID(), request.isValidated());
             } else itineraryService.updateContentList(request.getRequestID(), request.isValidated());
+            contentService.validateContent(request.getRequestID(), request.isValidated());
+            if (request.isValidated()) {
+                searchService.indexContent(content);
+                facetIndex.addContent(content);
+                publishedDataCache.invalidate(municipalityId, collectionOf(content));
+            } else {
+                searchService.remove(SearchType.CONTENT, request.getRequestID());
+                facetIndex.remove(SearchType.CONTENT, request.getRequestID());
+            }
+            municipalityVersions.bump(municipalityId);
         }
     }
+
+    /**
+     * This method returns the id of the municipality of the POI or of the itinerary referred by a content.
+     */
+    private static Long municipalityOf(AbstractContent content) {
+        return content.getReferredPOI() != null
+                ? content.getReferredPOI().getMunicipality().getId()
+                : content.getReferredItinerary().getMunicipality().getId();
+    }
+
+    /**
+     * This method returns the collection of published data that shows a content, the POIs or the itineraries.
+     */
+    private static PublishedDataCache.Collection collectionOf(AbstractContent content) {
+        return content.getReferredPOI() != null
+                ? PublishedDataCache.Collection.POIS
+                : PublishedDataCache.Collection.ITINERARIES;
+    }
 }
@@ -1,9 +1,11 @@
 package it.cs.unicam.MunicipalDigitalization.db.Services.Mediators;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
 import it.cs.unicam.MunicipalDigitalization.db.Services.*;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.ContestLeaderboard;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.ValidateRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,9 +21,19 @@ public class ContestMediator {
 
     private final ItineraryService itineraryService;
 
+    private final EntityResolver entityResolver;
+
+    private final ContestLeaderboard contestLeaderboard;
+
+    private final ContestLifecycleService contestLifecycleService;
+
+    private final PublishedDataCache publishedDataCache;
+
+    private final VoteIngestionService voteIngestionService;
+
     /**
      * Saves a contest to the database changing the associations with the municipality, the author and the pois/itineraries
-     * of the contest
+     * of the contest, and schedules its start and end dates
      *
      * @param contributionContest the contest to be saved
      */
@@ -42,6 +54,8 @@ public class ContestMediator {
         }
         this.poiService.addContestToPOIs(contributionContest.getPois(), contributionContest);
         this.itineraryService.addContestToItineraries(contributionContest.getItineraries(), contributionContest);
+        this.contestLifecycleService.scheduleContest(contributionContest);
+        this.publishedDataCache.invalidate(municipalityId, PublishedDataCache.Collection.CONTESTS);
     }
 
     /**
@@ -50,13 +64,18 @@ public class ContestMediator {
      * @param validateRequest The request to validate.
      */
     public void validateContest(ValidateRequest validateRequest) {
-        if (userService.getUserById(validateRequest.getValidatorID()).getRole().contains(UserRole.ANIMATOR) && (contestService
-                .getContestById(validateRequest.getRequestID()).getContestStatus().equals(ContestStatus.OPEN))) {
-            if (contestService.getContestById(validateRequest.getRequestID()).getActualNumberOfParticipants()
-                    > contestService.getContestById(validateRequest.getRequestID()).getMinParticipants()) {
-                if(userService.getUserById(validateRequest.getValidatorID()).getMunicipality().getId().equals(contestService.getContestById(validateRequest.getRequestID()).getMunicipality().getId())) {
+        AbstractAuthenticatedUser validator = entityResolver.getUser(validateRequest.getValidatorID());
+        ContributionContest contest = entityResolver.getContest(validateRequest.getRequestID());
+        if (validator.getRole().contains(UserRole.ANIMATOR) && contest.getContestStatus().equals(ContestStatus.OPEN)) {
+            if (contest.getActualNumberOfParticipants() > contest.getMinParticipants()) {
+                if (validator.getMunicipality().getId().equals(contest.getMunicipality().getId())) {
                     contestService.validateContest(validateRequest.getRequestID(), validateRequest.isValidated());
                     userService.updateUserContestList(validateRequest.getRequestID(), validateRequest.isValidated());
+                    if (!validateRequest.isValidated()) {
+                        contestLeaderboard.removeContest(validateRequest.getRequestID());
+                        voteIngestionService.removeContest(validateRequest.getRequestID());
+                    }
+                    publishedDataCache.invalidate(contest.getMunicipality().getId(), PublishedDataCache.Collection.CONTESTS);
                 } else throw new IllegalArgumentException("The user is not an Animator of the contest's municipality");
             } else throw new IllegalArgumentException("The contest has not enough participants");
         } else throw new IllegalArgumentException("The user is not an Animator or the contest is not open");
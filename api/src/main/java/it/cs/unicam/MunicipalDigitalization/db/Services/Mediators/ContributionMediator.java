@@ -3,7 +3,10 @@ package it.cs.unicam.MunicipalDigitalization.db.Services.Mediators;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.Contribution;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ContestService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ContributionService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.ContestLeaderboard;
 import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.VoteIngestionService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.VoteRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +19,9 @@ public class ContributionMediator {
     private final UserService userService;
     private final ContestService contestService;
     private final ContributionService contributionService;
+    private final EntityResolver entityResolver;
+    private final ContestLeaderboard contestLeaderboard;
+    private final VoteIngestionService voteIngestionService;
 
     /**
      * This method saves a contribution and associates it with the author and the contest.
@@ -31,15 +37,22 @@ public class ContributionMediator {
         if (contribution.getContest().getContributions().stream().noneMatch(c -> c.getId().equals(contribution.getId()))) {
             contestService.addContribution(contribution.getContest().getId(), contribution);
         }
+        contestLeaderboard.addContribution(contribution);
     }
 
     /**
-     * This method lets a user vote a contribution.
+     * This method lets a user vote a contribution. Only the vote and the counter of the contribution are written,
+     * the voter collections are never loaded. The accepted vote is then added to the leaderboard of the contest.
+     * If the buffered ingestion is enabled the vote is queued and written with the next batch of votes.
      *
      * @param voteRequest The vote request.
      */
     public void voteContribution(VoteRequest voteRequest) {
-        this.contributionService.voteContribution(voteRequest.getRequestID(), userService.getUserById(voteRequest.getVoterID()));
-        this.userService.voteContribution(this.contributionService.getContributionById(voteRequest.getRequestID()), voteRequest.getVoterID());
+        if (this.voteIngestionService.isBuffered()) {
+            this.voteIngestionService.submit(voteRequest.getRequestID(), voteRequest.getVoterID());
+            return;
+        }
+        this.contributionService.voteContribution(voteRequest.getRequestID(), entityResolver.getUser(voteRequest.getVoterID()).getId());
+        this.contestLeaderboard.addVote(voteRequest.getRequestID());
     }
 }
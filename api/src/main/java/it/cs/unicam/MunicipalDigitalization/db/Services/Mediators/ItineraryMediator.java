@@ -1,19 +1,29 @@
 package it.cs.unicam.MunicipalDigitalization.db.Services.Mediators;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.FacetIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.NameAutocompleteIndex;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ItineraryService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.MunicipalService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.POIService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PublishedDataCache;
+import it.cs.unicam.MunicipalDigitalization.db.Services.SearchService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.ValidateRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This class is a mediator for the itinerary service, the municipality service and the user service.
+ * An itinerary is saved in a single transaction together with the lists of its municipality, its author and
+ * its POIs, which are only updated in memory.
  */
 @Component
 @AllArgsConstructor(onConstructor_ = @Autowired)
@@ -24,20 +34,28 @@ public class ItineraryMediator {
 
     private final UserService userService;
     private final POIService poiService;
+    private final EntityResolver entityResolver;
+    private final SearchService searchService;
+    private final NameAutocompleteIndex nameAutocompleteIndex;
+    private final FacetIndex facetIndex;
+    private final PublishedDataCache publishedDataCache;
 
     /**
      * This method saves an itinerary and adds it to the municipality and the author.
      *
      * @param itinerary the itinerary to save
      */
+    @Transactional
     public void saveItinerary(AbstractItinerary itinerary) {
-
         this.itineraryService.saveItinerary(itinerary);
-
-
         municipalityService.addItinerary(itinerary.getMunicipality().getId(), itinerary);
         userService.addItinerary(itinerary.getAuthor().getId(), itinerary);
         poiService.addItinerary(itinerary.getPOIs(), itinerary);
+        searchService.indexItinerary(itinerary);
+        nameAutocompleteIndex.addItinerary(itinerary);
+        facetIndex.addItinerary(itinerary);
+        if (itinerary.getElementStatus() == ElementStatus.PUBLISHED)
+            publishedDataCache.invalidate(itinerary.getMunicipality().getId(), PublishedDataCache.Collection.ITINERARIES);
     }
 
     /**
@@ -46,14 +64,26 @@ public class ItineraryMediator {
      * @param request the request to validate
      */
 
+    @Transactional
     public void validateItinerary(ValidateRequest request) {
-        if (userService.getUserById(request.getValidatorID()).getRole().contains(UserRole.CURATOR) && (itineraryService
-                .getItineraryById(request.getRequestID()).getElementStatus().equals(ElementStatus.PENDING)) &&
-                userService.getUserById(request.getValidatorID()).getMunicipality().getId().equals(itineraryService.getItineraryById(request.getRequestID()).getMunicipality().getId())) {
-            itineraryService.validateItinerary(request.getRequestID(), request.isValidated());
+        AbstractAuthenticatedUser validator = entityResolver.getUser(request.getValidatorID());
+        AbstractItinerary itinerary = entityResolver.getItinerary(request.getRequestID());
+        if (validator.getRole().contains(UserRole.CURATOR) && itinerary.getElementStatus().equals(ElementStatus.PENDING) &&
+                validator.getMunicipality().getId().equals(itinerary.getMunicipality().getId())) {
             userService.updateUserItineraryList(request.getRequestID(), request.isValidated());
             municipalityService.updateMunicipalityItineraryList(request.getRequestID(), request.isValidated());
-        } else if (itineraryService.getItineraryById(request.getRequestID()).getElementStatus().equals(ElementStatus.PUBLISHED)) {
+            itineraryService.validateItinerary(request.getRequestID(), request.isValidated());
+            if (request.isValidated()) {
+                searchService.indexItinerary(itinerary);
+                nameAutocompleteIndex.addItinerary(itinerary);
+                facetIndex.addItinerary(itinerary);
+                publishedDataCache.invalidate(itinerary.getMunicipality().getId(), PublishedDataCache.Collection.ITINERARIES);
+            } else {
+                searchService.remove(SearchType.ITINERARY, request.getRequestID());
+                nameAutocompleteIndex.remove(SearchType.ITINERARY, request.getRequestID(), itinerary.getMunicipality().getId());
+                facetIndex.remove(SearchType.ITINERARY, request.getRequestID());
+            }
+        } else if (itinerary.getElementStatus().equals(ElementStatus.PUBLISHED)) {
             throw new IllegalArgumentException("This itinerary is already Published");
         } else throw new IllegalArgumentException("You are not a Curator");
 
@@ -1,18 +1,30 @@
 package it.cs.unicam.MunicipalDigitalization.db.Services.Mediators;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.FacetIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.NameAutocompleteIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.POISpatialIndex;
 import it.cs.unicam.MunicipalDigitalization.db.Services.MunicipalService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.POIService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PublishedDataCache;
+import it.cs.unicam.MunicipalDigitalization.db.Services.SearchService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.ValidateRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * This class is a mediator for the POI service, the municipality service and the user service.
+ * A save runs in a single transaction, so the POI and both sides of its associations are written with one flush.
  */
 @Component
 @AllArgsConstructor(onConstructor_ = @Autowired)
@@ -20,22 +32,47 @@ public class POIMediator {
     private final POIService poiService;
     private final MunicipalService municipalityService;
     private final UserService userService;
+    private final POISpatialIndex poiSpatialIndex;
+    private final EntityResolver entityResolver;
+    private final SearchService searchService;
+    private final NameAutocompleteIndex nameAutocompleteIndex;
+    private final FacetIndex facetIndex;
+    private final PublishedDataCache publishedDataCache;
 
     /**
      * This method saves a POI and associates it with the municipality and the author.
      *
      * @param poi The POI to save.
      */
+    @Transactional
     public void savePOI(AbstractPOI poi) {
         poiService.savePOI(poi);
+        municipalityService.addPOI(poi.getMunicipality().getId(), poi);
+        userService.addPOI(poi.getAuthor().getId(), poi);
+        poiSpatialIndex.addPOI(poi);
+        searchService.indexPOI(poi);
+        nameAutocompleteIndex.addPOI(poi);
+        facetIndex.addPOI(poi);
+        invalidatePublished(poi);
+    }
 
-        //Check if the POI is already associated with the municipality
-        if (poi.getMunicipality().getPOIList().stream().noneMatch(p -> p.getId().equals(poi.getId()))) {
+    /**
+     * This method saves a batch of POIs already checked for duplicates and associates them with their
+     * municipality and author.
+     *
+     * @param pois The POIs to save.
+     */
+    @Transactional
+    public void savePOIs(List<AbstractPOI> pois) {
+        poiService.savePOIs(pois);
+        for (AbstractPOI poi : pois) {
             municipalityService.addPOI(poi.getMunicipality().getId(), poi);
-        }
-        //Check if the POI is already associated with the user
-        if (poi.getAuthor().getAuthoredPOIs().stream().noneMatch(p -> p.getId().equals(poi.getId()))) {
             userService.addPOI(poi.getAuthor().getId(), poi);
+            poiSpatialIndex.addPOI(poi);
+            searchService.indexPOI(poi);
+            nameAutocompleteIndex.addPOI(poi);
+            facetIndex.addPOI(poi);
+            invalidatePublished(poi);
         }
     }
 
@@ -44,17 +81,41 @@ public class POIMediator {
      *
      * @param request The request to validate.
      */
+    @Transactional
     public void validatePOI(ValidateRequest request) {
-        if (userService.getUserById(request.getValidatorID()).getRole().contains(UserRole.CURATOR) && (poiService
-                .getPOIByID(request.getRequestID()).getElementStatus().equals(ElementStatus.PENDING)) &&
-                userService.getUserById(request.getValidatorID()).getMunicipality().equals(poiService.getPOIByID(request.getRequestID()).getMunicipality())) {
-            poiService.validatePOI(request.getRequestID(), request.isValidated());
+        AbstractAuthenticatedUser validator = entityResolver.getUser(request.getValidatorID());
+        AbstractPOI poi = entityResolver.getPOI(request.getRequestID());
+        if (validator.getRole().contains(UserRole.CURATOR) && poi.getElementStatus().equals(ElementStatus.PENDING) &&
+                validator.getMunicipality().equals(poi.getMunicipality())) {
+            Long municipalityId = poi.getMunicipality().getId();
             userService.updateUserPOIList(request.getRequestID(), request.isValidated());
             municipalityService.updateMunicipalityPOIList(request.getRequestID(), request.isValidated());
-        } else if (poiService.getPOIByID(request.getRequestID()).getElementStatus().equals(ElementStatus.PUBLISHED)) {
+            poiService.validatePOI(request.getRequestID(), request.isValidated());
+            if (request.isValidated()) {
+                poiSpatialIndex.addPOI(poi);
+                searchService.indexPOI(poi);
+                nameAutocompleteIndex.addPOI(poi);
+                facetIndex.addPOI(poi);
+                publishedDataCache.invalidate(municipalityId, PublishedDataCache.Collection.POIS,
+                        PublishedDataCache.Collection.ITINERARIES);
+            } else {
+                poiSpatialIndex.removePOI(request.getRequestID(), municipalityId);
+                searchService.remove(SearchType.POI, request.getRequestID());
+                nameAutocompleteIndex.remove(SearchType.POI, request.getRequestID(), municipalityId);
+                facetIndex.remove(SearchType.POI, request.getRequestID());
+            }
+        } else if (poi.getElementStatus().equals(ElementStatus.PUBLISHED)) {
             throw new IllegalArgumentException("This poi is already Published");
         } else {
             throw new IllegalArgumentException("You are not a curator");
         }
     }
+
+    /**
+     * This method invalidates the cached pages of POIs of the municipality of a POI, if the POI is published.
+     */
+    private void invalidatePublished(AbstractPOI poi) {
+        if (poi.getElementStatus() == ElementStatus.PUBLISHED)
+            publishedDataCache.invalidate(poi.getMunicipality().getId(), PublishedDataCache.Collection.POIS);
+    }
 }
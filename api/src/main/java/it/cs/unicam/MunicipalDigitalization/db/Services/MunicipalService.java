@@ -7,10 +7,20 @@ import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionConte
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
+import it.cs.unicam.MunicipalDigitalization.api.util.Spatial.BoundingBox;
+import it.cs.unicam.MunicipalDigitalization.api.util.Spatial.Polygon;
 import it.cs.unicam.MunicipalDigitalization.db.Repository.MunicipalRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.MunicipalityVersion;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.FacetIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityTerritoryIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityVersions;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.NameAutocompleteIndex;
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +35,13 @@ public class MunicipalService {
 
 
     private final MunicipalRepository municipalRepository;
+    private final MunicipalityTerritoryIndex territoryIndex;
+    private final SearchService searchService;
+    private final NameAutocompleteIndex nameAutocompleteIndex;
+    private final FacetIndex facetIndex;
+    private final MunicipalityVersions municipalityVersions;
+    private final PublishedDataCache publishedDataCache;
+    private final VoteIngestionService voteIngestionService;
 
     /**
      * Save a municipality to the database if it does not already exist
@@ -32,26 +49,59 @@ public class MunicipalService {
      * @param municipality Municipality to save
      */
     public void saveMunicipal(Municipality municipality) {
-        if (MatchingAlgorithms.isMunicipalSimilarToMunicipalityList(municipality, municipalRepository.findAll())){
+        if (municipality.getTerritory() == null || municipality.getTerritory().size() < 3) {
+            throw new IllegalArgumentException("The territory must have at least 3 coordinates");
+        }
+        MatchingAlgorithms.sortCoordinates(municipality.getTerritory());
+        if (MatchingAlgorithms.isMunicipalSimilarToMunicipalityList(municipality, municipalRepository.findAllByNameIgnoreCase(municipality.getName()))){
             throw new IllegalArgumentException("Municipality already exists");
         }
-        else if(MatchingAlgorithms.isMunicipalityInsideAMunicipalityList(municipality, municipalRepository.findAll())){
+        else if(collidesWithAnotherMunicipality(municipality)){
             throw new IllegalArgumentException("Municipality collides with another municipality");
         }
-        MatchingAlgorithms.sortCoordinates(municipality.getTerritory());
         municipalRepository.save(municipality);
+        territoryIndex.addMunicipality(municipality);
+        municipalityVersions.add(municipality.getId());
+    }
+
+    /**
+     * Check if the territory of a municipality overlaps the territory of another municipality.
+     * The candidates are the municipalities whose bounding box intersects the one of the territory, found with
+     * an indexed query, and only their polygons are compared with the territory.
+     *
+     * @param municipality Municipality to check
+     * @return true if the municipality overlaps another municipality
+     */
+    private boolean collidesWithAnotherMunicipality(Municipality municipality) {
+        Polygon polygon = Polygon.of(municipality.getTerritory());
+        BoundingBox box = polygon.getBounds();
+        return municipalRepository.findAllByBoundingBoxIntersecting(box.minX(), box.minY(), box.maxX(), box.maxY())
+                .stream()
+                .filter(m -> m != municipality && !m.getId().equals(municipality.getId()))
+                .anyMatch(m -> polygon.overlaps(Polygon.ofTerritory(m.getTerritory())));
     }
 
     /**
-     * Add a POI to a municipality
+     * Compute the bounding box of the municipalities saved before its introduction
+     */
+    @PostConstruct
+    public void initBoundingBoxes() {
+        List<Municipality> municipalities = municipalRepository.findAllByBoundingBoxIsNull();
+        if (municipalities.isEmpty()) return;
+        municipalities.forEach(Municipality::updateBoundingBox);
+        municipalRepository.saveAll(municipalities);
+    }
+
+    /**
+     * Add a POI to a municipality. The list of POIs is the inverse side of the municipality of the POI, so it is
+     * only updated in memory and it is not loaded if it is not loaded yet.
      *
      * @param municipalID ID of the municipality
      * @param poi         POI to add
      */
     public void addPOI(Long municipalID, AbstractPOI poi) {
-        Municipality municipality = municipalRepository.getReferenceById(municipalID);
-        municipality.uploadPOI(poi);
-        municipalRepository.save(municipality);
+        municipalRepository.getReferenceById(municipalID).uploadPOI(poi);
+        municipalityVersions.bump(municipalID);
     }
 
     /**
@@ -64,6 +114,7 @@ public class MunicipalService {
         Municipality municipality = municipalRepository.getReferenceById(id);
         municipality.addUser(user);
         municipalRepository.save(municipality);
+        municipalityVersions.bump(id);
     }
 
     /**
@@ -73,9 +124,8 @@ public class MunicipalService {
      * @param itinerary   Itinerary to add
      */
     public void addItinerary(Long municipalID, AbstractItinerary itinerary) {
-        Municipality municipality = municipalRepository.getReferenceById(municipalID);
-        municipality.uploadItinerary(itinerary);
-        municipalRepository.save(municipality);
+        municipalRepository.getReferenceById(municipalID).uploadItinerary(itinerary);
+        municipalityVersions.bump(municipalID);
     }
 
     /**
@@ -88,6 +138,7 @@ public class MunicipalService {
         Municipality municipality = municipalRepository.getReferenceById(municipalityId);
         municipality.uploadContest(contributionContest);
         municipalRepository.save(municipality);
+        municipalityVersions.bump(municipalityId);
     }
 
     /**
@@ -98,6 +149,7 @@ public class MunicipalService {
      */
     public void updateMunicipalityPOIList(long poiID, boolean isValidated) {
         Municipality municipality = municipalRepository.findByPOIinPOIList(poiID);
+        municipalityVersions.bump(municipality.getId());
         if (isValidated) {
             municipality.getPOIList().stream().filter(p -> p.getId().equals(poiID)).
                     forEach(p -> p.setElementStatus(ElementStatus.PUBLISHED));
@@ -120,6 +172,7 @@ public class MunicipalService {
      */
     public void updateMunicipalityItineraryList(long itineraryID, boolean isValidated) {
         Municipality municipality = municipalRepository.findByItineraryInItineraryList(itineraryID);
+        municipalityVersions.bump(municipality.getId());
         if (isValidated) {
             municipality.getItineraryList().stream().filter(p -> p.getId().equals(itineraryID)).
                     forEach(p -> p.setElementStatus(ElementStatus.PUBLISHED));
@@ -143,14 +196,26 @@ public class MunicipalService {
         return municipalRepository.findByName(name);
     }
 
+    @Transactional
     public void deleteMunicipalById(Long id) {
         municipalRepository.deleteById(id);
+        territoryIndex.removeMunicipality(id);
+        searchService.removeMunicipality(id);
+        nameAutocompleteIndex.removeMunicipality(id);
+        facetIndex.rebuildAfterCommit();
+        municipalityVersions.remove(id);
+        publishedDataCache.invalidateMunicipality(id);
+        voteIngestionService.removeMunicipality(id);
     }
 
     public List<Municipality> getAllMunicipals() {
         return municipalRepository.findAll();
     }
 
+    public List<MunicipalityVersion> getMunicipalVersions(long afterId, Limit limit) {
+        return municipalRepository.findVersionsAfterId(afterId, limit);
+    }
+
     public Optional<Municipality> findMunicipalByID(Long municipality) {
         return municipalRepository.findById(municipality);
     }
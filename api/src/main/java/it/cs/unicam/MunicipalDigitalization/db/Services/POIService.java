@@ -7,12 +7,15 @@ import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionConte
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
 import it.cs.unicam.MunicipalDigitalization.db.Repository.POIRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ElementName;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.POISummary;
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Service for the POI entity
@@ -30,10 +33,56 @@ public class POIService {
      * @param poi the POI to save
      */
     public void savePOI(AbstractPOI poi) {
-        if (!MatchingAlgorithms.isPOISimilarToPoiList(poi, poiRepository.findAll())) poiRepository.save(poi);
+        if (!isDuplicated(poi)) poiRepository.save(poi);
         else throw new IllegalArgumentException("POI already exists");
     }
 
+    /**
+     * Save a batch of POIs already checked for duplicates. The inserts are flushed together, so they are sent to
+     * the database in JDBC batches.
+     *
+     * @param pois the POIs to save
+     */
+    public void savePOIs(List<AbstractPOI> pois) {
+        poiRepository.saveAll(pois);
+        poiRepository.flush();
+    }
+
+    /**
+     * Get which of the given duplicate keys are already used by a saved POI, with a single query
+     *
+     * @param duplicateKeys the duplicate keys to check
+     * @return the duplicate keys already used
+     */
+    public Set<String> getUsedDuplicateKeys(Collection<String> duplicateKeys) {
+        if (duplicateKeys.isEmpty()) return Set.of();
+        return new HashSet<>(poiRepository.findDuplicateKeysIn(duplicateKeys));
+    }
+
+    /**
+     * Check if a similar POI already exists with a single lookup on the indexed duplicate key
+     *
+     * @param poi the POI to check
+     * @return true if another POI with the same duplicate key exists
+     */
+    private boolean isDuplicated(AbstractPOI poi) {
+        String duplicateKey = MatchingAlgorithms.poiDuplicateKey(poi);
+        if (duplicateKey == null) return false;
+        if (poi.getId() == null) return poiRepository.existsByDuplicateKey(duplicateKey);
+        return poiRepository.existsByDuplicateKeyAndIdNot(duplicateKey, poi.getId());
+    }
+
+    /**
+     * Compute the duplicate key of the POIs saved before its introduction
+     */
+    @PostConstruct
+    public void initDuplicateKeys() {
+        List<AbstractPOI> pois = poiRepository.findAllByDuplicateKeyIsNull();
+        if (pois.isEmpty()) return;
+        pois.forEach(poi -> poi.setDuplicateKey(MatchingAlgorithms.poiDuplicateKey(poi)));
+        poiRepository.saveAll(pois);
+    }
+
     /**
      * Add a content to a POI
      *
@@ -41,9 +90,7 @@ public class POIService {
      * @param content the content to add
      */
     public void addContent(Long id, AbstractContent content) {
-        AbstractPOI poi = poiRepository.getReferenceById(id);
-        poi.addContent(content);
-        poiRepository.save(poi);
+        poiRepository.getReferenceById(id).addContent(content);
     }
 
     /**
@@ -63,16 +110,15 @@ public class POIService {
     }
 
     /**
-     * Add an itinerary to the POI
+     * Add an itinerary to the POIs. The itineraries of a POI are the inverse side of the POIs of the itinerary,
+     * so they are only updated in memory.
      *
      * @param poIs list of POIs
      * @param id   the itinerary to add
      */
     public void addItinerary(List<AbstractPOI> poIs, AbstractItinerary id) {
         for (AbstractPOI poi : poIs) {
-            AbstractPOI poi1 = poiRepository.getReferenceById(poi.getId());
-            poi1.addItinerary(id);
-            poiRepository.save(poi);
+            poiRepository.getReferenceById(poi.getId()).addItinerary(id);
         }
     }
 
@@ -115,6 +161,44 @@ public class POIService {
         return poiRepository.findAll();
     }
 
+    /**
+     * Get a page of the published POIs of a municipality, reading only the columns needed by the output DTO
+     *
+     * @param municipalityId ID of the municipality
+     * @param afterId        ID after which the page starts
+     * @param limit          maximum number of POIs
+     * @return the projections of the published POIs
+     */
+    public List<POISummary> getPublishedPOISummaries(Long municipalityId, long afterId, Limit limit) {
+        return poiRepository.findSummariesByMunicipalityIdAndStatus(municipalityId, ElementStatus.PUBLISHED, afterId, limit);
+    }
+
+    /**
+     * Get the names of the published contents of a page of published POIs of a municipality
+     *
+     * @param municipalityId ID of the municipality
+     * @param pois           the page of POIs, ordered by ID
+     * @return the names of the contents by the ID of their POI
+     */
+    public Map<Long, List<String>> getPublishedContentNames(Long municipalityId, List<POISummary> pois) {
+        if (pois.isEmpty()) return Map.of();
+        return ElementName.groupByElement(poiRepository.findContentNamesByMunicipalityIdAndStatus(municipalityId,
+                ElementStatus.PUBLISHED, pois.get(0).getId(), pois.get(pois.size() - 1).getId()));
+    }
+
+    /**
+     * Get a page of the POIs of a municipality with a status
+     *
+     * @param municipalityId ID of the municipality
+     * @param status         status of the POIs
+     * @param afterId        ID after which the page starts
+     * @param limit          maximum number of POIs
+     * @return the POIs
+     */
+    public List<AbstractPOI> getPOIsByMunicipalityIdAndStatus(Long municipalityId, ElementStatus status, long afterId, Limit limit) {
+        return poiRepository.findAllByMunicipalityIdAndStatus(municipalityId, status, afterId, limit);
+    }
+
     public void addContestToPOIs(List<AbstractPOI> pois, ContributionContest contributionContest) {
         for (AbstractPOI poi : pois) {
             AbstractPOI poi1 = poiRepository.getReferenceById(poi.getId());
@@ -0,0 +1,103 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services;
+
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.PageOutputDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * This class handles the keyset pagination of the list endpoints.
+ * A page is read with a query that returns the elements with an id greater than the last id of the previous page,
+ * ordered by id, so every page costs the same whatever its position. The last id is sent to the client in an
+ * opaque cursor, and one more element than the page size is read to know if there is a next page.
+ */
+@Service
+public class PaginationService {
+
+    private static final String CURSOR_PREFIX = "after:";
+
+    /**
+     * The number of elements of a page when the client does not ask for a size
+     */
+    private final int defaultPageSize;
+
+    /**
+     * The maximum number of elements of a page
+     */
+    private final int maxPageSize;
+
+    @Autowired
+    public PaginationService(Environment env) {
+        this.maxPageSize = env.getProperty("pagination.max-page-size", Integer.class, 100);
+        this.defaultPageSize = Math.min(env.getProperty("pagination.default-page-size", Integer.class, 20), this.maxPageSize);
+    }
+
+    /**
+     * This method returns the size of a page, limited to the maximum page size.
+     *
+     * @param size the size asked by the client, or null for the default size
+     * @return the size of the page
+     */
+    public int pageSize(Integer size) {
+        if (size == null) return this.defaultPageSize;
+        if (size < 1) throw new IllegalArgumentException("The page size must be positive");
+        return Math.min(size, this.maxPageSize);
+    }
+
+    /**
+     * This method returns the limit of the query of a page, that is one more than the size of the page.
+     *
+     * @param size the size of the page
+     * @return the limit of the query
+     */
+    public Limit limit(int size) {
+        return Limit.of(size + 1);
+    }
+
+    /**
+     * This method returns the id after which the page starts.
+     *
+     * @param cursor the cursor of the page, or null for the first page
+     * @return the last id of the previous page, or 0 for the first page
+     */
+    public long afterId(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) throw new IllegalArgumentException("Invalid cursor");
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * This method builds a page from the rows read with the limit of the page.
+     *
+     * @param rows   the rows read, at most one more than the size of the page
+     * @param size   the size of the page
+     * @param id     the function that returns the id of a row
+     * @param mapper the function that maps a row to the output DTO
+     * @param <T>    the type of the rows
+     * @param <R>    the type of the output DTO
+     * @return the page, with the cursor of the next page if there is one
+     */
+    public <T, R> PageOutputDTO<R> page(List<T> rows, int size, Function<T, Long> id, Function<T, R> mapper) {
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            next = encode(id.apply(rows.get(size - 1)));
+        }
+        return new PageOutputDTO<>(rows.stream().map(mapper).toList(), next);
+    }
+
+    private static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,26 +3,68 @@ package it.cs.unicam.MunicipalDigitalization.db.Services;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContestRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ParticipationRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Service class for the participations of the users to the contests.
+ * A participation is a single row identified by the contest and the user, and the number of participants is kept
+ * in a column of the contest, so neither the participants of a contest nor the contests of a user are loaded.
+ */
 @Service
 @AllArgsConstructor(onConstructor_ = @Autowired)
 public class ParticipationService {
 
-    private final ContestService contestService;
-    private final UserService userService;
+    private final ParticipationRepository participationRepository;
+    private final ContestRepository contestRepository;
+    private final EntityResolver entityResolver;
+    private final PublishedDataCache publishedDataCache;
 
+    /**
+     * This method creates the unique index of the participations, removing the participations repeated before it
+     * existed, and counts the participants of every contest
+     */
+    @PostConstruct
+    public void initParticipations() {
+        participationRepository.deleteDuplicates();
+        participationRepository.createUniqueIndex();
+        contestRepository.recountParticipants();
+    }
+
+    /**
+     * This method adds a user to the participants of a contest. The participation and the counter of the contest
+     * are saved by the same transaction, and the counter of the loaded contest is updated too, since the update of
+     * the Database does not change the entities already loaded.
+     *
+     * @param contestId the id of the contest
+     * @param userId    the id of the user
+     */
+    @Transactional
     public void participateToAContest(Long contestId, Long userId) {
-        ContributionContest contest = contestService.getContestById(contestId);
-            if (contest.getParticipants().contains(userService.getUserById(userId))) throw new IllegalArgumentException("User already participated to the contest");
-            if(contest.getContestStatus().equals(ContestStatus.CLOSED)) throw new IllegalArgumentException("Contest is closed");
-            if (!contest.getMunicipality().equals(userService.getUserById(userId).getMunicipality())) throw new IllegalArgumentException("User is not from the same municipality");
-            contest.addParticipant(userService.getUserById(userId));
-            contestService.saveContest(contest);
-            AbstractAuthenticatedUser user = userService.getUserById(userId);
-            user.addParticipatedContest(contest);
-            userService.saveUser(user);
+        ContributionContest contest = entityResolver.getContest(contestId);
+        AbstractAuthenticatedUser user = entityResolver.getUser(userId);
+        if (contest.getContestStatus().equals(ContestStatus.CLOSED)) throw new IllegalArgumentException("Contest is closed");
+        if (!contest.getMunicipality().equals(user.getMunicipality())) throw new IllegalArgumentException("User is not from the same municipality");
+        if (participationRepository.insertParticipation(contestId, userId) == 0)
+            throw new IllegalArgumentException("User already participated to the contest");
+        contestRepository.incrementParticipants(contestId);
+        contest.setActualNumberOfParticipants(contest.getActualNumberOfParticipants() + 1);
+        publishedDataCache.invalidate(contest.getMunicipality().getId(), PublishedDataCache.Collection.CONTESTS);
+    }
+
+    /**
+     * This method checks if a user participates to a contest
+     *
+     * @param contestId the id of the contest
+     * @param userId    the id of the user
+     * @return true if the user participates to the contest
+     */
+    public boolean isParticipant(Long contestId, Long userId) {
+        return participationRepository.existsByContestIdAndUserId(contestId, userId);
     }
 }
@@ -0,0 +1,96 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.TinyLfuCache;
+import it.cs.unicam.MunicipalDigitalization.db.TransactionHooks;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.CacheStatisticsOutputDTO;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.PageOutputDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Service class for the cache of the pages of published data of the municipalities, ready to be returned by the
+ * controllers. A page is kept by its municipality, the data version of the municipality, its collection, its cursor
+ * and its size, and its weight is the number of elements it contains, so the cache holds at most a fixed number of
+ * elements. The pages requested less often are evicted first.
+ * The pages of a municipality are invalidated by the mediators after the commit of every change of its published
+ * data, so a page never outlives the data it was built from. Since the version is part of the key, a request that
+ * reads a new version never finds a page built for an older one, even before the old pages are invalidated, so the
+ * body of a page always matches the ETag it is returned with.
+ */
+@Service
+public class PublishedDataCache {
+
+    /**
+     * The collections of published data kept in the cache
+     */
+    public enum Collection {
+        POIS, ITINERARIES, CONTESTS
+    }
+
+    private final TinyLfuCache<Key, PageOutputDTO<?>> cache;
+
+    @Autowired
+    public PublishedDataCache(Environment env) {
+        this.cache = new TinyLfuCache<>(env.getProperty("cache.published.max-weight", Long.class, 20000L),
+                page -> page.content().size() + 1);
+    }
+
+    /**
+     * This method returns a page of a collection of a municipality, building it if it is not in the cache.
+     *
+     * @param municipalityId the id of the municipality
+     * @param version        the data version of the municipality of the ETag of the page, or null if the page is
+     *                       returned without an ETag
+     * @param collection     the collection of the page
+     * @param afterId        the id after which the page starts
+     * @param size           the size of the page
+     * @param loader         the function that builds the page
+     * @return the page
+     */
+    public PageOutputDTO<?> getPage(Long municipalityId, Long version, Collection collection, long afterId, int size,
+                                    Supplier<PageOutputDTO<?>> loader) {
+        return this.cache.get(new Key(municipalityId, version, collection, afterId, size), loader);
+    }
+
+    /**
+     * This method removes the pages of some collections of a municipality after the commit of the current
+     * transaction.
+     *
+     * @param municipalityId the id of the municipality
+     * @param collections    the collections to remove
+     */
+    public void invalidate(Long municipalityId, Collection... collections) {
+        Set<Collection> invalidated = Set.of(collections);
+        TransactionHooks.afterCommit(() -> this.cache.invalidateIf(key ->
+                key.municipalityId().equals(municipalityId) && invalidated.contains(key.collection())));
+    }
+
+    /**
+     * This method removes all the pages of a municipality after the commit of the current transaction.
+     *
+     * @param municipalityId the id of the municipality
+     */
+    public void invalidateMunicipality(Long municipalityId) {
+        invalidate(municipalityId, Collection.values());
+    }
+
+    /**
+     * @return the hit rate, the evictions and the load time of the cache
+     */
+    public CacheStatisticsOutputDTO getStatistics() {
+        TinyLfuCache.Statistics statistics = this.cache.statistics();
+        return new CacheStatisticsOutputDTO(statistics.hits(), statistics.misses(), statistics.hitRate(),
+                statistics.evictions(), statistics.loads(), statistics.averageLoadMillis(), statistics.size(),
+                statistics.weight(), statistics.maximumWeight());
+    }
+
+    /**
+     * This record identifies a page in the cache.
+     */
+    private record Key(Long municipalityId, Long version, Collection collection, long afterId, int size) {
+    }
+}
@@ -0,0 +1,165 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractContent;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.util.ContentType;
+import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.SearchRepository;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.SearchResultOutputDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Service class for the full-text search of the published POIs, itineraries and contents.
+ * The search uses the FTS5 index of SQLite, which finds the documents of the words of a query without reading the
+ * elements, and ranks them with bm25. The index is updated by the mediators, in the same transaction that saves,
+ * validates or deletes an element, and only the published elements are indexed. The documents of a municipality are
+ * removed in the same transaction that deletes it.
+ */
+@Service
+@AllArgsConstructor(onConstructor_ = @Autowired)
+public class SearchService {
+
+    /**
+     * The words of a query. Every other character is ignored, so a query cannot use the syntax of FTS5.
+     */
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    /**
+     * The maximum number of words of a query
+     */
+    private static final int MAX_WORDS = 10;
+
+    private final SearchRepository searchRepository;
+
+    /**
+     * This method creates the search index if it does not exist, and indexes the elements already published.
+     */
+    @PostConstruct
+    public void initSearch() {
+        if (searchRepository.countSearchTables() > 0) return;
+        searchRepository.createSearchTable();
+        searchRepository.setRanking();
+        searchRepository.indexPublishedElements(SearchType.POI.ordinal(), SearchType.ITINERARY.ordinal(),
+                SearchType.CONTENT.ordinal(), ElementStatus.PUBLISHED.ordinal());
+    }
+
+    /**
+     * This method adds a POI to the index, if it is published.
+     *
+     * @param poi the POI to index
+     */
+    public void indexPOI(AbstractPOI poi) {
+        if (poi.getElementStatus() != ElementStatus.PUBLISHED) return;
+        save(SearchType.POI, poi.getId(), poi.getName(), "", poi.getMunicipality().getId());
+    }
+
+    /**
+     * This method adds an itinerary to the index, if it is published.
+     *
+     * @param itinerary the itinerary to index
+     */
+    public void indexItinerary(AbstractItinerary itinerary) {
+        if (itinerary.getElementStatus() != ElementStatus.PUBLISHED) return;
+        save(SearchType.ITINERARY, itinerary.getId(), itinerary.getName(), itinerary.getDescription(),
+                itinerary.getMunicipality().getId());
+    }
+
+    /**
+     * This method adds a content to the index, if it is published. The text of a content is indexed only if it is a
+     * description.
+     *
+     * @param content the content to index
+     */
+    public void indexContent(AbstractContent content) {
+        if (content.getElementStatus() != ElementStatus.PUBLISHED) return;
+        Long municipalityId = content.getReferredPOI() != null
+                ? content.getReferredPOI().getMunicipality().getId()
+                : content.getReferredItinerary().getMunicipality().getId();
+        String body = content.getType() == ContentType.DESCRIPTION ? content.getContent() : "";
+        save(SearchType.CONTENT, content.getId(), content.getName(), body, municipalityId);
+    }
+
+    /**
+     * This method removes an element from the index.
+     *
+     * @param type the type of the element
+     * @param id   the id of the element
+     */
+    public void remove(SearchType type, Long id) {
+        searchRepository.deleteDocument(rowId(type, id));
+    }
+
+    /**
+     * This method removes all the elements of a municipality from the index.
+     *
+     * @param municipalityId the id of the municipality
+     */
+    public void removeMunicipality(Long municipalityId) {
+        searchRepository.deleteDocuments("scope : " + municipalityScope(municipalityId));
+    }
+
+    /**
+     * This method searches the published elements that contain all the words of a query. The last letters of
+     * every word can be missing, so the results are found while the query is typed.
+     *
+     * @param query          the words to search
+     * @param municipalityId the id of the municipality of the elements, or null for all the municipalities
+     * @param type           the type of the elements, or null for all the types
+     * @param size           the maximum number of results
+     * @return the elements found, the most relevant first
+     */
+    public List<SearchResultOutputDTO> search(String query, Long municipalityId, SearchType type, int size) {
+        StringBuilder match = new StringBuilder("{name body} : (").append(String.join(" ", words(query))).append(')');
+        if (municipalityId != null) match.append(" AND scope : ").append(municipalityScope(municipalityId));
+        if (type != null) match.append(" AND scope : ").append(typeScope(type));
+        return searchRepository.search(match.toString(), size).stream()
+                .map(hit -> new SearchResultOutputDTO(SearchType.valueOf(hit.getType()), hit.getElementId(),
+                        hit.getName(), hit.getMunicipalityId()))
+                .toList();
+    }
+
+    /**
+     * This method returns the words of a query as prefixes of FTS5, quoted so they are never read as operators.
+     */
+    private static List<String> words(String query) {
+        List<String> words = new ArrayList<>();
+        Matcher matcher = WORD.matcher(query == null ? "" : query);
+        while (matcher.find() && words.size() < MAX_WORDS) {
+            words.add('"' + matcher.group().toLowerCase(Locale.ROOT) + "\"*");
+        }
+        if (words.isEmpty()) throw new IllegalArgumentException("The search query is empty");
+        return words;
+    }
+
+    private void save(SearchType type, Long id, String name, String body, Long municipalityId) {
+        searchRepository.saveDocument(rowId(type, id), name, body == null ? "" : body,
+                municipalityScope(municipalityId) + " " + typeScope(type), type.name(), id, municipalityId);
+    }
+
+    /**
+     * The rowid of the document of an element. The last two bits are the type, so the elements of different types
+     * with the same id have different documents.
+     */
+    private static long rowId(SearchType type, Long id) {
+        return id * 4 + type.ordinal();
+    }
+
+    private static String municipalityScope(Long municipalityId) {
+        return "m" + municipalityId;
+    }
+
+    private static String typeScope(SearchType type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -5,10 +5,17 @@ import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticate
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContestRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContributionRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ParticipationRepository;
 import it.cs.unicam.MunicipalDigitalization.db.Repository.UserRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.VoteRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.ContestLeaderboard;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,16 +31,25 @@ public class UserService {
 
     private final UserRepository userRepository;
 
+    private final ParticipationRepository participationRepository;
+
+    private final VoteRepository voteRepository;
+
+    private final ContributionRepository contributionRepository;
+
+    private final ContestRepository contestRepository;
+
+    private final ContestLeaderboard contestLeaderboard;
+
     /**
-     * Add a POI to the user's list of authored POIs
+     * Add a POI to the user's list of authored POIs. The list is the inverse side of the author of the POI, so the
+     * POI is only added in memory, and queued by Hibernate if the list is not loaded yet.
      *
      * @param userID ID of the user
      * @param poi    POI to be added
      */
     public void addPOI(Long userID, AbstractPOI poi) {
-        AbstractAuthenticatedUser user = userRepository.getReferenceById(userID);
-        user.addPOI(poi);
-        userRepository.save(user);
+        userRepository.getReferenceById(userID).addPOI(poi);
     }
 
     /**
@@ -44,9 +60,7 @@ public class UserService {
      */
 
     public void addItinerary(Long userID, AbstractItinerary itinerary) {
-        AbstractAuthenticatedUser user = userRepository.getReferenceById(userID);
-        user.addItinerary(itinerary);
-        userRepository.save(user);
+        userRepository.getReferenceById(userID).addItinerary(itinerary);
     }
 
     /**
@@ -56,9 +70,7 @@ public class UserService {
      * @param content Content to be added
      */
     public void addContent(Long id, AbstractContent content) {
-        AbstractAuthenticatedUser user = userRepository.getReferenceById(id);
-        user.addContent(content);
-        userRepository.save(user);
+        userRepository.getReferenceById(id).addContent(content);
     }
 
     /**
@@ -168,7 +180,20 @@ public class UserService {
         return userRepository.findAllByRole(role);
     }
 
+    /**
+     * Delete a user with its votes and its participations. The votes are removed from the counters of the voted
+     * contributions and from the leaderboards, and the participations from the counters of the contests, in the same
+     * transaction.
+     *
+     * @param id ID of the user
+     */
+    @Transactional
     public void deleteUserById(Long id) {
+        voteRepository.findContributionIdsByVoterId(id).forEach(contestLeaderboard::removeVote);
+        contributionRepository.removeVotesOf(id);
+        voteRepository.deleteByVoterId(id);
+        contestRepository.removeParticipantFromContests(id);
+        participationRepository.deleteByUserId(id);
         userRepository.deleteById(id);
     }
 
@@ -181,6 +206,14 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    public List<AbstractAuthenticatedUser> getUsers(long afterId, Limit limit) {
+        return userRepository.findAllAfterId(afterId, limit);
+    }
+
+    public List<AbstractAuthenticatedUser> getUsersByMunicipalityId(Long municipalityId, long afterId, Limit limit) {
+        return userRepository.findAllByMunicipalityId(municipalityId, afterId, limit);
+    }
+
     public void addContest(Long authorId, ContributionContest contributionContest) {
         AbstractAuthenticatedUser user = userRepository.getReferenceById(authorId);
         user.addAuthoredContest(contributionContest);
@@ -192,10 +225,4 @@ public class UserService {
         user.addContribution(contribution);
         userRepository.save(user);
     }
-
-    public void voteContribution(Contribution contribution, Long userId) {
-        AbstractAuthenticatedUser user = userRepository.getReferenceById(userId);
-        user.voteContribution(contribution);
-        userRepository.save(user);
-    }
 }
@@ -0,0 +1,434 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.IdBitmap;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContributionRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ContributionContestState;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.UserRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.VoteRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.ContestLeaderboard;
+import it.cs.unicam.MunicipalDigitalization.db.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service class for the buffered ingestion of the votes, used when the votes are sent in bursts.
+ * A vote is checked in memory and put in a bounded queue, then a single writer thread saves the queued votes in
+ * batches: a batch is written every flush interval, or as soon as it reaches the batch size, with one transaction
+ * and one counter update for every voted contribution. The voters of every contribution are kept in a compressed
+ * bitmap, loaded from the Database on the first vote of the contribution, so a second vote of a user is rejected
+ * before it is queued and every accepted vote is saved exactly once.
+ * The votes to the contributions of a contest are rejected as soon as the contest starts being closed, and the votes
+ * accepted before are written before the winner is chosen, so the votes saved never change after it.
+ * A batch that cannot be written is written again a few times, then its votes are written one at a time, and the
+ * votes that still fail are written again with the next batch, so an accepted vote is never discarded. Only the
+ * votes to the contributions deleted while they were queued are discarded.
+ * The voters of a contest are forgotten when the contest is closed or deleted, or when its municipality is deleted,
+ * so only the contributions that can still be voted are kept in memory.
+ * When the application is shut down no more votes are accepted, and the queued votes are written before the
+ * Database is closed.
+ */
+@Service
+public class VoteIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteIngestionService.class);
+
+    /**
+     * The element put in the queue at the shutdown to wake the writer up, so it does not wait for the flush interval
+     */
+    private static final PendingVote WAKE_UP = new PendingVote(null, null);
+
+    private final VoteRepository voteRepository;
+    private final ContributionRepository contributionRepository;
+    private final UserRepository userRepository;
+    private final ContestLeaderboard contestLeaderboard;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * True if the votes are queued and written in batches, false if every vote is written by its own request
+     */
+    private final boolean buffered;
+
+    /**
+     * The maximum number of votes written by a single transaction
+     */
+    private final int batchSize;
+
+    /**
+     * The maximum time a vote waits in the queue, in milliseconds
+     */
+    private final long flushInterval;
+
+    /**
+     * The maximum time a request waits for a free place in the queue, in milliseconds
+     */
+    private final long offerTimeout;
+
+    /**
+     * The maximum time the shutdown waits for the queued votes to be written, in milliseconds
+     */
+    private final long drainTimeout;
+
+    /**
+     * The number of times a batch is written before its votes are written one at a time
+     */
+    private final int writeAttempts;
+
+    private final BlockingQueue<PendingVote> queue;
+
+    /**
+     * The voters of the contributions, by the id of the contribution
+     */
+    private final Map<Long, ContributionVoters> voters = new ConcurrentHashMap<>();
+
+    /**
+     * The ids of the contests closed, or being closed, while the application is running
+     */
+    private final IdBitmap closedContests = new IdBitmap();
+
+    /**
+     * The ids of the users already found in the Database
+     */
+    private final IdBitmap knownUsers = new IdBitmap();
+
+    /**
+     * The lock that keeps the shutdown from starting while a vote is being queued
+     */
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+
+    /**
+     * The votes that could not be written, written again with the next batch. They are used only by the writer thread.
+     */
+    private final List<PendingVote> retries = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    /**
+     * The number of votes queued and the number of votes written, used to wait for the votes queued before a flush
+     */
+    private long queued;
+    private long written;
+
+    private Thread writer;
+
+    @Autowired
+    public VoteIngestionService(VoteRepository voteRepository, ContributionRepository contributionRepository,
+                                UserRepository userRepository, ContestLeaderboard contestLeaderboard,
+                                TransactionTemplate transactionTemplate, Environment env) {
+        this.voteRepository = voteRepository;
+        this.contributionRepository = contributionRepository;
+        this.userRepository = userRepository;
+        this.contestLeaderboard = contestLeaderboard;
+        this.transactionTemplate = transactionTemplate;
+        this.buffered = env.getProperty("vote.buffered", Boolean.class, false);
+        this.batchSize = env.getProperty("vote.batch-size", Integer.class, 500);
+        this.flushInterval = env.getProperty("vote.flush-interval-ms", Long.class, 100L);
+        this.offerTimeout = env.getProperty("vote.offer-timeout-ms", Long.class, 100L);
+        this.drainTimeout = env.getProperty("vote.drain-timeout-ms", Long.class, 30000L);
+        this.writeAttempts = Math.max(1, env.getProperty("vote.write-attempts", Integer.class, 3));
+        this.queue = new ArrayBlockingQueue<>(env.getProperty("vote.queue-capacity", Integer.class, 10000));
+    }
+
+    @PostConstruct
+    public void start() {
+        this.writer = new Thread(this::writeLoop, "vote-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * This method stops accepting votes and waits for the queued votes to be written.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        this.acceptLock.writeLock().lock();
+        try {
+            this.running = false;
+        } finally {
+            this.acceptLock.writeLock().unlock();
+        }
+        this.queue.offer(WAKE_UP);
+        this.writer.join(this.drainTimeout);
+        if (this.writer.isAlive()) {
+            synchronized (this) {
+                logger.error("{} votes have not been written before the shutdown", this.queued - this.written);
+            }
+        }
+    }
+
+    /**
+     * @return true if the votes are queued and written in batches
+     */
+    public boolean isBuffered() {
+        return this.buffered;
+    }
+
+    /**
+     * This method queues the vote of a user to a contribution. The vote is saved by the next batch.
+     *
+     * @param contributionId the id of the contribution
+     * @param voterId        the id of the user
+     * @throws IllegalArgumentException if the contribution or the user do not exist, if the contest of the
+     *                                  contribution is closed, if the user already voted the contribution, or if the
+     *                                  queue is full
+     */
+    public void submit(Long contributionId, Long voterId) {
+        this.acceptLock.readLock().lock();
+        try {
+            if (!this.running) throw new IllegalArgumentException("The votes are not accepted during the shutdown");
+            checkUser(voterId);
+            ContributionVoters entry = contributionVoters(contributionId);
+            synchronized (this.closedContests) {
+                if (this.closedContests.contains(entry.contestId())) throw new IllegalArgumentException("Contest is closed");
+            }
+            IdBitmap contributionVoters = entry.voters();
+            synchronized (contributionVoters) {
+                if (!contributionVoters.add(voterId)) throw new IllegalArgumentException("User already voted");
+            }
+            if (!offer(new PendingVote(contributionId, voterId))) {
+                synchronized (contributionVoters) {
+                    contributionVoters.remove(voterId);
+                }
+                throw new IllegalArgumentException("Too many votes, the vote has not been accepted");
+            }
+            synchronized (this) {
+                this.queued++;
+            }
+        } finally {
+            this.acceptLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method rejects the next votes to the contributions of a contest that is going to be closed, then waits
+     * until the votes already accepted are written, so they are counted by the close. The votes being queued are
+     * queued before the contest is marked, so the wait finds them.
+     *
+     * @param contestId the id of the contest
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void stopVoting(Long contestId) throws InterruptedException {
+        this.acceptLock.writeLock().lock();
+        try {
+            synchronized (this.closedContests) {
+                this.closedContests.add(contestId);
+            }
+        } finally {
+            this.acceptLock.writeLock().unlock();
+        }
+        flush();
+    }
+
+    /**
+     * This method accepts again the votes to the contributions of a contest that has not been closed.
+     *
+     * @param contestId the id of the contest
+     */
+    public void resumeVoting(Long contestId) {
+        synchronized (this.closedContests) {
+            this.closedContests.remove(contestId);
+        }
+    }
+
+    /**
+     * This method forgets the voters of the contributions of a contest that has been closed. Its votes have been
+     * rejected since the close started.
+     *
+     * @param contestId the id of the closed contest
+     */
+    public void contestClosed(Long contestId) {
+        synchronized (this.closedContests) {
+            this.closedContests.add(contestId);
+        }
+        this.voters.values().removeIf(entry -> entry.contestId().equals(contestId));
+    }
+
+    /**
+     * This method forgets the voters of the contributions of a deleted contest after the commit of the current
+     * transaction, so a contribution saved later with the same id does not find them.
+     *
+     * @param contestId the id of the deleted contest
+     */
+    public void removeContest(Long contestId) {
+        TransactionHooks.afterCommit(() -> this.voters.values().removeIf(entry -> entry.contestId().equals(contestId)));
+    }
+
+    /**
+     * This method forgets the voters of the contributions of the contests of a deleted municipality after the commit
+     * of the current transaction.
+     *
+     * @param municipalityId the id of the deleted municipality
+     */
+    public void removeMunicipality(Long municipalityId) {
+        TransactionHooks.afterCommit(() -> this.voters.values().removeIf(entry -> entry.municipalityId().equals(municipalityId)));
+    }
+
+    /**
+     * This method waits until the votes queued before the call are written.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized void flush() throws InterruptedException {
+        long target = this.queued;
+        while (this.written < target) wait();
+    }
+
+    private boolean offer(PendingVote vote) {
+        try {
+            return this.queue.offer(vote, this.offerTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void checkUser(Long voterId) {
+        if (voterId == null) throw new IllegalArgumentException("User not found");
+        synchronized (this.knownUsers) {
+            if (this.knownUsers.contains(voterId)) return;
+        }
+        if (!this.userRepository.existsById(voterId)) throw new IllegalArgumentException("User not found");
+        synchronized (this.knownUsers) {
+            this.knownUsers.add(voterId);
+        }
+    }
+
+    /**
+     * This method returns the voters of a contribution, loading them on the first vote of the contribution.
+     * The voters of a contribution whose contest is closed are not loaded.
+     */
+    private ContributionVoters contributionVoters(Long contributionId) {
+        if (contributionId == null) throw new IllegalArgumentException("Contribution not found");
+        return this.voters.computeIfAbsent(contributionId, id -> {
+            ContributionContestState state = this.contributionRepository.findContestStateById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Contribution not found"));
+            if (state.getContestStatus() == ContestStatus.CLOSED) throw new IllegalArgumentException("Contest is closed");
+            IdBitmap bitmap = new IdBitmap();
+            this.voteRepository.findVoterIdsByContributionId(id).forEach(bitmap::add);
+            return new ContributionVoters(state.getContestId(), state.getMunicipalityId(), bitmap);
+        });
+    }
+
+    /**
+     * This method is run by the writer thread. It writes the queued votes in batches until the shutdown, then it
+     * writes the votes left in the queue. The votes that could not be written start the next batch.
+     */
+    private void writeLoop() {
+        List<PendingVote> batch = new ArrayList<>(this.batchSize);
+        while (this.running || !this.queue.isEmpty() || !this.retries.isEmpty()) {
+            try {
+                batch.addAll(this.retries);
+                this.retries.clear();
+                PendingVote first = this.queue.poll(this.flushInterval, TimeUnit.MILLISECONDS);
+                if (first != null) batch.add(first);
+                if (batch.isEmpty()) continue;
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.flushInterval);
+                while (batch.size() < this.batchSize && this.running) {
+                    this.queue.drainTo(batch, this.batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= this.batchSize || remaining <= 0) break;
+                    PendingVote next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) batch.add(next);
+                }
+                this.queue.drainTo(batch, this.batchSize - batch.size());
+                batch.removeIf(vote -> vote == WAKE_UP);
+                if (!batch.isEmpty()) writeBatch(batch);
+            } catch (InterruptedException e) {
+                batch.stream().filter(vote -> vote != WAKE_UP).forEach(this.retries::add);
+                if (!this.running) Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * This method writes a batch of votes. A batch that cannot be written is written again, up to the number of
+     * attempts, then its votes are written one at a time.
+     */
+    private void writeBatch(List<PendingVote> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                this.transactionTemplate.executeWithoutResult(status -> saveVotes(batch));
+                break;
+            } catch (RuntimeException e) {
+                if (attempt >= this.writeAttempts) {
+                    logger.error("A batch of {} votes has not been written, its votes will be written one at a time",
+                            batch.size(), e);
+                    writeOneAtATime(batch);
+                    break;
+                }
+                logger.warn("A batch of {} votes has not been written, it will be written again", batch.size(), e);
+                Thread.sleep(this.flushInterval);
+            }
+        }
+        synchronized (this) {
+            this.written += batch.size() - this.retries.size();
+            notifyAll();
+        }
+    }
+
+    /**
+     * This method writes every vote of a batch with its own transaction. A vote that cannot be written is kept and
+     * written again with the next batch.
+     */
+    private void writeOneAtATime(List<PendingVote> batch) {
+        for (PendingVote vote : batch) {
+            try {
+                this.transactionTemplate.executeWithoutResult(status -> saveVotes(List.of(vote)));
+            } catch (RuntimeException e) {
+                logger.error("The vote of the user {} to the contribution {} has not been written, it will be written again",
+                        vote.voterId(), vote.contributionId(), e);
+                this.retries.add(vote);
+            }
+        }
+    }
+
+    /**
+     * This method saves the votes of a batch and adds them to the counters, with one update for every contribution.
+     * The votes to the contributions deleted since they have been queued are discarded. The contest of a queued vote
+     * is closed only after the vote has been written.
+     */
+    private void saveVotes(List<PendingVote> batch) {
+        Set<Long> contributionIds = new HashSet<>();
+        for (PendingVote vote : batch) contributionIds.add(vote.contributionId());
+        Set<Long> open = new HashSet<>(this.contributionRepository.findOpenIdsByIdIn(contributionIds));
+        Map<Long, Integer> votes = new HashMap<>();
+        for (PendingVote vote : batch) {
+            if (!open.contains(vote.contributionId())) {
+                logger.warn("The vote of the user {} to the contribution {} has been discarded, the contribution does not accept votes",
+                        vote.voterId(), vote.contributionId());
+            } else if (this.voteRepository.insertVote(vote.contributionId(), vote.voterId()) == 1) {
+                votes.merge(vote.contributionId(), 1, Integer::sum);
+                this.contestLeaderboard.addVote(vote.contributionId());
+            }
+        }
+        votes.forEach(this.contributionRepository::addTotalVotes);
+    }
+
+    /**
+     * The voters of a contribution, with the contest of the contribution and its municipality
+     */
+    private record ContributionVoters(Long contestId, Long municipalityId, IdBitmap voters) {
+    }
+
+    /**
+     * A vote waiting to be written
+     */
+    private record PendingVote(Long contributionId, Long voterId) {
+    }
+}
@@ -1,13 +1,14 @@
 package it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices;
 
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContentType;
 import it.cs.unicam.MunicipalDigitalization.api.util.DesignPattern.Builder.ContentBuilder;
 import it.cs.unicam.MunicipalDigitalization.api.util.DesignPattern.FactoryMethod.ContentBuilderFactory;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
-import it.cs.unicam.MunicipalDigitalization.db.Services.ItineraryService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
 import it.cs.unicam.MunicipalDigitalization.db.Services.Mediators.ContentMediator;
-import it.cs.unicam.MunicipalDigitalization.db.Services.POIService;
-import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.ContentInputDTO;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,25 +26,15 @@ import static it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms.i
 public class ContentUploadingService {
 
     /**
-     * The user service
+     * The resolver of the author and of the referred POI or itinerary
      */
-    private final UserService userService;
+    private final EntityResolver entityResolver;
 
     /**
      * The content mediator
      */
     private final ContentMediator contentMediator;
 
-    /**
-     * The POI service
-     */
-    private final POIService poiService;
-
-    /**
-     * The itinerary service
-     */
-    private final ItineraryService itineraryService;
-
     /**
      * The content builder factory
      */
@@ -55,9 +46,13 @@ public class ContentUploadingService {
      * @param contentDTO the content to be uploaded
      */
     public void uploadContent(ContentInputDTO contentDTO) {
-        checkContent(contentDTO);
-        ContentBuilder builder = contentBuilderFactory.createBuilderForUser(userService.getUserById(contentDTO.author_id()));
-        buildContent(builder, contentDTO);
+        if (contentDTO.author_id() == null) {
+            throw new IllegalArgumentException("Author cannot be null");
+        }
+        AbstractAuthenticatedUser author = entityResolver.getUser(contentDTO.author_id());
+        checkContent(contentDTO, author);
+        ContentBuilder builder = contentBuilderFactory.createBuilderForUser(author);
+        buildContent(builder, contentDTO, author);
         this.contentMediator.saveContent(builder.build());
     }
 
@@ -66,19 +61,22 @@ public class ContentUploadingService {
      *
      * @param contentBuilder the builder to be used
      * @param contentDTO     the content to be built
+     * @param author         the author of the content
      */
-    private void buildContent(ContentBuilder contentBuilder, ContentInputDTO contentDTO) {
-        contentBuilder.setContentAuthor(userService.getUserById(contentDTO.author_id()));
+    private void buildContent(ContentBuilder contentBuilder, ContentInputDTO contentDTO, AbstractAuthenticatedUser author) {
+        contentBuilder.setContentAuthor(author);
         contentBuilder.setContentName(contentDTO.content_name());
         contentBuilder.setContentType(contentDTO.contentType());
         contentBuilder.setContentField(contentDTO.content_field());
         if (contentDTO.referredPOI_id() != null) {
-            if (poiService.getPOIByID(contentDTO.referredPOI_id()).getMunicipality().equals(userService.getUserById(contentDTO.author_id()).getMunicipality())) {
-                contentBuilder.setContentReferredMunicipalElement(poiService.getPOIByID(contentDTO.referredPOI_id()));
+            AbstractPOI poi = entityResolver.getPOI(contentDTO.referredPOI_id());
+            if (poi.getMunicipality().equals(author.getMunicipality())) {
+                contentBuilder.setContentReferredMunicipalElement(poi);
             } else throw new IllegalArgumentException("The POI does not belong to the municipality");
         } else if (contentDTO.referredItinerary_id() != null) {
-            if (itineraryService.getItineraryById(contentDTO.referredItinerary_id()).getMunicipality().equals(userService.getUserById(contentDTO.author_id()).getMunicipality())) {
-                contentBuilder.setContentReferredMunicipalElement(itineraryService.getItineraryById(contentDTO.referredItinerary_id()));
+            AbstractItinerary itinerary = entityResolver.getItinerary(contentDTO.referredItinerary_id());
+            if (itinerary.getMunicipality().equals(author.getMunicipality())) {
+                contentBuilder.setContentReferredMunicipalElement(itinerary);
             } else throw new IllegalArgumentException("The itinerary does not belong to the municipality");
         }
         contentBuilder.setContentStatus();
@@ -88,9 +86,10 @@ public class ContentUploadingService {
      * Checks if the content is valid
      *
      * @param contentDTO the content to be checked
+     * @param author     the author of the content
      */
-    private void checkContent(ContentInputDTO contentDTO) {
-        checkAuthor(contentDTO);
+    private void checkContent(ContentInputDTO contentDTO, AbstractAuthenticatedUser author) {
+        checkAuthor(author);
         checkName(contentDTO);
         checkContentType(contentDTO);
     }
@@ -98,16 +97,12 @@ public class ContentUploadingService {
     /**
      * Checks if the author is valid
      *
-     * @param contentDTO the content to be checked
+     * @param author the author of the content
      */
-    private void checkAuthor(ContentInputDTO contentDTO) {
-        if (contentDTO.author_id() == null) {
-            throw new IllegalArgumentException("Author cannot be null");
-        }
-
-        if (!userService.getUserById(contentDTO.author_id()).getRole().contains(UserRole.CONTRIBUTOR)
-                && !userService.getUserById(contentDTO.author_id()).getRole().contains(UserRole.AUTHORIZED_CONTRIBUTOR)
-                && !userService.getUserById(contentDTO.author_id()).getRole().contains(UserRole.CURATOR)) {
+    private void checkAuthor(AbstractAuthenticatedUser author) {
+        if (!author.getRole().contains(UserRole.CONTRIBUTOR)
+                && !author.getRole().contains(UserRole.AUTHORIZED_CONTRIBUTOR)
+                && !author.getRole().contains(UserRole.CURATOR)) {
             throw new IllegalArgumentException("Author is not authorized to upload content");
         }
     }
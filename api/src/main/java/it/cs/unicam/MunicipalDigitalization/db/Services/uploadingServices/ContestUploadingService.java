@@ -1,17 +1,21 @@
 package it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices;
 
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestType;
 import it.cs.unicam.MunicipalDigitalization.api.util.DesignPattern.Builder.ContributionContestBuilder;
 import it.cs.unicam.MunicipalDigitalization.api.util.InvitationType;
-import it.cs.unicam.MunicipalDigitalization.db.Services.ItineraryService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
 import it.cs.unicam.MunicipalDigitalization.db.Services.Mediators.ContestMediator;
-import it.cs.unicam.MunicipalDigitalization.db.Services.POIService;
-import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.ContestInputDTO;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Service class for uploading contests to the database.
  */
@@ -19,11 +23,12 @@ import org.springframework.stereotype.Service;
 @AllArgsConstructor(onConstructor_ = @Autowired)
 public class ContestUploadingService {
 
-    private final UserService userService;
-
-    private final POIService poiService;
+    /**
+     * The number of years after which the dates of a contest are not accepted
+     */
+    private static final int MAX_YEARS_AHEAD = 10;
 
-    private final ItineraryService itineraryService;
+    private final EntityResolver entityResolver;
 
     private final ContestMediator contestMediator;
 
@@ -33,9 +38,14 @@ public class ContestUploadingService {
      * @param contestInputDTO the contest in DTO to be uploaded
      */
     public void uploadContest(ContestInputDTO contestInputDTO) {
-        checkContest(contestInputDTO);
+        AbstractAuthenticatedUser author = entityResolver.getUser(contestInputDTO.contest_author_id());
+        List<AbstractPOI> pois = hasElements(contestInputDTO.contest_pois())
+                ? entityResolver.getPOIs(contestInputDTO.contest_pois()) : null;
+        List<AbstractItinerary> itineraries = hasElements(contestInputDTO.contest_itineraries())
+                ? entityResolver.getItineraries(contestInputDTO.contest_itineraries()) : null;
+        checkContest(contestInputDTO, author, pois, itineraries);
         ContributionContestBuilder contestBuilder = new ContributionContestBuilder();
-        buildContest(contestBuilder, contestInputDTO);
+        buildContest(contestBuilder, contestInputDTO, author, pois, itineraries);
         this.contestMediator.saveContest(contestBuilder.build());
     }
 
@@ -44,36 +54,50 @@ public class ContestUploadingService {
      *
      * @param contestBuilder  the builder to be used to build the contest
      * @param contestInputDTO the contest in DTO to be uploaded
+     * @param author          the author of the contest
+     * @param pois            the POIs of the contest, or null
+     * @param itineraries     the itineraries of the contest, or null
      */
-    private void buildContest(ContributionContestBuilder contestBuilder, ContestInputDTO contestInputDTO) {
+    private void buildContest(ContributionContestBuilder contestBuilder, ContestInputDTO contestInputDTO,
+                              AbstractAuthenticatedUser author, List<AbstractPOI> pois, List<AbstractItinerary> itineraries) {
         contestBuilder.setName(contestInputDTO.contest_name());
         contestBuilder.setDescription(contestInputDTO.contest_description());
-        contestBuilder.setMunicipality(userService.getUserById(contestInputDTO.contest_author_id()).getMunicipality());
-        contestBuilder.setAuthor(userService.getUserById(contestInputDTO.contest_author_id()));
+        contestBuilder.setMunicipality(author.getMunicipality());
+        contestBuilder.setAuthor(author);
         contestBuilder.setInvitationType(contestInputDTO.contest_invitationType());
         contestBuilder.setMinParticipants(contestInputDTO.minParticipants());
         contestBuilder.setContestType(contestInputDTO.contestType());
-        if (contestInputDTO.contest_pois() != null && !contestInputDTO.contest_pois().isEmpty()) {
-            contestBuilder.setPOIs(poiService.getPOIsByIds(contestInputDTO.contest_pois()));
+        contestBuilder.setStartDate(contestInputDTO.contest_startDate());
+        contestBuilder.setEndDate(contestInputDTO.contest_endDate());
+        if (pois != null) {
+            contestBuilder.setPOIs(pois);
         }
-        if (contestInputDTO.contest_itineraries() != null && !contestInputDTO.contest_itineraries().isEmpty()) {
-            contestBuilder.setItineraries(itineraryService.getItinerariesByIds(contestInputDTO.contest_itineraries()));
+        if (itineraries != null) {
+            contestBuilder.setItineraries(itineraries);
         }
     }
 
+    private static boolean hasElements(List<Long> ids) {
+        return ids != null && !ids.isEmpty();
+    }
+
     /**
      * Checks if the contest is valid.
      *
      * @param contestInputDTO the contest in DTO to be uploaded
+     * @param author          the author of the contest
+     * @param pois            the POIs of the contest, or null
+     * @param itineraries     the itineraries of the contest, or null
      */
-    private void checkContest(ContestInputDTO contestInputDTO) {
+    private void checkContest(ContestInputDTO contestInputDTO, AbstractAuthenticatedUser author,
+                              List<AbstractPOI> pois, List<AbstractItinerary> itineraries) {
 
-        if ((contestInputDTO.contest_pois() == null || contestInputDTO.contest_pois().isEmpty()) && (contestInputDTO.contest_itineraries() == null || contestInputDTO.contest_itineraries().isEmpty())) {
+        if (pois == null && itineraries == null) {
             throw new IllegalArgumentException("Contest must have at least one POI or one Itinerary");
-        } else if (contestInputDTO.contest_pois() != null && !contestInputDTO.contest_pois().isEmpty()) {
-            checkPOIMunicipalityOfTheAnimator(contestInputDTO);
+        } else if (pois != null) {
+            checkPOIMunicipalityOfTheAnimator(pois, author);
         } else {
-            checkItineraryMunicipalityOfTheAnimator(contestInputDTO);
+            checkItineraryMunicipalityOfTheAnimator(itineraries, author);
         }
 
         checkContestName(contestInputDTO);
@@ -81,17 +105,19 @@ public class ContestUploadingService {
         checkContestInvitationType(contestInputDTO);
         checkMinParticipants(contestInputDTO);
         checkContestType(contestInputDTO);
+        checkContestDates(contestInputDTO);
     }
 
     /**
      * Checks if the itinerary's municipality matches the Animator's municipality.
      *
-     * @param contestInputDTO the contest in DTO to be uploaded
+     * @param itineraries the itineraries of the contest
+     * @param author      the author of the contest
      */
 
-    private void checkItineraryMunicipalityOfTheAnimator(ContestInputDTO contestInputDTO) {
-        for (Long itineraryId : contestInputDTO.contest_itineraries()) {
-            if (!itineraryService.getItineraryById(itineraryId).getMunicipality().equals(userService.getUserById(contestInputDTO.contest_author_id()).getMunicipality())) {
+    private void checkItineraryMunicipalityOfTheAnimator(List<AbstractItinerary> itineraries, AbstractAuthenticatedUser author) {
+        for (AbstractItinerary itinerary : itineraries) {
+            if (!itinerary.getMunicipality().equals(author.getMunicipality())) {
                 throw new IllegalArgumentException("Itinerary's municipality doesn't match the Animator's municipality");
             }
         }
@@ -100,11 +126,12 @@ public class ContestUploadingService {
     /**
      * Checks if the Animator's municipality matches the contest's municipality.
      *
-     * @param contestInputDTO the contest in DTO to be uploaded
+     * @param pois   the POIs of the contest
+     * @param author the author of the contest
      */
-    private void checkPOIMunicipalityOfTheAnimator(ContestInputDTO contestInputDTO) {
-        for (Long poiId : contestInputDTO.contest_pois()) {
-            if (!poiService.getPOIByID(poiId).getMunicipality().equals(userService.getUserById(contestInputDTO.contest_author_id()).getMunicipality())) {
+    private void checkPOIMunicipalityOfTheAnimator(List<AbstractPOI> pois, AbstractAuthenticatedUser author) {
+        for (AbstractPOI poi : pois) {
+            if (!poi.getMunicipality().equals(author.getMunicipality())) {
                 throw new IllegalArgumentException("POI's municipality doesn't match the Animator's municipality");
             }
         }
@@ -164,4 +191,24 @@ public class ContestUploadingService {
             throw new IllegalArgumentException("Contest Type is invalid");
         }
     }
+
+    /**
+     * Checks if the start and the end dates of the contest are valid. Both are optional, but they must be in the
+     * future, no more than ten years ahead, and the contest must end after it starts.
+     *
+     * @param contestInputDTO the contest in DTO to be uploaded
+     */
+    private void checkContestDates(ContestInputDTO contestInputDTO) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusYears(MAX_YEARS_AHEAD);
+        LocalDateTime startDate = contestInputDTO.contest_startDate();
+        LocalDateTime endDate = contestInputDTO.contest_endDate();
+        if (startDate != null && (!startDate.isAfter(now) || startDate.isAfter(horizon))) {
+            throw new IllegalArgumentException("Contest Start Date is invalid");
+        }
+        if (endDate != null && (!endDate.isAfter(now) || endDate.isAfter(horizon)
+                || (startDate != null && !endDate.isAfter(startDate)))) {
+            throw new IllegalArgumentException("Contest End Date is invalid");
+        }
+    }
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices;
 
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestType;
 import it.cs.unicam.MunicipalDigitalization.api.util.DesignPattern.Builder.ContributionBuilder;
-import it.cs.unicam.MunicipalDigitalization.db.Services.ContestService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
+import it.cs.unicam.MunicipalDigitalization.db.Services.ParticipationService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.Mediators.ContributionMediator;
-import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.ContributionInputDTO;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,21 +20,23 @@ import org.springframework.stereotype.Service;
 @AllArgsConstructor(onConstructor_ = @Autowired)
 public class ContributionUploadingService {
 
-    private final UserService userService;
-
-    private final ContestService contestService;
+    private final EntityResolver entityResolver;
 
     private final ContributionMediator contributionMediator;
 
+    private final ParticipationService participationService;
+
     /**
      * Upload a Contribution to a Contest.
      *
      * @param contributionInputDTO DTO of the Contribution.
      */
     public void uploadContribution(ContributionInputDTO contributionInputDTO) {
-        checkContribution(contributionInputDTO);
+        ContributionContest contest = entityResolver.getContest(contributionInputDTO.contributionContestId());
+        AbstractAuthenticatedUser author = entityResolver.getUser(contributionInputDTO.authorId());
+        checkContribution(contributionInputDTO, contest, author);
         ContributionBuilder contributionBuilder = new ContributionBuilder();
-        buildContribution(contributionBuilder, contributionInputDTO);
+        buildContribution(contributionBuilder, contributionInputDTO, contest, author);
         this.contributionMediator.saveContribution(contributionBuilder.build());
     }
 
@@ -41,46 +45,51 @@ public class ContributionUploadingService {
      *
      * @param contributionBuilder  Builder of the Contribution.
      * @param contributionInputDTO DTO of the Contribution.
+     * @param contest              Contest of the Contribution.
+     * @param author               Author of the Contribution.
      */
-    private void buildContribution(ContributionBuilder contributionBuilder, ContributionInputDTO contributionInputDTO) {
+    private void buildContribution(ContributionBuilder contributionBuilder, ContributionInputDTO contributionInputDTO,
+                                   ContributionContest contest, AbstractAuthenticatedUser author) {
         contributionBuilder.setTitle(contributionInputDTO.title());
         contributionBuilder.setDescription(contributionInputDTO.description());
         contributionBuilder.setContribution(contributionInputDTO.content());
-        contributionBuilder.setContributionContest(contestService.getContestById(contributionInputDTO.contributionContestId()));
-        contributionBuilder.setAuthor(userService.getUserById(contributionInputDTO.authorId()));
+        contributionBuilder.setContributionContest(contest);
+        contributionBuilder.setAuthor(author);
     }
 
     /**
      * Check if the Contribution is valid.
      *
      * @param contributionInputDTO DTO of the Contribution.
+     * @param contest              Contest of the Contribution.
+     * @param author               Author of the Contribution.
      */
-    private void checkContribution(ContributionInputDTO contributionInputDTO) {
-        checkMunicipality(contributionInputDTO);
-        checkContestStatus(contributionInputDTO);
-        checkAuthorExists(contributionInputDTO);
-        checkContestExists(contributionInputDTO);
+    private void checkContribution(ContributionInputDTO contributionInputDTO, ContributionContest contest,
+                                   AbstractAuthenticatedUser author) {
+        checkMunicipality(contest, author);
+        checkContestStatus(contest);
         checkTitle(contributionInputDTO);
         checkDescription(contributionInputDTO);
-        checkUserParticipation(contributionInputDTO);
-        checkContributionType(contributionInputDTO);
+        checkUserParticipation(contest, author);
+        checkContributionType(contributionInputDTO, contest);
     }
 
     /**
      * Check if the contribution is valid for the contest type.
      *
      * @param contributionInputDTO DTO of the Contribution.
+     * @param contest              Contest of the Contribution.
      */
-    private void checkContributionType(ContributionInputDTO contributionInputDTO) {
+    private void checkContributionType(ContributionInputDTO contributionInputDTO, ContributionContest contest) {
         if (contributionInputDTO.content() == null || contributionInputDTO.content().isEmpty()) {
             throw new IllegalArgumentException("Contribution field is empty");
         }
-        if(contestService.getContestById(contributionInputDTO.contributionContestId()).getContestType().equals(ContestType.PHOTO_CONTEST)
+        if(contest.getContestType().equals(ContestType.PHOTO_CONTEST)
                 && !(contributionInputDTO.content().endsWith("png") || (contributionInputDTO.content().endsWith("jpg")) ||
                 (contributionInputDTO.content().endsWith("jpeg")))){
             throw new IllegalArgumentException("Contribution is not a photo for photo contest");
         }
-        if(contestService.getContestById(contributionInputDTO.contributionContestId()).getContestType().equals(ContestType.WRITING_CONTEST)
+        if(contest.getContestType().equals(ContestType.WRITING_CONTEST)
                 && !(contributionInputDTO.content().length()<10 || (contributionInputDTO.content().length()>1000))){
             throw new IllegalArgumentException("Contribution description error for writing contest");
         }
@@ -89,11 +98,11 @@ public class ContributionUploadingService {
     /**
      * Check if the municipality of the contest and the user are the same.
      *
-     * @param contributionInputDTO DTO of the Contribution.
+     * @param contest Contest of the Contribution.
+     * @param author  Author of the Contribution.
      */
-    private void checkMunicipality(ContributionInputDTO contributionInputDTO) {
-        if (!contestService.getContestById(contributionInputDTO.contributionContestId()).getMunicipality()
-                .equals(userService.getUserById(contributionInputDTO.authorId()).getMunicipality())) {
+    private void checkMunicipality(ContributionContest contest, AbstractAuthenticatedUser author) {
+        if (!contest.getMunicipality().equals(author.getMunicipality())) {
             throw new IllegalArgumentException("You can't vote a Contest of another Municipality");
         }
     }
@@ -101,36 +110,14 @@ public class ContributionUploadingService {
     /**
      * Check if the contest is ongoing.
      *
-     * @param contributionInputDTO DTO of the Contribution.
+     * @param contest Contest of the Contribution.
      */
-    private void checkContestStatus(ContributionInputDTO contributionInputDTO) {
-        if (!contestService.getContestById(contributionInputDTO.contributionContestId()).getContestStatus().equals(ContestStatus.ON_GOING)) {
+    private void checkContestStatus(ContributionContest contest) {
+        if (!contest.getContestStatus().equals(ContestStatus.ON_GOING)) {
             throw new IllegalArgumentException("Contest it is not on going");
         }
     }
 
-    /**
-     * Check if the author exists.
-     *
-     * @param contributionInputDTO DTO of the Contribution.
-     */
-    private void checkAuthorExists(ContributionInputDTO contributionInputDTO) {
-        if (userService.getUserById(contributionInputDTO.authorId()) == null) {
-            throw new IllegalArgumentException("Author not found");
-        }
-    }
-
-    /**
-     * Check if the contest exists.
-     *
-     * @param contributionInputDTO DTO of the Contribution.
-     */
-    private void checkContestExists(ContributionInputDTO contributionInputDTO) {
-        if (contestService.getContestById(contributionInputDTO.contributionContestId()) == null) {
-            throw new IllegalArgumentException("Contest not found");
-        }
-    }
-
     /**
      * Check if the title is valid.
      *
@@ -158,13 +145,11 @@ public class ContributionUploadingService {
     /**
      * Check if the user is participating in the contest.
      *
-     * @param contributionInputDTO DTO of the Contribution.
+     * @param contest Contest of the Contribution.
+     * @param author  Author of the Contribution.
      */
-    private void checkUserParticipation(ContributionInputDTO contributionInputDTO) {
-        if (!userService.getUserById(contributionInputDTO.authorId()).getContestsParticipated()
-                .contains(contestService.getContestById(contributionInputDTO.contributionContestId())) &&
-                !contestService.getContestById(contributionInputDTO.contributionContestId()).getParticipants()
-                        .contains(userService.getUserById(contributionInputDTO.authorId()))) {
+    private void checkUserParticipation(ContributionContest contest, AbstractAuthenticatedUser author) {
+        if (!participationService.isParticipant(contest.getId(), author.getId())) {
             throw new IllegalArgumentException("User Doesn't participate to the contest");
         }
     }
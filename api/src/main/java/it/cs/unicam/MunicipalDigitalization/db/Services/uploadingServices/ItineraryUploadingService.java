@@ -1,16 +1,19 @@
 package it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices;
 
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.DesignPattern.Builder.ItineraryBuilder;
 import it.cs.unicam.MunicipalDigitalization.api.util.DesignPattern.FactoryMethod.ItineraryBuilderFactory;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
 import it.cs.unicam.MunicipalDigitalization.db.Services.Mediators.ItineraryMediator;
-import it.cs.unicam.MunicipalDigitalization.db.Services.POIService;
-import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.ItineraryInputDTO;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 import static it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms.containsSpecialCharacters;
 
 /**
@@ -23,20 +26,15 @@ import static it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms.c
 public class ItineraryUploadingService {
 
     /**
-     * UserService instance
+     * EntityResolver instance
      */
-    private final UserService userService;
+    private final EntityResolver entityResolver;
 
     /**
      * ItineraryMediator instance
      */
     private final ItineraryMediator itineraryMediator;
 
-    /**
-     * POIService instance
-     */
-    private final POIService poiService;
-
     /**
      * ItineraryBuilderFactory instance
      */
@@ -48,9 +46,12 @@ public class ItineraryUploadingService {
      * @param itineraryDTO the itinerary to be uploaded
      */
     public void uploadItinerary(ItineraryInputDTO itineraryDTO) {
-        checkItinerary(itineraryDTO);
-        ItineraryBuilder builder = itineraryBuilderFactory.createBuilderForUser(userService.getUserById(itineraryDTO.authorID()));
-        buildItinerary(builder, itineraryDTO);
+        AbstractAuthenticatedUser author = entityResolver.getUser(itineraryDTO.authorID());
+        checkItinerary(itineraryDTO, author);
+        List<AbstractPOI> pois = entityResolver.getPOIs(itineraryDTO.POIsIDs());
+        checkItineraryPOIs(pois, author);
+        ItineraryBuilder builder = itineraryBuilderFactory.createBuilderForUser(author);
+        buildItinerary(builder, itineraryDTO, author, pois);
         this.itineraryMediator.saveItinerary(builder.build());
     }
 
@@ -59,13 +60,16 @@ public class ItineraryUploadingService {
      *
      * @param itineraryBuilder the builder to be used
      * @param itineraryDTO     the itinerary to be built
+     * @param author           the author of the itinerary
+     * @param pois             the POIs of the itinerary
      */
-    private void buildItinerary(ItineraryBuilder itineraryBuilder, ItineraryInputDTO itineraryDTO) {
+    private void buildItinerary(ItineraryBuilder itineraryBuilder, ItineraryInputDTO itineraryDTO,
+                                AbstractAuthenticatedUser author, List<AbstractPOI> pois) {
         itineraryBuilder.setItineraryName(itineraryDTO.itinerary_name());
-        itineraryBuilder.setItineraryAuthor(userService.getUserById(itineraryDTO.authorID()));
+        itineraryBuilder.setItineraryAuthor(author);
         itineraryBuilder.setItineraryDescription(itineraryDTO.itinerary_description());
-        itineraryBuilder.setItineraryMunicipality(userService.getUserById(itineraryDTO.authorID()).getMunicipality());
-        itineraryBuilder.addPOIs(poiService.getPOIsByIds(itineraryDTO.POIsIDs()));
+        itineraryBuilder.setItineraryMunicipality(author.getMunicipality());
+        itineraryBuilder.addPOIs(pois);
         itineraryBuilder.setItineraryCoordinates();
         itineraryBuilder.setItineraryType();
         itineraryBuilder.setItineraryStatus();
@@ -75,12 +79,18 @@ public class ItineraryUploadingService {
      * Checks if the itinerary is valid
      *
      * @param itineraryDTO the itinerary to be checked
+     * @param author       the author of the itinerary
      */
-    private void checkItinerary(ItineraryInputDTO itineraryDTO) {
+    private void checkItinerary(ItineraryInputDTO itineraryDTO, AbstractAuthenticatedUser author) {
         checkItineraryName(itineraryDTO);
-        checkItineraryAuthor(itineraryDTO);
+        checkItineraryAuthor(author);
         checkItineraryDescription(itineraryDTO);
-        checkItineraryPOIs(itineraryDTO);
+        if (author.getMunicipality() == null) {
+            throw new IllegalArgumentException("The author is not associated with a municipality");
+        }
+        if (itineraryDTO.POIsIDs() == null || itineraryDTO.POIsIDs().isEmpty()) {
+            throw new IllegalArgumentException("The itinerary must contain at least one POI");
+        }
     }
 
     /**
@@ -105,12 +115,12 @@ public class ItineraryUploadingService {
     /**
      * Checks if the itinerary author is valid
      *
-     * @param itineraryDTO the itinerary to be checked
+     * @param author the author of the itinerary
      */
-    private void checkItineraryAuthor(ItineraryInputDTO itineraryDTO) {
-        if (!userService.getUserById(itineraryDTO.authorID()).getRole().contains(UserRole.CONTRIBUTOR)
-                && !userService.getUserById(itineraryDTO.authorID()).getRole().contains(UserRole.AUTHORIZED_CONTRIBUTOR)
-                && !userService.getUserById(itineraryDTO.authorID()).getRole().contains(UserRole.CURATOR)) {
+    private void checkItineraryAuthor(AbstractAuthenticatedUser author) {
+        if (!author.getRole().contains(UserRole.CONTRIBUTOR)
+                && !author.getRole().contains(UserRole.AUTHORIZED_CONTRIBUTOR)
+                && !author.getRole().contains(UserRole.CURATOR)) {
             throw new IllegalArgumentException("The author is not authorized to upload an itinerary");
         }
     }
@@ -137,17 +147,12 @@ public class ItineraryUploadingService {
     /**
      * Checks if the itinerary POIs are valid
      *
-     * @param itineraryDTO the itinerary to be checked
+     * @param pois   the POIs of the itinerary
+     * @param author the author of the itinerary
      */
-    private void checkItineraryPOIs(ItineraryInputDTO itineraryDTO) {
-        if (userService.getUserById(itineraryDTO.authorID()).getMunicipality() == null) {
-            throw new IllegalArgumentException("The author is not associated with a municipality");
-        }
-        if (itineraryDTO.POIsIDs().isEmpty()) {
-            throw new IllegalArgumentException("The itinerary must contain at least one POI");
-        }
-        for(Long poiID : itineraryDTO.POIsIDs()){
-            if(poiService.getPOIByID(poiID).getMunicipality() != userService.getUserById(itineraryDTO.authorID()).getMunicipality()){
+    private void checkItineraryPOIs(List<AbstractPOI> pois, AbstractAuthenticatedUser author) {
+        for (AbstractPOI poi : pois) {
+            if (!poi.getMunicipality().getId().equals(author.getMunicipality().getId())) {
                 throw new IllegalArgumentException("At least one POI is not associated with the author's municipality");
             }
         }
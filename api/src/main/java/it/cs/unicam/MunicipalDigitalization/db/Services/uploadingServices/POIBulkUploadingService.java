@@ -0,0 +1,237 @@
+package it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
+import it.cs.unicam.MunicipalDigitalization.api.util.POIType;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Mediators.POIMediator;
+import it.cs.unicam.MunicipalDigitalization.db.Services.POIService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.POIInputDTO;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.POIBulkOutputDTO;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.POIBulkRowOutputDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Service class for uploading many POIs to the database with a single request.
+ * The rows are read one at a time from the body, a JSON array of POIs or a CSV file with a header, so the whole
+ * body is never held in memory. Every row is checked like a single upload, and the valid rows are saved in chunks:
+ * a chunk costs one query to find the duplicates and one flush of batched inserts. A row that is not valid is
+ * reported with its error, and does not stop the import of the other rows.
+ */
+@Service
+public class POIBulkUploadingService {
+
+    /**
+     * The media type of a CSV body
+     */
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final POIUploadingService uploadingService;
+    private final EntityResolver entityResolver;
+    private final POIService poiService;
+    private final POIMediator poiMediator;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    /**
+     * The number of POIs saved together. The duplicate query binds one parameter for each POI of the chunk, so the
+     * chunk must stay below the 999 parameters accepted by SQLite.
+     */
+    private final int batchSize;
+
+    /**
+     * The maximum number of rows of an import
+     */
+    private final int maxRows;
+
+    @Autowired
+    public POIBulkUploadingService(POIUploadingService uploadingService, EntityResolver entityResolver, POIService poiService,
+                                   POIMediator poiMediator, ObjectMapper objectMapper, Environment env) {
+        this.uploadingService = uploadingService;
+        this.entityResolver = entityResolver;
+        this.poiService = poiService;
+        this.poiMediator = poiMediator;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.min(env.getProperty("poi.bulk-batch-size", Integer.class, 50), 500);
+        this.maxRows = env.getProperty("poi.bulk-max-rows", Integer.class, 10000);
+    }
+
+    /**
+     * Uploads the POIs of a body to the database. The import runs in a single transaction, so it is either saved
+     * with all its valid rows or, if the body cannot be read, not saved at all.
+     *
+     * @param body the body of the request
+     * @param type the media type of the body, JSON or CSV
+     * @return the report of the import, with the id or the error of every row
+     */
+    @Transactional
+    public POIBulkOutputDTO uploadPOIs(InputStream body, MediaType type) {
+        Import poiImport = new Import();
+        try (MappingIterator<?> rows = TEXT_CSV.isCompatibleWith(type) ? csvRows(body) : jsonRows(body)) {
+            while (rows.hasNextValue()) {
+                if (poiImport.rows.size() >= this.maxRows)
+                    throw new IllegalArgumentException("The import must not have more than " + this.maxRows + " rows");
+                Object row = readRow(rows, poiImport);
+                if (row != null) poiImport.add(row instanceof POIInputDTO poi ? poi : toPOI(castRow(row)));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The body of the import is not valid: " + e.getMessage(), e);
+        }
+        poiImport.save();
+        return poiImport.report();
+    }
+
+    private MappingIterator<POIInputDTO> jsonRows(InputStream body) throws IOException {
+        return this.objectMapper.readerFor(POIInputDTO.class).readValues(body);
+    }
+
+    private MappingIterator<Map<String, String>> csvRows(InputStream body) throws IOException {
+        return this.csvMapper.readerForMapOf(String.class).with(CsvSchema.emptySchema().withHeader()).readValues(body);
+    }
+
+    /**
+     * This method reads the next row. A row with values of the wrong type is reported as not valid, and the
+     * reading goes on with the next row.
+     *
+     * @return the row, or null if the row is not valid
+     */
+    private static Object readRow(MappingIterator<?> rows, Import poiImport) throws IOException {
+        try {
+            return rows.nextValue();
+        } catch (JsonMappingException e) {
+            poiImport.reject(null, "The row is not valid: " + e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> castRow(Object row) {
+        return (Map<String, String>) row;
+    }
+
+    /**
+     * This method converts a row of a CSV file, with the columns poi_name, poiType, poi_author, x and y, to a POI.
+     * A value that cannot be converted is left null, so the row is rejected by the checks of the POI.
+     */
+    private static POIInputDTO toPOI(Map<String, String> row) {
+        Double x = parseDouble(row.get("x"));
+        Double y = parseDouble(row.get("y"));
+        return new POIInputDTO(row.get("poi_name"), parseType(row.get("poiType")), parseLong(row.get("poi_author")),
+                x == null || y == null ? null : new Coordinate(x, y));
+    }
+
+    private static POIType parseType(String value) {
+        if (value == null) return null;
+        try {
+            return POIType.valueOf(value.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) return null;
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        if (value == null) return null;
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A checked row waiting to be saved with its chunk
+     */
+    private record PendingPOI(int row, AbstractPOI poi, String duplicateKey) {
+    }
+
+    /**
+     * The state of a single import: the report of the rows, the chunk waiting to be saved and the duplicate keys
+     * of the POIs already accepted.
+     */
+    private class Import {
+        private final List<POIBulkRowOutputDTO> rows = new ArrayList<>();
+        private final List<PendingPOI> chunk = new ArrayList<>();
+        private final Set<String> acceptedKeys = new HashSet<>();
+        private int created;
+
+        private void add(POIInputDTO poiDTO) {
+            if (poiDTO.poi_author() == null) {
+                reject(poiDTO.poi_name(), "The author must not be null");
+                return;
+            }
+            Optional<AbstractAuthenticatedUser> author = entityResolver.findUser(poiDTO.poi_author());
+            if (author.isEmpty()) {
+                reject(poiDTO.poi_name(), "The author does not exist");
+                return;
+            }
+            AbstractPOI poi;
+            try {
+                poi = uploadingService.createPOI(poiDTO, author.get());
+            } catch (IllegalArgumentException e) {
+                reject(poiDTO.poi_name(), e.getMessage());
+                return;
+            }
+            this.chunk.add(new PendingPOI(this.rows.size(), poi, MatchingAlgorithms.poiDuplicateKey(poi)));
+            this.rows.add(null);
+            if (this.chunk.size() >= batchSize) save();
+        }
+
+        private void reject(String name, String error) {
+            this.rows.add(new POIBulkRowOutputDTO(this.rows.size() + 1, name, null, error));
+        }
+
+        /**
+         * This method saves the chunk, without the POIs already saved or already accepted in this import.
+         */
+        private void save() {
+            if (this.chunk.isEmpty()) return;
+            Set<String> usedKeys = poiService.getUsedDuplicateKeys(this.chunk.stream()
+                    .map(PendingPOI::duplicateKey).filter(Objects::nonNull).distinct().toList());
+            List<PendingPOI> accepted = new ArrayList<>(this.chunk.size());
+            for (PendingPOI pending : this.chunk) {
+                if (pending.duplicateKey() != null
+                        && (usedKeys.contains(pending.duplicateKey()) || !this.acceptedKeys.add(pending.duplicateKey()))) {
+                    this.rows.set(pending.row(), new POIBulkRowOutputDTO(pending.row() + 1, pending.poi().getName(),
+                            null, "POI already exists"));
+                } else {
+                    accepted.add(pending);
+                }
+            }
+            poiMediator.savePOIs(accepted.stream().map(PendingPOI::poi).toList());
+            for (PendingPOI pending : accepted) {
+                this.rows.set(pending.row(), new POIBulkRowOutputDTO(pending.row() + 1, pending.poi().getName(),
+                        pending.poi().getId(), null));
+            }
+            this.created += accepted.size();
+            this.chunk.clear();
+        }
+
+        private POIBulkOutputDTO report() {
+            return new POIBulkOutputDTO(this.created, this.rows.size() - this.created, this.rows);
+        }
+    }
+}
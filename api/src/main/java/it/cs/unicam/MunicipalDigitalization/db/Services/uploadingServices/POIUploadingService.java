@@ -1,18 +1,19 @@
 package it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices;
 
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
 import it.cs.unicam.MunicipalDigitalization.api.util.DesignPattern.Builder.POIBuilder;
 import it.cs.unicam.MunicipalDigitalization.api.util.DesignPattern.FactoryMethod.POIBuilderFactory;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityTerritoryIndex;
 import it.cs.unicam.MunicipalDigitalization.db.Services.Mediators.POIMediator;
-import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.POIInputDTO;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 import static it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms.containsSpecialCharacters;
 
 /**
@@ -22,9 +23,9 @@ import static it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms.c
 @AllArgsConstructor(onConstructor_ = @Autowired)
 public class POIUploadingService {
     /**
-     * UserService instance
+     * EntityResolver instance
      */
-    private final UserService userService;
+    private final EntityResolver entityResolver;
 
     /**
      * POIMediator instance
@@ -36,16 +37,32 @@ public class POIUploadingService {
      */
     private final POIBuilderFactory poiBuilderFactory;
 
+    /**
+     * MunicipalityTerritoryIndex instance
+     */
+    private final MunicipalityTerritoryIndex territoryIndex;
+
     /**
      * Uploads a POI to the database
      *
      * @param poiDTO the POI to be uploaded
      */
     public void uploadPOI(POIInputDTO poiDTO) {
-        checkPOI(poiDTO);
-        POIBuilder builder = poiBuilderFactory.createBuilderForUser(userService.getUserById(poiDTO.poi_author()));
-        buildPOI(builder, poiDTO);
-        poiMediator.savePOI(builder.build());
+        poiMediator.savePOI(createPOI(poiDTO, entityResolver.getUser(poiDTO.poi_author())));
+    }
+
+    /**
+     * Checks a POI and builds it with the right builder for its author, without saving it
+     *
+     * @param poiDTO the POI to be checked and built
+     * @param author the author of the POI, already loaded
+     * @return the POI
+     */
+    public AbstractPOI createPOI(POIInputDTO poiDTO, AbstractAuthenticatedUser author) {
+        checkPOI(poiDTO, author);
+        POIBuilder builder = poiBuilderFactory.createBuilderForUser(author);
+        buildPOI(builder, poiDTO, author);
+        return builder.build();
     }
 
     /**
@@ -53,10 +70,11 @@ public class POIUploadingService {
      *
      * @param poiBuilder the builder to be used
      * @param poidto     the DTO to be used
+     * @param author     the author of the POI
      */
-    private void buildPOI(POIBuilder poiBuilder, POIInputDTO poidto) {
-        poiBuilder.setPOIAuthor(userService.getUserById(poidto.poi_author()));
-        poiBuilder.setPOIMunicipality(userService.getUserById(poidto.poi_author()).getMunicipality());
+    private void buildPOI(POIBuilder poiBuilder, POIInputDTO poidto, AbstractAuthenticatedUser author) {
+        poiBuilder.setPOIAuthor(author);
+        poiBuilder.setPOIMunicipality(author.getMunicipality());
         poiBuilder.setPOICoordinates(poidto.poi_coordinate());
         poiBuilder.setPOIName(poidto.poi_name());
         poiBuilder.setPOIType(poidto.poiType());
@@ -67,10 +85,11 @@ public class POIUploadingService {
      * Checks if the POI is valid
      *
      * @param poiDTO the POI to be checked
+     * @param author the author of the POI
      */
-    private void checkPOI(POIInputDTO poiDTO) {
-        checkPOIAuthor(poiDTO);
-        checkPOICoordinates(poiDTO);
+    private void checkPOI(POIInputDTO poiDTO, AbstractAuthenticatedUser author) {
+        checkPOIAuthor(author);
+        checkPOICoordinates(poiDTO, author);
         checkPOIName(poiDTO);
         checkPOIType(poiDTO);
     }
@@ -78,12 +97,12 @@ public class POIUploadingService {
     /**
      * Checks if the POI author is valid
      *
-     * @param poiDTO the POI to be checked
+     * @param author the author of the POI
      */
-    private void checkPOIAuthor(POIInputDTO poiDTO) {
-        if (!userService.getUserById((poiDTO.poi_author())).getRole().contains(UserRole.CONTRIBUTOR)
-                && !userService.getUserById((poiDTO.poi_author())).getRole().contains(UserRole.AUTHORIZED_CONTRIBUTOR)
-                && !userService.getUserById((poiDTO.poi_author())).getRole().contains(UserRole.CURATOR)) {
+    private void checkPOIAuthor(AbstractAuthenticatedUser author) {
+        if (!author.getRole().contains(UserRole.CONTRIBUTOR)
+                && !author.getRole().contains(UserRole.AUTHORIZED_CONTRIBUTOR)
+                && !author.getRole().contains(UserRole.CURATOR)) {
             throw new IllegalArgumentException("The author is not authorized to upload a POI");
         }
     }
@@ -92,39 +111,26 @@ public class POIUploadingService {
      * Checks if the POI coordinates are valid
      *
      * @param poiDTO the POI to be checked
+     * @param author the author of the POI
      */
-    private void checkPOICoordinates(POIInputDTO poiDTO) {
+    private void checkPOICoordinates(POIInputDTO poiDTO, AbstractAuthenticatedUser author) {
 
         if (poiDTO.poi_coordinate() == null) {
             throw new IllegalArgumentException("The coordinates must not be null");
         }
 
-        if (!checkCoordinate(poiDTO.poi_coordinate(), poiDTO)) {
+        if (!territoryIndex.contains(author.getMunicipality(), poiDTO.poi_coordinate())) {
             throw new IllegalArgumentException("The coordinates must be inside the perimeter area of the Municipality");
         }
     }
 
     /**
-     * Check if the coordinate is inside the perimeter area of the Municipality
+     * Check if the coordinate is inside the perimeter area of the Municipality, using the territory index
      *
      * @return true if the coordinate is inside the perimeter area of the Municipality, false otherwise
      */
     public boolean checkCoordinate(Coordinate punto, POIInputDTO poiDTO) {
-        List<Coordinate> polygon = userService.getUserById(poiDTO.poi_author()).getMunicipality().getTerritory();
-
-        int side = polygon.size();
-        boolean inside = false;
-        for (int i = 0, j = side - 1; i < side; j = i++) {
-            Coordinate point1 = polygon.get(i);
-            Coordinate point2 = polygon.get(j);
-
-            if ((point1.getY() > punto.getY()) != (point2.getY() > punto.getY()) &&
-                    (punto.getX() < (point2.getX() - point1.getX()) * (punto.getY() - point1.getY()) /
-                            (point2.getY() - point1.getY()) + point1.getX())) {
-                inside = !inside;
-            }
-        }
-        return inside;
+        return territoryIndex.contains(entityResolver.getUser(poiDTO.poi_author()).getMunicipality(), punto);
     }
 
     /**
@@ -133,6 +139,10 @@ public class POIUploadingService {
      * @param poiDTO the POI to be checked
      */
     private void checkPOIName(POIInputDTO poiDTO) {
+        if (poiDTO.poi_name() == null) {
+            throw new IllegalArgumentException("The name must not be null or blank");
+        }
+
         if (poiDTO.poi_name().length() > 25 || poiDTO.poi_name().length() < 3) {
             throw new IllegalArgumentException("The name must be between 3 and 25 characters");
         }
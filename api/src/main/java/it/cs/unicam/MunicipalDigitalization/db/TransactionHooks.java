@@ -0,0 +1,33 @@
+package it.cs.unicam.MunicipalDigitalization.db;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * This class contains the hooks used to run an action only when the data it depends on is committed.
+ * It is used to keep the in-memory structures aligned with the Database.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * This method runs the action after the commit of the current transaction. If the transaction is rolled back
+     * the action is discarded. If there is no active transaction the action is run immediately.
+     *
+     * @param action the action to run
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -2,8 +2,13 @@ package it.cs.unicam.MunicipalDigitalization.db.controllers;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.users.PlatformGestor;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.MunicipalityVersion;
 import it.cs.unicam.MunicipalDigitalization.db.Services.AdminServices;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityTerritoryIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalitySnapshots;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityVersions;
 import it.cs.unicam.MunicipalDigitalization.db.Services.MunicipalService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PaginationService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.MunicipalityRequest;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.RoleRequest;
@@ -12,12 +17,17 @@ import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.mappers.Municipal
 import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * This class represents the Rest Controller for the admin operations
@@ -33,6 +43,14 @@ public class AdminController {
 
     private final MunicipalityDTOMapper municipalityDTOMapper;
 
+    private final MunicipalityTerritoryIndex territoryIndex;
+
+    private final PaginationService paginationService;
+
+    private final MunicipalityVersions municipalityVersions;
+
+    private final MunicipalitySnapshots municipalitySnapshots;
+
     /**
      * Initializes the platform gestor if it is not present in the database.
      */
@@ -58,17 +76,63 @@ public class AdminController {
     }
 
     /**
-     * Gets all the municipalities in the database
+     * Gets a page of the municipalities in the database. The page is read from the data versions of the
+     * municipalities, and every municipality is written from its serialized view
      *
-     * @return a response entity with the municipalities
+     * @param cursor the cursor of the page, returned by the previous page, or null for the first page
+     * @param size    the size of the page, or null for the default size
+     * @param request the request, used to answer Not Modified when no municipality has changed
+     * @return a response entity with the page of municipalities
      */
 
     @RequestMapping(value = "/v1/municipalities", method = RequestMethod.GET)
-    public ResponseEntity<Object> getMunicipalities() {
-        return new ResponseEntity<>(municipalService.getAllMunicipals()
-                .stream()
-                .map(municipalityDTOMapper),
-                HttpStatus.OK);
+    public ResponseEntity<Object> getMunicipalities(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size, WebRequest request) {
+        String etag = municipalityVersions.catalogEtag();
+        if (request.checkNotModified(etag)) return null;
+        int pageSize = paginationService.pageSize(size);
+        return ResponseEntity.ok().eTag(etag).body(paginationService.page(municipalService.getMunicipalVersions(
+                        paginationService.afterId(cursor), paginationService.limit(pageSize)), pageSize,
+                MunicipalityVersion::getId, municipality -> view(municipality.getId(), municipality.getDataVersion())));
+    }
+
+    /**
+     * Gets the published view of a municipality, as serialized JSON compressed with gzip when the client accepts it.
+     * While the view of the current data is being built, the municipality is mapped by the request
+     *
+     * @param id      the id of the municipality
+     * @param request the request, used to choose the encoding and to answer Not Modified when the municipality has
+     *                not changed
+     * @return a response entity with the municipality, or not found if the municipality does not exist
+     */
+    @RequestMapping(value = "/v1/municipality/{id}", method = RequestMethod.GET)
+    public ResponseEntity<Object> getMunicipality(@PathVariable Long id, WebRequest request) {
+        Long version = municipalityVersions.version(id);
+        if (version == null) return new ResponseEntity<>("Municipality not found", HttpStatus.NOT_FOUND);
+        MunicipalitySnapshots.Snapshot snapshot = municipalitySnapshots.get(id, version);
+        if (snapshot == null)
+            return new ResponseEntity<>(municipalityDTOMapper.apply(municipalService.getMunicipalByID(id)), HttpStatus.OK);
+        boolean gzip = MunicipalitySnapshots.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? snapshot.gzipEtag() : snapshot.etag();
+        if (request.checkNotModified(etag)) return null;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        return response.body(snapshot.json());
+    }
+
+    /**
+     * Gets the municipality whose territory contains a coordinate
+     *
+     * @param x the x value of the coordinate
+     * @param y the y value of the coordinate
+     * @return a response entity with the municipality, or not found if no municipality contains the coordinate
+     */
+    @RequestMapping(value = "/v1/municipalities/at", method = RequestMethod.GET)
+    public ResponseEntity<Object> getMunicipalityAt(@RequestParam double x, @RequestParam double y) {
+        return territoryIndex.findMunicipalityAt(x, y)
+                .<ResponseEntity<Object>>map(id -> new ResponseEntity<>(view(id, municipalityVersions.version(id)), HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>("No municipality contains the coordinate", HttpStatus.NOT_FOUND));
     }
 
     /**
@@ -94,4 +158,13 @@ public class AdminController {
         return new ResponseEntity<>("Role removed", HttpStatus.OK);
     }
 
+    /**
+     * Returns the serialized view of a municipality at a data version, or maps the municipality if the view of that
+     * version is still being built or its version is not known
+     */
+    private Object view(Long id, Long version) {
+        MunicipalitySnapshots.Snapshot snapshot = version == null ? null : municipalitySnapshots.get(id, version);
+        return snapshot != null ? snapshot.raw() : municipalityDTOMapper.apply(municipalService.getMunicipalByID(id));
+    }
+
 }
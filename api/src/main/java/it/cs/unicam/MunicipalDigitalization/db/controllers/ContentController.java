@@ -1,10 +1,13 @@
 package it.cs.unicam.MunicipalDigitalization.db.controllers;
 
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractContent;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ContentService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ItineraryService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.POIService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PaginationService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices.ContentUploadingService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.ContentInputDTO;
@@ -24,6 +27,7 @@ public class ContentController {
     private final ItineraryService itineraryService;
     private final ContentDTOMapper contentDTOMapper;
     private final UserService userService;
+    private final PaginationService paginationService;
 
     /**
      * Uploads a content to the database
@@ -77,19 +81,23 @@ public class ContentController {
 
 
     /**
-     * Returns all the contents in the database
+     * Returns a page of the pending contents of the municipality of a curator
      *
-     * @return a list of all the contents
+     * @param curatorId the id of the curator
+     * @param cursor    the cursor of the page, returned by the previous page, or null for the first page
+     * @param size      the size of the page, or null for the default size
+     * @return a page of the pending contents
      */
     @RequestMapping(value = "/v1/content/{curatorId}", method = RequestMethod.GET)
-    public ResponseEntity<Object> getPendingContents(@PathVariable Long curatorId) {
-        if (userService.getUserById(curatorId).getRole().contains(UserRole.CURATOR)) {
-            return new ResponseEntity<>(contentService.getAllContents()
-                    .stream()
-                    .filter(content -> content.getReferredPOI().getMunicipality().equals(userService.getUserById(curatorId).getMunicipality()) ||
-                            content.getReferredItinerary().getMunicipality().equals(userService.getUserById(curatorId).getMunicipality()))
-                    .filter(content -> content.getElementStatus().equals(ElementStatus.PENDING))
-                    .map(contentDTOMapper), HttpStatus.OK);
+    public ResponseEntity<Object> getPendingContents(@PathVariable Long curatorId, @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size) {
+        AbstractAuthenticatedUser curator = userService.getUserById(curatorId);
+        if (curator.getRole().contains(UserRole.CURATOR)) {
+            int pageSize = paginationService.pageSize(size);
+            return new ResponseEntity<>(paginationService.page(contentService.getContentsByMunicipalityIdAndStatus(
+                            curator.getMunicipality().getId(), ElementStatus.PENDING, paginationService.afterId(cursor),
+                            paginationService.limit(pageSize)),
+                    pageSize, AbstractContent::getId, contentDTOMapper), HttpStatus.OK);
         } else return new ResponseEntity<>("You are not a curator", HttpStatus.BAD_REQUEST);
     }
 }
@@ -1,10 +1,14 @@
 package it.cs.unicam.MunicipalDigitalization.db.controllers;
 
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
-import it.cs.unicam.MunicipalDigitalization.db.Services.MunicipalService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.ContestService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.EntityResolver;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.ContestLeaderboard;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PaginationService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ParticipationService;
-import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PublishedDataCache;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ValidateService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices.ContestUploadingService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.ValidateRequest;
@@ -15,16 +19,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 @RestController
 @AllArgsConstructor(onConstructor_ = @Autowired)
 public class ContestController {
     private final ContestUploadingService contestUploadingService;
-    private final MunicipalService municipalService;
-    private final UserService userService;
+    private final EntityResolver entityResolver;
     private final ContestDTOMapper contestDTOMapper;
     private final ParticipationService participationService;
     private final ValidateService validateService;
+    private final ContestService contestService;
+    private final PaginationService paginationService;
+    private final ContestLeaderboard contestLeaderboard;
+    private final PublishedDataCache publishedDataCache;
 
     /**
      * Uploads a contest to the database only if the Animator perform this action
@@ -35,24 +45,29 @@ public class ContestController {
 
     @RequestMapping(value = "/v1/uploadContest", method = RequestMethod.POST)
     public ResponseEntity<Object> uploadContest(@RequestBody ContestInputDTO contestInputDTO) {
-        if (userService.getUserById(contestInputDTO.contest_author_id()).getRole().contains(UserRole.ANIMATOR)) {
+        if (entityResolver.getUser(contestInputDTO.contest_author_id()).getRole().contains(UserRole.ANIMATOR)) {
             contestUploadingService.uploadContest(contestInputDTO);
             return new ResponseEntity<>("Contest Uploaded", HttpStatus.OK);
         } else return new ResponseEntity<>("User is not Authorized", HttpStatus.FORBIDDEN);
     }
 
     /**
-     * Returns all the Open or OnGoing contests of a municipality
+     * Returns a page of the Open or OnGoing contests of a municipality, from the cache of the published data if possible
      *
      * @param municipality_id the municipality
+     * @param cursor          the cursor of the page, returned by the previous page, or null for the first page
+     * @param size            the size of the page, or null for the default size
      * @return the contests
      */
     @RequestMapping(value = "/v1/municipality/{municipality_id}/contests", method = RequestMethod.GET)
-    public ResponseEntity<Object> getContributionContests(@PathVariable Long municipality_id) {
-        return new ResponseEntity<>(municipalService.getMunicipalByID(municipality_id).getContests()
-                .stream()
-                .filter(contest -> contest.getContestStatus().equals(ContestStatus.OPEN) || contest.getContestStatus().equals(ContestStatus.ON_GOING))
-                .map(contestDTOMapper)
+    public ResponseEntity<Object> getContributionContests(@PathVariable Long municipality_id, @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer size) {
+        int pageSize = paginationService.pageSize(size);
+        long afterId = paginationService.afterId(cursor);
+        return new ResponseEntity<>(publishedDataCache.getPage(municipality_id, null, PublishedDataCache.Collection.CONTESTS,
+                afterId, pageSize, () -> paginationService.page(contestService.getContestsByMunicipalityId(municipality_id,
+                                List.of(ContestStatus.OPEN, ContestStatus.ON_GOING), afterId, paginationService.limit(pageSize)),
+                        pageSize, ContributionContest::getId, contestDTOMapper))
                 , HttpStatus.OK);
     }
 
@@ -81,4 +96,28 @@ public class ContestController {
         this.validateService.validateContest(validateRequest);
         return new ResponseEntity<>("Contest validated", HttpStatus.OK);
     }
+
+    /**
+     * Returns the contributions of a contest with the most votes, from the in-memory leaderboard of the contest
+     *
+     * @param contest_id the contest
+     * @param k          the maximum number of contributions, or null for the maximum allowed
+     * @return the leaderboard of the contest
+     */
+    @RequestMapping(value = "/v1/contest/{contest_id}/leaderboard", method = RequestMethod.GET)
+    public ResponseEntity<Object> getLeaderboard(@PathVariable Long contest_id, @RequestParam(required = false) Integer k) {
+        return new ResponseEntity<>(contestLeaderboard.getLeaderboard(contest_id, k), HttpStatus.OK);
+    }
+
+    /**
+     * Opens a stream of Server-Sent Events that receives the leaderboard of a contest every time it changes
+     *
+     * @param contest_id the contest
+     * @param k          the maximum number of contributions, or null for the maximum allowed
+     * @return the stream of the leaderboard
+     */
+    @RequestMapping(value = "/v1/contest/{contest_id}/leaderboard/stream", method = RequestMethod.GET)
+    public SseEmitter streamLeaderboard(@PathVariable Long contest_id, @RequestParam(required = false) Integer k) {
+        return contestLeaderboard.subscribe(contest_id, k);
+    }
 }
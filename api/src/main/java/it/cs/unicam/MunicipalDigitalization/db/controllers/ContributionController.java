@@ -1,8 +1,9 @@
 package it.cs.unicam.MunicipalDigitalization.db.controllers;
 
-import it.cs.unicam.MunicipalDigitalization.db.Services.ContestService;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.Contribution;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ContributionService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.Mediators.ContributionMediator;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PaginationService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices.ContributionUploadingService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.VoteRequest;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.ContributionInputDTO;
@@ -18,10 +19,10 @@ import org.springframework.web.bind.annotation.*;
 public class ContributionController {
 
     private final ContributionUploadingService contributionUploadingService;
-    private final ContestService contestService;
     private final ContributionDTOMapper contributionDTOMapper;
     private final ContributionMediator contributionMediator;
     private final ContributionService contributionService;
+    private final PaginationService paginationService;
 
     /**
      * This method permits a user to contribute to a contest
@@ -36,16 +37,20 @@ public class ContributionController {
     }
 
     /**
-     * This method returns all the contributions of a contest
+     * This method returns a page of the contributions of a contest
      *
      * @param contest_id the contest
+     * @param cursor     the cursor of the page, returned by the previous page, or null for the first page
+     * @param size       the size of the page, or null for the default size
      * @return the contributions
      */
     @RequestMapping(value = "/v1/contest/{contest_id}/contributions", method = RequestMethod.GET)
-    public ResponseEntity<Object> getContributions(@PathVariable Long contest_id) {
-        return new ResponseEntity<>(contestService.getContestById(contest_id).getContributions()
-                .stream()
-                .map(contributionDTOMapper)
+    public ResponseEntity<Object> getContributions(@PathVariable Long contest_id, @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size) {
+        int pageSize = paginationService.pageSize(size);
+        return new ResponseEntity<>(paginationService.page(contributionService.getContributionsByContestId(contest_id,
+                        paginationService.afterId(cursor), paginationService.limit(pageSize)),
+                pageSize, Contribution::getId, contributionDTOMapper)
                 , HttpStatus.OK);
     }
 
@@ -0,0 +1,37 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.FacetIndex;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This class represents the Rest Controller for the counts of the elements by facet
+ */
+@RestController
+@AllArgsConstructor(onConstructor_ = @Autowired)
+public class FacetController {
+
+    private final FacetIndex facetIndex;
+
+    /**
+     * Counts the POIs, itineraries or contents that match a facet query, like
+     * "municipality:1 AND (poiType:Cinema OR poiType:Church)"
+     *
+     * @param element the type of the elements to count
+     * @param q       the facet query, optional
+     * @param facet   the facet of the counts by value, optional
+     * @return the number of elements found, and the number for every value of the facet
+     */
+    @RequestMapping(value = "/v1/facets", method = RequestMethod.GET)
+    public ResponseEntity<Object> countFacets(@RequestParam SearchType element, @RequestParam(required = false) String q,
+                                              @RequestParam(required = false) String facet) {
+        return new ResponseEntity<>(facetIndex.count(element, q, facet), HttpStatus.OK);
+    }
+}
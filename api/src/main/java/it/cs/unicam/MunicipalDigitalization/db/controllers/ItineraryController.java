@@ -1,9 +1,15 @@
 package it.cs.unicam.MunicipalDigitalization.db.controllers;
 
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ItinerarySummary;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityVersions;
 import it.cs.unicam.MunicipalDigitalization.db.Services.ItineraryService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.MunicipalService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PaginationService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PublishedDataCache;
 import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices.ItineraryUploadingService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.ItineraryInputDTO;
@@ -13,6 +19,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @AllArgsConstructor(onConstructor_ = @Autowired)
@@ -22,20 +32,37 @@ public class ItineraryController {
     private final ItineraryDTOMapper itineraryDTOMapper;
     private final UserService userService;
     private final ItineraryService itineraryService;
+    private final PaginationService paginationService;
+    private final MunicipalityVersions municipalityVersions;
+    private final PublishedDataCache publishedDataCache;
 
     /**
-     * Returns all the itineraries in a municipality
+     * Returns a page of the published itineraries in a municipality, from the cache of the published data if possible
      *
-     * @param id the id of the municipality
-     * @return all the itineraries in the database
+     * @param id     the id of the municipality
+     * @param cursor the cursor of the page, returned by the previous page, or null for the first page
+     * @param size    the size of the page, or null for the default size
+     * @param request the request, used to answer Not Modified when the data of the municipality has not changed
+     * @return a page of the published itineraries of the municipality
      */
     @RequestMapping(value = "/v1/itineraries/{id}", method = RequestMethod.GET)
-    public ResponseEntity<Object> getItinerariesByMunicipalityID(@PathVariable Long id) {
-        return new ResponseEntity<>(itineraryService.getAllItineraries()
-                .stream()
-                .filter(itinerary -> itinerary.getMunicipality().getId().equals(id))
-                .filter(itinerary -> itinerary.getElementStatus().equals(ElementStatus.PUBLISHED))
-                .map(itineraryDTOMapper), HttpStatus.OK);
+    public ResponseEntity<Object> getItinerariesByMunicipalityID(@PathVariable Long id, @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size, WebRequest request) {
+        Long version = municipalityVersions.version(id);
+        String etag = version == null ? null : MunicipalityVersions.etag(id, version);
+        if (etag != null && request.checkNotModified(etag)) return null;
+        int pageSize = paginationService.pageSize(size);
+        long afterId = paginationService.afterId(cursor);
+        return ResponseEntity.ok().eTag(etag).body(publishedDataCache.getPage(id, version, PublishedDataCache.Collection.ITINERARIES,
+                afterId, pageSize, () -> {
+                    List<ItinerarySummary> itineraries = itineraryService.getPublishedItinerarySummaries(id, afterId,
+                            paginationService.limit(pageSize));
+                    Map<Long, List<String>> pois = itineraryService.getPublishedItineraryPOINames(id, itineraries);
+                    Map<Long, List<String>> contents = itineraryService.getPublishedContentNames(id, itineraries);
+                    return paginationService.page(itineraries, pageSize, ItinerarySummary::getId,
+                            itinerary -> itineraryDTOMapper.apply(itinerary, pois.getOrDefault(itinerary.getId(), List.of()),
+                                    contents.getOrDefault(itinerary.getId(), List.of())));
+                }));
     }
 
     /**
@@ -67,19 +94,23 @@ public class ItineraryController {
     }
 
     /**
-     * Returns all the pending itineraries of the Municipality. Only the curator can do this Rest call
+     * Returns a page of the pending itineraries of the Municipality. Only the curator can do this Rest call
      *
      * @param curatorID id of the curator
-     * @return all the pending itineraries of the Municipality
+     * @param cursor    the cursor of the page, returned by the previous page, or null for the first page
+     * @param size      the size of the page, or null for the default size
+     * @return a page of the pending itineraries of the Municipality
      */
     @RequestMapping(value = "/v1/itinerary/pending/{curatorID}", method = RequestMethod.GET)
-    public ResponseEntity<Object> getPendingItineraries(@PathVariable Long curatorID) {
-        if (userService.getUserById(curatorID).getRole().contains(UserRole.CURATOR)) {
-            return new ResponseEntity<>(itineraryService.getAllItineraries()
-                    .stream()
-                    .filter(itinerary -> itinerary.getMunicipality().equals(userService.getUserById(curatorID).getMunicipality()))
-                    .filter(itinerary -> itinerary.getElementStatus().equals(ElementStatus.PENDING))
-                    .map(itineraryDTOMapper), HttpStatus.OK);
+    public ResponseEntity<Object> getPendingItineraries(@PathVariable Long curatorID, @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        AbstractAuthenticatedUser curator = userService.getUserById(curatorID);
+        if (curator.getRole().contains(UserRole.CURATOR)) {
+            int pageSize = paginationService.pageSize(size);
+            return new ResponseEntity<>(paginationService.page(itineraryService.getItinerariesByMunicipalityIdAndStatus(
+                            curator.getMunicipality().getId(), ElementStatus.PENDING, paginationService.afterId(cursor),
+                            paginationService.limit(pageSize)),
+                    pageSize, AbstractItinerary::getId, itineraryDTOMapper), HttpStatus.OK);
         }
         return new ResponseEntity<>("You are not a curator", HttpStatus.FORBIDDEN);
     }
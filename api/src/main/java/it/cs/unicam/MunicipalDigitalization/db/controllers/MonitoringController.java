@@ -0,0 +1,53 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers;
+
+import it.cs.unicam.MunicipalDigitalization.db.Monitoring.QueryStatistics;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PublishedDataCache;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This class represents the Rest Controller for the monitoring of the application
+ */
+@RestController
+@AllArgsConstructor(onConstructor_ = @Autowired)
+public class MonitoringController {
+
+    private final QueryStatistics queryStatistics;
+    private final PublishedDataCache publishedDataCache;
+
+    /**
+     * Gets the number of SQL statements, entity loads and flushes of the requests of every endpoint
+     *
+     * @return a response entity with the statistics of the endpoints
+     */
+    @RequestMapping(value = "/v1/monitoring/queries", method = RequestMethod.GET)
+    public ResponseEntity<Object> getQueryStatistics() {
+        return new ResponseEntity<>(queryStatistics.getStatistics(), HttpStatus.OK);
+    }
+
+    /**
+     * Clears the statistics of the endpoints
+     *
+     * @return a response entity with the status of the operation
+     */
+    @RequestMapping(value = "/v1/monitoring/queries", method = RequestMethod.DELETE)
+    public ResponseEntity<Object> resetQueryStatistics() {
+        queryStatistics.reset();
+        return new ResponseEntity<>("Query statistics cleared", HttpStatus.OK);
+    }
+
+    /**
+     * Gets the hit rate, the evictions and the load time of the cache of the published data
+     *
+     * @return a response entity with the statistics of the cache
+     */
+    @RequestMapping(value = "/v1/monitoring/cache", method = RequestMethod.GET)
+    public ResponseEntity<Object> getCacheStatistics() {
+        return new ResponseEntity<>(publishedDataCache.getStatistics(), HttpStatus.OK);
+    }
+}
@@ -1,18 +1,33 @@
 package it.cs.unicam.MunicipalDigitalization.db.controllers;
 
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.UserRole;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.POISummary;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityVersions;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.POISpatialIndex;
 import it.cs.unicam.MunicipalDigitalization.db.Services.MunicipalService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.POIService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PaginationService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PublishedDataCache;
 import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices.POIBulkUploadingService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices.POIUploadingService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.POIInputDTO;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.mappers.POIDTOMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This class is a RestController that handles the requests related to the POI entity.
@@ -22,24 +37,57 @@ import org.springframework.web.bind.annotation.*;
 public class POIController {
 
     private final POIUploadingService uploadingService;
+    private final POIBulkUploadingService bulkUploadingService;
     private final POIService poiService;
     private final POIDTOMapper poiDTOMapper;
     private final UserService userService;
     private final MunicipalService municipalService;
+    private final POISpatialIndex poiSpatialIndex;
+    private final PaginationService paginationService;
+    private final MunicipalityVersions municipalityVersions;
+    private final PublishedDataCache publishedDataCache;
 
     /**
-     * Returns all the POIs in the database
+     * Returns a page of the published POIs of a municipality, from the cache of the published data if possible
      *
-     * @param id the id of the municipality
-     * @return all the POIs in the database
+     * @param id     the id of the municipality
+     * @param cursor the cursor of the page, returned by the previous page, or null for the first page
+     * @param size    the size of the page, or null for the default size
+     * @param request the request, used to answer Not Modified when the data of the municipality has not changed
+     * @return a page of the published POIs of the municipality
      */
     @RequestMapping(value = "/v1/pois/{id}", method = RequestMethod.GET)
-    public ResponseEntity<Object> getPOIsByMunicipalityID(@PathVariable Long id) {
-        return new ResponseEntity<>(poiService.getAllPOIs()
-                .stream()
-                .filter(poi -> poi.getMunicipality().getId().equals(id))
-                .filter(poi -> poi.getElementStatus().equals(ElementStatus.PUBLISHED))
-                .map(poiDTOMapper), HttpStatus.OK);
+    public ResponseEntity<Object> getPOIsByMunicipalityID(@PathVariable Long id, @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer size, WebRequest request) {
+        Long version = municipalityVersions.version(id);
+        String etag = version == null ? null : MunicipalityVersions.etag(id, version);
+        if (etag != null && request.checkNotModified(etag)) return null;
+        int pageSize = paginationService.pageSize(size);
+        long afterId = paginationService.afterId(cursor);
+        return ResponseEntity.ok().eTag(etag).body(publishedDataCache.getPage(id, version, PublishedDataCache.Collection.POIS,
+                afterId, pageSize, () -> {
+                    List<POISummary> pois = poiService.getPublishedPOISummaries(id, afterId, paginationService.limit(pageSize));
+                    Map<Long, List<String>> contents = poiService.getPublishedContentNames(id, pois);
+                    return paginationService.page(pois, pageSize, POISummary::getId,
+                            poi -> poiDTOMapper.apply(poi, contents.getOrDefault(poi.getId(), List.of())));
+                }));
+    }
+
+    /**
+     * Returns the published POIs nearest to a point, ordered by distance.
+     * The POIs are read from the spatial index, without loading them from the database.
+     *
+     * @param x      the x value of the point
+     * @param y      the y value of the point
+     * @param radius the maximum distance of the POIs, optional
+     * @param k      the maximum number of POIs, optional
+     * @return the nearest POIs with their distance
+     */
+    @RequestMapping(value = "/v1/pois/near", method = RequestMethod.GET)
+    public ResponseEntity<Object> getNearbyPOIs(@RequestParam double x, @RequestParam double y,
+                                                @RequestParam(required = false) Double radius,
+                                                @RequestParam(required = false) Integer k) {
+        return new ResponseEntity<>(poiSpatialIndex.findNearby(x, y, radius, k), HttpStatus.OK);
     }
 
     /**
@@ -55,6 +103,19 @@ public class POIController {
         return new ResponseEntity<>("Product added ", HttpStatus.OK);
     }
 
+    /**
+     * Uploads many POIs to the database. The body is a JSON array of POIs or a CSV file with the header
+     * poi_name,poiType,poi_author,x,y, and it is read one row at a time.
+     *
+     * @param request the request with the body to be uploaded
+     * @return the report of the import, with the id or the error of every row
+     */
+    @RequestMapping(value = "/v1/poi/bulk", method = RequestMethod.POST, consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public ResponseEntity<Object> uploadPOIs(HttpServletRequest request) throws IOException {
+        return new ResponseEntity<>(bulkUploadingService.uploadPOIs(request.getInputStream(),
+                MediaType.parseMediaType(request.getContentType())), HttpStatus.OK);
+    }
+
 
 /*
     @RequestMapping(value = "/v1/pois", method = RequestMethod.GET)
@@ -84,19 +145,22 @@ public class POIController {
     }
 
     /**
-     * Returns all the POIs of the Municipality. Only the curator can do this Rest call
+     * Returns a page of the pending POIs of the Municipality. Only the curator can do this Rest call
      *
      * @param curatorId the id of the curator
-     * @return all the Pending POIs in the database
+     * @param cursor    the cursor of the page, returned by the previous page, or null for the first page
+     * @param size      the size of the page, or null for the default size
+     * @return a page of the Pending POIs of the Municipality
      */
     @RequestMapping(value = "/v1/pois/pending/{curatorId}", method = RequestMethod.GET)
-    public ResponseEntity<Object> getPendingPOIs(@PathVariable Long curatorId) {
-        if (userService.getUserById(curatorId).getRole().contains(UserRole.CURATOR)) {
-            return new ResponseEntity<>(poiService.getAllPOIs()
-                    .stream()
-                    .filter(poi -> poi.getMunicipality().equals(userService.getUserById(curatorId).getMunicipality()))
-                    .filter(poi -> poi.getElementStatus().equals(ElementStatus.PENDING))
-                    .map(poiDTOMapper),
+    public ResponseEntity<Object> getPendingPOIs(@PathVariable Long curatorId, @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        AbstractAuthenticatedUser curator = userService.getUserById(curatorId);
+        if (curator.getRole().contains(UserRole.CURATOR)) {
+            int pageSize = paginationService.pageSize(size);
+            return new ResponseEntity<>(paginationService.page(poiService.getPOIsByMunicipalityIdAndStatus(curator.getMunicipality().getId(),
+                            ElementStatus.PENDING, paginationService.afterId(cursor), paginationService.limit(pageSize)),
+                    pageSize, AbstractPOI::getId, poiDTOMapper),
                     HttpStatus.OK);
         }
         return new ResponseEntity<>("You are not a curator", HttpStatus.FORBIDDEN);
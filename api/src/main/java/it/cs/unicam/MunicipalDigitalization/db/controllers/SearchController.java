@@ -0,0 +1,58 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.NameAutocompleteIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PaginationService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.SearchService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This class represents the Rest Controller for the search of the published elements
+ */
+@RestController
+@AllArgsConstructor(onConstructor_ = @Autowired)
+public class SearchController {
+
+    private final SearchService searchService;
+    private final PaginationService paginationService;
+    private final NameAutocompleteIndex nameAutocompleteIndex;
+
+    /**
+     * Searches the published POIs, itineraries and contents that contain all the words of a query
+     *
+     * @param q            the words to search
+     * @param municipality the id of the municipality of the elements, optional
+     * @param type         the type of the elements, optional
+     * @param size         the maximum number of results, or null for the default size
+     * @return the elements found, the most relevant first
+     */
+    @RequestMapping(value = "/v1/search", method = RequestMethod.GET)
+    public ResponseEntity<Object> search(@RequestParam String q, @RequestParam(required = false) Long municipality,
+                                         @RequestParam(required = false) SearchType type,
+                                         @RequestParam(required = false) Integer size) {
+        return new ResponseEntity<>(searchService.search(q, municipality, type, paginationService.pageSize(size)),
+                HttpStatus.OK);
+    }
+
+    /**
+     * Completes the name of a published POI or itinerary of a municipality while it is typed
+     *
+     * @param id     the id of the municipality
+     * @param prefix the start of the name, without case and accents
+     * @param size   the maximum number of names, or null for the maximum allowed
+     * @return the elements with a name that starts with the prefix, in alphabetical order
+     */
+    @RequestMapping(value = "/v1/municipality/{id}/autocomplete", method = RequestMethod.GET)
+    public ResponseEntity<Object> autocomplete(@PathVariable Long id, @RequestParam String prefix,
+                                               @RequestParam(required = false) Integer size) {
+        return new ResponseEntity<>(nameAutocompleteIndex.complete(id, prefix, size), HttpStatus.OK);
+    }
+}
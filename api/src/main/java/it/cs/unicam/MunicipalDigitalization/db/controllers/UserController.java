@@ -1,6 +1,8 @@
 package it.cs.unicam.MunicipalDigitalization.db.controllers;
 
 
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
+import it.cs.unicam.MunicipalDigitalization.db.Services.PaginationService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices.UserUploadingService;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.UserInputDTO;
@@ -22,6 +24,7 @@ public class UserController {
     private final UserUploadingService uploadingService;
     private final UserService userService;
     private final UserDTOMapper userDTOMapper;
+    private final PaginationService paginationService;
 
     /**
      * This method is used to register a new user in the system.
@@ -36,15 +39,18 @@ public class UserController {
     }
 
     /**
-     * This method is used to get all the users in the system.
+     * This method is used to get a page of the users in the system.
      *
-     * @return a ResponseEntity with the list of all the users
+     * @param cursor the cursor of the page, returned by the previous page, or null for the first page
+     * @param size   the size of the page, or null for the default size
+     * @return a ResponseEntity with the page of users
      */
     @RequestMapping(value = "/v1/users", method = RequestMethod.GET)
-    public ResponseEntity<Object> getUsers() {
-        return new ResponseEntity<>(userService.getAllUsers()
-                .stream()
-                .map(userDTOMapper),
+    public ResponseEntity<Object> getUsers(@RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size) {
+        int pageSize = paginationService.pageSize(size);
+        return new ResponseEntity<>(paginationService.page(userService.getUsers(paginationService.afterId(cursor),
+                        paginationService.limit(pageSize)), pageSize, AbstractAuthenticatedUser::getId, userDTOMapper),
                 HttpStatus.OK);
     }
 
@@ -60,17 +66,19 @@ public class UserController {
     }
 
     /**
-     * This method is used to get all the users in a municipality.
+     * This method is used to get a page of the users in a municipality.
      *
-     * @param id the id of the municipality
-     * @return a ResponseEntity with the list of all the users in the municipality
+     * @param id     the id of the municipality
+     * @param cursor the cursor of the page, returned by the previous page, or null for the first page
+     * @param size   the size of the page, or null for the default size
+     * @return a ResponseEntity with the page of users in the municipality
      */
     @RequestMapping(value = "/v1/users/municipality/{id}", method = RequestMethod.GET)
-    public ResponseEntity<Object> getUserByMunicipality(@PathVariable Long id) {
-        return new ResponseEntity<>(userService.getAllUsers()
-                .stream()
-                .filter(user -> user.getMunicipality().getId().equals(id))
-                .map(userDTOMapper), HttpStatus.OK);
+    public ResponseEntity<Object> getUserByMunicipality(@PathVariable Long id, @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        int pageSize = paginationService.pageSize(size);
+        return new ResponseEntity<>(paginationService.page(userService.getUsersByMunicipalityId(id, paginationService.afterId(cursor),
+                paginationService.limit(pageSize)), pageSize, AbstractAuthenticatedUser::getId, userDTOMapper), HttpStatus.OK);
     }
 
 }
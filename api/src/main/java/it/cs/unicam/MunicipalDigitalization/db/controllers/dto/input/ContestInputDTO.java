@@ -3,6 +3,7 @@ package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestType;
 import it.cs.unicam.MunicipalDigitalization.api.util.InvitationType;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -16,7 +17,9 @@ public record ContestInputDTO(
         ContestType contestType,
         List<Long> contest_pois,
         List<Long> contest_itineraries,
-        int minParticipants
+        int minParticipants,
+        LocalDateTime contest_startDate,
+        LocalDateTime contest_endDate
 ) {
 
 }
\ No newline at end of file
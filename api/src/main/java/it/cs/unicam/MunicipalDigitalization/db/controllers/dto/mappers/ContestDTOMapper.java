@@ -22,7 +22,11 @@ public class ContestDTOMapper implements Function<ContributionContest, ContestOu
                 contributionContest.getItineraries().stream().map(AbstractMunicipalElement::getName).toList(),
                 contributionContest.getMinParticipants(),
                 contributionContest.getActualNumberOfParticipants(),
-                contributionContest.getAuthor().getName()
+                contributionContest.getAuthor().getName(),
+                contributionContest.getStartDate(),
+                contributionContest.getEndDate(),
+                contributionContest.getWinner() == null ? null : contributionContest.getWinner().getId(),
+                contributionContest.getWinnerVotes()
         );
     }
 }
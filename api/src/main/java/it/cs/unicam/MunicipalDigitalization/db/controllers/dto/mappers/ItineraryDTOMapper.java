@@ -3,10 +3,13 @@ package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.mappers;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractContent;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractMunicipalElement;
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.ItinerarySummary;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.ItineraryOutputDTO;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.function.Function;
 
 @Service
@@ -34,4 +37,27 @@ public class ItineraryDTOMapper implements Function<AbstractItinerary, Itinerary
                 abstractItinerary.getCreationDate()
         );
     }
+
+    /**
+     * This method maps the projection of an itinerary, with the names of its POIs and of its published contents,
+     * to an ItineraryDTO object.
+     *
+     * @param itinerary the projection of the itinerary
+     * @param pois      the names of the POIs of the itinerary
+     * @param contents  the names of the published contents of the itinerary
+     * @return the ItineraryDTO object
+     */
+    public ItineraryOutputDTO apply(ItinerarySummary itinerary, List<String> pois, List<String> contents) {
+        return new ItineraryOutputDTO(
+                itinerary.getId(),
+                itinerary.getName(),
+                itinerary.getMunicipalityName(),
+                itinerary.getTypes(),
+                itinerary.getDescription(),
+                new Coordinate(itinerary.getX(), itinerary.getY()),
+                pois.toString(),
+                contents.toString(),
+                itinerary.getCreationDate()
+        );
+    }
 }
@@ -4,6 +4,8 @@ import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.MunicipalityOutputDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.function.Function;
@@ -13,8 +15,12 @@ import java.util.function.Function;
  * It implements the Function interface.
  */
 @Service
+@AllArgsConstructor(onConstructor_ = @Autowired)
 public class MunicipalityDTOMapper implements Function<Municipality, MunicipalityOutputDTO> {
 
+    private final POIDTOMapper poiDTOMapper;
+    private final ItineraryDTOMapper itineraryDTOMapper;
+
     @Override
     public MunicipalityOutputDTO apply(Municipality municipality) {
         return new MunicipalityOutputDTO(
@@ -24,12 +30,12 @@ public class MunicipalityDTOMapper implements Function<Municipality, Municipalit
                 municipality.getPOIList()
                         .stream()
                         .filter(poi -> poi.getElementStatus().equals(ElementStatus.PUBLISHED))
-                        .map(new POIDTOMapper())
+                        .map(this.poiDTOMapper)
                         .toList(),
                 municipality.getListOfItineraries()
                         .stream()
                         .filter(itinerary -> itinerary.getElementStatus().equals(ElementStatus.PUBLISHED))
-                        .map(new ItineraryDTOMapper())
+                        .map(this.itineraryDTOMapper)
                         .toList(),
                 municipality.getListOfIUsers()
                         .stream()
@@ -2,10 +2,13 @@ package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.mappers;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractContent;
 import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.Projections.POISummary;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.POIOutputDTO;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -31,4 +34,23 @@ public class POIDTOMapper implements Function<AbstractPOI, POIOutputDTO> {
                 poi.getCreationDate()
         );
     }
+
+    /**
+     * This method maps the projection of a POI, with the names of its published contents, to a POIDTO object.
+     *
+     * @param poi      the projection of the POI
+     * @param contents the names of the published contents of the POI
+     * @return the POIDTO object
+     */
+    public POIOutputDTO apply(POISummary poi, List<String> contents) {
+        return new POIOutputDTO(
+                poi.getId(),
+                poi.getName(),
+                poi.getMunicipalityName(),
+                poi.getPoiType(),
+                new Coordinate(poi.getX(), poi.getY()),
+                contents.toString(),
+                poi.getCreationDate()
+        );
+    }
 }
@@ -0,0 +1,14 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output;
+
+public record CacheStatisticsOutputDTO(
+        long hits,
+        long misses,
+        double hitRate,
+        long evictions,
+        long loads,
+        double averageLoadMillis,
+        long entries,
+        long weight,
+        long maxWeight
+) {
+}
@@ -3,6 +3,7 @@ package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContestType;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -18,7 +19,11 @@ public record ContestOutputDTO(
         List<String> contest_itineraries,
         int minParticipants,
         int actualNumberOfParticipants,
-        String contest_author
+        String contest_author,
+        LocalDateTime contest_startDate,
+        LocalDateTime contest_endDate,
+        Long contest_winner,
+        Integer contest_winnerVotes
 ) {
 
 }
@@ -0,0 +1,12 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
+
+import java.util.Map;
+
+public record FacetCountOutputDTO(
+        SearchType element,
+        long count,
+        Map<String, Long> facet_counts
+) {
+}
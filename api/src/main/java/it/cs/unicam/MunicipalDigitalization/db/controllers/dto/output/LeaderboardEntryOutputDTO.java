@@ -0,0 +1,10 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output;
+
+public record LeaderboardEntryOutputDTO(
+        int rank,
+        Long contribution_id,
+        String title,
+        String author_name,
+        int votes
+) {
+}
@@ -0,0 +1,14 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+import it.cs.unicam.MunicipalDigitalization.api.util.POIType;
+
+public record NearbyPOIOutputDTO(
+        Long poi_id,
+        String poi_name,
+        POIType poiType,
+        Coordinate poi_location,
+        Long municipality_id,
+        double distance
+) {
+}
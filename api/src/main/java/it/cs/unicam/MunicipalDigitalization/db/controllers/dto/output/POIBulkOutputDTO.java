@@ -0,0 +1,10 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output;
+
+import java.util.List;
+
+public record POIBulkOutputDTO(
+        int created,
+        int rejected,
+        List<POIBulkRowOutputDTO> rows
+) {
+}
@@ -0,0 +1,9 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output;
+
+public record POIBulkRowOutputDTO(
+        int row,
+        String poi_name,
+        Long poi_id,
+        String error
+) {
+}
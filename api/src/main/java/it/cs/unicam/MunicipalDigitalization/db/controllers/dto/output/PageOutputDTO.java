@@ -0,0 +1,9 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output;
+
+import java.util.List;
+
+public record PageOutputDTO<T>(
+        List<T> content,
+        String next_cursor
+) {
+}
@@ -0,0 +1,13 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output;
+
+public record QueryStatisticsOutputDTO(
+        String endpoint,
+        long requests,
+        long statements,
+        double averageStatements,
+        long maxStatements,
+        long entityLoads,
+        long flushes,
+        long requestsOverBudget
+) {
+}
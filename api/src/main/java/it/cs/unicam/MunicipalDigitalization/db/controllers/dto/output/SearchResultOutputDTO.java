@@ -0,0 +1,11 @@
+package it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
+
+public record SearchResultOutputDTO(
+        SearchType type,
+        Long id,
+        String name,
+        Long municipality_id
+) {
+}
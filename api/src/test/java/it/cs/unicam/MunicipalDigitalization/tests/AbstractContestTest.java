@@ -0,0 +1,93 @@
+package it.cs.unicam.MunicipalDigitalization.tests;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.Animator;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AuthenticatedTourist;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContestRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.MunicipalRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ParticipationRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.UserRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.VoteRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.ContestLeaderboard;
+import it.cs.unicam.MunicipalDigitalization.db.Services.VoteIngestionService;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class contains the data shared by the tests of the contests that commit their data: a municipality, its
+ * animator, a contest and the users who vote in it. The data, with the votes and the participations of the contest,
+ * is removed after each test.
+ */
+abstract class AbstractContestTest {
+
+    @Autowired
+    protected MunicipalRepository municipalRepository;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ContestRepository contestRepository;
+
+    @Autowired
+    protected VoteRepository voteRepository;
+
+    @Autowired
+    protected ParticipationRepository participationRepository;
+
+    @Autowired
+    protected ContestLeaderboard contestLeaderboard;
+
+    @Autowired
+    protected VoteIngestionService voteIngestionService;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    protected Municipality municipality;
+
+    protected Animator animator;
+
+    protected ContributionContest contest;
+
+    protected final List<AbstractAuthenticatedUser> voters = new ArrayList<>();
+
+    /**
+     * This method creates and saves the municipality, its animator and the users who vote.
+     *
+     * @param name   the name of the municipality and of the animator
+     * @param from   the smallest latitude and longitude of the territory of the municipality
+     * @param to     the largest latitude and longitude of the territory of the municipality
+     * @param voters the number of users who vote
+     */
+    protected void createMunicipality(String name, double from, double to, int voters) {
+        this.municipality = municipalRepository.save(new Municipality(TestFixtures.territory(from, to), name + " Municipality"));
+        this.animator = userRepository.save(new Animator(name, "Animator", this.municipality));
+        for (int i = 0; i < voters; i++) {
+            this.voters.add(userRepository.save(new AuthenticatedTourist(name + " voter " + i, "password", this.municipality)));
+        }
+    }
+
+    @AfterEach
+    public void deleteContestData() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (this.contest != null) {
+                voteRepository.deleteByContestId(this.contest.getId());
+                participationRepository.deleteByContestId(this.contest.getId());
+                contestRepository.deleteById(this.contest.getId());
+                contestRepository.flush();
+                voteIngestionService.removeContest(this.contest.getId());
+            }
+            this.voters.forEach(voter -> userRepository.deleteById(voter.getId()));
+            userRepository.deleteById(this.animator.getId());
+            municipalRepository.deleteById(this.municipality.getId());
+        });
+        contestLeaderboard.rebuild();
+    }
+}
@@ -0,0 +1,487 @@
+package it.cs.unicam.MunicipalDigitalization.tests;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractItinerary;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AuthorizedPOI;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AuthorizedContributor;
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.IdBitmap;
+import it.cs.unicam.MunicipalDigitalization.api.util.POIType;
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
+import it.cs.unicam.MunicipalDigitalization.api.util.TinyLfuCache;
+import it.cs.unicam.MunicipalDigitalization.db.Monitoring.QueryCount;
+import it.cs.unicam.MunicipalDigitalization.db.Monitoring.QueryCounter;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ItineraryRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.MunicipalRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.POIRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.UserRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.FacetIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalitySnapshots;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityVersions;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.NameAutocompleteIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.POISpatialIndex;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.AdminController;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.ItineraryController;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.POIController;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.ItineraryInputDTO;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.POIInputDTO;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.FacetCountOutputDTO;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.SearchResultOutputDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is used to test the uploads of many POIs and itineraries at the same time.
+ * Every upload is sent to the running application, so it is served by its own request thread like in production,
+ * and then every saved element is checked against the data of its own upload. The pages of the published POIs are
+ * checked against the ETag they are returned with, and the cache of the pages is checked on its own. The in-memory
+ * indexes updated by the uploads are checked against the published POIs.
+ * The uploads are committed, so the created data is removed after each test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ConcurrentUploadTest {
+
+    private static final int THREADS = 8;
+
+    private static final int UPLOADS = 32;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MunicipalRepository municipalRepository;
+
+    @Autowired
+    private POIRepository poiRepository;
+
+    @Autowired
+    private ItineraryRepository itineraryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private POISpatialIndex poiSpatialIndex;
+
+    @Autowired
+    private NameAutocompleteIndex nameAutocompleteIndex;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private MunicipalityVersions municipalityVersions;
+
+    @Autowired
+    private MunicipalitySnapshots municipalitySnapshots;
+
+    @Autowired
+    private POIController poiController;
+
+    @Autowired
+    private ItineraryController itineraryController;
+
+    @Autowired
+    private AdminController adminController;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Municipality municipality;
+
+    private AuthorizedContributor user;
+
+    @BeforeEach
+    public void setUp() {
+        this.municipality = new Municipality(TestFixtures.territory(1, 200), "Concurrent Municipality");
+        municipalRepository.save(this.municipality);
+        municipalityVersions.add(this.municipality.getId());
+        this.user = new AuthorizedContributor();
+        this.user.setMunicipality(this.municipality);
+        userRepository.save(this.user);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Municipality saved = municipalRepository.getReferenceById(this.municipality.getId());
+            itineraryRepository.deleteAll(itineraryRepository.findAllByMunicipality(saved));
+            itineraryRepository.flush();
+            for (AbstractPOI poi : poiRepository.findAllByMunicipalityId(saved.getId())) {
+                poiSpatialIndex.removePOI(poi.getId(), saved.getId());
+                poiRepository.delete(poi);
+            }
+            poiRepository.flush();
+            userRepository.deleteById(this.user.getId());
+            municipalRepository.deleteById(saved.getId());
+        });
+        municipalityVersions.remove(this.municipality.getId());
+        nameAutocompleteIndex.removeMunicipality(this.municipality.getId());
+        facetIndex.rebuild();
+    }
+
+    /**
+     * This test method uploads POIs and then itineraries from many threads, and verifies that every itinerary
+     * contains only the POIs of its own upload.
+     */
+    @Test
+    public void uploadPOIsAndItinerariesConcurrently() throws Exception {
+        uploadConcurrently("/v1/poi/upload", i -> new POIInputDTO("Concurrent POI " + i, POIType.Cinema,
+                this.user.getId(), new Coordinate(i + 2, i + 2)));
+
+        List<Long> poiIds = new ArrayList<>();
+        for (int i = 0; i < UPLOADS; i++) {
+            AbstractPOI poi = poiRepository.findByName("Concurrent POI " + i).orElseThrow();
+            assertEquals(new Coordinate(i + 2, i + 2), poi.getCoordinate());
+            assertEquals(this.municipality.getId(), poi.getMunicipality().getId());
+            poiIds.add(poi.getId());
+        }
+
+        uploadConcurrently("/v1/itinerary/upload", i -> new ItineraryInputDTO("Concurrent itinerary " + i,
+                "An itinerary uploaded together with the others", this.user.getId(),
+                List.of(poiIds.get(i), poiIds.get((i + 1) % UPLOADS))));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < UPLOADS; i++) {
+                AbstractItinerary itinerary = itineraryRepository.findByName("Concurrent itinerary " + i).orElseThrow();
+                Set<Long> ids = itinerary.getPOIs().stream().map(AbstractPOI::getId).collect(Collectors.toSet());
+                assertEquals(Set.of(poiIds.get(i), poiIds.get((i + 1) % UPLOADS)), ids);
+                double center = (i + 2 + (i + 1) % UPLOADS + 2) / 2.0;
+                assertEquals(new Coordinate(center, center), itinerary.getCoordinate());
+            }
+        });
+    }
+
+    /**
+     * This test method changes the published POIs of a municipality and increases its data version before the
+     * cached pages are invalidated, and verifies that the page returned with the new ETag contains the new POI and
+     * that the new ETag is then answered with Not Modified.
+     */
+    @Test
+    public void keepETagAndBodyConsistent() throws Exception {
+        uploadConcurrently("/v1/poi/upload", i -> new POIInputDTO("Published POI " + i, POIType.Cinema,
+                this.user.getId(), new Coordinate(i + 2, i + 2)));
+        String url = "/v1/pois/" + this.municipality.getId() + "?size=" + (UPLOADS + 1);
+        ResponseEntity<String> before = restTemplate.getForEntity(url, String.class);
+        assertFalse(before.getBody().contains("Validated POI"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            poiRepository.save(new AuthorizedPOI(municipalRepository.getReferenceById(this.municipality.getId()),
+                    ElementStatus.PUBLISHED, new Coordinate(100, 100), "Validated POI", POIType.Church,
+                    userRepository.getReferenceById(this.user.getId())));
+            municipalityVersions.bump(this.municipality.getId());
+        });
+
+        ResponseEntity<String> after = restTemplate.getForEntity(url, String.class);
+        assertNotEquals(before.getHeaders().getETag(), after.getHeaders().getETag());
+        assertTrue(after.getBody().contains("Validated POI"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(after.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers),
+                String.class).getStatusCode());
+    }
+
+    /**
+     * This test method requests the POIs, the itineraries and the municipalities with their current ETag, and
+     * verifies that they are answered with Not Modified without any statement, and that the same ETag is answered
+     * with the data after a change of the municipality.
+     */
+    @Test
+    public void answerNotModifiedWithoutQueries() {
+        Long id = this.municipality.getId();
+        String etag = MunicipalityVersions.etag(id, municipalityVersions.version(id));
+        assertNotModified(etag, request -> poiController.getPOIsByMunicipalityID(id, null, null, request));
+        assertNotModified(etag, request -> itineraryController.getItinerariesByMunicipalityID(id, null, null, request));
+        String catalogEtag = municipalityVersions.catalogEtag();
+        assertNotModified(catalogEtag, request -> adminController.getMunicipalities(null, null, request));
+
+        transactionTemplate.executeWithoutResult(status -> municipalityVersions.bump(id));
+        ResponseEntity<Object> pois = poiController.getPOIsByMunicipalityID(id, null, null, conditionalRequest(etag));
+        assertNotNull(pois);
+        assertEquals(HttpStatus.OK, pois.getStatusCode());
+        assertEquals(MunicipalityVersions.etag(id, municipalityVersions.version(id)), pois.getHeaders().getETag());
+        assertNotNull(adminController.getMunicipalities(null, null, conditionalRequest(catalogEtag)));
+    }
+
+    /**
+     * This test method requests the view of a municipality with and without gzip, and verifies that the compressed
+     * view has its own encoding and ETag and the same JSON, that a view is never returned for a newer data version,
+     * and which encodings are accepted.
+     */
+    @Test
+    public void serveMunicipalitySnapshots() throws Exception {
+        Long id = this.municipality.getId();
+        waitForSnapshot(id, municipalityVersions.version(id));
+
+        ResponseEntity<Object> plain = adminController.getMunicipality(id, encodingRequest(null, null));
+        ResponseEntity<Object> gzip = adminController.getMunicipality(id, encodingRequest("deflate, gzip;q=0.5", null));
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), gzip.getHeaders().getVary());
+        assertNotEquals(plain.getHeaders().getETag(), gzip.getHeaders().getETag());
+        assertArrayEquals((byte[]) plain.getBody(), gunzip((byte[]) gzip.getBody()));
+        assertTrue(new String((byte[]) plain.getBody()).contains("Concurrent Municipality"));
+
+        assertNull(adminController.getMunicipality(id, encodingRequest("gzip", gzip.getHeaders().getETag())));
+        assertNotNull(adminController.getMunicipality(id, encodingRequest(null, gzip.getHeaders().getETag())));
+        assertNotNull(adminController.getMunicipality(id, encodingRequest("gzip", plain.getHeaders().getETag())));
+
+        transactionTemplate.executeWithoutResult(status -> municipalityVersions.bump(id));
+        long version = municipalityVersions.version(id);
+        MunicipalitySnapshots.Snapshot snapshot = municipalitySnapshots.get(id, version);
+        assertTrue(snapshot == null || snapshot.version() >= version);
+        assertNotEquals(plain.getHeaders().getETag(), waitForSnapshot(id, version).etag());
+
+        assertTrue(MunicipalitySnapshots.acceptsGzip("br, GZIP"));
+        assertTrue(MunicipalitySnapshots.acceptsGzip("*"));
+        assertFalse(MunicipalitySnapshots.acceptsGzip("gzip;q=0, identity"));
+        assertFalse(MunicipalitySnapshots.acceptsGzip("*;q=0.0"));
+        assertFalse(MunicipalitySnapshots.acceptsGzip("deflate"));
+        assertFalse(MunicipalitySnapshots.acceptsGzip(null));
+    }
+
+    /**
+     * This test method publishes POIs with accented names, and verifies that their names are completed from the
+     * first letters without case and accents, and that a POI published again is completed only by its last name.
+     */
+    @Test
+    public void completePublishedNames() {
+        for (String name : List.of("Città Alta", "Cittadella", "Chiesa di San Marco")) {
+            assertEquals(HttpStatus.OK, restTemplate.postForEntity("/v1/poi/upload", new POIInputDTO(name,
+                    POIType.Church, this.user.getId(), new Coordinate(2, 2)), String.class).getStatusCode());
+        }
+        assertEquals(List.of("Città Alta", "Cittadella"), completedNames("citta"));
+        assertEquals(List.of("Città Alta"), completedNames("CITTÀ A"));
+        assertEquals(List.of("Chiesa di San Marco", "Città Alta", "Cittadella"), completedNames("c"));
+        assertEquals(List.of(), completedNames("castello"));
+
+        AbstractPOI poi = poiRepository.findByName("Cittadella").orElseThrow();
+        poi.setName("Castello");
+        nameAutocompleteIndex.addPOI(poi);
+        assertEquals(List.of("Città Alta"), completedNames("citta"));
+        assertEquals(List.of("Castello"), completedNames("cast"));
+
+        nameAutocompleteIndex.remove(SearchType.POI, poi.getId(), this.municipality.getId());
+        assertEquals(List.of(), completedNames("cast"));
+        nameAutocompleteIndex.addPOI(poi);
+        assertEquals(List.of("Castello"), completedNames("cast"));
+    }
+
+    /**
+     * This test method publishes POIs of two types, and verifies the counts of the facet queries, with the precedence
+     * of AND over OR, the parentheses and the values without case, and that the queries not valid are rejected.
+     */
+    @Test
+    public void countPOIsByFacets() throws Exception {
+        uploadConcurrently("/v1/poi/upload", i -> new POIInputDTO("Faceted POI " + i, i % 4 == 0 ? POIType.Church : POIType.Cinema,
+                this.user.getId(), new Coordinate(i + 2, i + 2)));
+        String municipality = FacetIndex.MUNICIPALITY + ":" + this.municipality.getId();
+
+        FacetCountOutputDTO counts = facetIndex.count(SearchType.POI, municipality, FacetIndex.POI_TYPE);
+        assertEquals(UPLOADS, counts.count());
+        assertEquals(Map.of("Church", (long) UPLOADS / 4, "Cinema", (long) UPLOADS * 3 / 4), counts.facet_counts());
+        assertEquals(UPLOADS, facetIndex.count(SearchType.POI, municipality + " AND status:published AND " +
+                "(poiType:church OR poiType:CINEMA)", null).count());
+        assertEquals(UPLOADS / 4, facetIndex.count(SearchType.POI, "poiType:Church AND " + municipality +
+                " OR poiType:Church AND poiType:Cinema", null).count());
+        assertEquals(0, facetIndex.count(SearchType.POI, municipality + " AND status:PENDING", null).count());
+
+        for (String query : List.of(municipality + " AND", "(" + municipality, municipality + ")",
+                "poiType", "contentType:PHOTO", "poiType:Castle", "municipality:first")) {
+            assertThrows(IllegalArgumentException.class, () -> facetIndex.count(SearchType.POI, query, null), query);
+        }
+        assertThrows(IllegalArgumentException.class, () -> facetIndex.count(SearchType.ITINERARY, null, FacetIndex.POI_TYPE));
+    }
+
+    /**
+     * This test method combines two sets of ids with sparse and dense chunks, and verifies that their intersection
+     * and their union contain the same ids as the ones of two sets of the JDK, and that the two sets are not changed.
+     */
+    @Test
+    public void combineIdBitmaps() {
+        LongPredicate inFirst = id -> id < 10_000 || id < 131_072 && id % 100 == 0 || id >= 131_072 && id < 150_000;
+        LongPredicate inSecond = id -> id < 10_000 && id % 7 == 0 || id < 131_072 && id % 150 == 0
+                || id >= 140_000 && id < 160_000 || id == 5_000_000;
+        Set<Long> first = idSet(inFirst);
+        Set<Long> second = idSet(inSecond);
+        IdBitmap firstBitmap = idBitmap(first);
+        IdBitmap secondBitmap = idBitmap(second);
+
+        Set<Long> intersection = new TreeSet<>(first);
+        intersection.retainAll(second);
+        Set<Long> union = new TreeSet<>(first);
+        union.addAll(second);
+        assertIds(intersection, firstBitmap.and(secondBitmap));
+        assertIds(intersection, secondBitmap.and(firstBitmap));
+        assertEquals(intersection.size(), firstBitmap.andSize(secondBitmap));
+        assertEquals(intersection.size(), secondBitmap.andSize(firstBitmap));
+        assertIds(union, firstBitmap.or(secondBitmap));
+        assertIds(union, secondBitmap.or(firstBitmap));
+        assertIds(first, firstBitmap);
+        assertIds(second, secondBitmap);
+    }
+
+    /**
+     * This test method requests some values of a cache many times and then a burst of values requested once, and
+     * verifies that the burst does not evict the values requested often.
+     */
+    @Test
+    public void keepFrequentValuesInCache() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(100, value -> 1);
+        for (int i = 0; i < 99; i++) cache.get(i, () -> "frequent");
+        for (int request = 0; request < 4; request++) {
+            for (int i = 0; i < 99; i++) assertEquals("frequent", cache.get(i, () -> fail("Frequent value evicted")));
+        }
+        for (int i = 1000; i < 1200; i++) cache.get(i, () -> "burst");
+        for (int i = 0; i < 99; i++) assertEquals("frequent", cache.get(i, () -> fail("Frequent value evicted")));
+        assertTrue(cache.statistics().weight() <= 100);
+    }
+
+    /**
+     * This test method invalidates some values of a cache, one of them while it is loading, and verifies that the
+     * invalidated values are loaded again and the other values are kept.
+     */
+    @Test
+    public void dropInvalidatedValuesFromCache() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, value -> 1);
+        cache.get("kept", () -> "kept");
+        cache.get("invalidated", () -> "old");
+        cache.invalidateIf("invalidated"::equals);
+        assertEquals("kept", cache.get("kept", () -> fail("Kept value invalidated")));
+        assertEquals("new", cache.get("invalidated", () -> "new"));
+
+        assertEquals("stale", cache.get("loading", () -> {
+            cache.invalidateIf(key -> key.startsWith("loading"));
+            return "stale";
+        }));
+        assertEquals("fresh", cache.get("loading", () -> "fresh"));
+    }
+
+    /**
+     * This method sends a request with an ETag, and verifies that it is answered with Not Modified without any
+     * statement.
+     *
+     * @param etag     the ETag of the request
+     * @param endpoint the endpoint that answers the request
+     */
+    private static void assertNotModified(String etag, Function<WebRequest, ResponseEntity<Object>> endpoint) {
+        ServletWebRequest request = conditionalRequest(etag);
+        try (QueryCount count = QueryCounter.start()) {
+            assertNull(endpoint.apply(request));
+            assertEquals(0, count.getStatements());
+        }
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), request.getResponse().getStatus());
+    }
+
+    private static ServletWebRequest conditionalRequest(String etag) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    /**
+     * This method waits until the view of a municipality has been built at a data version by the background thread.
+     */
+    private MunicipalitySnapshots.Snapshot waitForSnapshot(Long municipalityId, long version) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            MunicipalitySnapshots.Snapshot snapshot = municipalitySnapshots.get(municipalityId, version);
+            if (snapshot != null) return snapshot;
+            Thread.sleep(100);
+        }
+        return fail("The view of the municipality has not been built");
+    }
+
+    private static ServletWebRequest encodingRequest(String acceptEncoding, String etag) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        if (acceptEncoding != null) request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        if (etag != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    /**
+     * This method returns the ids up to 5000000 that match a condition, in order.
+     */
+    private static Set<Long> idSet(LongPredicate condition) {
+        Set<Long> ids = new TreeSet<>();
+        LongStream.rangeClosed(0, 5_000_000).filter(condition).forEach(ids::add);
+        return ids;
+    }
+
+    private static IdBitmap idBitmap(Set<Long> ids) {
+        IdBitmap bitmap = new IdBitmap();
+        ids.forEach(bitmap::add);
+        return bitmap;
+    }
+
+    /**
+     * This method verifies that a set of ids contains exactly the expected ids, checking also the ids next to them.
+     */
+    private static void assertIds(Set<Long> expected, IdBitmap actual) {
+        assertEquals(expected.size(), actual.size());
+        for (Long id : expected) {
+            assertTrue(actual.contains(id), "Missing id " + id);
+            assertEquals(expected.contains(id + 1), actual.contains(id + 1), "Wrong id " + (id + 1));
+        }
+    }
+
+    /**
+     * This method returns the names completed from a prefix in the municipality of the test, in their order.
+     */
+    private List<String> completedNames(String prefix) {
+        SearchResultOutputDTO[] results = restTemplate.getForObject("/v1/municipality/{id}/autocomplete?prefix={prefix}",
+                SearchResultOutputDTO[].class, this.municipality.getId(), prefix);
+        return Arrays.stream(results).map(SearchResultOutputDTO::name).toList();
+    }
+
+    /**
+     * This method sends the uploads from a pool of threads, all starting together, and verifies that every upload
+     * has been accepted.
+     *
+     * @param url    the url of the upload
+     * @param upload the body of the i-th upload
+     */
+    private void uploadConcurrently(String url, IntFunction<Object> upload) throws Exception {
+        List<Callable<ResponseEntity<String>>> uploads = new ArrayList<>();
+        for (int i = 0; i < UPLOADS; i++) {
+            Object body = upload.apply(i);
+            uploads.add(() -> restTemplate.postForEntity(url, body, String.class));
+        }
+        for (ResponseEntity<String> response : TestFixtures.runConcurrently(THREADS, uploads))
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+}
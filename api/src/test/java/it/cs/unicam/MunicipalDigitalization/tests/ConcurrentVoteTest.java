@@ -0,0 +1,241 @@
+package it.cs.unicam.MunicipalDigitalization.tests;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.Contribution;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.AbstractAuthenticatedUser;
+import it.cs.unicam.MunicipalDigitalization.api.util.ContestType;
+import it.cs.unicam.MunicipalDigitalization.api.util.InvitationType;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.ContributionRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Services.ContestService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.MunicipalService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.ParticipationService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.UserService;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.VoteRequest;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.LeaderboardEntryOutputDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is used to test the votes of many users to the same contribution at the same time.
+ * Every user sends the same vote twice, from different threads, and the tests verify that exactly one vote of
+ * every user is saved and counted, both when every vote is written by its request and when the votes are buffered.
+ * The participations to the contest are tested in the same way.
+ * The votes are committed, so the created data is removed after each test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ConcurrentVoteTest extends AbstractContestTest {
+
+    private static final int THREADS = 8;
+
+    private static final int VOTERS = 32;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ContributionRepository contributionRepository;
+
+    @Autowired
+    private ContestService contestService;
+
+    @Autowired
+    private ParticipationService participationService;
+
+    @Autowired
+    private MunicipalService municipalService;
+
+    @Autowired
+    private UserService userService;
+
+    private Contribution contribution;
+
+    @BeforeEach
+    public void setUp() {
+        createMunicipality("Voting", 300, 400, VOTERS);
+        this.contest = new ContributionContest("Voting contest", "A contest voted by many users", InvitationType.PUBLIC,
+                1, ContestType.PHOTO_CONTEST, this.animator, new ArrayList<>(), new ArrayList<>(), this.municipality);
+        this.contribution = new Contribution("Voted photo", "A photo voted by many users", "photo.png",
+                this.contest, this.animator);
+        contributionRepository.save(this.contribution);
+        this.contest = this.contribution.getContest();
+        contestLeaderboard.rebuild();
+    }
+
+    /**
+     * This test method sends two votes of every user at the same time, and verifies that no vote is lost and no
+     * vote is counted twice, neither in the Database nor in the leaderboard of the contest.
+     */
+    @Test
+    public void voteConcurrently() throws Exception {
+        int accepted = voteConcurrently(vote -> restTemplate.postForEntity("/v1/contest/vote", vote, String.class)
+                .getStatusCode() == HttpStatus.OK);
+        assertEquals(VOTERS, accepted);
+        assertVotesSaved();
+    }
+
+    /**
+     * This test method sends the same votes to the buffered ingestion, and verifies that the queued votes are
+     * written exactly once.
+     */
+    @Test
+    public void voteConcurrentlyBuffered() throws Exception {
+        int accepted = voteConcurrently(vote -> {
+            try {
+                voteIngestionService.submit(vote.getRequestID(), vote.getVoterID());
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        });
+        assertEquals(VOTERS, accepted);
+        voteIngestionService.flush();
+        assertVotesSaved();
+    }
+
+    /**
+     * This test method makes every user participate to the contest twice at the same time, and verifies that one
+     * participation of every user is saved and counted by the contest, and that the other one is rejected.
+     */
+    @Test
+    public void participateConcurrently() throws Exception {
+        List<Callable<String>> participations = new ArrayList<>();
+        for (int i = 0; i < 2 * VOTERS; i++) {
+            Long userId = this.voters.get(i % VOTERS).getId();
+            participations.add(() -> {
+                try {
+                    participationService.participateToAContest(this.contest.getId(), userId);
+                    return "accepted";
+                } catch (IllegalArgumentException e) {
+                    return e.getMessage();
+                }
+            });
+        }
+        List<String> results = TestFixtures.runConcurrently(THREADS, participations);
+        assertEquals(VOTERS, results.stream().filter("accepted"::equals).count());
+        assertEquals(VOTERS, results.stream().filter("User already participated to the contest"::equals).count());
+        assertEquals(VOTERS, contestRepository.findById(this.contest.getId()).orElseThrow().getActualNumberOfParticipants());
+        for (AbstractAuthenticatedUser voter : this.voters)
+            assertTrue(participationService.isParticipant(this.contest.getId(), voter.getId()));
+    }
+
+    /**
+     * This test method deletes a user who participates to the contest, and verifies that the participation is
+     * deleted and removed from the counter of the contest.
+     */
+    @Test
+    public void removeParticipationsOfDeletedUser() {
+        for (AbstractAuthenticatedUser voter : this.voters.subList(0, 2))
+            participationService.participateToAContest(this.contest.getId(), voter.getId());
+        AbstractAuthenticatedUser deleted = this.voters.remove(0);
+        userService.deleteUserById(deleted.getId());
+
+        assertFalse(participationService.isParticipant(this.contest.getId(), deleted.getId()));
+        assertEquals(1, contestRepository.findById(this.contest.getId()).orElseThrow().getActualNumberOfParticipants());
+    }
+
+    /**
+     * This test method rejects a voted contest, and verifies that its votes are deleted and that the buffered
+     * ingestion forgets its voters instead of rejecting the next votes with the same ids.
+     */
+    @Test
+    public void forgetVotersOfRejectedContest() throws Exception {
+        Long contributionId = this.contribution.getId();
+        Long voterId = this.voters.get(0).getId();
+        voteIngestionService.submit(contributionId, voterId);
+        voteIngestionService.flush();
+        assertEquals(1, voteRepository.countByContributionId(contributionId));
+
+        contestService.validateContest(this.contest.getId(), false);
+        voteIngestionService.removeContest(this.contest.getId());
+        this.contest = null;
+        assertEquals(0, voteRepository.countByContributionId(contributionId));
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class,
+                () -> voteIngestionService.submit(contributionId, voterId));
+        assertEquals("Contribution not found", rejected.getMessage());
+    }
+
+    /**
+     * This test method deletes another municipality while a vote is queued, and verifies that the buffered ingestion
+     * keeps the voters of the contest, so the second vote of the user is still rejected and the first one is saved.
+     */
+    @Test
+    public void keepVotersWhenAnotherMunicipalityIsDeleted() throws Exception {
+        Long contributionId = this.contribution.getId();
+        Long voterId = this.voters.get(0).getId();
+        Municipality other = new Municipality(TestFixtures.territory(450, 460), "Deleted Municipality");
+        municipalService.saveMunicipal(other);
+
+        voteIngestionService.submit(contributionId, voterId);
+        municipalService.deleteMunicipalById(other.getId());
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class,
+                () -> voteIngestionService.submit(contributionId, voterId));
+        assertEquals("User already voted", rejected.getMessage());
+        voteIngestionService.flush();
+        assertEquals(1, voteRepository.countByContributionId(contributionId));
+    }
+
+    /**
+     * This test method deletes a user who voted, and verifies that the vote is deleted and removed from the counter
+     * of the contribution and from the leaderboard of the contest.
+     */
+    @Test
+    public void deleteVotesOfDeletedUser() {
+        for (AbstractAuthenticatedUser voter : this.voters.subList(0, 2)) {
+            assertEquals(HttpStatus.OK, restTemplate.postForEntity("/v1/contest/vote",
+                    new VoteRequest(voter.getId(), this.contribution.getId()), String.class).getStatusCode());
+        }
+        AbstractAuthenticatedUser deleted = this.voters.remove(0);
+        userService.deleteUserById(deleted.getId());
+
+        assertFalse(voteRepository.existsByContributionIdAndVoterId(this.contribution.getId(), deleted.getId()));
+        assertEquals(1, voteRepository.countByContributionId(this.contribution.getId()));
+        assertEquals(1, contributionRepository.findById(this.contribution.getId()).orElseThrow().getTotalVotes());
+        assertEquals(1, contestLeaderboard.getLeaderboard(this.contest.getId(), 1).get(0).votes());
+    }
+
+    /**
+     * This method sends two votes of every user from a pool of threads, all starting together.
+     *
+     * @param voting the sending of a vote, which returns true if the vote has been accepted
+     * @return the number of accepted votes
+     */
+    private int voteConcurrently(Predicate<VoteRequest> voting) throws Exception {
+        List<Callable<Boolean>> votes = new ArrayList<>();
+        for (int i = 0; i < 2 * VOTERS; i++) {
+            VoteRequest vote = new VoteRequest(this.voters.get(i % VOTERS).getId(), this.contribution.getId());
+            votes.add(() -> voting.test(vote));
+        }
+        return (int) TestFixtures.runConcurrently(THREADS, votes).stream().filter(accepted -> accepted).count();
+    }
+
+    /**
+     * This method verifies that every user has a single vote, counted once by the contribution and by the
+     * leaderboard of the contest.
+     */
+    private void assertVotesSaved() {
+        assertEquals(VOTERS, contributionRepository.findById(this.contribution.getId()).orElseThrow().getTotalVotes());
+        assertEquals(VOTERS, voteRepository.countByContributionId(this.contribution.getId()));
+        for (AbstractAuthenticatedUser voter : this.voters)
+            assertTrue(voteRepository.existsByContributionIdAndVoterId(this.contribution.getId(), voter.getId()));
+
+        List<LeaderboardEntryOutputDTO> leaderboard = restTemplate.exchange("/v1/contest/" + this.contest.getId() + "/leaderboard?k=1",
+                HttpMethod.GET, null, new ParameterizedTypeReference<List<LeaderboardEntryOutputDTO>>() {
+                }).getBody();
+        assertEquals(List.of(new LeaderboardEntryOutputDTO(1, this.contribution.getId(), "Voted photo", "Voting", VOTERS)),
+                leaderboard);
+    }
+}
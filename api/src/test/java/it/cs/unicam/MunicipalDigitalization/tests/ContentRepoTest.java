@@ -2,6 +2,7 @@ package it.cs.unicam.MunicipalDigitalization.tests;
 
 
 import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AbstractPOI;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AuthorizedContributor;
 import it.cs.unicam.MunicipalDigitalization.api.util.ContentType;
 import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
@@ -58,9 +59,9 @@ public class ContentRepoTest {
     public void createAuthorizedContent() {
         Municipality municipality = createMunicipality(createTerritory());
         AuthorizedContributor user = createContributor(municipality);
-        createPOI(user);
-        createContent(user);
-        assertContentProperties();
+        AbstractPOI poi = createPOI(user);
+        createContent(user, poi);
+        assertContentProperties(poi);
     }
 
     /**
@@ -108,28 +109,33 @@ public class ContentRepoTest {
      * This method creates a POI object and saves it to the database.
      *
      * @param user The AuthorizedContributor who creates the POI.
+     * @return The created POI.
      */
-    private void createPOI(AuthorizedContributor user) {
+    private AbstractPOI createPOI(AuthorizedContributor user) {
         POIInputDTO poiDTO = new POIInputDTO("Monteleone", POIType.Cinema, user.getId(), new Coordinate(1, 1));
         poiUploadingService.uploadPOI(poiDTO);
+        return poiService.getPOIbyName("Monteleone").orElseThrow();
     }
 
     /**
      * This method creates a Content object and saves it to the database.
      *
      * @param user The AuthorizedContributor who creates the Content.
+     * @param poi  The POI the Content refers to.
      */
-    private void createContent(AuthorizedContributor user) {
-        ContentInputDTO contentDTO = new ContentInputDTO("Barcellona", 1L, null, user.getId(), ContentType.PHOTO, "barcellonaspettacolo.png");
+    private void createContent(AuthorizedContributor user, AbstractPOI poi) {
+        ContentInputDTO contentDTO = new ContentInputDTO("Barcellona", poi.getId(), null, user.getId(), ContentType.PHOTO, "barcellonaspettacolo.png");
         uploadingService.uploadContent(contentDTO);
     }
 
     /**
      * This method asserts the properties of the created Content.
+     *
+     * @param poi The POI the Content refers to.
      */
-    private void assertContentProperties() {
+    private void assertContentProperties(AbstractPOI poi) {
         assertEquals(1, contentService.getAllContents().size());
-        assertEquals(1, poiService.getPOIByID(1L).getListOfContents().size());
-        assertEquals(contentService.getContentById(1L), poiService.getPOIByID(1L).getListOfContents().getFirst());
+        assertEquals(1, poiService.getPOIByID(poi.getId()).getListOfContents().size());
+        assertEquals(contentService.getAllContents().getFirst(), poiService.getPOIByID(poi.getId()).getListOfContents().getFirst());
     }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package it.cs.unicam.MunicipalDigitalization.tests;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.Contribution;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.ContributionContest;
+import it.cs.unicam.MunicipalDigitalization.api.util.ContestStatus;
+import it.cs.unicam.MunicipalDigitalization.api.util.ContestType;
+import it.cs.unicam.MunicipalDigitalization.api.util.HashedTimerWheel;
+import it.cs.unicam.MunicipalDigitalization.api.util.InvitationType;
+import it.cs.unicam.MunicipalDigitalization.db.Services.ContestLifecycleService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.ContributionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is used to test the deadlines of the contests. A contest is closed by the timer wheel when its end date
+ * is reached, and the contribution with the most votes is saved as its winner.
+ * The contest is committed, so the created data is removed after each test.
+ */
+@SpringBootTest
+public class ContestLifecycleTest extends AbstractContestTest {
+
+    @Autowired
+    private ContestLifecycleService contestLifecycleService;
+
+    @Autowired
+    private ContributionService contributionService;
+
+    @BeforeEach
+    public void setUp() {
+        createMunicipality("Deadline", 500, 600, 3);
+        this.contest = new ContributionContest("Deadline contest", "A contest closed by its end date", InvitationType.PUBLIC,
+                1, ContestType.PHOTO_CONTEST, this.animator, new ArrayList<>(), new ArrayList<>(), this.municipality);
+        this.contest.setContestStatus(ContestStatus.ON_GOING);
+        this.contest.addContribution(new Contribution("First photo", "The first photo", "first.png", this.contest, this.animator));
+        this.contest.addContribution(new Contribution("Second photo", "The second photo", "second.png", this.contest, this.animator));
+        this.contest = contestRepository.save(this.contest);
+    }
+
+    /**
+     * This test method schedules the end date of a contest, and verifies that the contest is closed and that the
+     * contribution with the most votes is its winner.
+     */
+    @Test
+    public void closeContestAtEndDate() throws InterruptedException {
+        Long first = this.contest.getContributions().get(0).getId();
+        Long second = this.contest.getContributions().get(1).getId();
+        voteRepository.insertVote(first, this.voters.get(0).getId());
+        voteRepository.insertVote(second, this.voters.get(1).getId());
+        voteRepository.insertVote(second, this.voters.get(2).getId());
+
+        this.contest.setEndDate(LocalDateTime.now().plusSeconds(1));
+        contestRepository.save(this.contest);
+        contestLifecycleService.scheduleContest(this.contest);
+        assertEquals(ContestStatus.ON_GOING, contestRepository.findById(this.contest.getId()).orElseThrow().getContestStatus());
+
+        ContributionContest closed = waitForStatus(ContestStatus.CLOSED);
+        assertEquals(2, closed.getWinnerVotes());
+        assertEquals(second, transactionTemplate.execute(status ->
+                contestRepository.findById(this.contest.getId()).orElseThrow().getWinner().getId()));
+    }
+
+    /**
+     * This test method runs the end of a contest before its end date, and verifies that the contest is not closed
+     * and that the buffered ingestion still accepts its votes.
+     */
+    @Test
+    public void keepContestBeforeEndDate() throws InterruptedException {
+        this.contest.setEndDate(LocalDateTime.now().plusHours(1));
+        contestRepository.save(this.contest);
+        contestLifecycleService.closeContest(this.contest.getId());
+        ContributionContest contest = contestRepository.findById(this.contest.getId()).orElseThrow();
+        assertEquals(ContestStatus.ON_GOING, contest.getContestStatus());
+        assertNull(contest.getWinnerVotes());
+
+        Long first = this.contest.getContributions().get(0).getId();
+        voteIngestionService.submit(first, this.voters.get(0).getId());
+        voteIngestionService.flush();
+        assertEquals(1, voteRepository.countByContributionId(first));
+    }
+
+    /**
+     * This test method queues a vote and then starts the close of its contest, and verifies that the queued vote is
+     * written before the close goes on and that the next votes are rejected until the close is given up.
+     */
+    @Test
+    public void writeAcceptedVotesBeforeClose() throws InterruptedException {
+        Long first = this.contest.getContributions().get(0).getId();
+        voteIngestionService.submit(first, this.voters.get(0).getId());
+        voteIngestionService.stopVoting(this.contest.getId());
+        assertEquals(1, voteRepository.countByContributionId(first));
+
+        Long voterId = this.voters.get(1).getId();
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class,
+                () -> voteIngestionService.submit(first, voterId));
+        assertEquals("Contest is closed", rejected.getMessage());
+
+        voteIngestionService.resumeVoting(this.contest.getId());
+        voteIngestionService.submit(first, voterId);
+        voteIngestionService.flush();
+        assertEquals(2, voteRepository.countByContributionId(first));
+    }
+
+    /**
+     * This test method closes a contest, and verifies that its contributions can no longer be voted, neither by a
+     * request nor by the buffered ingestion.
+     */
+    @Test
+    public void rejectVotesAfterClose() {
+        Long first = this.contest.getContributions().get(0).getId();
+        contributionService.voteContribution(first, this.voters.get(0).getId());
+        this.contest.setEndDate(LocalDateTime.now().minusSeconds(1));
+        contestRepository.save(this.contest);
+        contestLifecycleService.closeContest(this.contest.getId());
+
+        Long voterId = this.voters.get(1).getId();
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class,
+                () -> contributionService.voteContribution(first, voterId));
+        assertEquals("Contest is closed", rejected.getMessage());
+        rejected = assertThrows(IllegalArgumentException.class, () -> voteIngestionService.submit(first, voterId));
+        assertEquals("Contest is closed", rejected.getMessage());
+        assertEquals(1, voteRepository.countByContributionId(first));
+        assertEquals(1, contestRepository.findById(this.contest.getId()).orElseThrow().getWinnerVotes());
+    }
+
+    /**
+     * This test method schedules a task too far in the future to be measured in nanoseconds, and verifies that it
+     * waits instead of running at once.
+     */
+    @Test
+    public void keepFarDeadlineWaiting() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        HashedTimerWheel timerWheel = new HashedTimerWheel("far-deadline-timer", 1, 8, Runnable::run);
+        timerWheel.start();
+        try {
+            timerWheel.schedule(runs::incrementAndGet, Long.MAX_VALUE);
+            Thread.sleep(100);
+            assertEquals(0, runs.get());
+            assertEquals(1, timerWheel.size());
+        } finally {
+            timerWheel.stop();
+        }
+    }
+
+    private ContributionContest waitForStatus(ContestStatus contestStatus) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            ContributionContest current = contestRepository.findById(this.contest.getId()).orElseThrow();
+            if (current.getContestStatus() == contestStatus) return current;
+            Thread.sleep(100);
+        }
+        return fail("The contest has not reached the status " + contestStatus);
+    }
+}
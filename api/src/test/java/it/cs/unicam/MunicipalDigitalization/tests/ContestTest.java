@@ -94,7 +94,7 @@ public class ContestTest {
 
         List<Long> pois = getPoiIds();
 
-        ContestInputDTO contestInputDTO = new ContestInputDTO("Concorsooooo", "Concorso per la città di Ancona", animator.getId(), InvitationType.PUBLIC, ContestType.PHOTO_CONTEST, pois, null, 1);
+        ContestInputDTO contestInputDTO = new ContestInputDTO("Concorsooooo", "Concorso per la città di Ancona", animator.getId(), InvitationType.PUBLIC, ContestType.PHOTO_CONTEST, pois, null, 1, null, null);
 
         contestUploadingService.uploadContest(contestInputDTO);
 
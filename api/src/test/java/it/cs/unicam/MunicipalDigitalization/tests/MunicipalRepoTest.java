@@ -2,18 +2,23 @@ package it.cs.unicam.MunicipalDigitalization.tests;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
 import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.MunicipalRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityTerritoryIndex;
 import it.cs.unicam.MunicipalDigitalization.db.Services.MunicipalService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * This class tests the Municipality repository.
@@ -25,6 +30,9 @@ public class MunicipalRepoTest {
     @Autowired
     private MunicipalService municipalRepository;
 
+    @Autowired
+    private MunicipalRepository municipalities;
+
     private Municipality municipality;
 
     @BeforeEach
@@ -88,4 +96,88 @@ public class MunicipalRepoTest {
         assertTrue(municipalRepository.getMunicipalByName("Municipal1").isPresent());
     }
 
+    /**
+     * Test the add of a Municipality that overlaps another one and of a Municipality that only shares a border.
+     */
+    @Test
+    public void testCollidingMunicipal() {
+
+        //A square that crosses the border of the Municipality
+        Municipality overlapping = new Municipality(new ArrayList<>(List.of(new Coordinate(35, 22),
+                new Coordinate(45, 22), new Coordinate(45, 28), new Coordinate(35, 28))), "Overlapping");
+        assertThrows(IllegalArgumentException.class, () -> municipalRepository.saveMunicipal(overlapping));
+
+        //A triangle that shares a side with the Municipality
+        Municipality neighbour = new Municipality(new ArrayList<>(List.of(new Coordinate(100, 1),
+                new Coordinate(2, 33), new Coordinate(2, 1))), "Neighbour");
+        assertDoesNotThrow(() -> municipalRepository.saveMunicipal(neighbour));
+
+        //Two squares that share a part of two sides, so no side crosses the other square and no vertex is inside it
+        Municipality left = new Municipality(new ArrayList<>(List.of(new Coordinate(700, 700),
+                new Coordinate(720, 700), new Coordinate(720, 720), new Coordinate(700, 720))), "Left");
+        assertDoesNotThrow(() -> municipalRepository.saveMunicipal(left));
+        Municipality halfOverlapping = new Municipality(new ArrayList<>(List.of(new Coordinate(710, 700),
+                new Coordinate(730, 700), new Coordinate(730, 720), new Coordinate(710, 720))), "Half Overlapping");
+        assertThrows(IllegalArgumentException.class, () -> municipalRepository.saveMunicipal(halfOverlapping));
+
+        //The same square of another Municipality
+        Municipality same = new Municipality(new ArrayList<>(List.of(new Coordinate(700, 700),
+                new Coordinate(720, 700), new Coordinate(720, 720), new Coordinate(700, 720))), "Same");
+        assertThrows(IllegalArgumentException.class, () -> municipalRepository.saveMunicipal(same));
+
+        //A square that only touches a corner of the other square
+        Municipality corner = new Municipality(new ArrayList<>(List.of(new Coordinate(720, 720),
+                new Coordinate(740, 720), new Coordinate(740, 740), new Coordinate(720, 740))), "Corner");
+        assertDoesNotThrow(() -> municipalRepository.saveMunicipal(corner));
+    }
+
+    /**
+     * Test the lookup of the Municipality that contains a point, on the borders of the territories and while the
+     * territories are added, removed and moved. The index is not shared with the application and runs without a
+     * transaction, so every change is applied at once. A change is packed in the tree after two changes.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testFindMunicipalAtPoint() {
+        MunicipalityTerritoryIndex index = new MunicipalityTerritoryIndex(municipalities,
+                new MockEnvironment().withProperty("spatial.territory-rebuild-threshold", "2"));
+        index.addMunicipality(indexedMunicipality(1L, new Coordinate(0, 0), new Coordinate(10, 0),
+                new Coordinate(10, 10), new Coordinate(0, 10)));
+        assertEquals(Optional.of(1L), index.findMunicipalityAt(5, 5));
+        index.addMunicipality(indexedMunicipality(2L, new Coordinate(10, 0), new Coordinate(20, 0),
+                new Coordinate(20, 10), new Coordinate(10, 10)));
+        index.addMunicipality(indexedMunicipality(3L, new Coordinate(30, 0), new Coordinate(40, 0),
+                new Coordinate(30, 10)));
+
+        //The lower and left borders belong to a territory, the upper and right ones do not
+        assertEquals(Optional.of(1L), index.findMunicipalityAt(0, 5));
+        assertEquals(Optional.of(1L), index.findMunicipalityAt(5, 0));
+        assertEquals(Optional.of(2L), index.findMunicipalityAt(10, 5));
+        assertEquals(Optional.empty(), index.findMunicipalityAt(20, 5));
+        assertEquals(Optional.empty(), index.findMunicipalityAt(5, 10));
+        assertEquals(Optional.empty(), index.findMunicipalityAt(-0.001, 5));
+
+        //A point in the bounding box of the triangle but outside of it
+        assertEquals(Optional.of(3L), index.findMunicipalityAt(34.9, 5));
+        assertEquals(Optional.empty(), index.findMunicipalityAt(38, 8));
+
+        index.removeMunicipality(1L);
+        assertEquals(Optional.empty(), index.findMunicipalityAt(5, 5));
+        assertEquals(Optional.of(2L), index.findMunicipalityAt(15, 5));
+        index.addMunicipality(indexedMunicipality(2L, new Coordinate(100, 100), new Coordinate(110, 100),
+                new Coordinate(110, 110), new Coordinate(100, 110)));
+        assertEquals(Optional.empty(), index.findMunicipalityAt(15, 5));
+        assertEquals(Optional.of(2L), index.findMunicipalityAt(105, 105));
+        assertEquals(Optional.of(3L), index.findMunicipalityAt(31, 1));
+    }
+
+    /**
+     * This method creates a Municipality with an id, without saving it.
+     */
+    private static Municipality indexedMunicipality(Long id, Coordinate... territory) {
+        Municipality municipality = new Municipality(new ArrayList<>(List.of(territory)), "Indexed " + id);
+        municipality.setId(id);
+        return municipality;
+    }
+
 }
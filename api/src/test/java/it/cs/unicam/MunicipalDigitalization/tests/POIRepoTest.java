@@ -1,20 +1,44 @@
 package it.cs.unicam.MunicipalDigitalization.tests;
 
 import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.AuthorizedPOI;
 import it.cs.unicam.MunicipalDigitalization.api.model.users.AuthorizedContributor;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.Contributor;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.Curator;
 import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
 import it.cs.unicam.MunicipalDigitalization.api.util.ElementStatus;
 import it.cs.unicam.MunicipalDigitalization.api.util.POIType;
+import it.cs.unicam.MunicipalDigitalization.api.util.SearchType;
+import it.cs.unicam.MunicipalDigitalization.db.Monitoring.QueryCount;
+import it.cs.unicam.MunicipalDigitalization.db.Monitoring.QueryCounter;
 import it.cs.unicam.MunicipalDigitalization.db.Repository.MunicipalRepository;
 import it.cs.unicam.MunicipalDigitalization.db.Repository.POIRepository;
 import it.cs.unicam.MunicipalDigitalization.db.Repository.UserRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.POISpatialIndex;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Mediators.POIMediator;
+import it.cs.unicam.MunicipalDigitalization.db.Services.MunicipalService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.SearchService;
+import it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices.POIBulkUploadingService;
 import it.cs.unicam.MunicipalDigitalization.db.Services.uploadingServices.POIUploadingService;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.POIController;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.Requests.ValidateRequest;
 import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.input.POIInputDTO;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.NearbyPOIOutputDTO;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.POIBulkOutputDTO;
+import it.cs.unicam.MunicipalDigitalization.db.controllers.dto.output.SearchResultOutputDTO;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -41,6 +65,24 @@ public class POIRepoTest {
     @Autowired
     private POIUploadingService uploadingService;
 
+    @Autowired
+    private POIBulkUploadingService bulkUploadingService;
+
+    @Autowired
+    private POIController poiController;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private POIMediator poiMediator;
+
+    @Autowired
+    private MunicipalService municipalityService;
+
     /**
      * This test method creates an authorized POI and verifies its creation.
      */
@@ -68,6 +110,224 @@ public class POIRepoTest {
         });
     }
 
+    /**
+     * This test method attempts to create the same POI twice, with a different case in the name,
+     * and expects an IllegalArgumentException.
+     */
+    @Test
+    public void createDuplicatedPOI() {
+        Municipality municipality = createMunicipality(createTerritory());
+        AuthorizedContributor user = createUser(municipality);
+        uploadingService.uploadPOI(new POIInputDTO("Monteleone", POIType.Cinema, user.getId(), new Coordinate(1, 1)));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                uploadingService.uploadPOI(new POIInputDTO("MONTELEONE", POIType.Cinema, user.getId(), new Coordinate(1, 1))));
+        uploadingService.uploadPOI(new POIInputDTO("Monteleone", POIType.Church, user.getId(), new Coordinate(1, 1)));
+    }
+
+    /**
+     * This test method lists the POIs of a municipality and verifies that the number of statements does not depend
+     * on the number of POIs.
+     */
+    @Test
+    public void listPOIsWithBoundedQueries() {
+        Municipality municipality = createMunicipality(createTerritory());
+        AuthorizedContributor user = createUser(municipality);
+        for (int i = 1; i <= 10; i++)
+            uploadingService.uploadPOI(new POIInputDTO("Monteleone " + i, POIType.Cinema, user.getId(), new Coordinate(i, i)));
+        poiService.flush();
+
+        try (QueryCount count = QueryCounter.start()) {
+            poiController.getPOIsByMunicipalityID(municipality.getId(), null, null,
+                    new ServletWebRequest(new MockHttpServletRequest()));
+            assertTrue(count.getStatements() <= 2);
+        }
+    }
+
+    /**
+     * This test method uploads a POI to a municipality that already has POIs, and verifies that the POIs of the
+     * municipality and of the author are not loaded and that the upload is written with a single flush.
+     */
+    @Test
+    public void uploadPOIWithoutLoadingTheOtherPOIs() {
+        Municipality municipality = createMunicipality(createTerritory());
+        AuthorizedContributor user = createUser(municipality);
+        for (int i = 1; i <= 10; i++)
+            uploadingService.uploadPOI(new POIInputDTO("Monteleone " + i, POIType.Cinema, user.getId(), new Coordinate(i, i)));
+        entityManager.flush();
+        entityManager.clear();
+
+        try (QueryCount count = QueryCounter.start()) {
+            uploadingService.uploadPOI(new POIInputDTO("Monteleone", POIType.Cinema, user.getId(), new Coordinate(20, 20)));
+            assertFalse(Hibernate.isInitialized(municipalService.getReferenceById(municipality.getId()).getListOfPOIs()));
+            assertFalse(Hibernate.isInitialized(userService.getReferenceById(user.getId()).getAuthoredPOIs()));
+            assertTrue(count.getFlushes() <= 1);
+        }
+        entityManager.flush();
+        assertEquals(11, municipalService.getReferenceById(municipality.getId()).getListOfPOIs().size());
+    }
+
+    /**
+     * This test method imports a CSV file with valid and not valid rows, and verifies that only the valid rows
+     * are saved and that every other row is reported with its error.
+     */
+    @Test
+    public void bulkUploadPOIs() {
+        Municipality municipality = createMunicipality(createTerritory());
+        AuthorizedContributor user = createUser(municipality);
+        String csv = "poi_name,poiType,poi_author,x,y\n" +
+                "Monteleone," + POIType.Cinema + "," + user.getId() + ",1,1\n" +
+                "MONTELEONE," + POIType.Cinema + "," + user.getId() + ",1,1\n" +
+                "Castelraimondo," + POIType.Cinema + "," + user.getId() + ",300,300\n" +
+                "Pioraco," + POIType.Cinema + ",-1,2,2\n" +
+                "Muccia," + POIType.Church + "," + user.getId() + ",2,2\n";
+
+        POIBulkOutputDTO report = bulkUploadingService.uploadPOIs(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                POIBulkUploadingService.TEXT_CSV);
+
+        assertEquals(2, report.created());
+        assertEquals(3, report.rejected());
+        assertEquals(poiService.findByName("Monteleone").get().getId(), report.rows().get(0).poi_id());
+        assertEquals("POI already exists", report.rows().get(1).error());
+        assertNotNull(report.rows().get(2).error());
+        assertEquals("The author does not exist", report.rows().get(3).error());
+        assertTrue(poiService.findByName("Muccia").isPresent());
+        assertTrue(poiService.findByName("Castelraimondo").isEmpty());
+    }
+
+    /**
+     * This test method searches the published POIs by the first letters of their names, and verifies that every
+     * word of the query must match.
+     */
+    @Test
+    public void searchPOIsByPrefix() {
+        Municipality municipality = createMunicipality(createTerritory());
+        AuthorizedContributor user = createUser(municipality);
+        uploadingService.uploadPOI(new POIInputDTO("Teatro Monteleone", POIType.Cinema, user.getId(), new Coordinate(1, 1)));
+        uploadingService.uploadPOI(new POIInputDTO("Teatro Montecassiano", POIType.Cinema, user.getId(), new Coordinate(2, 2)));
+        uploadingService.uploadPOI(new POIInputDTO("Chiesa di Pioraco", POIType.Church, user.getId(), new Coordinate(3, 3)));
+
+        assertEquals(List.of("Teatro Montecassiano", "Teatro Monteleone"), searchedNames("mont", municipality.getId(), null));
+        assertEquals(List.of("Teatro Monteleone"), searchedNames("TEATRO montel", municipality.getId(), null));
+        assertEquals(List.of(), searchedNames("montel pioraco", municipality.getId(), null));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("*:()", null, null, 10));
+    }
+
+    /**
+     * This test method searches the same words in two municipalities, and verifies that the results are limited to
+     * the municipality and to the type of the query.
+     */
+    @Test
+    public void searchPOIsInScope() {
+        Municipality first = createMunicipality(createTerritory());
+        Municipality second = createMunicipality(List.of(new Coordinate(300, 300), new Coordinate(300, 400),
+                new Coordinate(400, 400), new Coordinate(400, 300)));
+        uploadingService.uploadPOI(new POIInputDTO("Teatro Monteleone", POIType.Cinema, createUser(first).getId(), new Coordinate(1, 1)));
+        uploadingService.uploadPOI(new POIInputDTO("Teatro Lauro Rossi", POIType.Cinema, createUser(second).getId(), new Coordinate(301, 301)));
+
+        List<SearchResultOutputDTO> results = searchService.search("teatro", second.getId(), null, 10);
+        assertEquals(1, results.size());
+        assertEquals("Teatro Lauro Rossi", results.get(0).name());
+        assertEquals(second.getId(), results.get(0).municipality_id());
+        assertEquals(SearchType.POI, results.get(0).type());
+        assertEquals(2, searchService.search("teatro", null, SearchType.POI, 10).stream()
+                .filter(result -> result.municipality_id().equals(first.getId()) || result.municipality_id().equals(second.getId()))
+                .count());
+        assertEquals(List.of(), searchedNames("teatro", first.getId(), SearchType.ITINERARY));
+    }
+
+    /**
+     * This test method validates and rejects pending POIs, and deletes their municipality, and verifies that only
+     * the published POIs are found.
+     */
+    @Test
+    public void searchOnlyPublishedPOIs() {
+        Municipality municipality = createMunicipality(createTerritory());
+        Contributor contributor = userService.save(new Contributor("Search", "Contributor", municipality));
+        Curator curator = userService.save(new Curator("Search", "Curator", municipality));
+        uploadingService.uploadPOI(new POIInputDTO("Teatro Monteleone", POIType.Cinema, contributor.getId(), new Coordinate(1, 1)));
+        uploadingService.uploadPOI(new POIInputDTO("Teatro Montecassiano", POIType.Cinema, contributor.getId(), new Coordinate(2, 2)));
+        Long accepted = poiService.findByName("Teatro Monteleone").orElseThrow().getId();
+        Long rejected = poiService.findByName("Teatro Montecassiano").orElseThrow().getId();
+        assertEquals(List.of(), searchedNames("teatro", municipality.getId(), null));
+
+        poiMediator.validatePOI(new ValidateRequest(curator.getId(), accepted, true));
+        poiMediator.validatePOI(new ValidateRequest(curator.getId(), rejected, false));
+        assertEquals(List.of("Teatro Monteleone"), searchedNames("teatro", municipality.getId(), null));
+
+        municipalityService.deleteMunicipalById(municipality.getId());
+        assertEquals(List.of(), searchedNames("teatro", municipality.getId(), null));
+    }
+
+    /**
+     * This test method finds the published POIs nearest to a point, in one municipality and between two of them,
+     * and verifies the order, the limit, the radius including the POIs at its exact distance and the POIs on the
+     * border of a grid. The index is not shared with the application and runs without a transaction, so every
+     * change is applied at once.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void findNearbyPOIs() {
+        POISpatialIndex index = new POISpatialIndex(poiService, municipalService, new MockEnvironment()
+                .withProperty("spatial.poi-grid-resolution", "4").withProperty("spatial.near-max-results", "3"));
+        Municipality first = indexedMunicipality(1L, 0, 10);
+        Municipality second = indexedMunicipality(2L, 20, 30);
+        index.addPOI(indexedPOI(11L, first, ElementStatus.PUBLISHED, 1, 1));
+        index.addPOI(indexedPOI(12L, first, ElementStatus.PUBLISHED, 2, 2));
+        index.addPOI(indexedPOI(13L, first, ElementStatus.PUBLISHED, 10, 10));
+        index.addPOI(indexedPOI(14L, first, ElementStatus.PENDING, 5, 5));
+        index.addPOI(indexedPOI(21L, second, ElementStatus.PUBLISHED, 20, 5));
+
+        List<NearbyPOIOutputDTO> nearest = index.findNearby(0, 0, null, null);
+        assertEquals(List.of(11L, 12L, 13L), nearbyIds(nearest));
+        assertEquals(Math.sqrt(2), nearest.get(0).distance(), 1e-9);
+        assertEquals(List.of(12L), nearbyIds(index.findNearby(5, 5, null, 1)));
+        assertEquals(List.of(11L, 12L), nearbyIds(index.findNearby(1, 1, Math.sqrt(2), null)));
+        assertEquals(List.of(11L), nearbyIds(index.findNearby(1, 1, 0.0, null)));
+        assertEquals(List.of(21L), nearbyIds(index.findNearby(15, 5, 5.0, null)));
+        assertEquals(List.of(21L, 13L), nearbyIds(index.findNearby(16, 5, null, 2)));
+        assertEquals(List.of(), nearbyIds(index.findNearby(100, 100, 10.0, null)));
+
+        assertThrows(IllegalArgumentException.class, () -> index.findNearby(0, 0, -1.0, null));
+        assertThrows(IllegalArgumentException.class, () -> index.findNearby(0, 0, Double.NaN, null));
+        assertThrows(IllegalArgumentException.class, () -> index.findNearby(0, 0, null, 0));
+
+        index.removePOI(11L, first.getId());
+        assertEquals(List.of(12L), nearbyIds(index.findNearby(0, 0, null, 1)));
+    }
+
+    /**
+     * This method returns the names of the elements found by a search, in alphabetical order.
+     */
+    private List<String> searchedNames(String query, Long municipalityId, SearchType type) {
+        return searchService.search(query, municipalityId, type, 10).stream()
+                .map(SearchResultOutputDTO::name).sorted().toList();
+    }
+
+    private static List<Long> nearbyIds(List<NearbyPOIOutputDTO> pois) {
+        return pois.stream().map(NearbyPOIOutputDTO::poi_id).toList();
+    }
+
+    /**
+     * This method creates a Municipality with an id and a square territory, without saving it.
+     */
+    private static Municipality indexedMunicipality(Long id, double from, double to) {
+        Municipality municipality = new Municipality(new ArrayList<>(List.of(new Coordinate(from, 0),
+                new Coordinate(to, 0), new Coordinate(to, 10), new Coordinate(from, 10))), "Indexed " + id);
+        municipality.setId(id);
+        return municipality;
+    }
+
+    /**
+     * This method creates a POI with an id, without saving it.
+     */
+    private static AuthorizedPOI indexedPOI(Long id, Municipality municipality, ElementStatus status, double x, double y) {
+        AuthorizedPOI poi = new AuthorizedPOI(municipality, status, new Coordinate(x, y), "Indexed POI " + id,
+                POIType.Church, null);
+        poi.setId(id);
+        return poi;
+    }
+
     /**
      * This method creates a Municipality object and saves it to the database.
      *
@@ -0,0 +1,62 @@
+package it.cs.unicam.MunicipalDigitalization.tests;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * This class contains the data and the drivers shared by the tests that commit their data or run many requests
+ * at the same time.
+ */
+final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /**
+     * This method creates a list of Coordinates that define a square territory. Every test that commits its data
+     * uses its own square, so its municipality does not overlap the municipalities of the other tests.
+     *
+     * @param from the smallest latitude and longitude of the territory
+     * @param to   the largest latitude and longitude of the territory
+     * @return A list of Coordinates.
+     */
+    static List<Coordinate> territory(double from, double to) {
+        List<Coordinate> coordinates = new ArrayList<>();
+        coordinates.add(new Coordinate(from, from));
+        coordinates.add(new Coordinate(from, to));
+        coordinates.add(new Coordinate(to, to));
+        coordinates.add(new Coordinate(to, from));
+        return coordinates;
+    }
+
+    /**
+     * This method runs the tasks from a pool of threads, all starting together, and waits for all of them.
+     *
+     * @param threads the number of threads of the pool
+     * @param tasks   the tasks to run
+     * @param <T>     the type of the results of the tasks
+     * @return the results of the tasks, in the same order
+     */
+    static <T> List<T> runConcurrently(int threads, List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) results.add(future.get(60, TimeUnit.SECONDS));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -69,8 +69,7 @@ public class UserRepoTest {
 
     @BeforeEach
     public void setUp() {
-        muni = new Municipality();
-        muni.setName("Municipality");
+        muni = new Municipality(TestFixtures.territory(800, 900), "Municipality");
         municipalityService.saveMunicipal(muni);
     }
 
@@ -0,0 +1,101 @@
+package it.cs.unicam.MunicipalDigitalization.benchmarks;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+import it.cs.unicam.MunicipalDigitalization.api.util.MatchingAlgorithms;
+import it.cs.unicam.MunicipalDigitalization.api.util.Spatial.Polygon;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the geometry of a single territory, by its number of vertices: the sorting of the
+ * coordinates, the construction of the polygon, the containment check of a coordinate and the overlap check
+ * between two territories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+    private static final int POINTS = 1024;
+
+    @Param({"10", "100", "1000", "5000"})
+    private int vertices;
+
+    private List<Coordinate> territory;
+    private List<Coordinate> shuffledTerritory;
+    private Polygon polygon;
+    private Polygon adjacent;
+    private Polygon overlapping;
+    private Coordinate[] points;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        this.territory = SyntheticData.territory(0, 0, 1, this.vertices, random);
+        this.shuffledTerritory = SyntheticData.shuffled(this.territory, random);
+        this.polygon = Polygon.of(this.territory);
+        this.adjacent = Polygon.of(SyntheticData.territory(1.5, 1.5, 1, this.vertices, random));
+        this.overlapping = Polygon.of(SyntheticData.territory(1.2, 0, 1, this.vertices, random));
+        this.points = SyntheticData.points(0, 0, 1, POINTS, random);
+    }
+
+    private Coordinate nextPoint() {
+        return this.points[this.next++ & (POINTS - 1)];
+    }
+
+    /**
+     * The coordinates are copied before the sorting, so every invocation sorts the same shuffled territory.
+     */
+    @Benchmark
+    public List<Coordinate> sortCoordinates() {
+        List<Coordinate> coordinates = new ArrayList<>(this.shuffledTerritory);
+        MatchingAlgorithms.sortCoordinates(coordinates);
+        return coordinates;
+    }
+
+    @Benchmark
+    public Polygon buildTerritoryPolygon() {
+        return Polygon.ofTerritory(this.shuffledTerritory);
+    }
+
+    /**
+     * This is the check done by POIUploadingService.checkCoordinate when the municipality is in the territory index.
+     */
+    @Benchmark
+    public boolean checkCoordinateIndexed() {
+        Coordinate point = nextPoint();
+        return this.polygon.contains(point.getX(), point.getY());
+    }
+
+    /**
+     * This is the check done by POIUploadingService.checkCoordinate when the municipality is not yet in the
+     * territory index, so the polygon is built from the entity.
+     */
+    @Benchmark
+    public boolean checkCoordinateFallback() {
+        Coordinate point = nextPoint();
+        return Polygon.of(this.territory).contains(point.getX(), point.getY());
+    }
+
+    /**
+     * The two territories are placed on a diagonal, so their bounding boxes intersect but the territories do not
+     * overlap and all the checks are run.
+     */
+    @Benchmark
+    public boolean overlapsAdjacent() {
+        return this.polygon.overlaps(this.adjacent);
+    }
+
+    @Benchmark
+    public boolean overlapsOverlapping() {
+        return this.polygon.overlaps(this.overlapping);
+    }
+}
@@ -0,0 +1,149 @@
+package it.cs.unicam.MunicipalDigitalization.benchmarks;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
+import it.cs.unicam.MunicipalDigitalization.api.model.elements.*;
+import it.cs.unicam.MunicipalDigitalization.api.model.users.Contributor;
+import it.cs.unicam.MunicipalDigitalization.api.util.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the duplicate checks of {@link MatchingAlgorithms}, by the number of elements already saved.
+ * The checked element is never similar to a saved one, so every check scans the whole list, which is the case of
+ * every successful upload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarityBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private List<AbstractPOI> pois;
+    private List<AbstractItinerary> itineraries;
+    private List<AbstractContent> contents;
+    private List<Municipality> municipalities;
+    private List<ContributionContest> contests;
+    private List<Contribution> contributions;
+    private Set<String> poiKeys;
+
+    private AbstractPOI newPOI;
+    private AbstractItinerary newItinerary;
+    private AbstractContent newContent;
+    private Municipality newMunicipality;
+    private ContributionContest newContest;
+    private Contribution newContribution;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Municipality municipality = new Municipality(SyntheticData.territory(0, 0, 1, 100, random), "Camerino");
+        municipality.setId(1L);
+        Contributor author = new Contributor("Author", "password", municipality);
+        POIType[] types = POIType.values();
+
+        this.pois = new ArrayList<>(this.size);
+        this.itineraries = new ArrayList<>(this.size);
+        this.contents = new ArrayList<>(this.size);
+        this.municipalities = new ArrayList<>(this.size);
+        this.contests = new ArrayList<>(this.size);
+        this.contributions = new ArrayList<>(this.size);
+        this.poiKeys = new HashSet<>();
+        for (int i = 0; i < this.size; i++) {
+            AbstractPOI poi = poi(municipality, author, "POI " + i, types[i % types.length], random, i);
+            this.pois.add(poi);
+            this.poiKeys.add(MatchingAlgorithms.poiDuplicateKey(poi));
+            AbstractItinerary itinerary = itinerary(municipality, author, "Itinerary " + i, random, i);
+            this.itineraries.add(itinerary);
+            this.contents.add(content(poi, itinerary, author, "Content " + i));
+            this.municipalities.add(new Municipality(SyntheticData.territory(2 * i, 0, 1, 10, random), "Municipality " + i));
+            ContributionContest contest = contest(municipality, author, itinerary, poi);
+            this.contests.add(contest);
+            this.contributions.add(new Contribution("Contribution " + i, "Description", "Text " + i, contest, author));
+        }
+
+        this.newPOI = poi(municipality, author, "New POI", types[0], random, this.size);
+        this.newItinerary = itinerary(municipality, author, "New itinerary", random, this.size);
+        this.newContent = content(this.newPOI, this.newItinerary, author, "New content");
+        this.newMunicipality = new Municipality(SyntheticData.territory(-2, 0, 1, 10, random), "New municipality");
+        this.newContest = contest(municipality, author, this.newItinerary, this.newPOI);
+        this.newContribution = new Contribution("New contribution", "Description", "New text", this.contests.get(0), author);
+    }
+
+    private static AbstractPOI poi(Municipality municipality, Contributor author, String name, POIType type,
+                                   Random random, int id) {
+        AbstractPOI poi = new AuthorizedPOI(municipality, ElementStatus.PUBLISHED,
+                new Coordinate(random.nextDouble(), random.nextDouble()), name, type, author);
+        poi.setId((long) id + 1);
+        return poi;
+    }
+
+    private static AbstractItinerary itinerary(Municipality municipality, Contributor author, String name,
+                                               Random random, int id) {
+        AbstractItinerary itinerary = new AuthorizedItinerary(municipality, ElementStatus.PUBLISHED,
+                new Coordinate(random.nextDouble(), random.nextDouble()), name, new ArrayList<>(), "Culture",
+                "Description", author);
+        itinerary.setId((long) id + 1);
+        return itinerary;
+    }
+
+    /**
+     * The check on contents reads the ids of both the referred POI and the referred itinerary, so the content
+     * refers to both.
+     */
+    private static AbstractContent content(AbstractPOI poi, AbstractItinerary itinerary, Contributor author, String text) {
+        AbstractContent content = new AuthorizedContent(poi, text, author, ContentType.DESCRIPTION, text);
+        content.setReferredItinerary(itinerary);
+        return content;
+    }
+
+    private static ContributionContest contest(Municipality municipality, Contributor author,
+                                               AbstractItinerary itinerary, AbstractPOI poi) {
+        return new ContributionContest("Contest", "Description", InvitationType.PUBLIC, 2, ContestType.PHOTO_CONTEST,
+                author, List.of(itinerary), List.of(poi), municipality);
+    }
+
+    @Benchmark
+    public boolean isPOISimilarToPoiList() {
+        return MatchingAlgorithms.isPOISimilarToPoiList(this.newPOI, this.pois);
+    }
+
+    /**
+     * This is the lookup of the normalized key that replaces the scan of the POIs.
+     */
+    @Benchmark
+    public boolean poiDuplicateKeyLookup() {
+        return this.poiKeys.contains(MatchingAlgorithms.poiDuplicateKey(this.newPOI));
+    }
+
+    @Benchmark
+    public boolean isItinerarySimilarToItineraryList() {
+        return MatchingAlgorithms.isItinerarySimilarToItineraryList(this.newItinerary, this.itineraries);
+    }
+
+    @Benchmark
+    public boolean isContentSimilarToContentList() {
+        return MatchingAlgorithms.isContentSimilarToContentList(this.newContent, this.contents);
+    }
+
+    @Benchmark
+    public boolean isMunicipalSimilarToMunicipalityList() {
+        return MatchingAlgorithms.isMunicipalSimilarToMunicipalityList(this.newMunicipality, this.municipalities);
+    }
+
+    @Benchmark
+    public boolean isContestSimilarToContestList() {
+        return MatchingAlgorithms.isContestSimilarToContestList(this.newContest, this.contests);
+    }
+
+    @Benchmark
+    public boolean isContributionSimilarToContributionList() {
+        return MatchingAlgorithms.isContributionSimilatrToAContributionList(this.newContribution, this.contributions);
+    }
+}
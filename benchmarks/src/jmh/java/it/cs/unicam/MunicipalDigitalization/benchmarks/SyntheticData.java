@@ -0,0 +1,73 @@
+package it.cs.unicam.MunicipalDigitalization.benchmarks;
+
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class creates the synthetic data used by the benchmarks. All the data is generated from a seed, so two runs
+ * of the same benchmark work on the same territories and elements.
+ */
+final class SyntheticData {
+
+    private SyntheticData() {
+    }
+
+    /**
+     * This method creates the territory of a municipality: a star-shaped polygon around a center, whose vertices
+     * are sorted by angle, like the territories saved by the application, and whose distance from the center
+     * changes between 70% and 100% of the radius, so the border is irregular like a real one.
+     *
+     * @param centerX  the x value of the center
+     * @param centerY  the y value of the center
+     * @param radius   the maximum distance of the vertices from the center
+     * @param vertices the number of vertices
+     * @param random   the source of the noise
+     * @return the vertices of the territory, sorted around the center
+     */
+    static List<Coordinate> territory(double centerX, double centerY, double radius, int vertices, Random random) {
+        List<Coordinate> territory = new ArrayList<>(vertices);
+        for (int i = 0; i < vertices; i++) {
+            double angle = -Math.PI + 2 * Math.PI * i / vertices;
+            double distance = radius * (0.7 + 0.3 * random.nextDouble());
+            territory.add(new Coordinate(centerX + distance * Math.cos(angle), centerY + distance * Math.sin(angle)));
+        }
+        return territory;
+    }
+
+    /**
+     * This method returns a copy of a list of coordinates in a random order.
+     *
+     * @param coordinates the coordinates to shuffle
+     * @param random      the source of the order
+     * @return the shuffled copy
+     */
+    static List<Coordinate> shuffled(List<Coordinate> coordinates, Random random) {
+        List<Coordinate> copy = new ArrayList<>(coordinates);
+        Collections.shuffle(copy, random);
+        return copy;
+    }
+
+    /**
+     * This method creates random points in the box around a circle, so that most of them fall inside a territory
+     * created with the same center and radius and the others fall outside of it.
+     *
+     * @param centerX the x value of the center
+     * @param centerY the y value of the center
+     * @param radius  the radius of the circle
+     * @param count   the number of points
+     * @param random  the source of the points
+     * @return the points
+     */
+    static Coordinate[] points(double centerX, double centerY, double radius, int count, Random random) {
+        Coordinate[] points = new Coordinate[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = new Coordinate(centerX + radius * (2 * random.nextDouble() - 1),
+                    centerY + radius * (2 * random.nextDouble() - 1));
+        }
+        return points;
+    }
+}
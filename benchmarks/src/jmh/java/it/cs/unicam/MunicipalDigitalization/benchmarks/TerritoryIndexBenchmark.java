@@ -0,0 +1,119 @@
+package it.cs.unicam.MunicipalDigitalization.benchmarks;
+
+import it.cs.unicam.MunicipalDigitalization.api.model.Municipality;
+import it.cs.unicam.MunicipalDigitalization.api.util.Coordinate;
+import it.cs.unicam.MunicipalDigitalization.api.util.Spatial.Polygon;
+import it.cs.unicam.MunicipalDigitalization.api.util.Spatial.STRTree;
+import it.cs.unicam.MunicipalDigitalization.db.Repository.MunicipalRepository;
+import it.cs.unicam.MunicipalDigitalization.db.Services.Indexes.MunicipalityTerritoryIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the checks that involve all the municipalities: finding the municipality that contains a
+ * coordinate, and checking if a new territory overlaps the saved ones. Every check is run both with the
+ * STR-packed R-tree and with a scan of all the territories, which is what the application did before the index.
+ * The municipalities are placed on a square grid, with their centers two radii apart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerritoryIndexBenchmark {
+
+    private static final int POINTS = 1024;
+
+    @Param({"10", "100", "1000"})
+    private int municipalities;
+
+    @Param({"10", "1000"})
+    private int vertices;
+
+    private List<Polygon> polygons;
+    private STRTree<Polygon> tree;
+    private MunicipalityTerritoryIndex territoryIndex;
+    private Polygon newTerritory;
+    private Coordinate[] points;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int side = (int) Math.ceil(Math.sqrt(this.municipalities));
+        List<Municipality> saved = new ArrayList<>(this.municipalities);
+        this.polygons = new ArrayList<>(this.municipalities);
+        List<STRTree.Entry<Polygon>> entries = new ArrayList<>(this.municipalities);
+        for (int i = 0; i < this.municipalities; i++) {
+            List<Coordinate> territory = SyntheticData.territory(2 * (i % side), 2 * (i / side), 1, this.vertices, random);
+            Municipality municipality = new Municipality(territory, "Municipality " + i);
+            municipality.setId((long) i + 1);
+            saved.add(municipality);
+            Polygon polygon = Polygon.of(territory);
+            this.polygons.add(polygon);
+            entries.add(new STRTree.Entry<>(polygon.getBounds(), polygon));
+        }
+        this.tree = new STRTree<>(entries);
+        this.territoryIndex = new MunicipalityTerritoryIndex(repositoryOf(saved), new StandardEnvironment());
+        this.territoryIndex.rebuild();
+        this.newTerritory = Polygon.of(SyntheticData.territory(side - 1, side - 1, 1, this.vertices, random));
+        this.points = SyntheticData.points(side - 1, side - 1, side, POINTS, random);
+    }
+
+    private Coordinate nextPoint() {
+        return this.points[this.next++ & (POINTS - 1)];
+    }
+
+    @Benchmark
+    public Optional<Long> findMunicipalityIndexed() {
+        Coordinate point = nextPoint();
+        return this.territoryIndex.findMunicipalityAt(point.getX(), point.getY());
+    }
+
+    @Benchmark
+    public Polygon findMunicipalityScan() {
+        Coordinate point = nextPoint();
+        for (Polygon polygon : this.polygons) {
+            if (polygon.contains(point.getX(), point.getY())) return polygon;
+        }
+        return null;
+    }
+
+    /**
+     * This is the check done when a municipality is saved, with the candidates taken from the tree.
+     */
+    @Benchmark
+    public boolean overlapsIndexed() {
+        for (Polygon polygon : this.tree.search(this.newTerritory.getBounds())) {
+            if (this.newTerritory.overlaps(polygon)) return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean overlapsScan() {
+        for (Polygon polygon : this.polygons) {
+            if (this.newTerritory.overlaps(polygon)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * This method returns a repository that only answers the query used to build the territory index.
+     */
+    private static MunicipalRepository repositoryOf(List<Municipality> municipalities) {
+        return (MunicipalRepository) Proxy.newProxyInstance(MunicipalRepository.class.getClassLoader(),
+                new Class<?>[]{MunicipalRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAllWithTerritory")) return municipalities;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}